@@ -0,0 +1,112 @@
+package com.vertexclique.cekic
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.Semaphore
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.util.control.NonFatal
+
+/**
+ * A single output file of a generated system.
+ *
+ * @param file  path of the file
+ * @param write writes the file
+ */
+case class Artifact(file: String, write: () => Unit)
+
+object ArtifactWriter {
+  val Xml = "xml"
+  val Json = "json"
+  val Csv = "csv"
+  val Pdf = "pdf"
+  val Svg = "svg"
+
+  val formats: Seq[String] = Seq(Xml, Json, Csv, Pdf, Svg)
+  // svg duplicates the pdf and is only written on request
+  val defaultFormats: Set[String] = Set(Xml, Json, Csv, Pdf)
+}
+
+/**
+ * Writes the artifacts of generated systems.
+ *
+ * Without writer threads the artifacts are written on the calling thread. Otherwise the artifacts of each system are
+ * handed to the writer threads through a bounded queue, so the generation of the next system overlaps with writing
+ * the previous one. Once `queueSize` systems wait for a writer, `submit` blocks until one is written, which keeps
+ * generation from running ahead of slow disks (and from holding many system models in memory).
+ *
+ * A failing artifact is logged and does not keep the other artifacts of the system from being written.
+ *
+ * @param threads   amount of writer threads, 0 writes on the calling thread
+ * @param queueSize amount of systems that may wait for a writer thread
+ */
+class ArtifactWriter(threads: Int, queueSize: Int) {
+  require(threads >= 0, "threads must not be negative")
+  require(queueSize > 0, "queueSize must be at least 1")
+
+  // systems being written or waiting for a writer thread
+  private val permits = new Semaphore(threads + queueSize)
+  private val failures = new AtomicInteger
+
+  private val executor: Option[ExecutorService] =
+    if (threads > 0) Some(Executors.newFixedThreadPool(threads, new ThreadFactory {
+      private val count = new AtomicInteger
+
+      override def newThread(r: Runnable): Thread = {
+        val thread = new Thread(r, s"artifact-writer-${count.incrementAndGet()}")
+        thread.setDaemon(true)
+        thread
+      }
+    }))
+    else None
+
+  /**
+   * Writes the artifacts of a system, blocking while the queue is full.
+   * The system model the artifacts are written from must not be changed afterwards.
+   */
+  def submit(artifacts: Seq[Artifact]): Unit = executor match {
+    case None => writeAll(artifacts)
+    case Some(pool) =>
+      permits.acquire()
+      try {
+        pool.execute(new Runnable {
+          override def run(): Unit = try writeAll(artifacts) finally permits.release()
+        })
+      } catch {
+        case e: RejectedExecutionException =>
+          permits.release()
+          throw e
+      }
+  }
+
+  /**
+   * Waits until all submitted artifacts are written and stops the writer threads.
+   *
+   * @return the amount of artifacts which could not be written
+   */
+  def close(): Int = {
+    executor.foreach { pool =>
+      pool.shutdown()
+      while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+        Main.log.info("Waiting for artifacts to be written...")
+      }
+    }
+    if (failures.get > 0) {
+      Main.log.error(s"${failures.get} artifacts could not be written")
+    }
+    failures.get
+  }
+
+  private def writeAll(artifacts: Seq[Artifact]): Unit = artifacts.foreach { artifact =>
+    try {
+      artifact.write()
+    } catch {
+      case NonFatal(e) =>
+        failures.incrementAndGet()
+        Main.log.error(s"Error writing ${artifact.file}", e)
+    }
+  }
+}
@@ -3,14 +3,20 @@ package com.vertexclique.cekic
 import java.io.File
 
 import buildinfo.BuildInfo
+import com.vertexclique.cekic.runnablesys.RpmProfile
 
 case class Config(
   automotiveApp: Boolean = false,
   osekApp: Boolean = true,
   outputPath: File = new File("build"),
   outputFileName: String = "system.xml",
+  prettyJson: Boolean = true, // indent the json output by default
   systemCount: Int = 1, // generate only one system by default
   appCount: Int = 1,
+  parallelism: Int = 1, // generate systems sequentially by default
+  formats: Set[String] = ArtifactWriter.defaultFormats,
+  writerThreads: Int = 0, // write the artifacts on the generating thread by default
+  writerQueue: Int = 4,
   // System generation parameters
   seed: Int = 0,
   processorCount: Int = 5,
@@ -30,6 +36,8 @@ case class Config(
   // Runnable specific config
   maxRpm: Double = 7000,
   cylinders: Int = 8,
+  rpmProfile: String = RpmProfile.Triangle,
+  driveCycle: Option[File] = None, // overrides rpmProfile
 )
 
 object ConfigParser {
@@ -53,12 +61,33 @@ object ConfigParser {
     opt[String]('f', "fout") action { (x, c) =>
       c.copy(outputFileName = x) } text "fout is the generic name of the test cases"
 
+    opt[Unit]("compactJson") action { (_, c) =>
+      c.copy(prettyJson = false) } text "compactJson writes the json output without indentation"
+
     opt[Int]('a', "sysCount") action { (x, c) =>
       c.copy(systemCount = x) } text "a is the count of the systems that will be generated from the specification"
 
     opt[Int]('k', "appCount") action { (x, c) =>
       c.copy(appCount = x) } text "k is the amount of the application that will be generated for the system"
 
+    opt[Int]('j', "parallelism") action { (x, c) =>
+      c.copy(parallelism = x) } validate { x =>
+      if (x > 0) success else failure("parallelism must be at least 1") } text "j is the amount of the systems that will be generated concurrently"
+
+    opt[Seq[String]]("formats") valueName "xml,json,csv,pdf" action { (x, c) =>
+      c.copy(formats = x.map(_.trim.toLowerCase).toSet) } validate { x =>
+      val unknown = x.map(_.trim.toLowerCase).filterNot(ArtifactWriter.formats.contains)
+      if (unknown.isEmpty) success else failure(s"unknown formats ${unknown.mkString(", ")}, formats must be among ${ArtifactWriter.formats.mkString(", ")}")
+    } text "formats are the artifacts that will be written for each system (xml, json, csv, pdf, svg), csv only for automotive applications"
+
+    opt[Int]("writers") action { (x, c) =>
+      c.copy(writerThreads = x) } validate { x =>
+      if (x >= 0) success else failure("writers must not be negative") } text "writers is the amount of threads that write the artifacts while the next systems are generated, 0 writes them on the generating thread"
+
+    opt[Int]("writeQueue") action { (x, c) =>
+      c.copy(writerQueue = x) } validate { x =>
+      if (x > 0) success else failure("writeQueue must be at least 1") } text "writeQueue is the amount of systems that may wait for a writer before generation blocks"
+
     // System generation parameters
 
     opt[Int]('s', "seed") action { (x, c) =>
@@ -109,5 +138,13 @@ object ConfigParser {
     opt[Int]("cyl") action { (x, c) =>
       c.copy(cylinders = x) } text "cyl is engine cylinder count"
 
+    opt[String]("rpmProfile") action { (x, c) =>
+      c.copy(rpmProfile = x) } validate { x =>
+      if (RpmProfile.names.contains(x)) success else failure(s"rpmProfile must be one of ${RpmProfile.names.mkString(", ")}")
+    } text "rpmProfile is the engine speed profile of the runnables (triangle or sawtooth)"
+
+    opt[File]("driveCycle") valueName "<file>" action { (x, c) =>
+      c.copy(driveCycle = Some(x)) } text "driveCycle is a recorded drive cycle with one rpm value per line, replaces rpmProfile"
+
   }
 }
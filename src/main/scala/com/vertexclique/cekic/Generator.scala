@@ -1,13 +1,14 @@
 package com.vertexclique.cekic
 
 import java.io.File
-import java.io.IOException
-import java.io.PrintWriter
+import java.util.concurrent.ForkJoinPool
 
+import com.vertexclique.cekic.runnablesys.RpmProfile
 import com.vertexclique.cekic.runnablesys.RunnableSystemGenerator
+import org.tubs.epoc.SMFF.ImportExport.JSON.JsonModelSaver
 import org.tubs.epoc.SMFF.ImportExport.Pdf.PdfPrinter
 import org.tubs.epoc.SMFF.ImportExport.XML.ModelLoader
-import org.tubs.epoc.SMFF.ImportExport.XML.ModelSaver
+import org.tubs.epoc.SMFF.ImportExport.XML.StreamingModelSaver
 import org.tubs.epoc.SMFF.ModelElements.SystemModel
 import org.tubs.epoc.SMFF.SystemFactories.ApplicationFactories.Implementations.TaskChainApplicationFactory.TaskChainApplicationFactory
 import org.tubs.epoc.SMFF.SystemFactories.ApplicationFactories.Implementations.TaskChainApplicationFactory.TaskChainApplicationFactoryData
@@ -21,24 +22,53 @@ import org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.Implement
 import org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.Implementations.TaskChainPriorityAssigner.TaskChainPriorityAssignerData
 import org.tubs.epoc.SMFF.SystemFactories.TimingFactories.Implementations.UUniFast.UUniFastTimingFactory
 import org.tubs.epoc.SMFF.SystemFactories.TimingFactories.Implementations.UUniFast.UUniFastTimingFactoryData
-import org.json4s.Xml._
-import org.json4s._
-import org.json4s.JsonDSL._
-import org.json4s.jackson.JsonMethods._
 
-import scala.xml.XML
+import scala.collection.parallel.ForkJoinTaskSupport
 
 object Generator {
 
-  def generateMultipleSystems(config: Config) = {
-    (1 to config.systemCount).foreach { x =>
-      var systemModel = new SystemModel
-      val rc = config.copy(seed = config.seed + (x - 1))
-      generate(x, rc, systemModel)
+  /** Generates all systems of the configuration and returns the number of artifacts that could not be written. */
+  def generateMultipleSystems(config: Config): Int = {
+    val systemIndices = 1 to config.systemCount
+    // the rpm profile does not depend on the seed, all systems share it
+    val rpmProfile = if (config.automotiveApp) Some(RpmProfile(config)) else None
+    val writer = new ArtifactWriter(config.writerThreads, config.writerQueue)
+
+    var failures = 0
+    try {
+      if (config.parallelism > 1) {
+        // every system is seeded on its own and shares no state with the others,
+        // so they can be generated (and written out) independently
+        val pool = new ForkJoinPool(config.parallelism)
+        try {
+          val parSystemIndices = systemIndices.par
+          parSystemIndices.tasksupport = new ForkJoinTaskSupport(pool)
+          parSystemIndices.foreach(generateSystem(config, _, rpmProfile, writer))
+        } finally {
+          pool.shutdown()
+        }
+      } else {
+        systemIndices.foreach(generateSystem(config, _, rpmProfile, writer))
+      }
+    } finally {
+      // waits for all writers, also if the generation failed
+      failures = writer.close()
     }
+    failures
+  }
+
+  private def generateSystem(config: Config, systemIndex: Int, rpmProfile: Option[RpmProfile], writer: ArtifactWriter) = {
+    val systemModel = new SystemModel
+    val rc = config.copy(seed = config.seed + (systemIndex - 1))
+    generate(systemIndex, rc, systemModel, writer, rpmProfile)
   }
 
-  def generate(systemIndex: Int, config: Config, systemModel: SystemModel) = {
+  /**
+   * Generates one system and hands its artifacts to the writer. The caller closes the writer, which returns the
+   * number of artifacts that could not be written.
+   */
+  def generate(systemIndex: Int, config: Config, systemModel: SystemModel, writer: ArtifactWriter,
+               rpmProfile: Option[RpmProfile] = None) = {
     config.outputPath.mkdirs()
 
     val rc = (config.automotiveApp, config.osekApp) match {
@@ -138,35 +168,55 @@ object Generator {
     // END OF TESTCASE GENERATION
 
     //-----------------------------
-    // WRITE THE TESTCASE TO A FILE
+    // WRITE THE TESTCASE TO FILES
     //-----------------------------
-    try {
-      val f = new File(rc.outputPath, rc.outputFileName)
-      val fSystem = s"${f.getPath}-$systemIndex.xml"
-      val fSystemJson = s"${f.getPath}-$systemIndex.json"
-      val fGraph = s"${f.getPath}-$systemIndex.pdf"
+    // the system model is not touched anymore, so the writer may serialize it on another thread
+    writer.submit(artifacts(systemIndex, config, rc, systemModel, rpmProfile))
+  }
 
-      // save the model to an XML file
-      new ModelSaver(fSystem).saveModel(systemModel)
+  /**
+   * The artifacts of the enabled formats for a generated system.
+   */
+  private def artifacts(systemIndex: Int, config: Config, rc: Config, systemModel: SystemModel,
+                        rpmProfile: Option[RpmProfile]): Seq[Artifact] = {
+    val f = new File(rc.outputPath, rc.outputFileName)
+    val formats = rc.formats
+    val artifacts = Seq.newBuilder[Artifact]
+
+    // save the model to an XML file
+    if (formats.contains(ArtifactWriter.Xml)) {
+      val fSystem = s"${f.getPath}-$systemIndex.xml"
+      artifacts += Artifact(fSystem, () => new StreamingModelSaver(fSystem).saveModel(systemModel))
+    }
 
-      val xmlData = XML.loadFile(fSystem)
-      new PrintWriter(fSystemJson) { write(pretty(render(toJson(xmlData)))); close }
-      // val loadedModel = new ModelLoader(fSystem).generateSystem
+    // save the model to a JSON file
+    if (formats.contains(ArtifactWriter.Json)) {
+      val fSystemJson = s"${f.getPath}-$systemIndex.json"
+      artifacts += Artifact(fSystemJson, () => new JsonModelSaver(fSystemJson, rc.prettyJson).saveModel(systemModel))
+    }
 
-      // Generate runnable mappings ifof automotive app generation selected
-      if (config.automotiveApp) {
-        val fRunnablesCsv = s"${f.getPath}-$systemIndex-runnables.csv"
-        val runnables = RunnableSystemGenerator.generateRunnables(config, systemModel)
+    // Generate runnable mappings ifof automotive app generation selected
+    if (config.automotiveApp && formats.contains(ArtifactWriter.Csv)) {
+      val fRunnablesCsv = s"${f.getPath}-$systemIndex-runnables.csv"
+      artifacts += Artifact(fRunnablesCsv, { () =>
+        val runnables = RunnableSystemGenerator.generateRunnables(config, systemModel,
+          rpmProfile.getOrElse(RpmProfile(config)))
         RunnableSystemGenerator.writeRunnables(runnables, fRunnablesCsv)
-      }
+      })
+    }
 
-      //-------------------------------------
-      // PRINT THE SYSTEM MODEL AS PDF
-      //-------------------------------------
-      PdfPrinter.convertToPdf(systemModel, fGraph)
-    } catch {
-      case e: IOException =>
-        e.printStackTrace()
+    //-------------------------------------
+    // PRINT THE SYSTEM MODEL AS PDF/SVG
+    //-------------------------------------
+    if (formats.contains(ArtifactWriter.Pdf)) {
+      val fGraph = s"${f.getPath}-$systemIndex.pdf"
+      artifacts += Artifact(fGraph, () => PdfPrinter.convertToPdf(systemModel, fGraph))
     }
+    if (formats.contains(ArtifactWriter.Svg)) {
+      val fGraphSvg = s"${f.getPath}-$systemIndex.svg"
+      artifacts += Artifact(fGraphSvg, () => PdfPrinter.convertToSvg(systemModel, fGraphSvg))
+    }
+
+    artifacts.result()
   }
 }
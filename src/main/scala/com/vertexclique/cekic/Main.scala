@@ -14,7 +14,10 @@ object Main {
     ConfigParser.parser.parse(args, Config()) map { config =>
       log.info("Initializing system model...")
       // do stuff
-      Generator.generateMultipleSystems(config)
+      if (Generator.generateMultipleSystems(config) > 0) {
+        // the failed artifacts have been logged by the writer
+        sys.exit(1)
+      }
     } getOrElse {
       // arguments are bad, usage message will have been displayed
       log.error("Bad arguments... Please check usage.")
@@ -0,0 +1,146 @@
+package com.vertexclique.cekic.runnablesys
+
+import java.io.File
+
+import com.vertexclique.cekic.Config
+
+import scala.io.Source
+
+/**
+ * Engine speed over the runnables of an application.
+ * The k-th runnable of an application gets `rpm(k)`, angle synchronous (sporadic)
+ * runnables derive their period from it. Profiles repeat after `length` runnables
+ * and calculate their values arithmetically, memory use does not depend on the rpm range.
+ */
+trait RpmProfile {
+  /**
+   * @return count of runnables after which the profile repeats
+   */
+  def length: Int
+
+  /**
+   * @param k index of the runnable within its application
+   * @return rpm of the k-th runnable
+   */
+  def rpm(k: Int): Double
+
+  /**
+   * @param k index of the runnable within its application
+   * @param cylinders engine cylinder count
+   * @return period of a sporadic runnable at the rpm of the k-th runnable in microseconds
+   */
+  def sporadicPeriod(k: Int, cylinders: Int): Int =
+    RunnableSystemGenerator.calculateSporadicPeriod(rpm(k), cylinders)
+}
+
+object RpmProfile {
+  val minRpm = 600D
+
+  val Triangle = "triangle"
+  val Sawtooth = "sawtooth"
+  val names = Seq(Triangle, Sawtooth)
+
+  /**
+   * Creates the profile selected in the config, a drive cycle takes precedence over the named profiles.
+   *
+   * @param config
+   * @return
+   */
+  def apply(config: Config): RpmProfile = config.driveCycle match {
+    case Some(file) => DriveCycleProfile.load(file)
+    case None => config.rpmProfile match {
+      case Triangle => new TriangleProfile(minRpm, config.maxRpm)
+      case Sawtooth => new SawtoothProfile(minRpm, config.maxRpm)
+      case name => throw new IllegalArgumentException(s"unknown rpm profile $name")
+    }
+  }
+
+  /**
+   * @return `base + steps` with the rounding of a decimal calculation as done by `Range.BigDecimal`
+   */
+  private[runnablesys] def offset(base: Double, steps: Int): Double = {
+    if (base.isWhole) base + steps // exact for all rpm values
+    else (BigDecimal.decimal(base) + steps).toDouble
+  }
+
+  /**
+   * @return count of the values of `Range.BigDecimal(start, end, step)` for a step of 1 or -1
+   */
+  private[runnablesys] def count(start: Double, end: Double, step: Int): Int = {
+    val span = (BigDecimal.decimal(end) - BigDecimal.decimal(start)) * step
+    if (span <= 0) 0 else span.setScale(0, BigDecimal.RoundingMode.CEILING).toIntExact
+  }
+}
+
+/**
+ * Rpm goes up from `minRpm` to `maxRpm` in steps of one and back down to `minRpm`.
+ * It yields the same values as the sequences
+ * `Range.BigDecimal(minRpm, maxRpm, 1D) ++ Range.BigDecimal(maxRpm, minRpm-1, -1D)`.
+ *
+ * @param minRpm
+ * @param maxRpm
+ */
+class TriangleProfile(minRpm: Double, maxRpm: Double) extends RpmProfile {
+  private val up = RpmProfile.count(minRpm, maxRpm, 1)
+  private val down = RpmProfile.count(maxRpm, minRpm - 1, -1)
+
+  require(up + down > 0, s"rpm range from $minRpm to $maxRpm is empty")
+
+  val length: Int = up + down
+
+  def rpm(k: Int): Double = {
+    val i = k % length
+    if (i < up) RpmProfile.offset(minRpm, i) else RpmProfile.offset(maxRpm, -(i - up))
+  }
+}
+
+/**
+ * Rpm goes up from `minRpm` to `maxRpm` in steps of one and drops back to `minRpm`.
+ *
+ * @param minRpm
+ * @param maxRpm
+ */
+class SawtoothProfile(minRpm: Double, maxRpm: Double) extends RpmProfile {
+  require(minRpm <= maxRpm, s"rpm range from $minRpm to $maxRpm is empty")
+
+  val length: Int =
+    (BigDecimal.decimal(maxRpm) - BigDecimal.decimal(minRpm)).setScale(0, BigDecimal.RoundingMode.FLOOR).toIntExact + 1
+
+  def rpm(k: Int): Double = RpmProfile.offset(minRpm, k % length)
+}
+
+/**
+ * Recorded drive cycle, the rpm samples are replayed one sample per runnable.
+ *
+ * @param samples rpm samples
+ */
+class DriveCycleProfile(samples: Array[Double]) extends RpmProfile {
+  require(samples.nonEmpty, "drive cycle has no samples")
+
+  val length: Int = samples.length
+
+  def rpm(k: Int): Double = samples(k % length)
+}
+
+object DriveCycleProfile {
+  /**
+   * Loads a drive cycle with one rpm sample per line. Only the first column of comma separated
+   * lines is read, empty lines and lines starting with `#` are skipped.
+   *
+   * @param file
+   * @return
+   */
+  def load(file: File): DriveCycleProfile = {
+    val source = Source.fromFile(file)
+    try {
+      val samples = source.getLines()
+        .map(_.trim)
+        .filterNot(line => line.isEmpty || line.startsWith("#"))
+        .map(_.split(',')(0).trim.toDouble)
+        .toArray
+      new DriveCycleProfile(samples)
+    } finally {
+      source.close()
+    }
+  }
+}
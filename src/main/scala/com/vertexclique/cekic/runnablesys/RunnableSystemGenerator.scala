@@ -3,11 +3,11 @@ package com.vertexclique.cekic.runnablesys
 import com.vertexclique.cekic.Config
 import com.vertexclique.cekic.models.RunnableBare
 import com.vertexclique.cekic.runnablesys.RunnableTimings._
-import org.json4s._
 import org.tubs.epoc.SMFF.ModelElements.Application.Task
 import org.tubs.epoc.SMFF.ModelElements.SystemModel
 
 import scala.collection.JavaConverters._
+import scala.collection.mutable.ArrayBuffer
 import purecsv.safe._
 
 
@@ -36,64 +36,17 @@ object RunnableSystemGenerator {
   def generateRunnables(
     config: Config,
     systemModel: SystemModel
-  ): Iterable[RunnableBare] = {
-    systemModel.getApplications.asScala.flatMap { app =>
-      val taskList = new java.util.HashMap[String, Task](app.getTaskList).asScala
-      val r = new scala.util.Random(config.seed)
-      val runnableAmount = Helpers.getBetween(1000, 1500, r).toInt
-      //      val pd = runnablePeriodDistribution.mapValues(_ * (runnableAmount / 100))
-
-      val runnablePerTask = math.ceil(runnableAmount / taskList.size).toInt
-
-      val runnables = taskList.flatMap { case (taskuuid, task) =>
-        // Initialize randomness of the runnable wcet and bcets
-
-        val taskWCET: Int = task.getWCET
-        val taskBCET: Int = task.getBCET
-
-        val taskRunnableAmount =
-          runnablePeriodDistribution.mapValues(x => math.ceil(x * (runnablePerTask.toDouble / 100)).toInt)
-
-        taskRunnableAmount.flatMap { case (duration, runAmount) =>
-          (1 to runAmount).map { runId =>
-            val runnableBCETWCET = calculateRunnableBCETWCET(config.seed + runId)
-
-            val runnableId = if (duration == 0) {
-              s"R_AngleSync_${runId}"
-            }
-            else { s"R_${duration}us_${runId}" }
-
-            val trigger: String = if (duration == 0) "sporadic" else "periodic"
-
-            RunnableBare(
-              id = runnableId,
-              appId = app.getAppId,
-              taskId = taskuuid,
-              taskPriority = task.getPrio,
-              coreId = task.getMappedTo.getResId,
-              wcet = runnableBCETWCET.get(duration).head._2,
-              bcet = runnableBCETWCET.get(duration).head._1,
-              rpm = 0,
-              period = duration,
-              triggerType = trigger,
-              bcetPercentage = config.bcetPercentage
-            )
-          }
-        }
-      }
+  ): Iterable[RunnableBare] = generateRunnables(config, systemModel, RpmProfile(config))
 
-      // Sporadic task assignment
-      val minRpm = 600D
-      val rpms: Seq[BigDecimal] = Range.BigDecimal(minRpm, config.maxRpm, 1D) ++ Range.BigDecimal(config.maxRpm, minRpm-1, -1D)
-      val rpmWave = Stream.continually(rpms.toStream).flatten
-
-      (runnables zip rpmWave).map { case (runnable, givenRpm) =>
-        val genPeriod = if (runnable.period == 0) { calculateSporadicPeriod(givenRpm.toDouble, config.cylinders) } else runnable.period
-        runnable.copy(
-          period = genPeriod,
-          rpm = givenRpm.toDouble)
-      }
-    }
+  def generateRunnables(
+    config: Config,
+    systemModel: SystemModel,
+    rpmProfile: RpmProfile
+  ): Iterable[RunnableBare] = {
+    buildRunnables(config, systemModel, rpmProfile, { (runnableAmount, taskCount) =>
+      val runnablePerTask = math.ceil(runnableAmount / taskCount).toInt
+      shares.map(x => math.ceil(x * (runnablePerTask.toDouble / 100)).toInt)
+    })
   }
 
   /**
@@ -105,62 +58,86 @@ object RunnableSystemGenerator {
   def generateRunnablesWithInternalTaskMapping(
     config: Config,
     systemModel: SystemModel
-  ): Iterable[RunnableBare] = {
-    systemModel.getApplications.asScala.flatMap { app =>
-      val taskList = new java.util.HashMap[String, Task](app.getTaskList).asScala
-      val r = new scala.util.Random(config.seed)
-      val runnableAmount = Helpers.getBetween(1000, 1500, r).toInt
-      val pd = runnablePeriodDistribution.mapValues(_ * (runnableAmount / 100))
+  ): Iterable[RunnableBare] = generateRunnablesWithInternalTaskMapping(config, systemModel, RpmProfile(config))
 
-      val runnablePerTask = (runnableAmount / taskList.size)
-
-      val runnables = taskList.flatMap { case (taskuuid, task) =>
-        // Initialize randomness of the runnable wcet and bcets
-
-        val taskWCET: Int = task.getWCET
-        val taskBCET: Int = task.getBCET
+  def generateRunnablesWithInternalTaskMapping(
+    config: Config,
+    systemModel: SystemModel,
+    rpmProfile: RpmProfile
+  ): Iterable[RunnableBare] = {
+    buildRunnables(config, systemModel, rpmProfile, { (runnableAmount, taskCount) =>
+      val runnablePerTask = (runnableAmount / taskCount)
+      shares.map(x => runnablePerTask * (x * (runnableAmount / 100)) / 100)
+    })
+  }
 
-        val taskRunnableAmount = pd.mapValues(runnablePerTask * _ / 100)
+  // runnable durations and their period shares in the iteration order of runnablePeriodDistribution
+  private val durations: Array[Int] = runnablePeriodDistribution.keys.toArray
+  private val shares: Array[Int] = durations.map(runnablePeriodDistribution(_))
 
-        taskRunnableAmount.flatMap { case (duration, runAmount) =>
-          (1 to runAmount).map { runId =>
-            val runnableBCETWCET = calculateRunnableBCETWCET(config.seed + runId)
+  /**
+   * Generates the runnables of all tasks, task by task and duration by duration.
+   * The k-th runnable of an application gets the rpm of the k-th step of the rpm profile,
+   * sporadic runnables take their period from it.
+   *
+   * @param config
+   * @param systemModel
+   * @param rpmProfile
+   * @param runAmounts runnables per task for each duration, given the runnable amount and the task count of an app
+   * @return
+   */
+  private def buildRunnables(
+    config: Config,
+    systemModel: SystemModel,
+    rpmProfile: RpmProfile,
+    runAmounts: (Int, Int) => Array[Int]
+  ): Iterable[RunnableBare] = {
+    val timings = new RunnableTimingTable(config.seed, durations)
+    val runnableIds = Array.fill(durations.length)(new ArrayBuffer[String]())
 
-            val runnableId = if (duration == 0) {
-              s"R_AngleSync_${runId}"
+    val runnables = new ArrayBuffer[RunnableBare]()
+    systemModel.getApplications.asScala.foreach { app =>
+      val taskList = new java.util.HashMap[String, Task](app.getTaskList).asScala
+      val r = new scala.util.Random(config.seed)
+      val runnableAmount = Helpers.getBetween(1000, 1500, r).toInt
+      val taskRunnableAmount = runAmounts(runnableAmount, taskList.size)
+
+      var k = 0
+      taskList.foreach { case (taskuuid, task) =>
+        val taskPriority = task.getPrio
+        val coreId = task.getMappedTo.getResId
+
+        var column = 0
+        while (column < durations.length) {
+          val duration = durations(column)
+          val ids = runnableIds(column)
+          var runId = 1
+          while (runId <= taskRunnableAmount(column)) {
+            if (ids.length < runId) {
+              ids += (if (duration == 0) s"R_AngleSync_${runId}" else s"R_${duration}us_${runId}")
             }
-            else { s"R_${duration}us_${runId}" }
-
-            val trigger: String = if (duration == 0) "sporadic" else "periodic"
 
-            RunnableBare(
-              id = runnableId,
+            runnables += RunnableBare(
+              id = ids(runId - 1),
               appId = app.getAppId,
               taskId = taskuuid,
-              taskPriority = task.getPrio,
-              coreId = task.getMappedTo.getResId,
-              wcet = runnableBCETWCET.get(duration).head._2,
-              bcet = runnableBCETWCET.get(duration).head._1,
-              rpm = 0,
-              period = duration,
-              triggerType = trigger,
+              taskPriority = taskPriority,
+              coreId = coreId,
+              wcet = timings.wcet(runId, column),
+              bcet = timings.bcet(runId, column),
+              rpm = rpmProfile.rpm(k),
+              period = if (duration == 0) rpmProfile.sporadicPeriod(k, config.cylinders) else duration,
+              triggerType = if (duration == 0) "sporadic" else "periodic",
               bcetPercentage = config.bcetPercentage
             )
+
+            k += 1
+            runId += 1
           }
+          column += 1
         }
       }
-
-      // Sporadic task assignment
-      val minRpm = 600D
-      val rpms: Seq[BigDecimal] = Range.BigDecimal(minRpm, config.maxRpm, 1D) ++ Range.BigDecimal(config.maxRpm, minRpm-1, -1D)
-      val rpmWave = Stream.continually(rpms.toStream).flatten
-
-      (runnables zip rpmWave).map { case (runnable, givenRpm) =>
-        val genPeriod = if (runnable.period == 0) { calculateSporadicPeriod(givenRpm.toDouble, config.cylinders) } else runnable.period
-        runnable.copy(
-          period = genPeriod,
-          rpm = givenRpm.toDouble)
-      }
     }
+    runnables
   }
 }
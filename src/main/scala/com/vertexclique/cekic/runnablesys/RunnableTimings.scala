@@ -97,4 +97,37 @@ object RunnableTimings {
       duration -> (generatedBCET, generatedWCET)
     }
   }
+
+  /**
+   * Runnable BCET/WCET values of [[calculateRunnableBCETWCET]] for consecutive seeds, kept in primitive arrays.
+   * Row `runId` holds the values of `calculateRunnableBCETWCET(seed + runId)` in the order of `durations`.
+   * Rows are calculated on first use, so every row is drawn once no matter how many runnables share it.
+   *
+   * @param seed base seed, the seed of a row is `seed + runId`
+   * @param durations runnable durations of the columns
+   */
+  class RunnableTimingTable(seed: Int, durations: Array[Int]) {
+    private var bcets = new Array[Array[Double]](0)
+    private var wcets = new Array[Array[Double]](0)
+
+    def bcet(runId: Int, column: Int): Double = row(runId)(column)
+
+    def wcet(runId: Int, column: Int): Double = {
+      row(runId)
+      wcets(runId)(column)
+    }
+
+    private def row(runId: Int): Array[Double] = {
+      if (runId >= bcets.length) {
+        bcets = java.util.Arrays.copyOf(bcets, math.max(runId + 1, 2 * bcets.length))
+        wcets = java.util.Arrays.copyOf(wcets, bcets.length)
+      }
+      if (bcets(runId) == null) {
+        val timings = calculateRunnableBCETWCET(seed + runId)
+        bcets(runId) = durations.map(timings(_)._1)
+        wcets(runId) = durations.map(timings(_)._2)
+      }
+      bcets(runId)
+    }
+  }
 }
@@ -0,0 +1,128 @@
+package org.tubs.epoc.SMFF.Analysis;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.tubs.epoc.SMFF.ModelElements.Application.Profile;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.SPPScheduler;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.SchedulingPriority;
+import org.tubs.epoc.SMFF.ModelElements.Timing.PJActivation;
+
+/**
+ * Analysis state of one task or task link. Tasks on processors and task links on communication resources are
+ * scheduled, task links between tasks on the same processor are local and pass their input events on without delay.
+ *
+ */
+class AnalyzedElement {
+  final SchedulableElement schedElem;
+  // event model of the activation pattern (only used without predecessors)
+  final PJdEventModel activation;
+  final List<AnalyzedElement> predecessors = new LinkedList<AnalyzedElement>();
+  final List<AnalyzedElement> successors = new LinkedList<AnalyzedElement>();
+  // position in the topologically ordered element list of the analysis
+  int order;
+
+  // mapping and scheduling parameters as read by the last update
+  AbstractResource resource;
+  boolean scheduled;
+  int priority;
+  int bcet;
+  int wcet;
+  // position in the priority ordered elements of the resource (-1 if not scheduled)
+  int index = -1;
+
+  PJdEventModel input;
+  PJdEventModel output;
+  int bcrt;
+  int wcrt;
+
+  /**
+   * @param schedElem mapped task or task link
+   * @throws IllegalStateException if the element is not mapped, its resource has no SPP scheduler or it has no priority
+   */
+  AnalyzedElement(SchedulableElement schedElem) {
+    this.schedElem = schedElem;
+    update();
+
+    Profile profile = schedElem.getActiveProfile();
+    if (profile != null && profile.getActivationPattern() instanceof PJActivation) {
+      PJActivation pattern = (PJActivation) profile.getActivationPattern();
+      activation = new PJdEventModel(pattern.getActivationPeriod(), pattern.getActivationJitter(), 0);
+    } else {
+      activation = null;
+    }
+
+    bcrt = bcet;
+    wcrt = bcet;
+  }
+
+  /**
+   * Reads the mapping, priority and execution times of the element again.
+   *
+   * @throws IllegalStateException if the element is not mapped, its resource has no SPP scheduler or it has no priority
+   */
+  void update() {
+    resource = schedElem.getMappedTo();
+    if (resource == null) throw new IllegalStateException(schedElem.getUniqueName() + " is not mapped");
+
+    scheduled = (schedElem instanceof Task && resource instanceof Resource)
+        || (schedElem instanceof TaskLink && resource instanceof CommResource);
+    if (scheduled) {
+      if (!(resource.getScheduler() instanceof SPPScheduler)) {
+        throw new IllegalStateException(resource.getUniqueName() + " is not scheduled by an SPP scheduler");
+      }
+      if (!(schedElem.getSchedulingParameter() instanceof SchedulingPriority)) {
+        throw new IllegalStateException(schedElem.getUniqueName() + " has no priority");
+      }
+      priority = ((SchedulingPriority) schedElem.getSchedulingParameter()).getPriority();
+      bcet = schedElem.getBCET();
+      wcet = schedElem.getWCET();
+    } else {
+      priority = -1;
+      bcet = 0;
+      wcet = 0;
+    }
+  }
+
+  /**
+   * Recomputes the output event model from the input event model and the response times.
+   */
+  void updateOutput() {
+    output = input.propagate(wcrt - bcrt, bcet);
+  }
+
+  /**
+   * Derives the input event model from the activation pattern or the outputs of the predecessors. Several predecessors
+   * are joined with AND semantics, assuming equal periods as within SMFF applications.
+   *
+   * @return the input event model
+   */
+  PJdEventModel createInput() {
+    if (predecessors.isEmpty()) {
+      if (activation == null) {
+        throw new IllegalStateException(schedElem.getUniqueName() + " has neither predecessors nor a PJ activation");
+      }
+      return activation;
+    }
+    if (predecessors.size() == 1) {
+      return predecessors.get(0).output;
+    }
+    int period = predecessors.get(0).output.getPeriod();
+    int jitter = 0;
+    for (AnalyzedElement predecessor : predecessors) {
+      jitter = Math.max(jitter, predecessor.output.getJitter());
+    }
+    return new PJdEventModel(period, jitter, 0);
+  }
+
+  @Override
+  public String toString() {
+    return schedElem.getUniqueName();
+  }
+}
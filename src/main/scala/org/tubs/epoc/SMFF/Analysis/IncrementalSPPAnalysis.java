@@ -0,0 +1,242 @@
+package org.tubs.epoc.SMFF.Analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedElemChangeEvent;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedElemChangeListener;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+
+/**
+ * SPP analysis session which keeps the analysis state after a complete {@link #analyze()} and updates the results
+ * after small changes of the system.
+ * <p>
+ * The session listens to the {@link SchedElemChangeEvent}s of all tasks and task links. Priority, scheduling parameter
+ * and mapping changes are collected until {@link #update()} is called, which only analyzes the elements whose results
+ * can depend on the changes: on each affected resource the elements with the same or a lower priority than the changed
+ * ones, and transitively all elements downstream of them together with the lower priority elements on their
+ * resources. These elements restart from their initial values, so the results equal those of a complete analysis even
+ * if response times depend on each other cyclically. Path latencies are updated for the paths containing a reanalyzed
+ * element.
+ * <p>
+ * Changes that do not cause events (e.g. of execution times or activation patterns) require a complete
+ * {@link #analyze()}.
+ *
+ */
+public class IncrementalSPPAnalysis extends SPPAnalysis implements SchedElemChangeListener {
+  private static Log logger = LogFactory.getLog(IncrementalSPPAnalysis.class);
+
+  // elements with changed priority or mapping since the last update
+  private LinkedHashSet<AnalyzedElement> changedElements = new LinkedHashSet<AnalyzedElement>();
+  private int numUpdatedElements;
+  // false if the last analysis or update did not finish and the system must be analyzed completely
+  private boolean consistent;
+
+  /**
+   * @param model system model to analyze, all tasks and task links must be mapped and have timing and priorities
+   */
+  public IncrementalSPPAnalysis(SystemModel model) {
+    super(model);
+  }
+
+  /**
+   * Analyzes the complete system and starts listening to changes of its tasks and task links.
+   *
+   * @throws NotSchedulableException if a resource is overloaded or the response times do not converge
+   * @throws IllegalStateException if an element is not mapped, not prioritized or not activated
+   */
+  @Override
+  public void analyze() {
+    detach();
+    changedElements.clear();
+    consistent = false;
+    super.analyze();
+    for (AnalyzedElement element : elements) {
+      element.schedElem.addListener(this);
+    }
+    numUpdatedElements = elements.size();
+    consistent = true;
+  }
+
+  /**
+   * Stops listening to changes of the system. The results of the last analysis remain in the system model.
+   */
+  public void detach() {
+    if (elements == null) return;
+    for (AnalyzedElement element : elements) {
+      element.schedElem.removeListener(this);
+    }
+  }
+
+  @Override
+  public void taskDescriptionChanged(SchedElemChangeEvent e) {
+    switch (e.getType()) {
+      case PRIORITY:
+      case SCHEDULING_PARAMETER:
+      case MAPPING:
+        AnalyzedElement element = analyzedElements.get(e.getAffectedSchedElem());
+        if (element != null) changedElements.add(element);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * @return true if tasks or task links changed since the last analysis or update
+   */
+  public boolean hasChanges() {
+    return !changedElements.isEmpty();
+  }
+
+  /**
+   * @return number of tasks and task links analyzed by the last analysis or update
+   */
+  public int getNumUpdatedElements() {
+    return numUpdatedElements;
+  }
+
+  /**
+   * Analyzes the elements affected by the changes since the last analysis or update and stores their results in the
+   * system model. If the last update failed, the complete system is analyzed again.
+   *
+   * @throws NotSchedulableException if a resource is overloaded or the response times do not converge
+   * @throws IllegalStateException if no complete analysis was done before or a changed element is not mapped or not
+   *           prioritized
+   */
+  public void update() {
+    if (elements == null) throw new IllegalStateException("the system has not been analyzed yet");
+    if (!consistent) {
+      analyze();
+      return;
+    }
+    numUpdatedElements = 0;
+    if (changedElements.isEmpty()) return;
+    consistent = false;
+
+    // highest changed priority on each resource, the indices are only valid after all changes are applied
+    Map<AbstractResource, Integer> changedPriorities = new LinkedHashMap<AbstractResource, Integer>();
+    // resources whose loads change
+    Set<AbstractResource> remappedResources = new LinkedHashSet<AbstractResource>();
+    List<AnalyzedElement> localElements = new ArrayList<AnalyzedElement>();
+    for (AnalyzedElement element : changedElements) {
+      AbstractResource oldResource = element.resource;
+      boolean oldScheduled = element.scheduled;
+      int oldPriority = element.priority;
+      element.update();
+
+      boolean remapped = element.resource != oldResource || element.scheduled != oldScheduled;
+      if (oldScheduled && remapped) {
+        removeSchedElem(element, oldResource);
+        addChangedPriority(changedPriorities, oldResource, oldPriority);
+        remappedResources.add(oldResource);
+      }
+      if (element.scheduled && remapped) {
+        addSchedElem(element);
+        addChangedPriority(changedPriorities, element.resource, element.priority);
+        remappedResources.add(element.resource);
+      } else if (element.scheduled && element.priority != oldPriority) {
+        setSchedElems(element.resource, resourceElements.get(element.resource));
+        addChangedPriority(changedPriorities, element.resource, Math.min(oldPriority, element.priority));
+      } else if (!element.scheduled && remapped) {
+        localElements.add(element);
+      }
+    }
+    changedElements.clear();
+
+    Map<AbstractResource, Integer> firstIndices = new LinkedHashMap<AbstractResource, Integer>();
+    for (Map.Entry<AbstractResource, Integer> entry : changedPriorities.entrySet()) {
+      addFirstIndex(firstIndices, entry.getKey(), entry.getValue());
+    }
+    List<AnalyzedElement> affected = getAffectedElements(firstIndices, localElements);
+    numUpdatedElements = affected.size();
+
+    remappedResources.retainAll(resourceElements.keySet());
+    checkLoads(remappedResources);
+    iterate(affected, firstIndices);
+    logger.debug("updated " + affected.size() + " of " + elements.size() + " elements");
+
+    writeResults(affected, remappedResources);
+    consistent = true;
+  }
+
+  private static void addChangedPriority(Map<AbstractResource, Integer> changedPriorities, AbstractResource resource,
+      int priority) {
+    Integer changedPriority = changedPriorities.get(resource);
+    if (changedPriority == null || priority < changedPriority) {
+      changedPriorities.put(resource, priority);
+    }
+  }
+
+  /**
+   * Collects the elements whose results can depend on the changes: the changed local task links and the marked
+   * elements of the resources, all their successors and the elements with the same or a lower priority on the
+   * successors' resources.
+   *
+   * @param firstIndices first changed index on each resource, extended by the successors' resources
+   * @param localElements changed local task links
+   * @return affected elements in topological order
+   */
+  private List<AnalyzedElement> getAffectedElements(Map<AbstractResource, Integer> firstIndices,
+      List<AnalyzedElement> localElements) {
+    Set<AnalyzedElement> affected = Collections.newSetFromMap(new IdentityHashMap<AnalyzedElement, Boolean>());
+    LinkedList<AnalyzedElement> pending = new LinkedList<AnalyzedElement>();
+    for (Map.Entry<AbstractResource, Integer> entry : firstIndices.entrySet()) {
+      AnalyzedElement[] schedElems = resourceElements.get(entry.getKey());
+      for (int i = entry.getValue(); i < schedElems.length; i++) {
+        if (affected.add(schedElems[i])) pending.add(schedElems[i]);
+      }
+    }
+    for (AnalyzedElement element : localElements) {
+      if (affected.add(element)) pending.add(element);
+    }
+
+    while (!pending.isEmpty()) {
+      for (AnalyzedElement successor : pending.removeFirst().successors) {
+        if (!successor.scheduled) {
+          if (affected.add(successor)) pending.add(successor);
+          continue;
+        }
+        AnalyzedElement[] schedElems = resourceElements.get(successor.resource);
+        Integer previousIndex = firstIndices.get(successor.resource);
+        int endIndex = previousIndex == null ? schedElems.length : previousIndex;
+        addFirstIndex(firstIndices, successor.resource, successor.priority);
+        for (int i = firstIndices.get(successor.resource); i < endIndex; i++) {
+          if (affected.add(schedElems[i])) pending.add(schedElems[i]);
+        }
+      }
+    }
+
+    List<AnalyzedElement> sorted = new ArrayList<AnalyzedElement>(affected);
+    Collections.sort(sorted, TOPOLOGICAL_ORDER);
+    return sorted;
+  }
+
+  private void removeSchedElem(AnalyzedElement element, AbstractResource resource) {
+    AnalyzedElement[] schedElems = resourceElements.get(resource);
+    AnalyzedElement[] remaining = new AnalyzedElement[schedElems.length - 1];
+    System.arraycopy(schedElems, 0, remaining, 0, element.index);
+    System.arraycopy(schedElems, element.index + 1, remaining, element.index, remaining.length - element.index);
+    element.index = -1;
+    setSchedElems(resource, remaining);
+  }
+
+  private void addSchedElem(AnalyzedElement element) {
+    AnalyzedElement[] schedElems = resourceElements.get(element.resource);
+    if (schedElems == null) schedElems = new AnalyzedElement[0];
+    AnalyzedElement[] extended = new AnalyzedElement[schedElems.length + 1];
+    System.arraycopy(schedElems, 0, extended, 0, schedElems.length);
+    extended[schedElems.length] = element;
+    setSchedElems(element.resource, extended);
+  }
+}
@@ -0,0 +1,16 @@
+package org.tubs.epoc.SMFF.Analysis;
+
+/**
+ * Thrown by the analysis if the response times of a system are unbounded, e.g. because a resource is overloaded.
+ *
+ */
+public class NotSchedulableException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * @param message description of the element or resource that is not schedulable
+   */
+  public NotSchedulableException(String message) {
+    super(message);
+  }
+}
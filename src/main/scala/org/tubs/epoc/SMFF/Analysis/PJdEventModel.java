@@ -0,0 +1,106 @@
+package org.tubs.epoc.SMFF.Analysis;
+
+import org.tubs.epoc.SMFF.ModelElements.Application.PJdTimingBehavior;
+
+/**
+ * Periodic event model with jitter and minimum distance (PJd) as used by the compositional analysis. In contrast to
+ * {@link PJdTimingBehavior} it is immutable and provides the arrival curves of the model.
+ *
+ */
+final class PJdEventModel {
+  private final int period;
+  private final int jitter;
+  private final int dmin;
+
+  /**
+   * @param period period of the events
+   * @param jitter jitter of the events
+   * @param dmin minimum distance between two events
+   */
+  PJdEventModel(int period, int jitter, int dmin) {
+    this.period = period;
+    this.jitter = jitter;
+    this.dmin = dmin;
+  }
+
+  int getPeriod() {
+    return period;
+  }
+
+  int getJitter() {
+    return jitter;
+  }
+
+  int getDmin() {
+    return dmin;
+  }
+
+  /**
+   * Returns the maximum number of events within any time window of the given size.
+   *
+   * @param delta size of the time window
+   * @return the maximum number of events
+   */
+  long etaPlus(long delta) {
+    if (delta <= 0) return 0;
+    long events = ceilDiv(delta + jitter, period);
+    if (dmin > 0) {
+      events = Math.min(events, ceilDiv(delta, dmin));
+    }
+    return events;
+  }
+
+  /**
+   * Returns the minimum distance between the first and the last of <tt>n</tt> consecutive events.
+   *
+   * @param n number of events
+   * @return the minimum distance
+   */
+  long deltaMin(long n) {
+    if (n < 2) return 0;
+    return Math.max((n - 1) * period - jitter, (n - 1) * dmin);
+  }
+
+  /**
+   * Returns the event model at the output of an element with the given response time jitter. The period is kept, the
+   * jitter grows by the response time jitter and the minimum distance shrinks by it, but not below the minimum distance
+   * the element itself guarantees between two outputs (e.g. its best case execution time).
+   *
+   * @param responseJitter difference between worst case and best case response time
+   * @param minDistance minimum distance between two outputs of the element
+   * @return the output event model
+   */
+  PJdEventModel propagate(int responseJitter, int minDistance) {
+    int outDmin = Math.max(minDistance, dmin - responseJitter);
+    if (responseJitter == 0 && outDmin == dmin) return this;
+    return new PJdEventModel(period, jitter + responseJitter, outDmin);
+  }
+
+  /**
+   * @return a timing behavior with the values of this event model
+   */
+  PJdTimingBehavior toTimingBehavior() {
+    return new PJdTimingBehavior(period, jitter, dmin);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof PJdEventModel)) return false;
+    PJdEventModel other = (PJdEventModel) obj;
+    return period == other.period && jitter == other.jitter && dmin == other.dmin;
+  }
+
+  @Override
+  public int hashCode() {
+    return (period * 31 + jitter) * 31 + dmin;
+  }
+
+  @Override
+  public String toString() {
+    return "P:" + period + " J:" + jitter + " D_min:" + dmin;
+  }
+
+  private static long ceilDiv(long a, long b) {
+    return (a + b - 1) / b;
+  }
+}
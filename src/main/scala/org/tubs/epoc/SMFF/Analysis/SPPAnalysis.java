@@ -0,0 +1,441 @@
+package org.tubs.epoc.SMFF.Analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.Path;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+import org.tubs.epoc.SMFF.ModelElements.Application.SysLatencyConstraint;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLinkIdentifier;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+import org.tubs.epoc.SMFF.PyCPAInterface.Analysis.PyCPAAnalysis;
+import org.tubs.epoc.SMFF.PyCPAInterface.Analysis.ModelExtensions.ResourceAnalysisResult;
+import org.tubs.epoc.SMFF.PyCPAInterface.Analysis.ModelExtensions.SchedElemAnalysisResult;
+
+/**
+ * Compositional response time analysis of systems with static priority preemptive (SPP) scheduled resources, running
+ * in-process instead of calling PyCPA (see {@link PyCPAAnalysis}).
+ * <p>
+ * Source tasks are activated by their PJ activation pattern. The response times of all tasks and task links are
+ * computed with the busy window approach, where elements with the same or a higher priority (lower priority value)
+ * interfere. The output event models (PJd) are propagated along the task links, where the jitter grows by the response
+ * time jitter and consecutive outputs are at least the best case execution time apart. The resources are analyzed
+ * again until no event model changes anymore. The results are stored in the system model in the same way as by the
+ * {@link PyCPAAnalysis}: best/worst case response times, input and output behavior as well as
+ * {@link SchedElemAnalysisResult} and {@link ResourceAnalysisResult} data extensions. The latency of each path of the
+ * latency constraints is the sum of the worst case response times along the path.
+ *
+ */
+public class SPPAnalysis implements Callable<Object> {
+  private static Log logger = LogFactory.getLog(SPPAnalysis.class);
+
+  // busy windows and response times beyond this bound are considered unbounded
+  private static final long HORIZON = Integer.MAX_VALUE;
+  // maximum number of global iterations and of activations within one busy window
+  private static final int MAX_ITERATIONS = 1000;
+  private static final int MAX_ACTIVATIONS = 1000;
+
+  // orders elements as in the element list of the analysis
+  static final Comparator<AnalyzedElement> TOPOLOGICAL_ORDER = new Comparator<AnalyzedElement>() {
+    public int compare(AnalyzedElement element1, AnalyzedElement element2) {
+      return element1.order < element2.order ? -1 : (element1.order == element2.order ? 0 : 1);
+    }
+  };
+  // orders scheduled elements by priority (highest priority first), equal priorities in topological order
+  private static final Comparator<AnalyzedElement> PRIORITY_ORDER = new Comparator<AnalyzedElement>() {
+    public int compare(AnalyzedElement element1, AnalyzedElement element2) {
+      if (element1.priority != element2.priority) return element1.priority < element2.priority ? -1 : 1;
+      return TOPOLOGICAL_ORDER.compare(element1, element2);
+    }
+  };
+
+  private SystemModel model;
+  // all tasks and task links, the elements of each application in topological order
+  List<AnalyzedElement> elements;
+  // analysis state of each task and task link
+  IdentityHashMap<SchedulableElement, AnalyzedElement> analyzedElements;
+  // scheduled elements of each resource sorted by priority
+  Map<AbstractResource, AnalyzedElement[]> resourceElements;
+  private int iterations;
+
+  /**
+   * @param model system model to analyze, all tasks and task links must be mapped and have timing and priorities
+   */
+  public SPPAnalysis(SystemModel model) {
+    this.model = model;
+  }
+
+  /**
+   * Callable interface of the analysis which allows to analyze several systems in a multi-threaded manner.
+   */
+  @Override
+  public Object call() throws Exception {
+    analyze();
+    return null;
+  }
+
+  /**
+   * Analyzes the system and stores the results in the system model.
+   *
+   * @throws NotSchedulableException if a resource is overloaded or the response times do not converge
+   * @throws IllegalStateException if an element is not mapped, not prioritized or not activated
+   */
+  public void analyze() {
+    createElements();
+
+    Map<AbstractResource, Integer> firstIndices = new LinkedHashMap<AbstractResource, Integer>();
+    for (AbstractResource resource : resourceElements.keySet()) {
+      firstIndices.put(resource, 0);
+    }
+    iterate(elements, firstIndices);
+
+    List<AbstractResource> resources = new ArrayList<AbstractResource>(model.getResourceTable().values());
+    resources.addAll(model.getCommResourceTable().values());
+    writeResults(elements, resources);
+  }
+
+  /**
+   * @return number of global iterations of the last analysis
+   */
+  public int getIterations() {
+    return iterations;
+  }
+
+  /**
+   * Computes the response times and event models of the given elements starting from their initial values. All other
+   * elements keep their results, so they must not depend on the given elements. In each iteration only the elements
+   * whose own input or the input of an interfering element changed are analyzed again.
+   *
+   * @param elems elements to analyze in topological order
+   * @param firstIndices index of the first element to analyze on each resource, all following elements of the
+   *          resource must be part of <tt>elems</tt>
+   * @throws NotSchedulableException if a resource is overloaded or the response times do not converge
+   */
+  void iterate(List<AnalyzedElement> elems, Map<AbstractResource, Integer> firstIndices) {
+    for (AnalyzedElement element : elems) {
+      element.bcrt = element.bcet;
+      element.wcrt = element.bcet;
+      element.input = null;
+    }
+    propagate(elems, null);
+    checkLoads(firstIndices.keySet());
+
+    iterations = 0;
+    while (!firstIndices.isEmpty()) {
+      if (++iterations > MAX_ITERATIONS) {
+        throw new NotSchedulableException("response times did not converge within " + MAX_ITERATIONS + " iterations");
+      }
+      for (Map.Entry<AbstractResource, Integer> entry : firstIndices.entrySet()) {
+        AnalyzedElement[] schedElems = resourceElements.get(entry.getKey());
+        for (int i = entry.getValue(); i < schedElems.length; i++) {
+          analyzeElement(schedElems, i);
+        }
+      }
+      firstIndices = new LinkedHashMap<AbstractResource, Integer>();
+      propagate(elems, firstIndices);
+    }
+    logger.debug("analysis of " + elems.size() + " elements converged after " + iterations + " iterations");
+  }
+
+  /**
+   * Creates the analysis state of all tasks and task links and groups the scheduled elements by resource.
+   */
+  private void createElements() {
+    elements = new ArrayList<AnalyzedElement>();
+    analyzedElements = new IdentityHashMap<SchedulableElement, AnalyzedElement>();
+    resourceElements = new LinkedHashMap<AbstractResource, AnalyzedElement[]>();
+    Map<AbstractResource, List<AnalyzedElement>> schedElemLists = new LinkedHashMap<AbstractResource, List<AnalyzedElement>>();
+
+    for (ApplicationModel app : model.getApplications()) {
+      IdentityHashMap<SchedulableElement, AnalyzedElement> appElements = new IdentityHashMap<SchedulableElement, AnalyzedElement>();
+      for (Task task : app.getTaskList().values()) {
+        appElements.put(task, new AnalyzedElement(task));
+      }
+      for (TaskLink taskLink : app.getTaskLinkList().values()) {
+        appElements.put(taskLink, new AnalyzedElement(taskLink));
+      }
+
+      // connect tasks and task links
+      for (Task task : app.getTaskList().values()) {
+        AnalyzedElement element = appElements.get(task);
+        for (TaskLinkIdentifier taskLinkId : task.getTrgLinkList().values()) {
+          connect(appElements.get(app.getTaskLink(taskLinkId)), element);
+        }
+      }
+      for (TaskLink taskLink : app.getTaskLinkList().values()) {
+        connect(appElements.get(app.getTask(taskLink.getSrcTaskId())), appElements.get(taskLink));
+      }
+
+      elements.addAll(sortTopologically(app, appElements.values()));
+      analyzedElements.putAll(appElements);
+    }
+
+    int order = 0;
+    for (AnalyzedElement element : elements) {
+      element.order = order++;
+      if (element.scheduled) {
+        List<AnalyzedElement> schedElems = schedElemLists.get(element.resource);
+        if (schedElems == null) {
+          schedElems = new ArrayList<AnalyzedElement>();
+          schedElemLists.put(element.resource, schedElems);
+        }
+        schedElems.add(element);
+      }
+    }
+    for (Map.Entry<AbstractResource, List<AnalyzedElement>> entry : schedElemLists.entrySet()) {
+      setSchedElems(entry.getKey(), entry.getValue().toArray(new AnalyzedElement[0]));
+    }
+  }
+
+  /**
+   * Sorts the scheduled elements of a resource by priority and stores them with their indices.
+   */
+  void setSchedElems(AbstractResource resource, AnalyzedElement[] schedElems) {
+    Arrays.sort(schedElems, PRIORITY_ORDER);
+    for (int i = 0; i < schedElems.length; i++) {
+      schedElems[i].index = i;
+    }
+    resourceElements.put(resource, schedElems);
+  }
+
+  /**
+   * Marks the elements of a resource with the given or a lower priority (higher priority value) for analysis.
+   *
+   * @param firstIndices index of the first element to analyze on each resource
+   */
+  void addFirstIndex(Map<AbstractResource, Integer> firstIndices, AbstractResource resource, int priority) {
+    AnalyzedElement[] schedElems = resourceElements.get(resource);
+    int firstIndex = firstIndexOf(schedElems, priority);
+    if (firstIndex >= schedElems.length) return;
+    Integer previousIndex = firstIndices.get(resource);
+    if (previousIndex == null || firstIndex < previousIndex) {
+      firstIndices.put(resource, firstIndex);
+    }
+  }
+
+  /**
+   * @return index of the first element of a resource with the given or a lower priority (higher priority value)
+   */
+  static int firstIndexOf(AnalyzedElement[] schedElems, int priority) {
+    int low = 0;
+    int high = schedElems.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (schedElems[mid].priority < priority) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+
+  private static void connect(AnalyzedElement predecessor, AnalyzedElement successor) {
+    if (predecessor == null || successor == null) {
+      throw new IllegalStateException("task link refers to a task of another application");
+    }
+    predecessor.successors.add(successor);
+    successor.predecessors.add(predecessor);
+  }
+
+  /**
+   * @return the elements ordered such that every element comes after its predecessors
+   */
+  private static List<AnalyzedElement> sortTopologically(ApplicationModel app, Iterable<AnalyzedElement> appElements) {
+    IdentityHashMap<AnalyzedElement, Integer> numPredecessors = new IdentityHashMap<AnalyzedElement, Integer>();
+    LinkedList<AnalyzedElement> ready = new LinkedList<AnalyzedElement>();
+    int numElements = 0;
+    for (AnalyzedElement element : appElements) {
+      numPredecessors.put(element, element.predecessors.size());
+      if (element.predecessors.isEmpty()) ready.add(element);
+      numElements++;
+    }
+
+    List<AnalyzedElement> sorted = new ArrayList<AnalyzedElement>(numElements);
+    while (!ready.isEmpty()) {
+      AnalyzedElement element = ready.removeFirst();
+      sorted.add(element);
+      for (AnalyzedElement successor : element.successors) {
+        int remaining = numPredecessors.get(successor) - 1;
+        numPredecessors.put(successor, remaining);
+        if (remaining == 0) ready.add(successor);
+      }
+    }
+    if (sorted.size() != numElements) {
+      throw new IllegalStateException("application " + app.getAppId() + " contains a cycle");
+    }
+    return sorted;
+  }
+
+  /**
+   * Recomputes the input and output event models of the given elements from the current response times.
+   *
+   * @param elems elements in topological order
+   * @param firstIndices receives the elements to analyze again because of changed inputs (may be null)
+   */
+  private void propagate(List<AnalyzedElement> elems, Map<AbstractResource, Integer> firstIndices) {
+    for (AnalyzedElement element : elems) {
+      PJdEventModel input = element.createInput();
+      if (!input.equals(element.input)) {
+        element.input = input;
+        if (element.scheduled && firstIndices != null) {
+          addFirstIndex(firstIndices, element.resource, element.priority);
+        }
+      }
+      element.updateOutput();
+    }
+  }
+
+  /**
+   * @throws NotSchedulableException if the long-term load of one of the resources exceeds one
+   */
+  void checkLoads(Collection<AbstractResource> resources) {
+    for (AbstractResource resource : resources) {
+      double load = getLoad(resourceElements.get(resource));
+      if (load > 1.0) {
+        throw new NotSchedulableException(resource.getUniqueName() + " is overloaded (load " + load + ")");
+      }
+    }
+  }
+
+  private static double getLoad(AnalyzedElement[] schedElems) {
+    double load = 0.0;
+    for (AnalyzedElement element : schedElems) {
+      load += (double) element.wcet / (double) element.input.getPeriod();
+    }
+    return load;
+  }
+
+  /**
+   * Computes the response times of one element scheduled on a resource.
+   *
+   * @param schedElems elements of the resource sorted by priority
+   * @param index index of the analyzed element
+   */
+  private static void analyzeElement(AnalyzedElement[] schedElems, int index) {
+    AnalyzedElement element = schedElems[index];
+    // elements with the same or a higher priority interfere
+    int numInterferers = index + 1;
+    while (numInterferers < schedElems.length && schedElems[numInterferers].priority == element.priority) {
+      numInterferers++;
+    }
+    element.bcrt = element.bcet;
+    element.wcrt = getWCRT(schedElems, index, numInterferers);
+  }
+
+  /**
+   * Computes the worst case response time with the busy window approach. The busy window of q activations is the
+   * fixed point of q*WCET plus the interference of all other elements in that window. Activations are added as long as
+   * the next one arrives before the busy window ends.
+   *
+   * @param schedElems elements of the resource sorted by priority
+   * @param index index of the analyzed element
+   * @param numInterferers the elements before this index interfere (except the analyzed element itself)
+   * @return the worst case response time
+   */
+  private static int getWCRT(AnalyzedElement[] schedElems, int index, int numInterferers) {
+    AnalyzedElement element = schedElems[index];
+    long wcrt = 0;
+    for (long q = 1;; q++) {
+      if (q > MAX_ACTIVATIONS) {
+        throw new NotSchedulableException("busy window of " + element + " exceeds " + MAX_ACTIVATIONS + " activations");
+      }
+      long busyWindow = q * element.wcet;
+      while (true) {
+        long next = q * element.wcet;
+        for (int j = 0; j < numInterferers; j++) {
+          if (j != index) {
+            next += schedElems[j].input.etaPlus(busyWindow) * schedElems[j].wcet;
+          }
+        }
+        if (next > HORIZON) {
+          throw new NotSchedulableException("busy window of " + element + " is unbounded");
+        }
+        if (next == busyWindow) break;
+        busyWindow = next;
+      }
+      wcrt = Math.max(wcrt, busyWindow - element.input.deltaMin(q));
+      if (busyWindow <= element.input.deltaMin(q + 1)) break;
+    }
+    return (int) wcrt;
+  }
+
+  /**
+   * Stores the response times, event models, loads and path latencies in the system model.
+   *
+   * @param elems elements whose results are stored
+   * @param resources resources whose loads are stored
+   */
+  void writeResults(Collection<AnalyzedElement> elems, Collection<AbstractResource> resources) {
+    for (AnalyzedElement element : elems) {
+      SchedulableElement schedElem = element.schedElem;
+      schedElem.setBCRT(element.bcrt);
+      schedElem.setWCRT(element.wcrt);
+      schedElem.setInputBehavior(element.input.toTimingBehavior());
+      schedElem.setOutputBehavior(element.output.toTimingBehavior());
+      schedElem.addExtData(new SchedElemAnalysisResult(element.bcrt, element.wcrt, element.input.getPeriod(),
+          element.input.getJitter(), element.output.getJitter()), false, true, false);
+    }
+
+    for (AbstractResource resource : resources) {
+      writeLoad(resource);
+    }
+    writePathLatencies(elems);
+  }
+
+  private void writeLoad(AbstractResource resource) {
+    AnalyzedElement[] schedElems = resourceElements.get(resource);
+    double load = schedElems == null ? 0.0 : getLoad(schedElems);
+    resource.addExtData(new ResourceAnalysisResult(load), false, true, false);
+  }
+
+  /**
+   * Sets the latencies of all paths containing one of the given elements. Paths without element latency constraints
+   * only contribute to the latency of their system latency constraint.
+   */
+  private void writePathLatencies(Collection<AnalyzedElement> elems) {
+    Set<AnalyzedElement> updated = Collections.newSetFromMap(new IdentityHashMap<AnalyzedElement, Boolean>());
+    updated.addAll(elems);
+    Set<ApplicationModel> apps = Collections.newSetFromMap(new IdentityHashMap<ApplicationModel, Boolean>());
+    for (AnalyzedElement element : elems) {
+      apps.add(element.schedElem.getApplication());
+    }
+
+    for (ApplicationModel app : apps) {
+      for (SysLatencyConstraint sysLatConstr : app.getConstraints().values()) {
+        boolean changed = false;
+        double latency = 0.0;
+        for (Path path : sysLatConstr.getPaths().values()) {
+          boolean affected = false;
+          double pathLatency = 0.0;
+          for (SchedulableElement schedElem : path.getElemList()) {
+            AnalyzedElement element = analyzedElements.get(schedElem);
+            pathLatency += element.wcrt;
+            affected |= updated.contains(element);
+          }
+          if (affected && !path.getElemConstrList().isEmpty()) {
+            path.setLatency(pathLatency);
+          }
+          changed |= affected;
+          latency = Math.max(latency, pathLatency);
+        }
+        if (changed) {
+          sysLatConstr.setPathLatencies(latency);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package org.tubs.epoc.SMFF.ImportExport.Binary.Example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.tubs.epoc.SMFF.ImportExport.Binary.SnapshotLoader;
+import org.tubs.epoc.SMFF.ImportExport.Binary.SnapshotSaver;
+import org.tubs.epoc.SMFF.ImportExport.XML.ModelLoader;
+import org.tubs.epoc.SMFF.ImportExport.XML.ModelSaver;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.Profile;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
+import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.ResourceGraph;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractSchedulingParameter;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.SPPScheduler;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.SchedulingPriority;
+import org.tubs.epoc.SMFF.SystemFactories.ApplicationFactories.Implementations.TaskChainApplicationFactory.TaskChainApplicationFactory;
+import org.tubs.epoc.SMFF.SystemFactories.ApplicationFactories.Implementations.TaskChainApplicationFactory.TaskChainApplicationFactoryData;
+import org.tubs.epoc.SMFF.SystemFactories.ConstraintFactories.Implementations.StdConstraintFactory.LaxityConstraintFactory;
+import org.tubs.epoc.SMFF.SystemFactories.ConstraintFactories.Implementations.StdConstraintFactory.LaxityConstraintFactoryData;
+import org.tubs.epoc.SMFF.SystemFactories.Mappers.Implementations.StdMapper.SensActMapper;
+import org.tubs.epoc.SMFF.SystemFactories.Mappers.Implementations.StdMapper.SensActMapperData;
+import org.tubs.epoc.SMFF.SystemFactories.PlatformFactories.Implementations.StdPlatformFactory.StdPlatformFactory;
+import org.tubs.epoc.SMFF.SystemFactories.PlatformFactories.Implementations.StdPlatformFactory.StdPlatformFactoryData;
+import org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.Implementations.TaskChainPriorityAssigner.TaskChainPriorityAssigner;
+import org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.Implementations.TaskChainPriorityAssigner.TaskChainPriorityAssignerData;
+import org.tubs.epoc.SMFF.SystemFactories.TimingFactories.Implementations.UUniFast.UUniFastTimingFactory;
+import org.tubs.epoc.SMFF.SystemFactories.TimingFactories.Implementations.UUniFast.UUniFastTimingFactoryData;
+
+/***
+ * This Example checks that a snapshot holds the same system as its xml description.
+ * Each system is written to an XML file directly and once more after a round trip through a snapshot. Both files
+ * must be identical. The systems are a generated testcase, the annotated example model and a small system whose
+ * tasks and resources have empty names or no names at all.
+ * In the last step the tasks and task links of the snapshot are materialized one by one and compared to the
+ * complete system.
+ *
+ * Usage: Example [outputPath] [annotated model]
+ * The program exits with status 1 if any check fails.
+ */
+public class Example {
+  public static Logger  logger = Logger.getLogger("org.tubs.epoc.SMFF");
+
+  public static void main(String[] args) {
+    logger.setLevel(Level.WARN);
+    BasicConfigurator.configure();
+
+    // specify the path to which the files are to be stored
+    String outputPath = args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir") + "/SnapshotExample/";
+    String annotatedModel = args.length > 1 ? args[1] : "src/main/resources/smff_annotated.xml";
+    new File(outputPath).mkdirs();
+
+    int failures = 0;
+    try {
+      failures += roundTrip(generateSystem(), outputPath, "Generated");
+      failures += roundTrip(new ModelLoader(annotatedModel).generateSystem(), outputPath, "Annotated");
+      failures += roundTrip(createUnnamedSystem(), outputPath, "Unnamed");
+    } catch (Exception e) {
+      e.printStackTrace();
+      failures++;
+    }
+
+    if (failures > 0) {
+      logger.error(failures + " round trip check(s) failed");
+      System.exit(1);
+    }
+    System.out.println("all round trip checks passed");
+  }
+
+  /**
+   * Writes the system to name.xml and, after a round trip through name.snapshot, to name2.xml and compares both
+   * files. Then compares the lazily materialized tasks and task links of the snapshot with the loaded system.
+   *
+   * @return number of failed checks
+   */
+  private static int roundTrip(SystemModel systemModel, String outputPath, String name) throws IOException {
+    File xml = new File(outputPath, name + ".xml");
+    File snapshot = new File(outputPath, name + ".snapshot");
+    File xml2 = new File(outputPath, name + "2.xml");
+
+    new ModelSaver(xml).saveModel(systemModel);
+    new SnapshotSaver(snapshot).saveModel(systemModel);
+    SnapshotLoader loader = new SnapshotLoader(snapshot);
+    SystemModel loaded = loader.generateSystem();
+    new ModelSaver(xml2).saveModel(loaded);
+
+    int failures = 0;
+    if (!Arrays.equals(Files.readAllBytes(xml.toPath()), Files.readAllBytes(xml2.toPath()))) {
+      logger.error(name + ": " + xml2 + " differs from " + xml);
+      failures++;
+    }
+
+    // materialize the task links first, so that some tasks are created along with them
+    for (int i = loader.getNumTaskLinks() - 1; i >= 0; i--) {
+      TaskLink lazy = loader.getTaskLink(i);
+      TaskLink taskLink = loaded.getApplication(lazy.getAppId()).getTaskLink(lazy.getElemId());
+      if (taskLink == null || !isEqual(lazy, taskLink) || lazy.getSrcTaskId() != taskLink.getSrcTaskId()
+          || lazy.getTrgTaskId() != taskLink.getTrgTaskId() || loader.getTaskLink(i) != lazy) {
+        logger.error(name + ": task link " + i + " differs from " + taskLink);
+        failures++;
+      }
+    }
+    for (int i = 0; i < loader.getNumTasks(); i++) {
+      Task lazy = loader.getTask(i);
+      Task task = loaded.getApplication(lazy.getAppId()).getTask(lazy.getElemId());
+      if (task == null || !isEqual(lazy, task) || lazy.getSrcLinkList().size() != task.getSrcLinkList().size()
+          || lazy.getTrgLinkList().size() != task.getTrgLinkList().size()) {
+        logger.error(name + ": task " + i + " differs from " + task);
+        failures++;
+      }
+    }
+    return failures;
+  }
+
+  /**
+   * Compares the name, timing, priority and mapping of two tasks or task links.
+   */
+  private static boolean isEqual(SchedulableElement lazy, SchedulableElement element) {
+    if (!lazy.getShortName().equals(element.getShortName()) || getPriority(lazy) != getPriority(element)
+        || lazy.getProfileList().size() != element.getProfileList().size()) {
+      return false;
+    }
+    if (lazy.getActiveProfile() != null
+        && (element.getActiveProfile() == null || lazy.getWCET() != element.getWCET())) {
+      return false;
+    }
+    if (lazy.getMappedTo() == null || element.getMappedTo() == null) {
+      return lazy.getMappedTo() == element.getMappedTo();
+    }
+    return lazy.getMappedTo().getUniqueName().equals(element.getMappedTo().getUniqueName());
+  }
+
+  /**
+   * @return the priority of a task or task link, -1 if it has none
+   */
+  private static int getPriority(SchedulableElement element) {
+    AbstractSchedulingParameter schedParam = element.getSchedulingParameter();
+    if (schedParam instanceof SchedulingPriority) {
+      return ((SchedulingPriority) schedParam).getPriority();
+    }
+    return -1;
+  }
+
+  /**
+   * Generates a testcase like the example of the system factories.
+   */
+  private static SystemModel generateSystem() {
+    SystemModel systemModel = new SystemModel();
+    StdPlatformFactory platformFactory = new StdPlatformFactory(systemModel, new StdPlatformFactoryData(5, 2, 0));
+    TaskChainApplicationFactory appFactory = new TaskChainApplicationFactory(systemModel,
+        new TaskChainApplicationFactoryData(6, 0));
+    SensActMapper mapper = new SensActMapper(systemModel, new SensActMapperData(0));
+
+    platformFactory.generatePlatform();
+    for (int k = 0; k < 2; k++) {
+      ApplicationModel app = appFactory.generateApplication();
+      mapper.map(app);
+    }
+    new TaskChainPriorityAssigner(systemModel, new TaskChainPriorityAssignerData(0)).assignPriorities();
+    new UUniFastTimingFactory(systemModel, new UUniFastTimingFactoryData(0.45, 0.55, 300, 1000, 1.0, 0))
+        .generateTimings();
+    new LaxityConstraintFactory(systemModel, new LaxityConstraintFactoryData(1.5, 2.0, 0)).generateConstraints();
+    return systemModel;
+  }
+
+  /**
+   * Creates a system whose resources and tasks are named with the empty string constant, another empty string and
+   * no name at all. ModelSaver only omits the name of elements whose name is the constant.
+   */
+  private static SystemModel createUnnamedSystem() {
+    String[] names = { "", new String(""), null };
+
+    SystemModel systemModel = new SystemModel();
+    CommResource cRes = new CommResource(systemModel, names[0], 0, new SPPScheduler());
+    systemModel.addResource(cRes);
+    Resource[] resources = new Resource[names.length];
+    for (int i = 0; i < names.length; i++) {
+      resources[i] = new Resource(systemModel, names[i], i + 1, new SPPScheduler());
+      systemModel.addResource(resources[i]);
+      cRes.addLink(resources[i]);
+    }
+    systemModel.setResModel(new ResourceGraph(systemModel));
+
+    ApplicationModel app = new ApplicationModel(systemModel, 0, 0);
+    systemModel.addApplication(app);
+    Task[] tasks = new Task[names.length];
+    for (int i = 0; i < names.length; i++) {
+      tasks[i] = new Task(names[i], app, i);
+      Profile profile = new Profile(10 * i + 5, 10 * i + 10, 1000, 0);
+      tasks[i].addProfile(profile);
+      tasks[i].setActiveProfile(profile);
+      app.addTask(tasks[i]);
+      app.mapTask(tasks[i], resources[i]);
+      tasks[i].setSchedulingParameter(new SchedulingPriority(i));
+    }
+    for (int i = 0; i + 1 < names.length; i++) {
+      TaskLink taskLink = new TaskLink("", app, i, i, i + 1);
+      tasks[i].addTaskLink(taskLink);
+      tasks[i + 1].addTaskLink(taskLink);
+      Profile profile = new Profile(1, 2, 1000, 0);
+      taskLink.addProfile(profile);
+      taskLink.setActiveProfile(profile);
+      app.addTaskLink(taskLink);
+      app.mapTaskLink(taskLink, cRes);
+      taskLink.setSchedulingParameter(new SchedulingPriority(i));
+    }
+    app.addSysLatConstr(tasks[0], tasks[names.length - 1], 100);
+    return systemModel;
+  }
+}
@@ -0,0 +1,93 @@
+package org.tubs.epoc.SMFF.ImportExport.Binary;
+
+/**
+ * Layout of the binary snapshot files written by {@link SnapshotSaver SnapshotSaver} and read by
+ * {@link SnapshotLoader SnapshotLoader}.
+ * <p>
+ * All values are big endian. The file starts with a header of the magic number, the format version, the number of
+ * sections and an (offset, count) pair for each section. Apart from the strings, every section is an array of
+ * fixed-width records of <tt>int</tt> fields:
+ * <ul>
+ * <li>STRINGS: <tt>count + 1</tt> offsets relative to the end of the offset table, followed by the UTF-8 bytes of the
+ * strings. Names, class names and xml descriptions refer to strings by index, -1 stands for <tt>null</tt>, which is
+ * also the name of elements without a short name.</li>
+ * <li>OBJECTS: activation patterns, schedulers, scheduling parameters and resource types/groups as (kind, a, b). The
+ * built-in classes store their values in a and b, all other classes their xml description in a (see
+ * {@link #KIND_XML}).</li>
+ * <li>RESOURCES: (communication flag, resource id, name, resource type, resource group, scheduler), communication
+ * resources first.</li>
+ * <li>ATTACHMENTS: (resource, communication resource) as indices into RESOURCES.</li>
+ * <li>APPLICATIONS: (application id, version, first task, task count, first task link, task link count, first
+ * constraint, constraint count).</li>
+ * <li>TASKS: (application, task id, name, mapping, scheduling parameter, first profile, profile count, active
+ * profile).</li>
+ * <li>TASK_LINKS: (application, link id, name, source task id, target task id, mapping, scheduling parameter, first
+ * profile, profile count, active profile).</li>
+ * <li>PROFILES: (bcet, wcet, activation pattern, resource type, resource group).</li>
+ * <li>CONSTRAINTS: (start task id, end task id, latency constraint as the two halves of a <tt>double</tt>).</li>
+ * <li>EXTENSIONS: (owner kind, owner index, xml description, flags) of all xml savable data extensions.</li>
+ * </ul>
+ * Mappings refer to RESOURCES and are -1 if the element is not mapped, the active profile is relative to the first
+ * profile and -1 if none is set.
+ *
+ */
+final class SnapshotFormat {
+  static final int MAGIC = 0x534D4642; // "SMFB"
+  static final int VERSION = 1;
+
+  // sections in the order of the header
+  static final int STRINGS = 0;
+  static final int OBJECTS = 1;
+  static final int RESOURCES = 2;
+  static final int ATTACHMENTS = 3;
+  static final int APPLICATIONS = 4;
+  static final int TASKS = 5;
+  static final int TASK_LINKS = 6;
+  static final int PROFILES = 7;
+  static final int CONSTRAINTS = 8;
+  static final int EXTENSIONS = 9;
+  static final int NUM_SECTIONS = 10;
+
+  // size of the header and of the records in bytes
+  static final int HEADER_SIZE = 12 + 8 * NUM_SECTIONS;
+  static final int[] RECORD_SIZE = { 0, 12, 24, 8, 32, 32, 40, 20, 16, 16 };
+
+  // fields of the records as int offsets
+  static final int OBJECT_KIND = 0, OBJECT_A = 1, OBJECT_B = 2;
+  static final int RESOURCE_COMM = 0, RESOURCE_ID = 1, RESOURCE_NAME = 2, RESOURCE_TYPE = 3, RESOURCE_GROUP = 4,
+      RESOURCE_SCHEDULER = 5;
+  static final int ATTACHMENT_RESOURCE = 0, ATTACHMENT_COMM_RESOURCE = 1;
+  static final int APP_ID = 0, APP_V = 1, APP_FIRST_TASK = 2, APP_NUM_TASKS = 3, APP_FIRST_LINK = 4,
+      APP_NUM_LINKS = 5, APP_FIRST_CONSTRAINT = 6, APP_NUM_CONSTRAINTS = 7;
+  static final int TASK_APP = 0, TASK_ID = 1, TASK_NAME = 2, TASK_MAPPING = 3, TASK_SCHED_PARAM = 4,
+      TASK_FIRST_PROFILE = 5, TASK_NUM_PROFILES = 6, TASK_ACTIVE_PROFILE = 7;
+  static final int LINK_APP = 0, LINK_ID = 1, LINK_NAME = 2, LINK_SRC = 3, LINK_TRGT = 4, LINK_MAPPING = 5,
+      LINK_SCHED_PARAM = 6, LINK_FIRST_PROFILE = 7, LINK_NUM_PROFILES = 8, LINK_ACTIVE_PROFILE = 9;
+  static final int PROFILE_BCET = 0, PROFILE_WCET = 1, PROFILE_ACTIVATION = 2, PROFILE_TYPE = 3, PROFILE_GROUP = 4;
+  static final int CONSTRAINT_START = 0, CONSTRAINT_END = 1, CONSTRAINT_LATENCY = 2;
+  static final int EXTENSION_OWNER_KIND = 0, EXTENSION_OWNER = 1, EXTENSION_XML = 2, EXTENSION_FLAGS = 3;
+
+  // kinds of objects
+  static final int KIND_XML = 0;
+  static final int KIND_PJ_ACTIVATION = 1;
+  static final int KIND_EVENT_ACTIVATION = 2;
+  static final int KIND_SCHEDULING_PRIORITY = 3;
+  static final int KIND_SPP_SCHEDULER = 4;
+  static final int KIND_GENERIC_RESOURCE_TYPE = 5;
+  static final int KIND_GENERIC_RESOURCE_GROUP = 6;
+
+  // owners of data extensions
+  static final int OWNER_SYSTEM = 0;
+  static final int OWNER_RESOURCE = 1;
+  static final int OWNER_APPLICATION = 2;
+  static final int OWNER_TASK = 3;
+  static final int OWNER_TASK_LINK = 4;
+
+  // flags of data extensions
+  static final int FLAG_CLONEABLE = 1;
+  static final int FLAG_IGNORE_EXISTING = 2;
+  static final int FLAG_OVERWRITE = 4;
+
+  private SnapshotFormat() {
+  }
+}
@@ -0,0 +1,734 @@
+package org.tubs.epoc.SMFF.ImportExport.Binary;
+
+import static org.tubs.epoc.SMFF.ImportExport.Binary.SnapshotFormat.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedList;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jdom2.JDOMException;
+import org.jdom2.input.SAXBuilder;
+import org.tubs.epoc.SMFF.ImportExport.XML.ModelLoader;
+import org.tubs.epoc.SMFF.ImportExport.XML.XMLFactory;
+import org.tubs.epoc.SMFF.ImportExport.XML.XMLSaveable;
+import org.tubs.epoc.SMFF.ModelElements.AbstractDataExtension;
+import org.tubs.epoc.SMFF.ModelElements.ExtendibleModelElement;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.Profile;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResourceGroup;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResourceType;
+import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.GenericResourceGroup;
+import org.tubs.epoc.SMFF.ModelElements.Platform.GenericResourceType;
+import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.ResourceGraph;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractScheduler;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractSchedulingParameter;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.SPPScheduler;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.SchedulingPriority;
+import org.tubs.epoc.SMFF.ModelElements.Timing.AbstractActivationPattern;
+import org.tubs.epoc.SMFF.ModelElements.Timing.EventActivation;
+import org.tubs.epoc.SMFF.ModelElements.Timing.PJActivation;
+import org.tubs.epoc.SMFF.Utility.LongHashMap;
+
+/**
+ * Reads a binary snapshot written by {@link SnapshotSaver SnapshotSaver}.
+ * <p>
+ * The file is mapped into memory and its records are read in place. The getters give access to the applications,
+ * tasks and task links by their index in the snapshot without creating any model objects, e.g. to scan a large corpus
+ * of systems for their timing or mapping. {@link #generateSystem()} materializes the complete
+ * {@link org.tubs.epoc.SMFF.ModelElements.SystemModel SystemModel}, equal to the one {@link ModelLoader ModelLoader}
+ * creates from the xml description of the same system.
+ * <p>
+ * In between, {@link #getTask(int)} and {@link #getTaskLink(int)} materialize single tasks and task links on first
+ * access. They belong to a system model of their own, which holds the platform and the applications but only the
+ * tasks and task links materialized so far (the end tasks of a task link are materialized with it) and no
+ * constraints. It is independent of the models created by {@link #generateSystem()}. The lazy materialization is not
+ * thread-safe.
+ * <p>
+ * The mapping is kept for the lifetime of the loader; the file must not be modified while it is in use.
+ *
+ * @see SnapshotSaver
+ * @see ModelLoader
+ *
+ */
+public class SnapshotLoader {
+  private static Log logger = LogFactory.getLog(SnapshotLoader.class);
+
+  private ByteBuffer buffer;
+  private int[] offsets = new int[NUM_SECTIONS];
+  private int[] counts = new int[NUM_SECTIONS];
+  // start of the UTF-8 bytes behind the string offset table
+  private int stringData;
+
+  // lazily materialized model elements by index, see getTask and getTaskLink
+  private AbstractResource[] lazyResources;
+  private ApplicationModel[] lazyApps;
+  private Task[] lazyTasks;
+  private TaskLink[] lazyTaskLinks;
+  private LongHashMap<LinkedList<Integer>> lazyExtensions;
+  // task index by application index and task id
+  private LongHashMap<Integer> taskIndex;
+
+  public SnapshotLoader(String fileName) throws IOException {
+    this(new File(fileName));
+  }
+
+  /**
+   * Maps the snapshot file into memory.
+   *
+   * @param file
+   *          snapshot file
+   * @throws IOException
+   *           if the file cannot be read or is no snapshot of a supported version
+   */
+  public SnapshotLoader(File file) throws IOException {
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } finally {
+      // the mapping stays valid after the channel is closed
+      channel.close();
+    }
+
+    if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException(file + " is no system model snapshot");
+    }
+    if (buffer.getInt(4) != VERSION || buffer.getInt(8) != NUM_SECTIONS) {
+      throw new IOException("unsupported snapshot version " + buffer.getInt(4) + " of " + file);
+    }
+    for (int i = 0; i < NUM_SECTIONS; i++) {
+      offsets[i] = buffer.getInt(12 + 8 * i);
+      counts[i] = buffer.getInt(16 + 8 * i);
+      long end = (long) offsets[i] + (long) counts[i] * RECORD_SIZE[i];
+      if (offsets[i] < HEADER_SIZE || end > buffer.limit()) {
+        throw new IOException("corrupt snapshot " + file);
+      }
+    }
+    stringData = offsets[STRINGS] + 4 * (counts[STRINGS] + 1);
+  }
+
+  // -----------RECORD ACCESS----------
+  /**
+   * Returns a field of a record.
+   *
+   * @param section
+   *          section of the record
+   * @param index
+   *          index of the record in the section
+   * @param field
+   *          index of the <tt>int</tt> field in the record
+   */
+  private int get(int section, int index, int field) {
+    if (index < 0 || index >= counts[section]) {
+      throw new IndexOutOfBoundsException("no record " + index + " in section " + section);
+    }
+    return buffer.getInt(offsets[section] + index * RECORD_SIZE[section] + 4 * field);
+  }
+
+  private String getString(int index) {
+    if (index < 0) {
+      return null;
+    }
+    int start = buffer.getInt(offsets[STRINGS] + 4 * index);
+    int end = buffer.getInt(offsets[STRINGS] + 4 * (index + 1));
+    byte[] bytes = new byte[end - start];
+    ByteBuffer data = buffer.duplicate();
+    data.position(stringData + start);
+    data.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the number of applications
+   */
+  public int getNumApplications() {
+    return counts[APPLICATIONS];
+  }
+
+  /**
+   * @param app
+   *          index of the application
+   * @return the application id
+   */
+  public int getAppId(int app) {
+    return get(APPLICATIONS, app, APP_ID);
+  }
+
+  /**
+   * @param app
+   *          index of the application
+   * @return the application version
+   */
+  public int getAppV(int app) {
+    return get(APPLICATIONS, app, APP_V);
+  }
+
+  /**
+   * @return the number of resources, including communication resources
+   */
+  public int getNumResources() {
+    return counts[RESOURCES];
+  }
+
+  /**
+   * @param resource
+   *          index of the resource
+   * @return the resource id
+   */
+  public int getResId(int resource) {
+    return get(RESOURCES, resource, RESOURCE_ID);
+  }
+
+  /**
+   * @param resource
+   *          index of the resource
+   * @return true for communication resources
+   */
+  public boolean isCommResource(int resource) {
+    return get(RESOURCES, resource, RESOURCE_COMM) != 0;
+  }
+
+  /**
+   * @return the number of tasks of all applications
+   */
+  public int getNumTasks() {
+    return counts[TASKS];
+  }
+
+  /**
+   * @param task
+   *          index of the task
+   * @return the index of the application of the task
+   */
+  public int getTaskApp(int task) {
+    return get(TASKS, task, TASK_APP);
+  }
+
+  /**
+   * @param task
+   *          index of the task
+   * @return the task id within its application
+   */
+  public int getTaskId(int task) {
+    return get(TASKS, task, TASK_ID);
+  }
+
+  /**
+   * @param task
+   *          index of the task
+   * @return the index of the resource the task is mapped to or -1
+   */
+  public int getTaskMapping(int task) {
+    return get(TASKS, task, TASK_MAPPING);
+  }
+
+  /**
+   * @param task
+   *          index of the task
+   * @return the priority of the task or -1 if it has no {@link SchedulingPriority SchedulingPriority}
+   */
+  public int getTaskPriority(int task) {
+    return getPriority(get(TASKS, task, TASK_SCHED_PARAM));
+  }
+
+  /**
+   * @param task
+   *          index of the task
+   * @return the index of the active profile of the task or -1, see the profile getters
+   */
+  public int getTaskProfile(int task) {
+    int activeProfile = get(TASKS, task, TASK_ACTIVE_PROFILE);
+    if (activeProfile < 0) {
+      // the first profile is activated when the task is materialized
+      return get(TASKS, task, TASK_NUM_PROFILES) > 0 ? get(TASKS, task, TASK_FIRST_PROFILE) : -1;
+    }
+    return get(TASKS, task, TASK_FIRST_PROFILE) + activeProfile;
+  }
+
+  /**
+   * @return the number of task links of all applications
+   */
+  public int getNumTaskLinks() {
+    return counts[TASK_LINKS];
+  }
+
+  /**
+   * @param taskLink
+   *          index of the task link
+   * @return the index of the application of the task link
+   */
+  public int getTaskLinkApp(int taskLink) {
+    return get(TASK_LINKS, taskLink, LINK_APP);
+  }
+
+  /**
+   * @param taskLink
+   *          index of the task link
+   * @return the task link id within its application
+   */
+  public int getTaskLinkId(int taskLink) {
+    return get(TASK_LINKS, taskLink, LINK_ID);
+  }
+
+  /**
+   * @param taskLink
+   *          index of the task link
+   * @return the id of the source task
+   */
+  public int getTaskLinkSrcTaskId(int taskLink) {
+    return get(TASK_LINKS, taskLink, LINK_SRC);
+  }
+
+  /**
+   * @param taskLink
+   *          index of the task link
+   * @return the id of the target task
+   */
+  public int getTaskLinkTrgTaskId(int taskLink) {
+    return get(TASK_LINKS, taskLink, LINK_TRGT);
+  }
+
+  /**
+   * @param taskLink
+   *          index of the task link
+   * @return the index of the resource the task link is mapped to or -1
+   */
+  public int getTaskLinkMapping(int taskLink) {
+    return get(TASK_LINKS, taskLink, LINK_MAPPING);
+  }
+
+  /**
+   * @param taskLink
+   *          index of the task link
+   * @return the priority of the task link or -1 if it has no {@link SchedulingPriority SchedulingPriority}
+   */
+  public int getTaskLinkPriority(int taskLink) {
+    return getPriority(get(TASK_LINKS, taskLink, LINK_SCHED_PARAM));
+  }
+
+  /**
+   * @param taskLink
+   *          index of the task link
+   * @return the index of the active profile of the task link or -1, see the profile getters
+   */
+  public int getTaskLinkProfile(int taskLink) {
+    int activeProfile = get(TASK_LINKS, taskLink, LINK_ACTIVE_PROFILE);
+    return activeProfile < 0 ? -1 : get(TASK_LINKS, taskLink, LINK_FIRST_PROFILE) + activeProfile;
+  }
+
+  /**
+   * @param profile
+   *          index of the profile
+   * @return the best case execution time
+   */
+  public int getBCET(int profile) {
+    return get(PROFILES, profile, PROFILE_BCET);
+  }
+
+  /**
+   * @param profile
+   *          index of the profile
+   * @return the worst case execution time
+   */
+  public int getWCET(int profile) {
+    return get(PROFILES, profile, PROFILE_WCET);
+  }
+
+  /**
+   * @param profile
+   *          index of the profile
+   * @return the activation period or 0 if the profile has no {@link PJActivation PJActivation}
+   */
+  public int getActivationPeriod(int profile) {
+    int activation = get(PROFILES, profile, PROFILE_ACTIVATION);
+    if (activation < 0 || get(OBJECTS, activation, OBJECT_KIND) != KIND_PJ_ACTIVATION) {
+      return 0;
+    }
+    return get(OBJECTS, activation, OBJECT_A);
+  }
+
+  /**
+   * @param profile
+   *          index of the profile
+   * @return the activation jitter or 0 if the profile has no {@link PJActivation PJActivation}
+   */
+  public int getActivationJitter(int profile) {
+    int activation = get(PROFILES, profile, PROFILE_ACTIVATION);
+    if (activation < 0 || get(OBJECTS, activation, OBJECT_KIND) != KIND_PJ_ACTIVATION) {
+      return 0;
+    }
+    return get(OBJECTS, activation, OBJECT_B);
+  }
+
+  private int getPriority(int schedParam) {
+    if (schedParam < 0 || get(OBJECTS, schedParam, OBJECT_KIND) != KIND_SCHEDULING_PRIORITY) {
+      return -1;
+    }
+    return get(OBJECTS, schedParam, OBJECT_A);
+  }
+
+  // -----------MATERIALIZATION----------
+  /**
+   * Generates the system model stored in the snapshot.
+   *
+   * @return an instance of {@link org.tubs.epoc.SMFF.ModelElements.SystemModel SystemModel}.
+   * @throws IOException
+   *           if an object stored as xml cannot be read
+   */
+  public SystemModel generateSystem() throws IOException {
+    SystemModel systemModel = new SystemModel();
+    LongHashMap<LinkedList<Integer>> extensions = indexExtensions();
+
+    insertExtensions(extensions, OWNER_SYSTEM, 0, systemModel);
+
+    AbstractResource[] resources = insertPlatform(systemModel, extensions);
+
+    for (int a = 0; a < counts[APPLICATIONS]; a++) {
+      ApplicationModel app = new ApplicationModel(systemModel, getAppId(a), getAppV(a));
+      systemModel.addApplication(app);
+      insertExtensions(extensions, OWNER_APPLICATION, a, app);
+      insertTasks(app, a, resources, extensions);
+      insertTaskLinks(app, a, resources, extensions);
+
+      int firstConstraint = get(APPLICATIONS, a, APP_FIRST_CONSTRAINT);
+      int numConstraints = get(APPLICATIONS, a, APP_NUM_CONSTRAINTS);
+      for (int i = firstConstraint; i < firstConstraint + numConstraints; i++) {
+        Task startTask = app.getTask(get(CONSTRAINTS, i, CONSTRAINT_START));
+        Task endTask = app.getTask(get(CONSTRAINTS, i, CONSTRAINT_END));
+        if (startTask == null || endTask == null) {
+          throw new IllegalStateException("Cannot find tasks of the constraint");
+        }
+        double latencyConstr = buffer.getDouble(offsets[CONSTRAINTS] + i * RECORD_SIZE[CONSTRAINTS] + 4
+            * CONSTRAINT_LATENCY);
+        app.addSysLatConstr(startTask, endTask, latencyConstr);
+      }
+    }
+    return systemModel;
+  }
+
+  /**
+   * Returns a task, which is materialized on first access, see the class description.
+   *
+   * @param task
+   *          index of the task
+   * @return the task
+   * @throws IOException
+   *           if an object stored as xml cannot be read
+   */
+  public Task getTask(int task) throws IOException {
+    if (lazyTasks == null) {
+      initLazySystem();
+    }
+    if (lazyTasks[task] == null) {
+      ApplicationModel app = lazyApps[getTaskApp(task)];
+      Task t = createTask(app, task, lazyExtensions);
+      app.addTask(t);
+      int mapping = get(TASKS, task, TASK_MAPPING);
+      if (mapping >= 0) {
+        app.mapTask(t, (Resource) lazyResources[mapping]);
+      }
+      int schedParam = get(TASKS, task, TASK_SCHED_PARAM);
+      if (schedParam >= 0) {
+        t.setSchedulingParameter((AbstractSchedulingParameter) createObject(schedParam));
+      }
+      lazyTasks[task] = t;
+    }
+    return lazyTasks[task];
+  }
+
+  /**
+   * Returns a task link, which is materialized on first access together with its end tasks, see the class
+   * description.
+   *
+   * @param taskLink
+   *          index of the task link
+   * @return the task link
+   * @throws IOException
+   *           if an object stored as xml cannot be read
+   */
+  public TaskLink getTaskLink(int taskLink) throws IOException {
+    if (lazyTaskLinks == null) {
+      initLazySystem();
+    }
+    if (lazyTaskLinks[taskLink] == null) {
+      int a = getTaskLinkApp(taskLink);
+      if (taskIndex == null) {
+        taskIndex = new LongHashMap<Integer>();
+        for (int i = 0; i < counts[TASKS]; i++) {
+          taskIndex.put(getOwnerKey(getTaskApp(i), getTaskId(i)), i);
+        }
+      }
+      Integer sourceTask = taskIndex.get(getOwnerKey(a, getTaskLinkSrcTaskId(taskLink)));
+      Integer targetTask = taskIndex.get(getOwnerKey(a, getTaskLinkTrgTaskId(taskLink)));
+      if (sourceTask == null || targetTask == null) {
+        throw new IllegalStateException("Cannot find tasks at the end of task link");
+      }
+      getTask(sourceTask);
+      getTask(targetTask);
+
+      TaskLink tl = createTaskLink(lazyApps[a], taskLink, lazyExtensions);
+      int mapping = get(TASK_LINKS, taskLink, LINK_MAPPING);
+      if (mapping >= 0) {
+        lazyApps[a].mapTaskLink(tl, lazyResources[mapping]);
+      }
+      int schedParam = get(TASK_LINKS, taskLink, LINK_SCHED_PARAM);
+      if (schedParam >= 0) {
+        tl.setSchedulingParameter((AbstractSchedulingParameter) createObject(schedParam));
+      }
+      lazyTaskLinks[taskLink] = tl;
+    }
+    return lazyTaskLinks[taskLink];
+  }
+
+  /**
+   * Creates the system model of the lazily materialized elements with the platform and empty applications.
+   */
+  private void initLazySystem() throws IOException {
+    LongHashMap<LinkedList<Integer>> extensions = indexExtensions();
+    SystemModel systemModel = new SystemModel();
+    insertExtensions(extensions, OWNER_SYSTEM, 0, systemModel);
+    AbstractResource[] resources = insertPlatform(systemModel, extensions);
+    ApplicationModel[] apps = new ApplicationModel[counts[APPLICATIONS]];
+    for (int a = 0; a < apps.length; a++) {
+      apps[a] = new ApplicationModel(systemModel, getAppId(a), getAppV(a));
+      systemModel.addApplication(apps[a]);
+      insertExtensions(extensions, OWNER_APPLICATION, a, apps[a]);
+    }
+
+    lazyExtensions = extensions;
+    lazyResources = resources;
+    lazyApps = apps;
+    lazyTasks = new Task[counts[TASKS]];
+    lazyTaskLinks = new TaskLink[counts[TASK_LINKS]];
+  }
+
+  /**
+   * Inserts the resources and their attachments into the system model.
+   *
+   * @return the resources by index
+   */
+  private AbstractResource[] insertPlatform(SystemModel systemModel, LongHashMap<LinkedList<Integer>> extensions)
+      throws IOException {
+    // communication resources come first
+    AbstractResource[] resources = new AbstractResource[counts[RESOURCES]];
+    for (int i = 0; i < resources.length; i++) {
+      String shortName = getString(get(RESOURCES, i, RESOURCE_NAME));
+      int resID = get(RESOURCES, i, RESOURCE_ID);
+      AbstractResourceType resType = (AbstractResourceType) createObject(get(RESOURCES, i, RESOURCE_TYPE));
+      AbstractResourceGroup resGroup = (AbstractResourceGroup) createObject(get(RESOURCES, i, RESOURCE_GROUP));
+      if (get(RESOURCES, i, RESOURCE_COMM) != 0) {
+        resources[i] = new CommResource(systemModel, shortName, resID, resType, resGroup);
+      } else {
+        resources[i] = new Resource(systemModel, shortName, resID, resType, resGroup);
+      }
+      resources[i].setScheduler((AbstractScheduler) createObject(get(RESOURCES, i, RESOURCE_SCHEDULER)));
+      insertExtensions(extensions, OWNER_RESOURCE, i, resources[i]);
+      systemModel.addResource(resources[i]);
+    }
+    for (int i = 0; i < counts[ATTACHMENTS]; i++) {
+      AbstractResource cRes = resources[get(ATTACHMENTS, i, ATTACHMENT_COMM_RESOURCE)];
+      cRes.addLink(resources[get(ATTACHMENTS, i, ATTACHMENT_RESOURCE)]);
+    }
+    systemModel.setResModel(new ResourceGraph(systemModel));
+    return resources;
+  }
+
+  private void insertTasks(ApplicationModel app, int a, AbstractResource[] resources,
+      LongHashMap<LinkedList<Integer>> extensions) throws IOException {
+    int firstTask = get(APPLICATIONS, a, APP_FIRST_TASK);
+    int numTasks = get(APPLICATIONS, a, APP_NUM_TASKS);
+    for (int i = firstTask; i < firstTask + numTasks; i++) {
+      app.addTask(createTask(app, i, extensions));
+    }
+
+    for (int i = firstTask; i < firstTask + numTasks; i++) {
+      int mapping = get(TASKS, i, TASK_MAPPING);
+      if (mapping >= 0) {
+        app.mapTask(app.getTask(get(TASKS, i, TASK_ID)), (Resource) resources[mapping]);
+      }
+    }
+    for (int i = firstTask; i < firstTask + numTasks; i++) {
+      int schedParam = get(TASKS, i, TASK_SCHED_PARAM);
+      if (schedParam >= 0) {
+        app.getTask(get(TASKS, i, TASK_ID)).setSchedulingParameter(
+            (AbstractSchedulingParameter) createObject(schedParam));
+      }
+    }
+  }
+
+  private void insertTaskLinks(ApplicationModel app, int a, AbstractResource[] resources,
+      LongHashMap<LinkedList<Integer>> extensions) throws IOException {
+    int firstLink = get(APPLICATIONS, a, APP_FIRST_LINK);
+    int numLinks = get(APPLICATIONS, a, APP_NUM_LINKS);
+    TaskLink[] taskLinks = new TaskLink[numLinks];
+    for (int i = firstLink; i < firstLink + numLinks; i++) {
+      taskLinks[i - firstLink] = createTaskLink(app, i, extensions);
+    }
+
+    for (int i = firstLink; i < firstLink + numLinks; i++) {
+      int mapping = get(TASK_LINKS, i, LINK_MAPPING);
+      if (mapping >= 0) {
+        app.mapTaskLink(taskLinks[i - firstLink], resources[mapping]);
+      }
+    }
+    for (int i = firstLink; i < firstLink + numLinks; i++) {
+      int schedParam = get(TASK_LINKS, i, LINK_SCHED_PARAM);
+      if (schedParam >= 0) {
+        taskLinks[i - firstLink].setSchedulingParameter((AbstractSchedulingParameter) createObject(schedParam));
+      }
+    }
+  }
+
+  /**
+   * Creates a task with its profiles and data extensions, it is not added to the application.
+   */
+  private Task createTask(ApplicationModel app, int i, LongHashMap<LinkedList<Integer>> extensions)
+      throws IOException {
+    Task task = new Task(getString(get(TASKS, i, TASK_NAME)), app, get(TASKS, i, TASK_ID));
+    insertExtensions(extensions, OWNER_TASK, i, task);
+    insertProfiles(task, get(TASKS, i, TASK_FIRST_PROFILE), get(TASKS, i, TASK_NUM_PROFILES),
+        get(TASKS, i, TASK_ACTIVE_PROFILE));
+    // if task did not get an active profile, just set the first one
+    if (task.getActiveProfile() == null) {
+      task.setActiveProfile(task.getProfileList().getFirst());
+    }
+    return task;
+  }
+
+  /**
+   * Creates a task link with its profiles and data extensions and adds it to the application and its end tasks, which
+   * must have been added before.
+   */
+  private TaskLink createTaskLink(ApplicationModel app, int i, LongHashMap<LinkedList<Integer>> extensions)
+      throws IOException {
+    // task links always have a name, snapshots of older versions stored empty names as null
+    String shortName = getString(get(TASK_LINKS, i, LINK_NAME));
+    TaskLink taskLink = new TaskLink(shortName == null ? "" : shortName, app, get(TASK_LINKS, i, LINK_ID),
+        get(TASK_LINKS, i, LINK_SRC), get(TASK_LINKS, i, LINK_TRGT));
+    Task sourceTask = app.getTask(taskLink.getSrcTaskId());
+    Task targetTask = app.getTask(taskLink.getTrgTaskId());
+    if (sourceTask == null || targetTask == null) {
+      throw new IllegalStateException("Cannot find tasks at the end of task link");
+    }
+    sourceTask.addTaskLink(taskLink);
+    targetTask.addTaskLink(taskLink);
+    insertProfiles(taskLink, get(TASK_LINKS, i, LINK_FIRST_PROFILE), get(TASK_LINKS, i, LINK_NUM_PROFILES),
+        get(TASK_LINKS, i, LINK_ACTIVE_PROFILE));
+    insertExtensions(extensions, OWNER_TASK_LINK, i, taskLink);
+    app.addTaskLink(taskLink);
+    return taskLink;
+  }
+
+  private void insertProfiles(SchedulableElement schedElem, int firstProfile, int numProfiles, int activeProfile)
+      throws IOException {
+    for (int i = firstProfile; i < firstProfile + numProfiles; i++) {
+      Profile prof = new Profile(get(PROFILES, i, PROFILE_BCET), get(PROFILES, i, PROFILE_WCET),
+          (AbstractActivationPattern) createObject(get(PROFILES, i, PROFILE_ACTIVATION)),
+          (AbstractResourceType) createObject(get(PROFILES, i, PROFILE_TYPE)),
+          (AbstractResourceGroup) createObject(get(PROFILES, i, PROFILE_GROUP)));
+      schedElem.addProfile(prof);
+      if (i - firstProfile == activeProfile) {
+        schedElem.setActiveProfile(prof);
+      }
+    }
+  }
+
+  /**
+   * Creates a new instance of the stored object, instances are never shared between model elements.
+   *
+   * @return the object or null for index -1
+   */
+  private XMLSaveable createObject(int index) throws IOException {
+    if (index < 0) {
+      return null;
+    }
+    int a = get(OBJECTS, index, OBJECT_A);
+    switch (get(OBJECTS, index, OBJECT_KIND)) {
+      case KIND_PJ_ACTIVATION:
+        return new PJActivation(a, get(OBJECTS, index, OBJECT_B));
+      case KIND_EVENT_ACTIVATION:
+        return new EventActivation();
+      case KIND_SCHEDULING_PRIORITY:
+        return new SchedulingPriority(a);
+      case KIND_SPP_SCHEDULER:
+        return new SPPScheduler();
+      case KIND_GENERIC_RESOURCE_TYPE:
+        return new GenericResourceType();
+      case KIND_GENERIC_RESOURCE_GROUP:
+        return new GenericResourceGroup();
+      case KIND_XML:
+        return fromXML(getString(a));
+      default:
+        throw new IOException("unknown object kind " + get(OBJECTS, index, OBJECT_KIND));
+    }
+  }
+
+  private static XMLSaveable fromXML(String xml) throws IOException {
+    try {
+      return XMLFactory.fromXML(new SAXBuilder().build(new StringReader(xml)).getRootElement());
+    } catch (IOException e) {
+      throw e;
+    } catch (JDOMException e) {
+      throw new IOException(e.getMessage(), e);
+    } catch (Exception e) {
+      throw new IOException("cannot instantiate " + xml, e);
+    }
+  }
+
+  /**
+   * @return the extension records by owner kind and owner index
+   */
+  private LongHashMap<LinkedList<Integer>> indexExtensions() {
+    LongHashMap<LinkedList<Integer>> extensions = new LongHashMap<LinkedList<Integer>>();
+    for (int i = 0; i < counts[EXTENSIONS]; i++) {
+      long owner = getOwnerKey(get(EXTENSIONS, i, EXTENSION_OWNER_KIND), get(EXTENSIONS, i, EXTENSION_OWNER));
+      LinkedList<Integer> ownerExtensions = extensions.get(owner);
+      if (ownerExtensions == null) {
+        ownerExtensions = new LinkedList<Integer>();
+        extensions.put(owner, ownerExtensions);
+      }
+      ownerExtensions.add(i);
+    }
+    return extensions;
+  }
+
+  private static long getOwnerKey(int ownerKind, int owner) {
+    return ((long) ownerKind << 32) | (owner & 0xFFFFFFFFL);
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private void insertExtensions(LongHashMap<LinkedList<Integer>> extensions, int ownerKind, int owner,
+      ExtendibleModelElement rootModel) {
+    LinkedList<Integer> ownerExtensions = extensions.get(getOwnerKey(ownerKind, owner));
+    if (ownerExtensions == null) {
+      return;
+    }
+    // get type of allowed data extensions
+    Class<? extends AbstractDataExtension> dataExtensionType = (Class<? extends AbstractDataExtension>) rootModel
+        .getDataExtensionType();
+    for (int i : ownerExtensions) {
+      int flags = get(EXTENSIONS, i, EXTENSION_FLAGS);
+      try {
+        XMLSaveable modelExtension = fromXML(getString(get(EXTENSIONS, i, EXTENSION_XML)));
+        rootModel.addExtData(dataExtensionType.cast(modelExtension), (flags & FLAG_CLONEABLE) != 0,
+            (flags & FLAG_OVERWRITE) != 0, (flags & FLAG_IGNORE_EXISTING) != 0);
+      } catch (Exception e) {
+        // if generation failed, print message
+        logger.error("Cannot insert extensions", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,445 @@
+package org.tubs.epoc.SMFF.ImportExport.Binary;
+
+import static org.tubs.epoc.SMFF.ImportExport.Binary.SnapshotFormat.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.jdom2.Element;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+import org.tubs.epoc.SMFF.ImportExport.XML.ModelSaver;
+import org.tubs.epoc.SMFF.ImportExport.XML.XMLSaveable;
+import org.tubs.epoc.SMFF.ModelElements.AbstractDataExtension;
+import org.tubs.epoc.SMFF.ModelElements.ExtendibleModelElement;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.Profile;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+import org.tubs.epoc.SMFF.ModelElements.Application.SysLatencyConstraint;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.GenericResourceGroup;
+import org.tubs.epoc.SMFF.ModelElements.Platform.GenericResourceType;
+import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.SPPScheduler;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.SchedulingPriority;
+import org.tubs.epoc.SMFF.ModelElements.Timing.EventActivation;
+import org.tubs.epoc.SMFF.ModelElements.Timing.PJActivation;
+
+/**
+ * Saves a system model as binary snapshot, which is much faster to load than the xml description.
+ * <p>
+ * The snapshot holds the same information as the file written by {@link ModelSaver ModelSaver}: the platform with its
+ * connections, the applications with their tasks, task links, profiles, mapping, scheduling parameters and
+ * constraints, and all data extensions implementing {@link XMLSaveable XMLSaveable}. It consists of sections of
+ * fixed-width records (see {@link SnapshotFormat}) that {@link SnapshotLoader SnapshotLoader} reads directly from a
+ * memory-mapped file. Objects of the built-in timing, scheduling and resource type classes are stored as numbers, all
+ * other objects as their xml description.
+ *
+ * @see SnapshotLoader
+ * @see ModelSaver
+ *
+ */
+public class SnapshotSaver {
+  private File file;
+
+  // sections under construction
+  private DataOutputStream[] sections;
+  private ByteArrayOutputStream[] sectionBytes;
+  private int[] counts;
+
+  private HashMap<String, Integer> stringIndex;
+  private List<byte[]> strings;
+  // built-in objects by their values, xml descriptions by their string index
+  private HashMap<ObjectKey, Integer> objectIndex;
+  private HashMap<Integer, Integer> xmlObjectIndex;
+  private IdentityHashMap<AbstractResource, Integer> resourceIndex;
+  private XMLOutputter xmlOutputter;
+
+  public SnapshotSaver(String filename) {
+    this.file = new File(filename);
+  }
+
+  public SnapshotSaver(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Saves the passed system model to the file through which an instance of this saver is created.
+   *
+   * @param systemModel
+   *          model to be saved.
+   * @throws IOException
+   *           if the file cannot be written.
+   */
+  public void saveModel(SystemModel systemModel) throws IOException {
+    sections = new DataOutputStream[NUM_SECTIONS];
+    sectionBytes = new ByteArrayOutputStream[NUM_SECTIONS];
+    counts = new int[NUM_SECTIONS];
+    for (int i = 0; i < NUM_SECTIONS; i++) {
+      sectionBytes[i] = new ByteArrayOutputStream();
+      sections[i] = new DataOutputStream(sectionBytes[i]);
+    }
+    stringIndex = new HashMap<String, Integer>();
+    strings = new ArrayList<byte[]>();
+    objectIndex = new HashMap<ObjectKey, Integer>();
+    xmlObjectIndex = new HashMap<Integer, Integer>();
+    resourceIndex = new IdentityHashMap<AbstractResource, Integer>();
+    xmlOutputter = new XMLOutputter(Format.getCompactFormat());
+
+    try {
+      addExtensions(OWNER_SYSTEM, 0, systemModel);
+      addPlatform(systemModel);
+      addApplications(systemModel);
+      writeFile();
+    } finally {
+      sections = null;
+      sectionBytes = null;
+      strings = null;
+      resourceIndex = null;
+    }
+  }
+
+  // -----------PLATFORM----------
+  private void addPlatform(SystemModel systemModel) throws IOException {
+    // communication resources first, the resources are attached to them
+    for (CommResource cRes : systemModel.getCommResourceTable().values()) {
+      addResource(cRes, true);
+    }
+    Collection<Resource> resources = systemModel.getResourceTable().values();
+    for (Resource resource : resources) {
+      addResource(resource, false);
+    }
+
+    for (Resource resource : resources) {
+      for (AbstractResource attachedTo : resource.getNeighbors()) {
+        Integer commResource = resourceIndex.get(attachedTo);
+        if (commResource == null) {
+          throw new IllegalStateException("Resource " + resource + " attached to unknown resource " + attachedTo);
+        }
+        DataOutputStream out = sections[ATTACHMENTS];
+        out.writeInt(resourceIndex.get(resource));
+        out.writeInt(commResource);
+        counts[ATTACHMENTS]++;
+      }
+    }
+  }
+
+  private void addResource(AbstractResource resource, boolean comm) throws IOException {
+    int index = counts[RESOURCES]++;
+    resourceIndex.put(resource, index);
+
+    DataOutputStream out = sections[RESOURCES];
+    out.writeInt(comm ? 1 : 0);
+    out.writeInt(resource.getResId());
+    out.writeInt(addName(resource.getShortName()));
+    out.writeInt(addObject(resource.getResType()));
+    out.writeInt(addObject(resource.getResGroup()));
+    out.writeInt(addObject(resource.getScheduler()));
+
+    addExtensions(OWNER_RESOURCE, index, resource);
+  }
+
+  // -----------APPLICATIONS----------
+  private void addApplications(SystemModel systemModel) throws IOException {
+    for (ApplicationModel app : systemModel.getApplications()) {
+      int index = counts[APPLICATIONS]++;
+      addExtensions(OWNER_APPLICATION, index, app);
+
+      int firstTask = counts[TASKS];
+      for (Task task : app.getTaskList().values()) {
+        addTask(index, task);
+      }
+      int firstLink = counts[TASK_LINKS];
+      for (TaskLink taskLink : app.getTaskLinkList().values()) {
+        addTaskLink(index, taskLink);
+      }
+      int firstConstraint = counts[CONSTRAINTS];
+      for (SysLatencyConstraint sysLatConstr : app.getConstraints().values()) {
+        DataOutputStream out = sections[CONSTRAINTS];
+        out.writeInt(sysLatConstr.getStartTask().getElemId());
+        out.writeInt(sysLatConstr.getEndTask().getElemId());
+        out.writeDouble(sysLatConstr.getLatencyConstr());
+        counts[CONSTRAINTS]++;
+      }
+
+      DataOutputStream out = sections[APPLICATIONS];
+      out.writeInt(app.getAppId());
+      out.writeInt(app.getAppV());
+      out.writeInt(firstTask);
+      out.writeInt(counts[TASKS] - firstTask);
+      out.writeInt(firstLink);
+      out.writeInt(counts[TASK_LINKS] - firstLink);
+      out.writeInt(firstConstraint);
+      out.writeInt(counts[CONSTRAINTS] - firstConstraint);
+    }
+  }
+
+  private void addTask(int app, Task task) throws IOException {
+    int index = counts[TASKS]++;
+    int firstProfile = counts[PROFILES];
+    int activeProfile = addProfiles(task);
+
+    DataOutputStream out = sections[TASKS];
+    out.writeInt(app);
+    out.writeInt(task.getElemId());
+    out.writeInt(addName(task.getShortName()));
+    out.writeInt(getMapping(task));
+    out.writeInt(addObject(task.getSchedulingParameter()));
+    out.writeInt(firstProfile);
+    out.writeInt(counts[PROFILES] - firstProfile);
+    out.writeInt(activeProfile);
+
+    addExtensions(OWNER_TASK, index, task);
+  }
+
+  private void addTaskLink(int app, TaskLink taskLink) throws IOException {
+    int index = counts[TASK_LINKS]++;
+    int firstProfile = counts[PROFILES];
+    int activeProfile = addProfiles(taskLink);
+
+    DataOutputStream out = sections[TASK_LINKS];
+    out.writeInt(app);
+    out.writeInt(taskLink.getElemId());
+    out.writeInt(addName(taskLink.getShortName()));
+    out.writeInt(taskLink.getSrcTaskId());
+    out.writeInt(taskLink.getTrgTaskId());
+    out.writeInt(getMapping(taskLink));
+    out.writeInt(addObject(taskLink.getSchedulingParameter()));
+    out.writeInt(firstProfile);
+    out.writeInt(counts[PROFILES] - firstProfile);
+    out.writeInt(activeProfile);
+
+    addExtensions(OWNER_TASK_LINK, index, taskLink);
+  }
+
+  /**
+   * @return index of the active profile relative to the first one or -1
+   */
+  private int addProfiles(SchedulableElement schedElem) throws IOException {
+    int activeProfile = -1;
+    int i = 0;
+    for (Profile profile : schedElem.getProfileList()) {
+      DataOutputStream out = sections[PROFILES];
+      out.writeInt(profile.getBCET());
+      out.writeInt(profile.getWCET());
+      out.writeInt(addObject(profile.getActivationPattern()));
+      out.writeInt(addObject(profile.getResType()));
+      out.writeInt(addObject(profile.getResGroup()));
+      counts[PROFILES]++;
+      if (schedElem.getActiveProfile() == profile) {
+        activeProfile = i;
+      }
+      i++;
+    }
+    return activeProfile;
+  }
+
+  private int getMapping(SchedulableElement schedElem) {
+    if (schedElem.getMappedTo() == null) {
+      return -1;
+    }
+    Integer index = resourceIndex.get(schedElem.getMappedTo());
+    if (index == null) {
+      throw new IllegalStateException(schedElem + " mapped to unknown resource " + schedElem.getMappedTo());
+    }
+    return index;
+  }
+
+  // -----------HELPERS----------
+  /**
+   * Adds all data extensions that implement XMLSaveable.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private void addExtensions(int ownerKind, int owner, ExtendibleModelElement rootModel) throws IOException {
+    Collection<AbstractDataExtension> dataExtensions = rootModel.getExtDataByParentClass(AbstractDataExtension.class);
+    for (AbstractDataExtension dataExt : dataExtensions) {
+      if (XMLSaveable.class.isInstance(dataExt)) {
+        XMLSaveable saveable = (XMLSaveable) dataExt;
+        int flags = 0;
+        if (saveable.isCloneable()) flags |= FLAG_CLONEABLE;
+        if (saveable.isIgnoreExisiting()) flags |= FLAG_IGNORE_EXISTING;
+        if (saveable.isOverwrite()) flags |= FLAG_OVERWRITE;
+
+        DataOutputStream out = sections[EXTENSIONS];
+        out.writeInt(ownerKind);
+        out.writeInt(owner);
+        out.writeInt(addString(xmlOutputter.outputString(saveable.toXML())));
+        out.writeInt(flags);
+        counts[EXTENSIONS]++;
+      }
+    }
+  }
+
+  /**
+   * Adds an activation pattern, scheduler, scheduling parameter or resource type/group. Only subclasses of the
+   * built-in classes are stored as xml.
+   *
+   * @return index of the object or -1 for null
+   */
+  private int addObject(XMLSaveable object) throws IOException {
+    if (object == null) {
+      return -1;
+    }
+    Class<?> clazz = object.getClass();
+    if (clazz == PJActivation.class) {
+      PJActivation activation = (PJActivation) object;
+      return addObject(KIND_PJ_ACTIVATION, activation.getActivationPeriod(), activation.getActivationJitter());
+    } else if (clazz == EventActivation.class) {
+      return addObject(KIND_EVENT_ACTIVATION, 0, 0);
+    } else if (clazz == SchedulingPriority.class) {
+      return addObject(KIND_SCHEDULING_PRIORITY, ((SchedulingPriority) object).getPriority(), 0);
+    } else if (clazz == SPPScheduler.class) {
+      return addObject(KIND_SPP_SCHEDULER, 0, 0);
+    } else if (clazz == GenericResourceType.class) {
+      return addObject(KIND_GENERIC_RESOURCE_TYPE, 0, 0);
+    } else if (clazz == GenericResourceGroup.class) {
+      return addObject(KIND_GENERIC_RESOURCE_GROUP, 0, 0);
+    }
+
+    Element xml = object.toXML();
+    int string = addString(xmlOutputter.outputString(xml));
+    Integer index = xmlObjectIndex.get(string);
+    if (index == null) {
+      index = writeObject(KIND_XML, string, 0);
+      xmlObjectIndex.put(string, index);
+    }
+    return index;
+  }
+
+  private int addObject(int kind, int a, int b) throws IOException {
+    // objects are immutable in the file, equal ones are stored once
+    ObjectKey key = new ObjectKey(kind, a, b);
+    Integer index = objectIndex.get(key);
+    if (index == null) {
+      index = writeObject(kind, a, b);
+      objectIndex.put(key, index);
+    }
+    return index;
+  }
+
+  private int writeObject(int kind, int a, int b) throws IOException {
+    DataOutputStream out = sections[OBJECTS];
+    out.writeInt(kind);
+    out.writeInt(a);
+    out.writeInt(b);
+    return counts[OBJECTS]++;
+  }
+
+  /**
+   * Adds the short name of a model element. The getters return the empty string constant for elements without a name,
+   * which is stored as null like an element the ModelLoader creates without a name attribute. Any other empty string
+   * is stored as it is, since ModelSaver only omits the name of elements whose short name is the constant.
+   *
+   * @return index of the name, -1 for elements without a name
+   */
+  private int addName(String name) {
+    return name == "" ? -1 : addString(name);
+  }
+
+  /**
+   * @return index of the string, -1 for null
+   */
+  private int addString(String string) {
+    if (string == null) {
+      return -1;
+    }
+    Integer index = stringIndex.get(string);
+    if (index == null) {
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      index = strings.size();
+      strings.add(bytes);
+      stringIndex.put(string, index);
+    }
+    return index;
+  }
+
+  private void writeFile() throws IOException {
+    // the string section consists of the offset table and the bytes
+    counts[STRINGS] = strings.size();
+    DataOutputStream stringSection = sections[STRINGS];
+    int offset = 0;
+    stringSection.writeInt(offset);
+    for (byte[] bytes : strings) {
+      offset += bytes.length;
+      stringSection.writeInt(offset);
+    }
+    for (byte[] bytes : strings) {
+      stringSection.write(bytes);
+    }
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC);
+    header.putInt(VERSION);
+    header.putInt(NUM_SECTIONS);
+    long position = HEADER_SIZE;
+    for (int i = 0; i < NUM_SECTIONS; i++) {
+      sections[i].flush();
+      if (position + sectionBytes[i].size() > Integer.MAX_VALUE) {
+        throw new IOException("system model too large for a snapshot");
+      }
+      header.putInt((int) position);
+      header.putInt(counts[i]);
+      position += sectionBytes[i].size();
+    }
+    header.flip();
+
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    try {
+      writeFully(channel, header);
+      for (int i = 0; i < NUM_SECTIONS; i++) {
+        writeFully(channel, ByteBuffer.wrap(sectionBytes[i].toByteArray()));
+      }
+    } finally {
+      channel.close();
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * Values of a built-in object.
+   */
+  private static final class ObjectKey {
+    private final int kind;
+    private final int a;
+    private final int b;
+
+    ObjectKey(int kind, int a, int b) {
+      this.kind = kind;
+      this.a = a;
+      this.b = b;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof ObjectKey)) return false;
+      ObjectKey other = (ObjectKey) obj;
+      return kind == other.kind && a == other.a && b == other.b;
+    }
+
+    @Override
+    public int hashCode() {
+      return (kind * 31 + a) * 31 + b;
+    }
+  }
+}
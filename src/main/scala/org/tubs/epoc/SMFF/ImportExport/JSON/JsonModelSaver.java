@@ -0,0 +1,622 @@
+package org.tubs.epoc.SMFF.ImportExport.JSON;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+import org.tubs.epoc.SMFF.ImportExport.XML.ModelConfiguration;
+import org.tubs.epoc.SMFF.ImportExport.XML.ModelSaver;
+import org.tubs.epoc.SMFF.ImportExport.XML.XMLSaveable;
+import org.tubs.epoc.SMFF.ModelElements.AbstractDataExtension;
+import org.tubs.epoc.SMFF.ModelElements.ExtendibleModelElement;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.Profile;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+import org.tubs.epoc.SMFF.ModelElements.Application.SysLatencyConstraint;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractSchedulingParameter;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Generates a JSON file from the given system model description.
+ * <p>
+ * The JSON document follows the XML description written by {@link ModelSaver ModelSaver} element by element, using the
+ * same conventions as the XML to JSON conversion the generator used before:
+ * <ul>
+ * <li>attributes become string fields, in reverse document order,</li>
+ * <li>elements with child elements become objects; two or more siblings that all share one name become an array,</li>
+ * <li>elements without child elements add their attributes (and text) to the enclosing object,</li>
+ * <li>elements without child elements and attributes become strings holding their text.</li>
+ * </ul>
+ * The model is walked directly and written through a Jackson {@link JsonGenerator}, so neither an XML document nor a
+ * JSON tree of the whole system is built. The output is either indented (pretty) or compact.
+ *
+ * @see ModelSaver
+ * @see SystemModel
+ *
+ */
+public class JsonModelSaver {
+  // size of the write buffer in front of the file channel
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  // generator factory, thread safe once configured
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private File file;
+  private boolean pretty;
+
+  // default class map, collected before the model is written
+  private ModelConfiguration configuration;
+
+  public JsonModelSaver(String filename, boolean pretty) {
+    this(new File(filename), pretty);
+  }
+
+  public JsonModelSaver(File file, boolean pretty) {
+    this.file = file;
+    this.pretty = pretty;
+  }
+
+  /**
+   * Saves the passed system model description to the file through which an instance of this saver is created.
+   *
+   * @param systemModel
+   *          model to be saved.
+   * @throws IOException
+   *           if the file cannot be written.
+   */
+  public void saveModel(SystemModel systemModel) throws IOException {
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+    try {
+      saveModel(systemModel, out);
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Writes the passed system model description to the given stream. The stream is flushed but not closed.
+   *
+   * @param systemModel
+   *          model to be saved.
+   * @param out
+   *          stream to write the JSON description to.
+   * @throws IOException
+   *           if writing to the stream fails.
+   */
+  public void saveModel(SystemModel systemModel, OutputStream out) throws IOException {
+    configuration = new ModelConfiguration(systemModel);
+
+    JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    if (pretty) {
+      generator.useDefaultPrettyPrinter();
+    }
+
+    generator.writeStartObject();
+    writeField(generator, new SystemModelNode(systemModel));
+    generator.writeEndObject();
+
+    generator.close();
+    out.flush();
+  }
+
+  // -----------WRITING----------
+  /**
+   * Writes the node as field(s) of the object that is currently open.
+   */
+  private void writeField(JsonGenerator generator, Node node) throws IOException {
+    List<Node> children = node.getChildren();
+    List<String> attributes = node.getAttributes();
+    if (children.isEmpty()) {
+      String text = node.getText();
+      if (attributes.isEmpty()) {
+        generator.writeStringField(node.name, text);
+      } else {
+        // merged into the enclosing object
+        if (!text.isEmpty()) {
+          generator.writeStringField(node.name, text);
+        }
+        writeAttributes(generator, attributes);
+      }
+    } else {
+      generator.writeObjectFieldStart(node.name);
+      writeAttributes(generator, attributes);
+      writeChildren(generator, children);
+      generator.writeEndObject();
+    }
+  }
+
+  /**
+   * Writes the node as element of the array that is currently open.
+   */
+  private void writeArrayElement(JsonGenerator generator, Node node) throws IOException {
+    List<Node> children = node.getChildren();
+    List<String> attributes = node.getAttributes();
+    if (children.isEmpty()) {
+      String text = node.getText();
+      if (attributes.isEmpty()) {
+        generator.writeString(text);
+      } else {
+        generator.writeStartObject();
+        if (!text.isEmpty()) {
+          generator.writeStringField(node.name, text);
+        }
+        writeAttributes(generator, attributes);
+        generator.writeEndObject();
+      }
+    } else {
+      generator.writeStartObject();
+      writeAttributes(generator, attributes);
+      writeChildren(generator, children);
+      generator.writeEndObject();
+    }
+  }
+
+  /**
+   * Writes the child nodes of an element into the object of this element.
+   */
+  private void writeChildren(JsonGenerator generator, List<Node> children) throws IOException {
+    if (isArray(children)) {
+      generator.writeArrayFieldStart(children.get(0).name);
+      for (Node child : children) {
+        writeArrayElement(generator, child);
+      }
+      generator.writeEndArray();
+    } else {
+      for (Node child : children) {
+        writeField(generator, child);
+      }
+    }
+  }
+
+  private void writeAttributes(JsonGenerator generator, List<String> attributes) throws IOException {
+    for (int i = attributes.size() - 2; i >= 0; i -= 2) {
+      generator.writeStringField(attributes.get(i), attributes.get(i + 1));
+    }
+  }
+
+  private static boolean isArray(List<Node> children) {
+    if (children.size() < 2) {
+      return false;
+    }
+    String name = children.get(0).name;
+    for (Node child : children) {
+      if (!child.name.equals(name)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // -----------NODES----------
+  /**
+   * View of an element of the XML description. Attributes and children are only created when the node is written.
+   */
+  private static abstract class Node {
+    protected final String name;
+
+    protected Node(String name) {
+      this.name = name;
+    }
+
+    /**
+     * @return attribute names and values (alternating) in document order
+     */
+    protected List<String> getAttributes() {
+      return Collections.emptyList();
+    }
+
+    protected List<Node> getChildren() {
+      return Collections.emptyList();
+    }
+
+    protected String getText() {
+      return "";
+    }
+  }
+
+  /**
+   * Node with fixed attributes and children.
+   */
+  private static class SimpleNode extends Node {
+    private List<String> attributes = new ArrayList<String>(4);
+    private List<Node> children = new ArrayList<Node>();
+
+    protected SimpleNode(String name) {
+      super(name);
+    }
+
+    protected SimpleNode(String name, String attributeName, String attributeValue) {
+      super(name);
+      addAttribute(attributeName, attributeValue);
+    }
+
+    protected SimpleNode addAttribute(String attributeName, String attributeValue) {
+      attributes.add(attributeName);
+      attributes.add(attributeValue);
+      return this;
+    }
+
+    @Override
+    protected List<String> getAttributes() {
+      return attributes;
+    }
+
+    @Override
+    protected List<Node> getChildren() {
+      return children;
+    }
+  }
+
+  /**
+   * Node of a (small) JDOM element such as the description of a scheduler or data extension.
+   */
+  private static class ElementNode extends Node {
+    private Element element;
+    private boolean omitClassname;
+
+    protected ElementNode(Element element, boolean omitClassname) {
+      super(element.getName());
+      this.element = element;
+      this.omitClassname = omitClassname;
+    }
+
+    @Override
+    protected List<String> getAttributes() {
+      List<String> attributes = new ArrayList<String>(2 * element.getAttributes().size());
+      for (Attribute attribute : element.getAttributes()) {
+        if (omitClassname && attribute.getName().equals("classname")) {
+          continue;
+        }
+        attributes.add(attribute.getName());
+        attributes.add(attribute.getValue());
+      }
+      return attributes;
+    }
+
+    @Override
+    protected List<Node> getChildren() {
+      List<Node> children = new ArrayList<Node>(element.getChildren().size());
+      for (Element child : element.getChildren()) {
+        children.add(new ElementNode(child, false));
+      }
+      return children;
+    }
+
+    @Override
+    protected String getText() {
+      return element.getText();
+    }
+  }
+
+  private class SystemModelNode extends Node {
+    private SystemModel systemModel;
+
+    protected SystemModelNode(SystemModel systemModel) {
+      super("SystemModel");
+      this.systemModel = systemModel;
+    }
+
+    @Override
+    protected List<Node> getChildren() {
+      List<Node> children = new ArrayList<Node>(4);
+      children.add(createConfigurationNode());
+      addExtensionsNode(children, systemModel);
+      children.add(new PlatformNode(systemModel));
+      children.add(new ApplicationsNode(systemModel));
+      return children;
+    }
+  }
+
+  private Node createConfigurationNode() {
+    SimpleNode configurationNode = new SimpleNode("Configuration");
+    for (Map.Entry<String, Map<String, String>> group : configuration.getGroups().entrySet()) {
+      SimpleNode groupNode = new SimpleNode(group.getKey());
+      for (Map.Entry<String, String> defaultClass : group.getValue().entrySet()) {
+        groupNode.children.add(new SimpleNode(defaultClass.getKey(), "classname", defaultClass.getValue()));
+      }
+      configurationNode.children.add(groupNode);
+    }
+    return configurationNode;
+  }
+
+  private Node createConfigurableNode(String group, Element xmlElement) {
+    return new ElementNode(xmlElement, configuration.isConfigured(group, xmlElement));
+  }
+
+  /**
+   * Adds a node for all data extensions that implement XMLSaveable, if the element has any.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static void addExtensionsNode(List<Node> children, ExtendibleModelElement rootModel) {
+    Collection<AbstractDataExtension> dataExtensions = rootModel.getExtDataByParentClass(AbstractDataExtension.class);
+
+    SimpleNode extensionsNode = null;
+    for (AbstractDataExtension dataExt : dataExtensions) {
+      if (XMLSaveable.class.isInstance(dataExt)) {
+        if (extensionsNode == null) {
+          extensionsNode = new SimpleNode("DataExtensions");
+        }
+        XMLSaveable saveable = (XMLSaveable) dataExt;
+        Element xmlDataExt = saveable.toXML();
+        xmlDataExt.setAttribute("isCloneable", String.valueOf(saveable.isCloneable()));
+        xmlDataExt.setAttribute("isIgnoreExisting", String.valueOf(saveable.isIgnoreExisiting()));
+        xmlDataExt.setAttribute("isOverwrite", String.valueOf(saveable.isOverwrite()));
+        extensionsNode.children.add(new ElementNode(xmlDataExt, false));
+      }
+    }
+    if (extensionsNode != null) {
+      children.add(extensionsNode);
+    }
+  }
+
+  private class PlatformNode extends Node {
+    private SystemModel systemModel;
+
+    protected PlatformNode(SystemModel systemModel) {
+      super("Platform");
+      this.systemModel = systemModel;
+    }
+
+    @Override
+    protected List<Node> getChildren() {
+      List<Node> children = new ArrayList<Node>();
+      for (AbstractResource resource : systemModel.getAllRes()) {
+        children.add(new ResourceNode(resource));
+      }
+      return children;
+    }
+  }
+
+  private class ResourceNode extends Node {
+    private AbstractResource resource;
+
+    protected ResourceNode(AbstractResource resource) {
+      super(getResourceElementName(resource));
+      this.resource = resource;
+    }
+
+    @Override
+    protected List<String> getAttributes() {
+      List<String> attributes = new ArrayList<String>(4);
+      attributes.add("resID");
+      attributes.add(String.valueOf(resource.getResId()));
+      if (!resource.getShortName().isEmpty()) {
+        attributes.add("shortName");
+        attributes.add(resource.getShortName());
+      }
+      return attributes;
+    }
+
+    @Override
+    protected List<Node> getChildren() {
+      List<Node> children = new ArrayList<Node>();
+      // for resources get all neighbors (comm resources) and create attachedTo elements
+      if (resource instanceof Resource) {
+        for (AbstractResource attachedTo : resource.getNeighbors()) {
+          children.add(new SimpleNode("attachedTo", "ID", String.valueOf(attachedTo.getResId())));
+        }
+      }
+      children.add(createConfigurableNode("ResourceType", resource.getResType().toXML()));
+      children.add(createConfigurableNode("ResourceGroup", resource.getResGroup().toXML()));
+      children.add(createConfigurableNode("Scheduler", resource.getScheduler().toXML()));
+      addExtensionsNode(children, resource);
+      return children;
+    }
+  }
+
+  private static String getResourceElementName(AbstractResource resource) {
+    if (resource instanceof Resource) {
+      return "Resource";
+    } else if (resource instanceof CommResource) {
+      return "CommResource";
+    } else {
+      throw new IllegalStateException();
+    }
+  }
+
+  private class ApplicationsNode extends Node {
+    private SystemModel systemModel;
+
+    protected ApplicationsNode(SystemModel systemModel) {
+      super("Applications");
+      this.systemModel = systemModel;
+    }
+
+    @Override
+    protected List<Node> getChildren() {
+      List<Node> children = new ArrayList<Node>();
+      for (ApplicationModel app : systemModel.getApplications()) {
+        children.add(new ApplicationNode(app));
+      }
+      return children;
+    }
+  }
+
+  private class ApplicationNode extends Node {
+    private ApplicationModel app;
+
+    protected ApplicationNode(ApplicationModel app) {
+      super("Application");
+      this.app = app;
+    }
+
+    @Override
+    protected List<String> getAttributes() {
+      List<String> attributes = new ArrayList<String>(4);
+      attributes.add("appID");
+      attributes.add(String.valueOf(app.getAppId()));
+      attributes.add("appV");
+      attributes.add(String.valueOf(app.getAppV()));
+      return attributes;
+    }
+
+    @Override
+    protected List<Node> getChildren() {
+      List<Node> children = new ArrayList<Node>();
+      addExtensionsNode(children, app);
+      for (Task task : app.getTaskList().values()) {
+        children.add(new TaskNode(task));
+      }
+      for (TaskLink taskLink : app.getTaskLinkList().values()) {
+        children.add(new TaskLinkNode(taskLink));
+      }
+      children.add(createMappingNode(app));
+      children.add(createConstraintsNode(app));
+      return children;
+    }
+  }
+
+  private class TaskNode extends Node {
+    private Task task;
+
+    protected TaskNode(Task task) {
+      super("Task");
+      this.task = task;
+    }
+
+    @Override
+    protected List<String> getAttributes() {
+      List<String> attributes = new ArrayList<String>(4);
+      attributes.add("ID");
+      attributes.add(String.valueOf(task.getElemId()));
+      if (!task.getShortName().isEmpty()) {
+        attributes.add("shortName");
+        attributes.add(task.getShortName());
+      }
+      return attributes;
+    }
+
+    @Override
+    protected List<Node> getChildren() {
+      List<Node> children = new ArrayList<Node>();
+      AbstractSchedulingParameter schedParam = task.getSchedulingParameter();
+      if (schedParam != null) {
+        children.add(createConfigurableNode("SchedulingParameter", schedParam.toXML()));
+      }
+      addProfileNodes(children, task);
+      addExtensionsNode(children, task);
+      return children;
+    }
+  }
+
+  private class TaskLinkNode extends Node {
+    private TaskLink taskLink;
+
+    protected TaskLinkNode(TaskLink taskLink) {
+      super("TaskLink");
+      this.taskLink = taskLink;
+    }
+
+    @Override
+    protected List<String> getAttributes() {
+      List<String> attributes = new ArrayList<String>(8);
+      attributes.add("ID");
+      attributes.add(String.valueOf(taskLink.getElemId()));
+      attributes.add("src");
+      attributes.add(String.valueOf(taskLink.getSrcTaskId()));
+      attributes.add("trgt");
+      attributes.add(String.valueOf(taskLink.getTrgTaskId()));
+      if (!taskLink.getShortName().isEmpty()) {
+        attributes.add("shortName");
+        attributes.add(taskLink.getShortName());
+      }
+      return attributes;
+    }
+
+    @Override
+    protected List<Node> getChildren() {
+      List<Node> children = new ArrayList<Node>();
+      addProfileNodes(children, taskLink);
+      AbstractSchedulingParameter schedParam = taskLink.getSchedulingParameter();
+      if (schedParam != null) {
+        children.add(createConfigurableNode("SchedulingParameter", schedParam.toXML()));
+      }
+      addExtensionsNode(children, taskLink);
+      return children;
+    }
+  }
+
+  private void addProfileNodes(List<Node> children, SchedulableElement schedElem) {
+    for (Profile profile : schedElem.getProfileList()) {
+      SimpleNode profileNode = new SimpleNode("Profile");
+      profileNode.addAttribute("bcet", String.valueOf(profile.getBCET()));
+      profileNode.addAttribute("wcet", String.valueOf(profile.getWCET()));
+      if (schedElem.getActiveProfile() == profile) {
+        profileNode.addAttribute("active", String.valueOf(true));
+      } else {
+        profileNode.addAttribute("inactive", String.valueOf(false));
+      }
+
+      profileNode.children.add(createConfigurableNode("ActivationPattern", profile.getActivationPattern().toXML()));
+      SimpleNode resTypeNode = new SimpleNode("ResourceType");
+      resTypeNode.children.add(createConfigurableNode("ResourceType", profile.getResType().toXML()));
+      profileNode.children.add(resTypeNode);
+      SimpleNode resGroupNode = new SimpleNode("ResourceGroup");
+      resGroupNode.children.add(createConfigurableNode("ResourceGroup", profile.getResGroup().toXML()));
+      profileNode.children.add(resGroupNode);
+
+      children.add(profileNode);
+    }
+  }
+
+  private static Node createMappingNode(ApplicationModel app) {
+    SimpleNode mappingNode = new SimpleNode("Mapping");
+
+    // create mappings for all tasks
+    for (Task task : app.getTaskList().values()) {
+      mappingNode.children.add(new SimpleNode("mapTask", "tid", String.valueOf(task.getElemId())).addAttribute("rid",
+          String.valueOf(task.getMappedTo().getResId())));
+    }
+
+    // create mapping for all task links
+    for (TaskLink taskLink : app.getTaskLinkList().values()) {
+      SimpleNode mapLinkNode = new SimpleNode("mapLink", "lid", String.valueOf(taskLink.getElemId()));
+      if (taskLink.getMappedTo() instanceof Resource) {
+        mapLinkNode.addAttribute("rid", String.valueOf(taskLink.getMappedTo().getResId()));
+      } else if (taskLink.getMappedTo() instanceof CommResource) {
+        mapLinkNode.addAttribute("crid", String.valueOf(taskLink.getMappedTo().getResId()));
+      } else {
+        throw new IllegalStateException("Task link mapped to neither Resource nor CommResource");
+      }
+      mappingNode.children.add(mapLinkNode);
+    }
+
+    return mappingNode;
+  }
+
+  private static Node createConstraintsNode(ApplicationModel app) {
+    SimpleNode constraintsNode = new SimpleNode("Constraints");
+
+    for (SysLatencyConstraint sysLatConstr : app.getConstraints().values()) {
+      constraintsNode.children.add(new SimpleNode("Constraint", "StartTaskId",
+          String.valueOf(sysLatConstr.getStartTask().getElemId()))
+          .addAttribute("EndTaskId", String.valueOf(sysLatConstr.getEndTask().getElemId()))
+          .addAttribute("Constraint", String.valueOf(sysLatConstr.getLatencyConstr())));
+    }
+
+    return constraintsNode;
+  }
+}
@@ -0,0 +1,80 @@
+package org.tubs.epoc.SMFF.ImportExport.Pdf.Layout;
+
+/**
+ * Rectangle of a {@link SystemLayout}, i.e. a resource, communication resource, task or task link marker.
+ * Coordinates are in points with the origin at the top left corner of the page.
+ */
+public class LayoutBox {
+  private double x;
+  private double y;
+  private double width;
+  private double height;
+  private int color;
+  private String label;
+  private boolean labelCentered;
+
+  /**
+   * Creates a box.
+   * @param x left edge
+   * @param y top edge
+   * @param width width
+   * @param height height
+   * @param color fill color as 0xRRGGBB
+   * @param label label or <tt>null</tt>
+   * @param labelCentered true if the label is centered in the box, false if it is placed at the top left corner
+   */
+  LayoutBox(double x, double y, double width, double height, int color, String label, boolean labelCentered){
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+    this.color = color;
+    this.label = label;
+    this.labelCentered = labelCentered;
+  }
+
+  public double getX() {
+    return x;
+  }
+
+  public double getY() {
+    return y;
+  }
+
+  public double getWidth() {
+    return width;
+  }
+
+  public double getHeight() {
+    return height;
+  }
+
+  /**
+   * @return the fill color as 0xRRGGBB
+   */
+  public int getColor() {
+    return color;
+  }
+
+  /**
+   * @return the label color as 0xRRGGBB, white on dark fill colors and black otherwise
+   */
+  public int getLabelColor() {
+    int luminance = 299*((color>>16)&0xFF)+587*((color>>8)&0xFF)+114*(color&0xFF);
+    return luminance < 128000 ? 0xFFFFFF : 0x000000;
+  }
+
+  /**
+   * @return the label or <tt>null</tt> if the box has none
+   */
+  public String getLabel() {
+    return label;
+  }
+
+  /**
+   * @return true if the label is centered in the box, false if it is placed at the top left corner
+   */
+  public boolean isLabelCentered() {
+    return labelCentered;
+  }
+}
@@ -0,0 +1,89 @@
+package org.tubs.epoc.SMFF.ImportExport.Pdf.Layout;
+
+/**
+ * Orthogonal polyline of a {@link SystemLayout}, i.e. a task link or the connection of a resource to a communication
+ * resource. Coordinates are in points with the origin at the top left corner of the page.
+ */
+public class LayoutEdge {
+  // length and half width of arrow heads
+  private static final double ARROW_LENGTH = 5;
+  private static final double ARROW_WIDTH = 2.5;
+
+  private double[] xs;
+  private double[] ys;
+  private int color;
+  private double lineWidth;
+  private boolean arrow;
+
+  /**
+   * Creates an edge.
+   * @param xs x coordinates of the points
+   * @param ys y coordinates of the points
+   * @param color line color as 0xRRGGBB
+   * @param lineWidth line width
+   * @param arrow true if the edge ends with an arrow head
+   */
+  LayoutEdge(double[] xs, double[] ys, int color, double lineWidth, boolean arrow){
+    if(xs.length != ys.length || xs.length < 2) throw new IllegalArgumentException("an edge needs at least two points");
+    this.xs = xs;
+    this.ys = ys;
+    this.color = color;
+    this.lineWidth = lineWidth;
+    this.arrow = arrow;
+  }
+
+  /**
+   * @return number of points
+   */
+  public int getNumPoints() {
+    return xs.length;
+  }
+
+  public double getX(int i) {
+    return xs[i];
+  }
+
+  public double getY(int i) {
+    return ys[i];
+  }
+
+  /**
+   * @return the line color as 0xRRGGBB
+   */
+  public int getColor() {
+    return color;
+  }
+
+  public double getLineWidth() {
+    return lineWidth;
+  }
+
+  /**
+   * @return true if the edge ends with an arrow head
+   */
+  public boolean hasArrow() {
+    return arrow;
+  }
+
+  /**
+   * Returns the triangle of the arrow head at the last point, pointing in the direction of the last segment.
+   * @return the coordinates x1, y1, x2, y2, x3, y3 of the triangle, the first point being the tip
+   */
+  public double[] getArrowHead() {
+    int n = xs.length;
+    double dx = xs[n-1]-xs[n-2];
+    double dy = ys[n-1]-ys[n-2];
+    double length = Math.sqrt(dx*dx+dy*dy);
+    if(length == 0){
+      dx = 1;
+      length = 1;
+    }
+    dx /= length;
+    dy /= length;
+    double baseX = xs[n-1]-dx*ARROW_LENGTH;
+    double baseY = ys[n-1]-dy*ARROW_LENGTH;
+    return new double[] { xs[n-1], ys[n-1],
+        baseX-dy*ARROW_WIDTH, baseY+dx*ARROW_WIDTH,
+        baseX+dy*ARROW_WIDTH, baseY-dx*ARROW_WIDTH };
+  }
+}
@@ -0,0 +1,122 @@
+package org.tubs.epoc.SMFF.ImportExport.Pdf.Layout;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfWriter;
+
+/**
+ * Writes a {@link SystemLayout} as single page PDF. The shapes are drawn directly into the content stream of the page
+ * with iText, so neither Swing nor AWT is involved.
+ */
+public class PdfLayoutWriter {
+  // outline width of boxes
+  private static final float OUTLINE_WIDTH = 0.5f;
+
+  private SystemLayout layout;
+
+  /**
+   * Creates a writer for a layout.
+   * @param layout layout to write
+   */
+  public PdfLayoutWriter(SystemLayout layout){
+    this.layout = layout;
+  }
+
+  /**
+   * Writes the layout.
+   * @param out stream to write to, closed also if the document cannot be written
+   * @param caption text at the top of the page or <tt>null</tt>
+   * @throws IOException if the document cannot be written
+   */
+  public void write(OutputStream out, String caption) throws IOException {
+    float height = (float) layout.getHeight();
+    Document document = new Document(new Rectangle((float) layout.getWidth(), height), 0, 0, 0, 0);
+    boolean complete = false;
+    try{
+      PdfWriter writer = PdfWriter.getInstance(document, out);
+      document.open();
+      PdfContentByte cb = writer.getDirectContent();
+
+      for(LayoutBox box : layout.getBoxes()){
+        drawBox(cb, box, height);
+      }
+      for(LayoutEdge edge : layout.getEdges()){
+        drawEdge(cb, edge, height);
+      }
+      for(LayoutBox marker : layout.getMarkers()){
+        drawBox(cb, marker, height);
+      }
+      if(caption != null){
+        drawText(cb, caption, PdfContentByte.ALIGN_LEFT, 4, height - 10, 0x000000);
+      }
+      // closes the stream as well
+      document.close();
+      complete = true;
+    } catch(DocumentException e){
+      throw new IOException("cannot write PDF document", e);
+    } finally{
+      // if the document could not be written, it is left unfinished and only the stream is closed
+      if(!complete){
+        out.close();
+      }
+    }
+  }
+
+  private void drawBox(PdfContentByte cb, LayoutBox box, float height){
+    float x = (float) box.getX();
+    float y = height - (float) (box.getY() + box.getHeight());
+    setFill(cb, box.getColor());
+    cb.setRGBColorStroke(0, 0, 0);
+    cb.setLineWidth(OUTLINE_WIDTH);
+    cb.rectangle(x, y, (float) box.getWidth(), (float) box.getHeight());
+    cb.fillStroke();
+
+    if(box.getLabel() != null){
+      if(box.isLabelCentered()){
+        drawText(cb, box.getLabel(), PdfContentByte.ALIGN_CENTER, x + (float) box.getWidth()/2,
+            y + (float) box.getHeight()/2 - SystemLayout.FONT_SIZE*0.35f, box.getLabelColor());
+      } else{
+        drawText(cb, box.getLabel(), PdfContentByte.ALIGN_LEFT, x + 4,
+            y + (float) box.getHeight() - SystemLayout.FONT_SIZE - 2, box.getLabelColor());
+      }
+    }
+  }
+
+  private void drawEdge(PdfContentByte cb, LayoutEdge edge, float height){
+    int color = edge.getColor();
+    cb.setRGBColorStroke((color>>16)&0xFF, (color>>8)&0xFF, color&0xFF);
+    cb.setLineWidth((float) edge.getLineWidth());
+    cb.moveTo((float) edge.getX(0), height - (float) edge.getY(0));
+    for(int i=1; i<edge.getNumPoints(); i++){
+      cb.lineTo((float) edge.getX(i), height - (float) edge.getY(i));
+    }
+    cb.stroke();
+
+    if(edge.hasArrow()){
+      double[] head = edge.getArrowHead();
+      setFill(cb, color);
+      cb.moveTo((float) head[0], height - (float) head[1]);
+      cb.lineTo((float) head[2], height - (float) head[3]);
+      cb.lineTo((float) head[4], height - (float) head[5]);
+      cb.closePath();
+      cb.fill();
+    }
+  }
+
+  private void drawText(PdfContentByte cb, String text, int alignment, float x, float y, int color){
+    cb.beginText();
+    setFill(cb, color);
+    cb.setFontAndSize(layout.getFont(), SystemLayout.FONT_SIZE);
+    cb.showTextAligned(alignment, text, x, y, 0);
+    cb.endText();
+  }
+
+  private static void setFill(PdfContentByte cb, int color){
+    cb.setRGBColorFill((color>>16)&0xFF, (color>>8)&0xFF, color&0xFF);
+  }
+}
@@ -0,0 +1,129 @@
+package org.tubs.epoc.SMFF.ImportExport.Pdf.Layout;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Writes a {@link SystemLayout} as SVG document. The elements are written as text, no DOM is built.
+ */
+public class SvgLayoutWriter {
+  private SystemLayout layout;
+
+  /**
+   * Creates a writer for a layout.
+   * @param layout layout to write
+   */
+  public SvgLayoutWriter(SystemLayout layout){
+    this.layout = layout;
+  }
+
+  /**
+   * Writes the layout.
+   * @param out stream to write to, closed when the document is complete
+   * @param caption text at the top of the page or <tt>null</tt>
+   * @throws IOException if the document cannot be written
+   */
+  public void write(OutputStream out, String caption) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+    try{
+      writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+      writer.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + number(layout.getWidth()) +
+          "\" height=\"" + number(layout.getHeight()) + "\" viewBox=\"0 0 " + number(layout.getWidth()) + " " +
+          number(layout.getHeight()) + "\" font-family=\"Helvetica, Arial, sans-serif\" font-size=\"" +
+          number(SystemLayout.FONT_SIZE) + "\">\n");
+      writer.write("<rect width=\"100%\" height=\"100%\" fill=\"#FFFFFF\"/>\n");
+
+      for(LayoutBox box : layout.getBoxes()){
+        writeBox(writer, box);
+      }
+      for(LayoutEdge edge : layout.getEdges()){
+        writeEdge(writer, edge);
+      }
+      for(LayoutBox marker : layout.getMarkers()){
+        writeBox(writer, marker);
+      }
+      if(caption != null){
+        writeText(writer, caption, "start", 4, 10, 0x000000);
+      }
+      writer.write("</svg>\n");
+    } finally{
+      writer.close();
+    }
+  }
+
+  private void writeBox(Writer writer, LayoutBox box) throws IOException {
+    writer.write("<rect x=\"" + number(box.getX()) + "\" y=\"" + number(box.getY()) + "\" width=\"" +
+        number(box.getWidth()) + "\" height=\"" + number(box.getHeight()) + "\" fill=\"" + color(box.getColor()) +
+        "\" stroke=\"#000000\" stroke-width=\"0.5\"/>\n");
+
+    if(box.getLabel() != null){
+      if(box.isLabelCentered()){
+        writeText(writer, box.getLabel(), "middle", box.getX() + box.getWidth()/2,
+            box.getY() + box.getHeight()/2 + SystemLayout.FONT_SIZE*0.35, box.getLabelColor());
+      } else{
+        writeText(writer, box.getLabel(), "start", box.getX() + 4, box.getY() + SystemLayout.FONT_SIZE + 2,
+            box.getLabelColor());
+      }
+    }
+  }
+
+  private void writeEdge(Writer writer, LayoutEdge edge) throws IOException {
+    StringBuilder points = new StringBuilder();
+    for(int i=0; i<edge.getNumPoints(); i++){
+      if(i > 0) points.append(' ');
+      points.append(number(edge.getX(i))).append(',').append(number(edge.getY(i)));
+    }
+    writer.write("<polyline points=\"" + points + "\" fill=\"none\" stroke=\"" + color(edge.getColor()) +
+        "\" stroke-width=\"" + number(edge.getLineWidth()) + "\"/>\n");
+
+    if(edge.hasArrow()){
+      double[] head = edge.getArrowHead();
+      writer.write("<polygon points=\"" + number(head[0]) + "," + number(head[1]) + " " + number(head[2]) + "," +
+          number(head[3]) + " " + number(head[4]) + "," + number(head[5]) + "\" fill=\"" + color(edge.getColor()) +
+          "\"/>\n");
+    }
+  }
+
+  private static void writeText(Writer writer, String text, String anchor, double x, double y, int color) throws IOException {
+    writer.write("<text x=\"" + number(x) + "\" y=\"" + number(y) + "\" text-anchor=\"" + anchor + "\" fill=\"" +
+        color(color) + "\">" + escape(text) + "</text>\n");
+  }
+
+  private static String number(double value){
+    long rounded = Math.round(value*100);
+    if(rounded % 100 == 0) return String.valueOf(rounded/100);
+    return String.valueOf(rounded/100.0);
+  }
+
+  private static String color(int color){
+    String hex = Integer.toHexString(0x1000000 | (color & 0xFFFFFF)).toUpperCase();
+    return "#" + hex.substring(1);
+  }
+
+  private static String escape(String text){
+    StringBuilder sb = new StringBuilder(text.length());
+    for(int i=0; i<text.length(); i++){
+      char c = text.charAt(i);
+      switch(c){
+      case '&':
+        sb.append("&amp;");
+        break;
+      case '<':
+        sb.append("&lt;");
+        break;
+      case '>':
+        sb.append("&gt;");
+        break;
+      case '"':
+        sb.append("&quot;");
+        break;
+      default:
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,456 @@
+package org.tubs.epoc.SMFF.ImportExport.Pdf.Layout;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLinkIdentifier;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.ResourceGraph;
+
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.BaseFont;
+
+/**
+ * Deterministic layered layout of a system model, computed directly from the {@link ResourceGraph} and the mapping.
+ * <p>
+ * Resources become columns in order of their ids. Each column stacks the tasks mapped to the resource, ordered by
+ * application, by their depth in the task graph of their application and by id. Communication resources become
+ * horizontal buses below the resources, spanning from the leftmost to the rightmost resource they connect. Buses whose
+ * spans do not overlap share a row.
+ * <p>
+ * Task links on a resource are routed in the lane left of the tasks. Task links on a communication resource leave the
+ * source task to the right, run down to a track below their bus (marked on the bus in the color of the application),
+ * along it and up to the target task. Task links which are not mapped to a communication resource but connect
+ * different resources run along a track below all buses. Tasks which are not mapped to a resource are not drawn.
+ * <p>
+ * The layout uses neither Swing nor AWT. Labels are measured with the metrics of the built-in Helvetica font of iText.
+ * All coordinates are in points with the origin at the top left corner of the page.
+ *
+ * @see PdfLayoutWriter
+ * @see SvgLayoutWriter
+ */
+public class SystemLayout {
+  private static Log logger = LogFactory.getLog(SystemLayout.class);
+
+  /**
+   * Size of the labels in points.
+   */
+  public static final float FONT_SIZE = 7;
+
+  // page
+  private static final double MARGIN = 20;
+  private static final double HEADER = 20;
+  // resources and tasks
+  private static final double COLUMN_GAP = 40;
+  private static final double LANE = 24;
+  private static final double RES_TITLE = 16;
+  private static final double RES_PADDING = 8;
+  private static final double TASK_HEIGHT = 16;
+  private static final double TASK_GAP = 8;
+  private static final double MIN_TASK_WIDTH = 80;
+  private static final double LABEL_PADDING = 8;
+  // buses and tracks
+  private static final double BUS_HEIGHT = 12;
+  private static final double BUS_GAP = 28;
+  private static final double TRACK_OFFSET = 4;
+  private static final double TRACK_SPACING = 3;
+  private static final int NUM_TRACKS = 5;
+  private static final double LANE_SPACING = 4;
+  private static final int NUM_LANES = 5;
+  private static final double CONNECTOR_SPACING = 6;
+  private static final double MARKER_SIZE = 6;
+  // line widths
+  private static final double LINK_WIDTH = 1.2;
+  private static final double CONNECTOR_WIDTH = 1;
+
+  // colors as 0xRRGGBB
+  private static final int RESOURCE_COLOR = 0xC0C0C0;
+  private static final int COMM_RESOURCE_COLOR = 0x808080;
+  private static final int CONNECTOR_COLOR = 0x404040;
+
+  private static final Comparator<AbstractResource> RES_ID_ORDER = new Comparator<AbstractResource>() {
+    public int compare(AbstractResource a, AbstractResource b) {
+      return Integer.compare(a.getResId(), b.getResId());
+    }
+  };
+  private static final Comparator<ApplicationModel> APP_ID_ORDER = new Comparator<ApplicationModel>() {
+    public int compare(ApplicationModel a, ApplicationModel b) {
+      return Integer.compare(a.getAppId(), b.getAppId());
+    }
+  };
+
+  private BaseFont font;
+  private double width;
+  private double height;
+  private List<LayoutBox> boxes = new ArrayList<LayoutBox>();
+  private List<LayoutEdge> edges = new ArrayList<LayoutEdge>();
+  private List<LayoutBox> markers = new ArrayList<LayoutBox>();
+
+  // columns and the boxes of the mapped tasks
+  private HashMap<Resource, Integer> columns = new HashMap<Resource, Integer>();
+  private HashMap<Task, LayoutBox> taskBoxes = new HashMap<Task, LayoutBox>();
+  private double columnWidth;
+  private double taskWidth;
+  private double resBottom;
+  // top edges of the buses
+  private HashMap<CommResource, Double> busY = new HashMap<CommResource, Double>();
+  // number of links routed in the left/right lane of each column and along each bus
+  private HashMap<Object, Integer> leftLanes = new HashMap<Object, Integer>();
+  private HashMap<Object, Integer> rightLanes = new HashMap<Object, Integer>();
+  private HashMap<Object, Integer> tracks = new HashMap<Object, Integer>();
+
+  /**
+   * Computes the layout of a system model.
+   * @param systemModel system model with platform, applications and mapping
+   */
+  public SystemLayout(SystemModel systemModel){
+    font = createFont();
+
+    List<Resource> resources = new ArrayList<Resource>(systemModel.getResourceTable().values());
+    Collections.sort(resources, RES_ID_ORDER);
+    List<ApplicationModel> apps = new ArrayList<ApplicationModel>(systemModel.getApplications());
+    Collections.sort(apps, APP_ID_ORDER);
+
+    layoutResources(resources, apps);
+    double busBottom = layoutBuses(systemModel, resources);
+    double trackY = busBottom + TRACK_OFFSET;
+    for(ApplicationModel app : apps){
+      layoutTaskLinks(app, trackY);
+    }
+
+    width = Math.max(2*MARGIN + resources.size()*(columnWidth+COLUMN_GAP) - COLUMN_GAP, 200);
+    height = trackY + NUM_TRACKS*TRACK_SPACING + MARGIN;
+  }
+
+  /**
+   * @return width of the page
+   */
+  public double getWidth() {
+    return width;
+  }
+
+  /**
+   * @return height of the page
+   */
+  public double getHeight() {
+    return height;
+  }
+
+  /**
+   * @return the font the labels were measured with
+   */
+  public BaseFont getFont() {
+    return font;
+  }
+
+  /**
+   * @return the boxes of resources, communication resources and tasks in drawing order
+   */
+  public List<LayoutBox> getBoxes() {
+    return boxes;
+  }
+
+  /**
+   * @return the edges, to be drawn above the boxes
+   */
+  public List<LayoutEdge> getEdges() {
+    return edges;
+  }
+
+  /**
+   * @return the markers of task links on communication resources, to be drawn above the edges
+   */
+  public List<LayoutBox> getMarkers() {
+    return markers;
+  }
+
+  /**
+   * Returns the color of an application. Same colors as {@link org.tubs.epoc.SMFF.ImportExport.Pdf.Graph.GraphFormating
+   * GraphFormating}, without AWT.
+   * @param appId application id
+   * @return the color as 0xRRGGBB
+   */
+  public static int getAppColor(int appId){
+    switch(appId){
+    case 1:
+      return 0x00FF00;
+    case 2:
+      return 0x0000FF;
+    case 3:
+      return 0xFF0000;
+    case 4:
+      return 0x00FFFF;
+    case 5:
+      return 0xFF00FF;
+    case 6:
+      return 0xFFAFAF;
+    default:
+      return new Random(appId).nextInt() & 0xFFFFFF;
+    }
+  }
+
+  /**
+   * Places the resources as columns and stacks the mapped tasks in them.
+   */
+  private void layoutResources(List<Resource> resources, List<ApplicationModel> apps){
+    List<List<Task>> columnTasks = new ArrayList<List<Task>>();
+    for(int i=0; i<resources.size(); i++){
+      columns.put(resources.get(i), i);
+      columnTasks.add(new ArrayList<Task>());
+    }
+
+    // tasks in order of application, depth and id; the widest label determines the width of all columns
+    double maxLabelWidth = 0;
+    int unmapped = 0;
+    for(ApplicationModel app : apps){
+      for(Task task : orderTasks(app)){
+        Integer column = columns.get(task.getMappedTo());
+        if(column == null){
+          unmapped++;
+          continue;
+        }
+        columnTasks.get(column).add(task);
+        maxLabelWidth = Math.max(maxLabelWidth, font.getWidthPoint(task.getUniqueName(), FONT_SIZE));
+      }
+    }
+    if(unmapped > 0){
+      logger.debug(unmapped + " tasks are not mapped to a resource and are not drawn");
+    }
+    taskWidth = Math.max(MIN_TASK_WIDTH, maxLabelWidth + 2*LABEL_PADDING);
+    columnWidth = taskWidth + 2*LANE;
+
+    int maxTasks = 0;
+    for(List<Task> tasks : columnTasks){
+      maxTasks = Math.max(maxTasks, tasks.size());
+    }
+    double resTop = MARGIN + HEADER;
+    double resHeight = RES_TITLE + maxTasks*(TASK_HEIGHT+TASK_GAP) + RES_PADDING;
+    resBottom = resTop + resHeight;
+
+    for(int i=0; i<resources.size(); i++){
+      double x = columnX(i);
+      boxes.add(new LayoutBox(x, resTop, columnWidth, resHeight, RESOURCE_COLOR, resources.get(i).getUniqueName(), false));
+      double y = resTop + RES_TITLE;
+      for(Task task : columnTasks.get(i)){
+        LayoutBox box = new LayoutBox(x+LANE, y, taskWidth, TASK_HEIGHT, getAppColor(task.getAppId()), task.getUniqueName(), true);
+        taskBoxes.put(task, box);
+        y += TASK_HEIGHT+TASK_GAP;
+      }
+    }
+    // tasks after the resources so that they are drawn on top
+    for(List<Task> tasks : columnTasks){
+      for(Task task : tasks){
+        boxes.add(taskBoxes.get(task));
+      }
+    }
+  }
+
+  /**
+   * Places the communication resources as buses below the resources and connects them to their resources.
+   * @return bottom of the lowest bus
+   */
+  private double layoutBuses(SystemModel systemModel, List<Resource> resources){
+    ResourceGraph resGraph = systemModel.getResModel();
+    boolean[][] adjMatrix = resGraph == null ? null : resGraph.getAdjMatrix();
+    if(adjMatrix == null || adjMatrix.length != systemModel.getCommResourceTable().size() ||
+        (adjMatrix.length > 0 && resGraph.getCommResource(0) == null)){
+      // the graph of the system model is missing or outdated
+      resGraph = new ResourceGraph(systemModel);
+      adjMatrix = resGraph.getAdjMatrix();
+    }
+
+    // columns connected to each communication resource
+    final HashMap<CommResource, int[]> busColumns = new HashMap<CommResource, int[]>();
+    List<CommResource> buses = new ArrayList<CommResource>();
+    for(int row=0; row<adjMatrix.length; row++){
+      CommResource cRes = resGraph.getCommResource(row);
+      List<Integer> connected = new ArrayList<Integer>();
+      for(int col=0; col<adjMatrix[row].length; col++){
+        Integer column = adjMatrix[row][col] ? columns.get(resGraph.getResource(col)) : null;
+        if(column != null) connected.add(column);
+      }
+      Collections.sort(connected);
+      int[] cols = new int[connected.size()];
+      for(int i=0; i<cols.length; i++){
+        cols[i] = connected.get(i);
+      }
+      busColumns.put(cRes, cols);
+      buses.add(cRes);
+    }
+
+    // order by leftmost column and id, then put each bus into the first row it does not overlap with
+    Collections.sort(buses, new Comparator<CommResource>() {
+      public int compare(CommResource a, CommResource b) {
+        int c = Integer.compare(firstColumn(busColumns.get(a)), firstColumn(busColumns.get(b)));
+        return c != 0 ? c : RES_ID_ORDER.compare(a, b);
+      }
+    });
+    List<Integer> rowEnds = new ArrayList<Integer>();
+    HashMap<CommResource, Integer> busRows = new HashMap<CommResource, Integer>();
+    for(CommResource cRes : buses){
+      int[] cols = busColumns.get(cRes);
+      int first = firstColumn(cols);
+      int last = cols.length == 0 ? first : cols[cols.length-1];
+      int row = 0;
+      while(row < rowEnds.size() && rowEnds.get(row) >= first){
+        row++;
+      }
+      if(row == rowEnds.size()){
+        rowEnds.add(last);
+      } else{
+        rowEnds.set(row, last);
+      }
+      busRows.put(cRes, row);
+    }
+
+    // buses, then the connectors of each column spread around its center
+    List<List<CommResource>> columnBuses = new ArrayList<List<CommResource>>();
+    for(int i=0; i<resources.size(); i++){
+      columnBuses.add(new ArrayList<CommResource>());
+    }
+    for(CommResource cRes : buses){
+      int[] cols = busColumns.get(cRes);
+      int first = firstColumn(cols);
+      int last = cols.length == 0 ? first : cols[cols.length-1];
+      double y = resBottom + BUS_GAP + busRows.get(cRes)*(BUS_HEIGHT+BUS_GAP);
+      boxes.add(new LayoutBox(columnX(first), y, columnX(last)+columnWidth-columnX(first), BUS_HEIGHT, COMM_RESOURCE_COLOR,
+          cRes.getUniqueName(), false));
+      busY.put(cRes, y);
+      for(int col : cols){
+        columnBuses.get(col).add(cRes);
+      }
+    }
+    for(int i=0; i<columnBuses.size(); i++){
+      List<CommResource> connected = columnBuses.get(i);
+      for(int k=0; k<connected.size(); k++){
+        double x = columnX(i) + columnWidth/2 + (k-(connected.size()-1)/2.0)*CONNECTOR_SPACING;
+        edges.add(new LayoutEdge(new double[] { x, x }, new double[] { resBottom, busY.get(connected.get(k)) },
+            CONNECTOR_COLOR, CONNECTOR_WIDTH, false));
+      }
+    }
+    return resBottom + rowEnds.size()*(BUS_HEIGHT+BUS_GAP);
+  }
+
+  /**
+   * Routes the task links of an application.
+   * @param trackY top of the tracks of task links which are not mapped to a communication resource
+   */
+  private void layoutTaskLinks(ApplicationModel app, double trackY){
+    List<TaskLink> taskLinks = new ArrayList<TaskLink>(app.getTaskLinkList().values());
+    Collections.sort(taskLinks, new Comparator<TaskLink>() {
+      public int compare(TaskLink a, TaskLink b) {
+        int c = Integer.compare(a.getSrcTaskId(), b.getSrcTaskId());
+        return c != 0 ? c : Integer.compare(a.getTrgTaskId(), b.getTrgTaskId());
+      }
+    });
+
+    int color = getAppColor(app.getAppId());
+    for(TaskLink taskLink : taskLinks){
+      Task srcTask = app.getTask(taskLink.getSrcTaskId());
+      Task trgTask = app.getTask(taskLink.getTrgTaskId());
+      LayoutBox src = taskBoxes.get(srcTask);
+      LayoutBox trg = taskBoxes.get(trgTask);
+      if(src == null || trg == null) continue;
+      int srcCol = columns.get(srcTask.getMappedTo());
+      int trgCol = columns.get(trgTask.getMappedTo());
+      double srcY = src.getY() + src.getHeight()/2;
+      double trgY = trg.getY() + trg.getHeight()/2;
+
+      if(srcCol == trgCol){
+        // left lane of the column
+        double laneX = src.getX() - LANE_SPACING*(1 + nextIndex(leftLanes, srcCol, NUM_LANES));
+        edges.add(new LayoutEdge(new double[] { src.getX(), laneX, laneX, trg.getX() },
+            new double[] { srcY, srcY, trgY, trgY }, color, LINK_WIDTH, true));
+        continue;
+      }
+
+      // right lanes of both columns and a track below the bus
+      double srcLaneX = src.getX() + src.getWidth() + LANE_SPACING*(1 + nextIndex(rightLanes, srcCol, NUM_LANES));
+      double trgLaneX = trg.getX() + trg.getWidth() + LANE_SPACING*(1 + nextIndex(rightLanes, trgCol, NUM_LANES));
+      double y;
+      AbstractResource mappedTo = taskLink.getMappedTo();
+      if(mappedTo instanceof CommResource && busY.containsKey(mappedTo)){
+        y = busY.get(mappedTo) + BUS_HEIGHT + TRACK_OFFSET + TRACK_SPACING*nextIndex(tracks, mappedTo, NUM_TRACKS);
+        double markerX = (srcLaneX + trgLaneX - MARKER_SIZE)/2;
+        markers.add(new LayoutBox(markerX, busY.get(mappedTo) + (BUS_HEIGHT-MARKER_SIZE)/2, MARKER_SIZE, MARKER_SIZE,
+            color, null, true));
+      } else{
+        y = trackY + TRACK_SPACING*nextIndex(tracks, this, NUM_TRACKS);
+      }
+      edges.add(new LayoutEdge(
+          new double[] { src.getX()+src.getWidth(), srcLaneX, srcLaneX, trgLaneX, trgLaneX, trg.getX()+trg.getWidth() },
+          new double[] { srcY, srcY, y, y, trgY, trgY }, color, LINK_WIDTH, true));
+    }
+  }
+
+  /**
+   * Orders the tasks of an application by their depth in the task graph (the longest path from a source task) and id.
+   */
+  private static List<Task> orderTasks(ApplicationModel app){
+    List<Task> tasks = new ArrayList<Task>(app.getTaskList().values());
+    final HashMap<Task, Integer> depths = new HashMap<Task, Integer>();
+    HashMap<Task, Integer> numPredecessors = new HashMap<Task, Integer>();
+    List<Task> order = new ArrayList<Task>();
+    for(Task task : tasks){
+      depths.put(task, 0);
+      numPredecessors.put(task, task.getTrgLinkList().size());
+      if(task.getTrgLinkList().size() == 0) order.add(task);
+    }
+    for(int k=0; k<order.size(); k++){
+      Task task = order.get(k);
+      for(TaskLinkIdentifier taskLinkId : task.getSrcLinkList().values()){
+        Task successor = app.getTask(app.getTaskLink(taskLinkId).getTrgTaskId());
+        if(successor == null || !numPredecessors.containsKey(successor)) continue;
+        depths.put(successor, Math.max(depths.get(successor), depths.get(task)+1));
+        int remaining = numPredecessors.get(successor)-1;
+        numPredecessors.put(successor, remaining);
+        if(remaining == 0) order.add(successor);
+      }
+    }
+
+    Collections.sort(tasks, new Comparator<Task>() {
+      public int compare(Task a, Task b) {
+        int c = Integer.compare(depths.get(a), depths.get(b));
+        return c != 0 ? c : Integer.compare(a.getElemId(), b.getElemId());
+      }
+    });
+    return tasks;
+  }
+
+  private double columnX(int column){
+    return MARGIN + column*(columnWidth+COLUMN_GAP);
+  }
+
+  private static int firstColumn(int[] cols){
+    return cols.length == 0 ? 0 : cols[0];
+  }
+
+  private static int nextIndex(HashMap<Object, Integer> counters, Object key, int modulus){
+    Integer count = counters.get(key);
+    counters.put(key, count == null ? 1 : count+1);
+    return count == null ? 0 : count % modulus;
+  }
+
+  private static BaseFont createFont(){
+    try{
+      return BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, false);
+    } catch(DocumentException e){
+      throw new IllegalStateException("built-in font not available", e);
+    } catch(IOException e){
+      throw new IllegalStateException("built-in font not available", e);
+    }
+  }
+}
@@ -4,9 +4,13 @@ import java.awt.Graphics2D;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import org.jgraph.JGraph;
 import org.tubs.epoc.SMFF.ImportExport.Pdf.Graph.Presentation;
+import org.tubs.epoc.SMFF.ImportExport.Pdf.Layout.PdfLayoutWriter;
+import org.tubs.epoc.SMFF.ImportExport.Pdf.Layout.SvgLayoutWriter;
+import org.tubs.epoc.SMFF.ImportExport.Pdf.Layout.SystemLayout;
 import org.tubs.epoc.SMFF.ModelElements.SystemModel;
 
 import com.lowagie.text.Document;
@@ -17,9 +21,47 @@ import com.lowagie.text.pdf.PdfContentByte;
 import com.lowagie.text.pdf.PdfTemplate;
 import com.lowagie.text.pdf.PdfWriter;
 
+/**
+ * Prints the platform, applications and mapping of a system model.
+ * <p>
+ * {@link #convertToPdf(SystemModel, String)} and {@link #convertToSvg(SystemModel, String)} use the headless
+ * {@link SystemLayout}. {@link #convertToPdfWithJGraph(SystemModel, String)} renders the Swing based JGraph presentation
+ * with organic layout as before; it needs AWT and is much slower for large systems.
+ */
 public class PdfPrinter {
 
+  /**
+   * Prints a system model as PDF with the layered layout.
+   * @param systemModel system model
+   * @param filename file to write
+   * @throws UncheckedIOException if the file cannot be written
+   */
   public static void convertToPdf(SystemModel systemModel, String filename) {
+    try {
+      new PdfLayoutWriter(new SystemLayout(systemModel)).write(new FileOutputStream(filename),
+          "PDF File created " + (new java.util.Date()));
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot print system model to " + filename, e);
+    }
+  }
+
+  /**
+   * Prints a system model as SVG with the layered layout.
+   * @param systemModel system model
+   * @param filename file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void convertToSvg(SystemModel systemModel, String filename) throws IOException {
+    new SvgLayoutWriter(new SystemLayout(systemModel)).write(new FileOutputStream(filename),
+        "SVG File created " + (new java.util.Date()));
+  }
+
+  /**
+   * Prints a system model as PDF with the JGraph presentation and organic layout.
+   * @param systemModel system model
+   * @param filename file to write
+   */
+  public static void convertToPdfWithJGraph(SystemModel systemModel, String filename) {
     JGraph graph = new Presentation(systemModel).getSystemGraph().getGraph();
     int width = graph.getWidth();
     int height = graph.getHeight();
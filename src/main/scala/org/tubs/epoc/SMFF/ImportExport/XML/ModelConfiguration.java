@@ -0,0 +1,128 @@
+package org.tubs.epoc.SMFF.ImportExport.XML;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jdom2.Element;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.Profile;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractSchedulingParameter;
+
+/**
+ * Default class map of the configuration section of a saved system model.
+ * <p>
+ * The configuration section maps the names of resource types/groups, schedulers, scheduling parameters and activation
+ * patterns to their classes. It has to be written before the platform and applications, therefore savers that do not
+ * build a document tree collect it in a separate walk over the model. The walk visits the elements in the same order as
+ * {@link ModelSaver ModelSaver} does, so the first classname found for a name wins in both cases.
+ *
+ * @see StreamingModelSaver
+ *
+ */
+public class ModelConfiguration {
+
+  /**
+   * class groups of the configuration section (in the order they are written)
+   */
+  public static final String[] GROUPS = { "ResourceType", "ResourceGroup", "Scheduler", "SchedulingParameter",
+      "ActivationPattern" };
+
+  // class group -> (name -> classname)
+  private Map<String, Map<String, String>> groups;
+
+  /**
+   * Collects the configuration of the passed system model.
+   *
+   * @param systemModel
+   *          model to collect the configuration from
+   */
+  public ModelConfiguration(SystemModel systemModel) {
+    groups = new LinkedHashMap<String, Map<String, String>>();
+    for (String group : GROUPS) {
+      groups.put(group, new LinkedHashMap<String, String>());
+    }
+    collect(systemModel);
+  }
+
+  /**
+   * Gets the default class map.
+   *
+   * @return class group -> (name -> classname), both in the order they are written
+   */
+  public Map<String, Map<String, String>> getGroups() {
+    return groups;
+  }
+
+  /**
+   * Checks whether the classname of the xml element is covered by the configuration section and can be omitted.
+   *
+   * @param group
+   *          class group of the configuration section
+   * @param xmlElement
+   *          xml description carrying "name" and "classname" attributes
+   * @return true if the classname attribute must not be written
+   */
+  public boolean isConfigured(String group, Element xmlElement) {
+    String classname = xmlElement.getAttributeValue("classname");
+    return classname != null && classname.equals(groups.get(group).get(xmlElement.getAttributeValue("name")));
+  }
+
+  /**
+   * Walks the model in the same order as it is written and registers the classname of every configurable element.
+   *
+   * @param systemModel
+   *          model to collect the configuration from
+   */
+  private void collect(SystemModel systemModel) {
+    for (AbstractResource resource : systemModel.getAllRes()) {
+      configure("ResourceType", resource.getResType().toXML());
+      configure("ResourceGroup", resource.getResGroup().toXML());
+      configure("Scheduler", resource.getScheduler().toXML());
+    }
+    for (ApplicationModel app : systemModel.getApplications()) {
+      for (Task task : app.getTaskList().values()) {
+        AbstractSchedulingParameter schedParam = task.getSchedulingParameter();
+        if (schedParam != null) {
+          configure("SchedulingParameter", schedParam.toXML());
+        }
+        collectProfiles(task);
+      }
+      for (TaskLink taskLink : app.getTaskLinkList().values()) {
+        collectProfiles(taskLink);
+        AbstractSchedulingParameter schedParam = taskLink.getSchedulingParameter();
+        if (schedParam != null) {
+          configure("SchedulingParameter", schedParam.toXML());
+        }
+      }
+    }
+  }
+
+  private void collectProfiles(SchedulableElement schedElem) {
+    for (Profile profile : schedElem.getProfileList()) {
+      configure("ActivationPattern", profile.getActivationPattern().toXML());
+      configure("ResourceGroup", profile.getResGroup().toXML());
+      configure("ResourceType", profile.getResType().toXML());
+    }
+  }
+
+  /**
+   * Registers the classname of the xml element for its name, if this name is not configured yet.
+   *
+   * @param group
+   *          class group of the configuration section
+   * @param xmlElement
+   *          xml description carrying "name" and "classname" attributes
+   */
+  private void configure(String group, Element xmlElement) {
+    Map<String, String> groupMap = groups.get(group);
+    String name = xmlElement.getAttributeValue("name");
+    if (!groupMap.containsKey(name)) {
+      groupMap.put(name, xmlElement.getAttributeValue("classname"));
+    }
+  }
+}
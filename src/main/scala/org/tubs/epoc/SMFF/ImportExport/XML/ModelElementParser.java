@@ -0,0 +1,447 @@
+package org.tubs.epoc.SMFF.ImportExport.XML;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jdom2.Element;
+import org.tubs.epoc.SMFF.ModelElements.AbstractDataExtension;
+import org.tubs.epoc.SMFF.ModelElements.ExtendibleModelElement;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.Profile;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResourceGroup;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResourceType;
+import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.GenericResourceGroup;
+import org.tubs.epoc.SMFF.ModelElements.Platform.GenericResourceType;
+import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractScheduler;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractSchedulingParameter;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.SPPScheduler;
+import org.tubs.epoc.SMFF.ModelElements.Timing.AbstractActivationPattern;
+import org.tubs.epoc.SMFF.ModelElements.Timing.PJActivation;
+
+/**
+ * Creates single model elements from their xml description. Used by {@link ModelLoader ModelLoader}, which passes the
+ * elements of the complete document, and by {@link StreamingModelLoader StreamingModelLoader}, which builds each of them
+ * as a small JDOM fragment. The parser neither adds the created elements to the model nor resolves references to other
+ * elements, this is up to the loaders.
+ *
+ */
+class ModelElementParser {
+  private static Log logger = LogFactory.getLog(ModelElementParser.class);
+
+  private HashMap<String, HashMap<String, Class<?>>> defaultClassMap = new HashMap<String, HashMap<String, Class<?>>>();
+
+  /**
+   * Adds the default classes of a configuration section to the default class map.
+   *
+   * @param configurationXML
+   *          the "Configuration" element
+   */
+  @SuppressWarnings("unchecked")
+  void readConfiguration(Element configurationXML) {
+    // iterate over all configured default class groups
+    Collection<Element> classGroups = (Collection<Element>) configurationXML.getChildren();
+    for(Element classGroup : classGroups){
+      // get the name of this class group
+      String classGroupName = classGroup.getName();
+      // if no map for this class group exists yet, create one
+      if(defaultClassMap.get(classGroupName)==null){
+        defaultClassMap.put(classGroupName, new HashMap<String, Class<?>>());
+      }
+      HashMap<String, Class<?>> classGroupMap = defaultClassMap.get(classGroupName);
+      Collection<Element> classGroupDefaults = (Collection<Element>) classGroup.getChildren();
+      // insert all default classes for this class group
+      for(Element defaultClassMap : classGroupDefaults){
+        String name = defaultClassMap.getName();//AttributeValue("name");
+        String defaultClassString = (String) defaultClassMap.getAttributeValue("classname");
+        Class<?> defaultClass;
+        try {
+          defaultClass = XMLFactory.forName(defaultClassString);
+          classGroupMap.put(name, defaultClass);
+        } catch (ClassNotFoundException e) {
+          logger.error("Class "+defaultClassString+" not found.");
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates a communication resource with its extensions. The resource is not added to the system model.
+   *
+   * @param e
+   *          the "CommResource" element
+   * @param systemModel
+   *          system model the resource belongs to
+   * @return the communication resource
+   */
+  CommResource createCommResource(Element e, SystemModel systemModel) {
+    // required fields
+    int resID = Integer.parseInt(e.getAttributeValue("resID"));
+    // required children
+    Element resTypeXML = e.getChild("ResourceType");
+    Element resGroupXML = e.getChild("ResourceGroup");
+    AbstractResourceType resType;
+    AbstractResourceGroup resGroup;
+    try{
+      resType = (AbstractResourceType) XMLFactory.fromXML(resTypeXML, defaultClassMap);
+    } catch (Exception exception){
+      resType = new GenericResourceType();
+    }
+    try{
+      resGroup = (AbstractResourceGroup) XMLFactory.fromXML(resGroupXML, defaultClassMap);
+    } catch (Exception exception){
+      resGroup = new GenericResourceGroup();
+    }
+    Element schedulerXML = e.getChild("Scheduler");
+    AbstractScheduler scheduler;
+    try{
+      scheduler = (AbstractScheduler) XMLFactory.fromXML(schedulerXML, defaultClassMap);
+    } catch (Exception exception){
+      // in case of error just assume spp scheduling (for backwards compatibility with older files)
+      scheduler = new SPPScheduler();
+    }
+
+    // may return null if not given- but this is consistent with constructor call
+    String shortName = e.getAttributeValue("shortName");
+
+    // create comm resource
+    CommResource cRes = new CommResource(systemModel, shortName, resID, resType, resGroup);
+    cRes.setScheduler(scheduler);
+
+    // generate extensions
+    insertExtensions(e, cRes);
+    return cRes;
+  }
+
+  /**
+   * Creates a resource with its extensions. The resource is neither added to the system model nor connected to the
+   * communication resources given by its "attachedTo" children.
+   *
+   * @param e
+   *          the "Resource" element
+   * @param systemModel
+   *          system model the resource belongs to
+   * @return the resource
+   */
+  Resource createResource(Element e, SystemModel systemModel) {
+    String resIDString = e.getAttributeValue("resID");
+
+    // values for Resource constructor
+    int resID;
+
+    // required children
+    Element resTypeXML = e.getChild("ResourceType");
+    Element resGroupXML = e.getChild("ResourceGroup");
+    AbstractResourceType resType;
+    AbstractResourceGroup resGroup;
+    try{
+      resType = (AbstractResourceType) XMLFactory.fromXML(resTypeXML);
+    } catch (Exception exception){
+      resType = new GenericResourceType();
+    }
+    try{
+      resGroup = (AbstractResourceGroup) XMLFactory.fromXML(resGroupXML);
+    } catch (Exception exception){
+      resGroup = new GenericResourceGroup();
+    }
+    Element schedulerXML = e.getChild("Scheduler");
+    AbstractScheduler scheduler;
+    try{
+      scheduler = (AbstractScheduler) XMLFactory.fromXML(schedulerXML);
+    } catch (Exception exception){
+      // in case of error just assume spp scheduling (for backwards compatibility with older files)
+      scheduler = new SPPScheduler();
+    }
+
+    // check if all attributes are present and assign if so
+    // TODO: add default values if not present instead of throwing exception
+    if (resIDString != null) {
+      resID = Integer.parseInt(resIDString);
+    } else {
+      throw new IllegalStateException("A resource must have a resource ID");
+    }
+
+    // may return null if not given- but this is consistent with constructor call
+    String shortName = e.getAttributeValue("shortName");
+
+    // create resource
+    Resource resource = new Resource(systemModel, shortName, resID, resType, resGroup);
+    resource.setScheduler(scheduler);
+
+    // generate extensions
+    insertExtensions(e, resource);
+    return resource;
+  }
+
+  /**
+   * Creates a task with its profiles and extensions. The task is not added to the application and its scheduling
+   * parameter is not set, as this requires the task to be mapped.
+   *
+   * @param task
+   *          the "Task" element
+   * @param app
+   *          application the task belongs to
+   * @return the task
+   */
+  @SuppressWarnings("unchecked")
+  Task createTask(Element task, ApplicationModel app) {
+    String taskIDString = task.getAttributeValue("ID");
+    String prioString = task.getAttributeValue("prio");
+
+    int taskID;
+
+    // TODO: default values?
+    if (taskIDString != null) {
+      taskID = Integer.parseInt(taskIDString);
+    } else {
+      throw new IllegalStateException("Task must be assigned a taskID");
+    }
+
+    // may be null - but that's OK
+    String shortName = task.getAttributeValue("shortName");
+
+    // generate Task
+    Task gTask = new Task(shortName, app, taskID);
+
+    // generate extensions
+    insertExtensions(task, gTask);
+
+    // add all profiles
+    for (Element profE : (List<Element>) task.getChildren("Profile")) {
+      String bcetStr = profE.getAttributeValue("bcet");
+      String wcetStr = profE.getAttributeValue("wcet");
+      String activeStr = profE.getAttributeValue("active");
+
+      Element actPatternXML = profE.getChild("ActivationPattern");
+      AbstractActivationPattern actPattern = null;
+      if(actPatternXML != null){
+        try{
+          actPattern = (AbstractActivationPattern) XMLFactory.fromXML(actPatternXML, defaultClassMap);
+        } catch (Exception exception){
+          logger.error("error isntantiating activation pattern. class not found");
+        }
+      }
+      if(actPattern==null){
+        if (prioString != null) {
+          String pStr = profE.getAttributeValue("period");
+          String jStr = profE.getAttributeValue("jitter");
+          actPattern = new PJActivation(Integer.valueOf(pStr), Integer.valueOf(jStr));
+        } else {
+          throw new IllegalStateException("Task must have a priority assignment");
+        }
+      }
+
+
+      int bcet;
+      int wcet;
+
+      if (wcetStr != null) {
+        wcet = Integer.parseInt(wcetStr);
+      } else {
+        throw new IllegalStateException("WCET must be defined in all profiles");
+      }
+
+      if (bcetStr != null) {
+        bcet = Integer.parseInt(bcetStr);
+      } else {
+        // default to bcet = wcet
+        bcet = wcet;
+      }
+
+      Profile prof = createProfile(profE, bcet, wcet, actPattern);
+      // add to possible resource definition around it.
+      gTask.addProfile(prof);
+
+      // if this profile is active, mark it in the task
+      if(activeStr!=null && Boolean.valueOf(activeStr)){
+        gTask.setActiveProfile(prof);
+      }
+    }
+
+    // if task did not get an active profile, just set the first one
+    if(gTask.getActiveProfile()==null){
+      gTask.setActiveProfile(gTask.getProfileList().getFirst());
+    }
+    return gTask;
+  }
+
+  /**
+   * Creates a task link with its profiles and extensions. The task link is neither connected to its tasks nor added to
+   * the application and its scheduling parameter is not set.
+   *
+   * @param taskLink
+   *          the "TaskLink" element
+   * @param app
+   *          application the task link belongs to
+   * @return the task link
+   */
+  @SuppressWarnings("unchecked")
+  TaskLink createTaskLink(Element taskLink, ApplicationModel app) {
+    // retrieve the string values found in the XML file -- may be null
+    // if not supplied or empty if no value is assigned
+    String shortName = taskLink.getAttributeValue("shortName");
+    String linkIDStr = taskLink.getAttributeValue("ID");
+    String srcTStr = taskLink.getAttributeValue("src");
+    String trgTStr = taskLink.getAttributeValue("trgt");
+
+    // the int representations we are actually interested in
+    int linkId;
+    int srcTaskId;
+    int trgTaskId;
+    int wcet;
+    int bcet;
+
+    // TODO: default values
+    if (linkIDStr != null) {
+      linkId = Integer.parseInt(linkIDStr);
+    } else {
+      throw new IllegalStateException("Task Link must have ID");
+    }
+
+    if (srcTStr != null) {
+      srcTaskId = Integer.parseInt(srcTStr);
+    } else {
+      throw new IllegalStateException("Task Link must have source task");
+    }
+
+    if (trgTStr != null) {
+      trgTaskId = Integer.parseInt(trgTStr);
+    } else {
+      throw new IllegalStateException("Task link must have target task");
+    }
+
+    // generate task link
+    TaskLink tl = new TaskLink(shortName, app, linkId, srcTaskId, trgTaskId);
+
+    // add all profiles
+    for (Element profE : (List<Element>) taskLink.getChildren("Profile")) {
+      String bcetStr = profE.getAttributeValue("bcet");
+      String wcetStr = profE.getAttributeValue("wcet");
+      String activeStr = profE.getAttributeValue("active");
+
+      Element actPatternXML = profE.getChild("ActivationPattern");
+      AbstractActivationPattern actPattern = null;
+      if(actPatternXML != null){
+        try{
+          actPattern = (AbstractActivationPattern) XMLFactory.fromXML(actPatternXML, defaultClassMap);
+        } catch (Exception exception){
+          logger.error("error isntantiating activation pattern. class not found");
+        }
+      }
+
+      if (wcetStr != null) {
+        wcet = Integer.parseInt(wcetStr);
+      } else {
+        throw new IllegalStateException("WCET must be defined in all profiles");
+      }
+
+      if (bcetStr != null) {
+        bcet = Integer.parseInt(bcetStr);
+      } else {
+        // default to bcet = wcet
+        bcet = wcet;
+      }
+
+      Profile prof = createProfile(profE, bcet, wcet, actPattern);
+      // add to possible resource definition around it.
+      tl.addProfile(prof);
+
+      // if this profile is active, mark it in the task
+      if(activeStr!=null && Boolean.valueOf(activeStr)){
+        tl.setActiveProfile(prof);
+      }
+    }
+
+    // generate extensions
+    insertExtensions(taskLink, tl);
+    return tl;
+  }
+
+  private Profile createProfile(Element profE, int bcet, int wcet, AbstractActivationPattern actPattern) {
+    AbstractResourceType resType;
+    AbstractResourceGroup resGroup;
+    try{
+      Element allowedResTypeXML = (Element) profE.getChild("ResourceType").getChildren().get(0);
+      Element allowedResGroupXML = (Element) profE.getChild("ResourceGroup").getChildren().get(0);
+      resType = (AbstractResourceType) XMLFactory.fromXML(allowedResTypeXML, defaultClassMap);
+      resGroup = (AbstractResourceGroup) XMLFactory.fromXML(allowedResGroupXML, defaultClassMap);
+    } catch(Exception e){
+      // if these elements are not in the model (e.g. for older format models) just use the generic types
+      resType = new GenericResourceType();
+      resGroup = new GenericResourceGroup();
+    }
+
+    // ignore most parameters for now
+    // TODO: add XML fields for the other parameters (defaulting to 0)
+    return new Profile(bcet, wcet, actPattern, resType, resGroup);
+  }
+
+  /**
+   * Creates the scheduling parameter of a task or task link.
+   *
+   * @param schedParamXML
+   *          the "SchedulingParameter" element
+   * @return the scheduling parameter or null if it cannot be instantiated
+   */
+  AbstractSchedulingParameter createSchedParam(Element schedParamXML) {
+    AbstractSchedulingParameter schedParam = null;
+    try{
+      schedParam = (AbstractSchedulingParameter) XMLFactory.fromXML(schedParamXML, defaultClassMap);
+    } catch (Exception exception){
+      logger.error("error instantiating scheduling parameter. class not found");
+    }
+    return schedParam;
+  }
+
+  /**
+   * generates all data extensions at rootModel, that are specified in rootXML
+   *
+   * @param rootXML
+   * @param rootModel
+   */
+  void insertExtensions(Element rootXML, @SuppressWarnings("rawtypes") ExtendibleModelElement rootModel) {
+    // get the list of extensions saved in this xml
+    List<Element> extList = rootXML.getChildren("DataExtensions");
+    for (Element dataExt : extList) {
+      insertExtensionSection(dataExt, rootModel);
+    }
+  }
+
+  /**
+   * generates the data extensions of a single "DataExtensions" section at rootModel
+   *
+   * @param dataExt
+   * @param rootModel
+   */
+  @SuppressWarnings("unchecked")
+  void insertExtensionSection(Element dataExt, @SuppressWarnings("rawtypes") ExtendibleModelElement rootModel) {
+    // get type of allowed data extensions
+    @SuppressWarnings("rawtypes")
+    Class<? extends AbstractDataExtension> dataExtensionType = (Class<? extends AbstractDataExtension>) rootModel
+    .getDataExtensionType();
+    Collection<Element> extensions = dataExt.getChildren();
+
+    // iterate over all saved extensions
+    for (Element extension : extensions) {
+      XMLSaveable modelExtension;
+      // generate model extension object from XML
+      try {
+        modelExtension = XMLFactory.fromXML(extension);
+        boolean isClone = Boolean.valueOf(extension.getAttributeValue("isCloneable"));
+        boolean isIgnoreExisting = Boolean.valueOf(extension.getAttributeValue("isIgnoreExisting"));
+        boolean isOverwrite = Boolean.valueOf(extension.getAttributeValue("isOverwrite"));
+        rootModel.addExtData(dataExtensionType.cast(modelExtension), isClone, isOverwrite, isIgnoreExisting);
+      } catch (Exception e) {
+        // if generation failed, print message
+        logger.error("Cannot insert extensions", e);
+      }
+    }
+  }
+}
@@ -4,7 +4,6 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 
 import org.apache.commons.logging.Log;
@@ -13,26 +12,14 @@ import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.input.SAXBuilder;
-import org.tubs.epoc.SMFF.ModelElements.AbstractDataExtension;
-import org.tubs.epoc.SMFF.ModelElements.ExtendibleModelElement;
 import org.tubs.epoc.SMFF.ModelElements.SystemModel;
 import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
-import org.tubs.epoc.SMFF.ModelElements.Application.Profile;
 import org.tubs.epoc.SMFF.ModelElements.Application.Task;
 import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
 import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
-import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResourceGroup;
-import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResourceType;
 import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
-import org.tubs.epoc.SMFF.ModelElements.Platform.GenericResourceGroup;
-import org.tubs.epoc.SMFF.ModelElements.Platform.GenericResourceType;
 import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
 import org.tubs.epoc.SMFF.ModelElements.Platform.ResourceGraph;
-import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractScheduler;
-import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractSchedulingParameter;
-import org.tubs.epoc.SMFF.ModelElements.Scheduling.SPPScheduler;
-import org.tubs.epoc.SMFF.ModelElements.Timing.AbstractActivationPattern;
-import org.tubs.epoc.SMFF.ModelElements.Timing.PJActivation;
 
 /**
  * This class generates a {@link org.tubs.epoc.SMFF.ModelElements.SystemModel SystemModel} from an xml file.
@@ -46,7 +33,7 @@ public class ModelLoader {
   private File file;
   private Element systemElement;
 
-  private HashMap<String, HashMap<String, Class<?>>> defaultClassMap;
+  private ModelElementParser parser;
 
   public ModelLoader(String fileName) throws IOException {
     this.file = new File(fileName);
@@ -106,7 +93,7 @@ public class ModelLoader {
    */
   public SystemModel generateSystem() throws Exception {
     SystemModel systemModel;
-    defaultClassMap = new HashMap<String, HashMap<String, Class<?>>>();
+    parser = new ModelElementParser();
 
     // if systemElement is not assigned - give it another try to load
     if (systemElement == null) {
@@ -128,7 +115,7 @@ public class ModelLoader {
     systemModel = new SystemModel();
 
     // generate extensions
-    insertExtensions(systemElement, systemModel);
+    parser.insertExtensions(systemElement, systemModel);
 
     // four- stage loading process
     // each stage could be replaced by using a factory
@@ -142,33 +129,8 @@ public class ModelLoader {
     return systemModel;
   }
 
-  @SuppressWarnings("unchecked")
   private void genDefaultClassMap(){
-    Element configurationXML = systemElement.getChild("Configuration");
-    // iterate over all configured default class groups
-    Collection<Element> classGroups = (Collection<Element>) configurationXML.getChildren();
-    for(Element classGroup : classGroups){
-      // get the name of this class group
-      String classGroupName = classGroup.getName();
-      // if no map for this class group exists yet, create one
-      if(defaultClassMap.get(classGroupName)==null){
-        defaultClassMap.put(classGroupName, new HashMap<String, Class<?>>());
-      }
-      HashMap<String, Class<?>> classGroupMap = defaultClassMap.get(classGroupName);
-      Collection<Element> classGroupDefaults = (Collection<Element>) classGroup.getChildren();
-      // insert all default classes for this class group
-      for(Element defaultClassMap : classGroupDefaults){
-        String name = defaultClassMap.getName();//AttributeValue("name");
-        String defaultClassString = (String) defaultClassMap.getAttributeValue("classname");
-        Class<?> defaultClass;
-        try {
-          defaultClass = Class.forName(defaultClassString);
-          classGroupMap.put(name, defaultClass);
-        } catch (ClassNotFoundException e) {
-          logger.error("Class "+defaultClassString+" not found.");
-        }
-      }
-    }
+    parser.readConfiguration(systemElement.getChild("Configuration"));
   }
 
   @SuppressWarnings("unchecked")
@@ -255,7 +217,7 @@ public class ModelLoader {
       systemModel.addApplication(app);
 
       // generate extensions
-      insertExtensions(appE, app);
+      parser.insertExtensions(appE, app);
 
       // insert all tasks into the global model
       insertTasks(appE, app);
@@ -357,113 +319,21 @@ public class ModelLoader {
     // unchecked cast
     // for all subElements named TaskLink -- the task links of the application
     for (Element taskLink : (Collection<Element>) appE.getChildren("TaskLink")) {
+      // generate task link
+      TaskLink tl = parser.createTaskLink(taskLink, app);
 
-      // retrieve the string values found in the XML file -- may be null
-      // if not supplied or empty if no value is assigned
-      String shortName = taskLink.getAttributeValue("shortName");
-      String linkIDStr = taskLink.getAttributeValue("ID");
-      String srcTStr = taskLink.getAttributeValue("src");
-      String trgTStr = taskLink.getAttributeValue("trgt");
-
-      // the int representations we are actually interested in
-      int linkId;
-      int srcTaskId;
-      int trgTaskId;
-      int wcet;
-      int bcet;
-
-      // TODO: default values
-      if (linkIDStr != null) {
-        linkId = Integer.parseInt(linkIDStr);
-      } else {
-        throw new IllegalStateException("Task Link must have ID");
-      }
-
-      if (srcTStr != null) {
-        srcTaskId = Integer.parseInt(srcTStr);
-      } else {
-        throw new IllegalStateException("Task Link must have source task");
-      }
-
-      if (trgTStr != null) {
-        trgTaskId = Integer.parseInt(trgTStr);
-      } else {
-        throw new IllegalStateException("Task link must have target task");
-      }
-      
       // try to get the tasks that the link will be connected to
-      Task sourceTask = app.getTask(srcTaskId);
-      Task targetTask = app.getTask(trgTaskId);
+      Task sourceTask = app.getTask(tl.getSrcTaskId());
+      Task targetTask = app.getTask(tl.getTrgTaskId());
 
       if (sourceTask == null || targetTask == null) {
         throw new IllegalStateException("Cannot find tasks at the end of task link");
       }
 
-      // generate task link
-      TaskLink tl = new TaskLink(shortName, app, linkId, srcTaskId, trgTaskId);
       // add to source Task
       sourceTask.addTaskLink(tl);
       // add to target Task
       targetTask.addTaskLink(tl);
-      
-      // generate Profiles
-
-      // add all profiles
-      for (Element profE : (List<Element>) taskLink.getChildren("Profile")) {
-        String bcetStr = profE.getAttributeValue("bcet");
-        String wcetStr = profE.getAttributeValue("wcet");
-        String activeStr = profE.getAttributeValue("active");
-
-        Element actPatternXML = profE.getChild("ActivationPattern");
-        AbstractActivationPattern actPattern = null;
-        if(actPatternXML != null){
-          try{
-            actPattern = (AbstractActivationPattern) XMLFactory.fromXML(actPatternXML, defaultClassMap);
-          } catch (Exception exception){
-            logger.error("error isntantiating activation pattern. class not found");
-          }
-        }
-
-        if (wcetStr != null) {
-          wcet = Integer.parseInt(wcetStr);
-        } else {
-          throw new IllegalStateException("WCET must be defined in all profiles");
-        }
-
-        if (bcetStr != null) {
-          bcet = Integer.parseInt(bcetStr);
-        } else {
-          // default to bcet = wcet
-          bcet = wcet;
-        }
-
-        AbstractResourceType resType;
-        AbstractResourceGroup resGroup;
-        try{
-          Element allowedResTypeXML = (Element) profE.getChild("ResourceType").getChildren().get(0);
-          Element allowedResGroupXML = (Element) profE.getChild("ResourceGroup").getChildren().get(0);
-          resType = (AbstractResourceType) XMLFactory.fromXML(allowedResTypeXML, defaultClassMap);
-          resGroup = (AbstractResourceGroup) XMLFactory.fromXML(allowedResGroupXML, defaultClassMap);
-        } catch(Exception e){
-          // if these elements are not in the model (e.g. for older format models) just use the generic types
-          resType = new GenericResourceType();
-          resGroup = new GenericResourceGroup();
-        }
-
-        // ignore most parameters for now
-        // TODO: add XML fields for the other parameters (defaulting to 0)
-        Profile prof = new Profile(bcet, wcet, actPattern, resType, resGroup);
-        // add to possible resource definition around it.
-        tl.addProfile(prof);
-
-        // if this profile is active, mark it in the task          
-        if(activeStr!=null && Boolean.valueOf(activeStr)){
-          tl.setActiveProfile(prof);
-        }
-      }
-
-      // generate extensions
-      insertExtensions(taskLink, tl);
 
       // add to application
       app.addTaskLink(tl);
@@ -475,98 +345,8 @@ public class ModelLoader {
     // unchecked cast
     // get all subElements named Task -the tasks of the application
     for (Element task : (Collection<Element>) appE.getChildren("Task")) {
-      String taskIDString = task.getAttributeValue("ID");
-      String prioString = task.getAttributeValue("prio");
-
-      int taskID;
-
-      // TODO: default values?
-      if (taskIDString != null) {
-        taskID = Integer.parseInt(taskIDString);
-      } else {
-        throw new IllegalStateException("Task must be assigned a taskID");
-      }
-
-      // may be null - but that's OK
-      String shortName = task.getAttributeValue("shortName");
-
       // generate Task
-      Task gTask = new Task(shortName, app, taskID);
-
-      // generate extensions
-      insertExtensions(task, gTask);
-
-      // add all profiles
-      for (Element profE : (List<Element>) task.getChildren("Profile")) {
-        String bcetStr = profE.getAttributeValue("bcet");
-        String wcetStr = profE.getAttributeValue("wcet");
-        String activeStr = profE.getAttributeValue("active");
-
-        Element actPatternXML = profE.getChild("ActivationPattern");
-        AbstractActivationPattern actPattern = null;
-        if(actPatternXML != null){
-          try{
-            actPattern = (AbstractActivationPattern) XMLFactory.fromXML(actPatternXML, defaultClassMap);
-          } catch (Exception exception){
-            logger.error("error isntantiating activation pattern. class not found");
-          }
-        }
-        if(actPattern==null){
-          if (prioString != null) {
-            String pStr = profE.getAttributeValue("period");
-            String jStr = profE.getAttributeValue("jitter");
-            actPattern = new PJActivation(Integer.valueOf(pStr), Integer.valueOf(jStr));
-          } else {
-            throw new IllegalStateException("Task must have a priority assignment");
-          }
-        }
-
-
-        int bcet;
-        int wcet;
-
-        if (wcetStr != null) {
-          wcet = Integer.parseInt(wcetStr);
-        } else {
-          throw new IllegalStateException("WCET must be defined in all profiles");
-        }
-
-        if (bcetStr != null) {
-          bcet = Integer.parseInt(bcetStr);
-        } else {
-          // default to bcet = wcet
-          bcet = wcet;
-        }
-
-        AbstractResourceType resType;
-        AbstractResourceGroup resGroup;
-        try{
-          Element allowedResTypeXML = (Element) profE.getChild("ResourceType").getChildren().get(0);
-          Element allowedResGroupXML = (Element) profE.getChild("ResourceGroup").getChildren().get(0);
-          resType = (AbstractResourceType) XMLFactory.fromXML(allowedResTypeXML, defaultClassMap);
-          resGroup = (AbstractResourceGroup) XMLFactory.fromXML(allowedResGroupXML, defaultClassMap);
-        } catch(Exception e){
-          // if these elements are not in the model (e.g. for older format models) just use the generic types
-          resType = new GenericResourceType();
-          resGroup = new GenericResourceGroup();
-        }
-
-        // ignore most parameters for now
-        // TODO: add XML fields for the other parameters (defaulting to 0)
-        Profile prof = new Profile(bcet, wcet, actPattern, resType, resGroup);
-        // add to possible resource definition around it.
-        gTask.addProfile(prof);
-
-        // if this profile is active, mark it in the task          
-        if(activeStr!=null && Boolean.valueOf(activeStr)){
-          gTask.setActiveProfile(prof);
-        }
-      }
-
-      // if task did not get an active profile, just set the first one
-      if(gTask.getActiveProfile()==null){
-        gTask.setActiveProfile(gTask.getProfileList().getFirst());
-      }
+      Task gTask = parser.createTask(task, app);
 
       // add task to application model
       app.addTask(gTask);
@@ -583,14 +363,8 @@ public class ModelLoader {
       Task gTask = app.getTask(Integer.valueOf(taskIDString));
 
       Element schedParamXML = task.getChild("SchedulingParameter");
-      AbstractSchedulingParameter schedParam = null;
       if(schedParamXML != null){
-        try{
-          schedParam = (AbstractSchedulingParameter) XMLFactory.fromXML(schedParamXML, defaultClassMap);
-        } catch (Exception exception){
-          logger.error("error instantiating scheduling parameter. class not found");
-        }
-        gTask.setSchedulingParameter(schedParam);
+        gTask.setSchedulingParameter(parser.createSchedParam(schedParamXML));
       }
     }    
     for (Element taskLink : (Collection<Element>) appE.getChildren("TaskLink")) {
@@ -598,14 +372,8 @@ public class ModelLoader {
       TaskLink gTaskLink = app.getTaskLink(Integer.valueOf(taskLinkIDString));
 
       Element schedParamXML = taskLink.getChild("SchedulingParameter");
-      AbstractSchedulingParameter schedParam = null;
       if(schedParamXML != null){
-        try{
-          schedParam = (AbstractSchedulingParameter) XMLFactory.fromXML(schedParamXML, defaultClassMap);
-        } catch (Exception exception){
-          logger.error("error instantiating scheduling parameter. class not found");
-        }
-        gTaskLink.setSchedulingParameter(schedParam);
+        gTaskLink.setSchedulingParameter(parser.createSchedParam(schedParamXML));
       }
     }    
   }
@@ -618,43 +386,8 @@ public class ModelLoader {
     // unchecked conversion to element but should be fine
     Collection<Element> commResources = (Collection<Element>) (platformElement.getChildren("CommResource"));
     for (Element e : commResources) {
-      // required fields
-      int resID = Integer.parseInt(e.getAttributeValue("resID"));
-      // required children
-      Element resTypeXML = e.getChild("ResourceType");
-      Element resGroupXML = e.getChild("ResourceGroup");
-      AbstractResourceType resType;
-      AbstractResourceGroup resGroup;
-      try{
-        resType = (AbstractResourceType) XMLFactory.fromXML(resTypeXML, defaultClassMap);
-      } catch (Exception exception){
-        resType = new GenericResourceType();
-      }
-      try{
-        resGroup = (AbstractResourceGroup) XMLFactory.fromXML(resGroupXML, defaultClassMap);
-      } catch (Exception exception){
-        resGroup = new GenericResourceGroup();
-      }
-      //			String resType = Integer.parseInt(e.getAttributeValue("resType"));
-      //			String resGroup = Integer.parseInt(e.getAttributeValue("resGroup"));
-      Element schedulerXML = e.getChild("Scheduler");
-      AbstractScheduler scheduler;
-      try{
-        scheduler = (AbstractScheduler) XMLFactory.fromXML(schedulerXML, defaultClassMap);
-      } catch (Exception exception){
-        // in case of error just assume spp scheduling (for backwards compatibility with older files)
-        scheduler = new SPPScheduler();
-      }
-
-      // may return null if not given- but this is consistent with constructor call
-      String shortName = e.getAttributeValue("shortName");
-
       // create comm resource
-      CommResource cRes = new CommResource(systemModel, shortName, resID, resType, resGroup);
-      cRes.setScheduler(scheduler);
-
-      // generate extensions
-      insertExtensions(e, cRes);
+      CommResource cRes = parser.createCommResource(e, systemModel);
 
       // add to system model
       systemModel.addResource(cRes);
@@ -663,55 +396,8 @@ public class ModelLoader {
     // retrieve all regular resources
     List<Element> regularResources = platformElement.getChildren("Resource");
     for (Element e : regularResources) {
-
-      String resIDString = e.getAttributeValue("resID");
-
-      // values for Resource constructor
-      int resID;
-
-      // required children
-      Element resTypeXML = e.getChild("ResourceType");
-      Element resGroupXML = e.getChild("ResourceGroup");
-      AbstractResourceType resType;
-      AbstractResourceGroup resGroup;
-      try{
-        resType = (AbstractResourceType) XMLFactory.fromXML(resTypeXML);
-      } catch (Exception exception){
-        resType = new GenericResourceType();
-      }
-      try{
-        resGroup = (AbstractResourceGroup) XMLFactory.fromXML(resGroupXML);
-      } catch (Exception exception){
-        resGroup = new GenericResourceGroup();
-      }
-      //      String resType = Integer.parseInt(e.getAttributeValue("resType"));
-      //      String resGroup = Integer.parseInt(e.getAttributeValue("resGroup"));
-      Element schedulerXML = e.getChild("Scheduler");
-      AbstractScheduler scheduler;
-      try{
-        scheduler = (AbstractScheduler) XMLFactory.fromXML(schedulerXML);
-      } catch (Exception exception){
-        // in case of error just assume spp scheduling (for backwards compatibility with older files)
-        scheduler = new SPPScheduler();
-      }
-
-      // check if all attributes are present and assign if so
-      // TODO: add default values if not present instead of throwing exception
-      if (resIDString != null) {
-        resID = Integer.parseInt(resIDString);
-      } else {
-        throw new IllegalStateException("A resource must have a resource ID");
-      }
-
-      // may return null if not given- but this is consistent with constructor call
-      String shortName = e.getAttributeValue("shortName");
-
       // create resource
-      Resource resource = new Resource(systemModel, shortName, resID, resType, resGroup);
-      resource.setScheduler(scheduler);
-
-      // generate extensions
-      insertExtensions(e, resource);
+      Resource resource = parser.createResource(e, systemModel);
 
       // add to system model
       systemModel.addResource(resource);
@@ -731,39 +417,4 @@ public class ModelLoader {
     // create resource model
     systemModel.setResModel(new ResourceGraph(systemModel));
   }
-
-  /**
-   * generates all data extensions at rootModel, that are specified in rootXML
-   * 
-   * @param rootXML
-   * @param rootModel
-   */
-  @SuppressWarnings("unchecked")
-  private void insertExtensions(Element rootXML, @SuppressWarnings("rawtypes") ExtendibleModelElement rootModel) {
-    // get type of allowed data extensions
-    @SuppressWarnings("rawtypes")
-    Class<? extends AbstractDataExtension> dataExtensionType = (Class<? extends AbstractDataExtension>) rootModel
-    .getDataExtensionType();
-    // get the list of extensions saved in this xml
-    List<Element> extList = rootXML.getChildren("DataExtensions");
-    for (Element dataExt : extList) {
-      Collection<Element> extensions = extList.get(0).getChildren();
-
-      // iterate over all saved extensions
-      for (Element extension : extensions) {
-        XMLSaveable modelExtension;
-        // generate model extension object from XML
-        try {
-          modelExtension = XMLFactory.fromXML(extension);
-          boolean isClone = Boolean.valueOf(extension.getAttributeValue("isCloneable"));
-          boolean isIgnoreExisting = Boolean.valueOf(extension.getAttributeValue("isIgnoreExisting"));
-          boolean isOverwrite = Boolean.valueOf(extension.getAttributeValue("isOverwrite"));
-          rootModel.addExtData(dataExtensionType.cast(modelExtension), isClone, isOverwrite, isIgnoreExisting);
-        } catch (Exception e) {
-          // if generation failed, print message
-          logger.error("Cannot insert extensions", e);
-        }
-      }
-    }
-  }
 }
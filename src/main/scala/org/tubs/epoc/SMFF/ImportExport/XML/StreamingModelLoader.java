@@ -0,0 +1,545 @@
+package org.tubs.epoc.SMFF.ImportExport.XML;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.input.StAXStreamBuilder;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.ResourceGraph;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractSchedulingParameter;
+
+/**
+ * Generates a {@link org.tubs.epoc.SMFF.ModelElements.SystemModel SystemModel} from an xml file in a single forward
+ * pass without building a document tree.
+ * <p>
+ * Reads the files written by {@link ModelSaver ModelSaver} and {@link StreamingModelSaver StreamingModelSaver} and
+ * creates the same model as {@link ModelLoader ModelLoader}. The file is read through a StAX reader and only the
+ * elements of single resources, tasks, task links and data extension sections are built as small JDOM fragments, so
+ * memory consumption does not depend on the size of the file beyond the model itself.
+ * <p>
+ * References to elements that have not been read yet are kept in a fixup table and resolved as soon as possible:
+ * mappings and "attachedTo" links to resources defined later in the file are applied after the platform, task links
+ * and constraints referring to later tasks at the end of their application. Scheduling parameters are set once their
+ * element is mapped. The configuration section has to precede the elements using its default classes, as written by
+ * both savers.
+ *
+ * @see ModelLoader
+ * @see SystemModel
+ *
+ */
+public class StreamingModelLoader {
+  private static Log logger = LogFactory.getLog(StreamingModelLoader.class);
+
+  // size of the read buffer in front of the file
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private File file;
+
+  private ModelElementParser parser;
+  private StAXStreamBuilder fragmentBuilder;
+  private SystemModel systemModel;
+  private boolean platformLoaded;
+
+  // fixup table: references that could not be resolved when they were read
+  private LinkedList<Attachment> pendingAttachments;
+  private LinkedList<Mapping> pendingMappings;
+  private IdentityHashMap<SchedulableElement, AbstractSchedulingParameter> pendingSchedParams;
+
+  public StreamingModelLoader(String fileName) {
+    this.file = new File(fileName);
+  }
+
+  public StreamingModelLoader(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Generates a system model from the xml file passed to this instance through its constructor.
+   *
+   * @return an instance of {@link org.tubs.epoc.SMFF.ModelElements.SystemModel SystemModel}.
+   * @throws IOException
+   *           if the file cannot be read or is no valid xml file
+   * @throws IllegalStateException
+   *           if required attributes are missing or references cannot be resolved
+   */
+  public SystemModel generateSystem() throws IOException {
+    InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+    try {
+      return generateSystem(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Generates a system model from the xml description read from the given stream. The stream is not closed.
+   *
+   * @param in
+   *          stream to read the XML description from
+   * @return an instance of {@link org.tubs.epoc.SMFF.ModelElements.SystemModel SystemModel}.
+   * @throws IOException
+   *           if the stream cannot be read or contains no valid xml
+   * @throws IllegalStateException
+   *           if required attributes are missing or references cannot be resolved
+   */
+  public SystemModel generateSystem(InputStream in) throws IOException {
+    parser = new ModelElementParser();
+    fragmentBuilder = new StAXStreamBuilder();
+    systemModel = new SystemModel();
+    platformLoaded = false;
+    pendingAttachments = new LinkedList<Attachment>();
+    pendingMappings = new LinkedList<Mapping>();
+    pendingSchedParams = new IdentityHashMap<SchedulableElement, AbstractSchedulingParameter>();
+
+    try {
+      XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+      try {
+        reader.nextTag();
+        readSystem(reader);
+      } finally {
+        reader.close();
+      }
+    } catch (XMLStreamException e) {
+      throw new IOException(e.getMessage(), e);
+    } catch (JDOMException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+
+    // mappings to resources defined after the applications
+    resolveMappings(true);
+    if (!platformLoaded) {
+      systemModel.setResModel(new ResourceGraph(systemModel));
+    }
+    // scheduling parameters of elements that were never mapped, this only logs the error
+    for (Map.Entry<SchedulableElement, AbstractSchedulingParameter> entry : pendingSchedParams.entrySet()) {
+      entry.getKey().setSchedulingParameter(entry.getValue());
+    }
+
+    SystemModel result = systemModel;
+    systemModel = null;
+    pendingSchedParams = null;
+    return result;
+  }
+
+  private void readSystem(XMLStreamReader reader) throws XMLStreamException, JDOMException {
+    int event = reader.next();
+    while (event != XMLStreamConstants.END_ELEMENT) {
+      if (event != XMLStreamConstants.START_ELEMENT) {
+        event = reader.next();
+        continue;
+      }
+      String name = reader.getLocalName();
+      if (name.equals("Configuration")) {
+        parser.readConfiguration(fragment(reader));
+        event = reader.getEventType();
+      } else if (name.equals("DataExtensions")) {
+        parser.insertExtensionSection(fragment(reader), systemModel);
+        event = reader.getEventType();
+      } else if (name.equals("Platform")) {
+        readPlatform(reader);
+        event = reader.next();
+      } else if (name.equals("Applications")) {
+        readApplications(reader);
+        event = reader.next();
+      } else {
+        skipElement(reader);
+        event = reader.next();
+      }
+    }
+  }
+
+  // -----------PLATFORM----------
+  private void readPlatform(XMLStreamReader reader) throws XMLStreamException, JDOMException {
+    int event = reader.next();
+    while (event != XMLStreamConstants.END_ELEMENT) {
+      if (event != XMLStreamConstants.START_ELEMENT) {
+        event = reader.next();
+        continue;
+      }
+      String name = reader.getLocalName();
+      if (name.equals("CommResource")) {
+        systemModel.addResource(parser.createCommResource(fragment(reader), systemModel));
+        event = reader.getEventType();
+      } else if (name.equals("Resource")) {
+        Element e = fragment(reader);
+        Resource resource = parser.createResource(e, systemModel);
+        systemModel.addResource(resource);
+
+        // connect with communication Resources, which may follow later
+        for (Element linkElement : e.getChildren("attachedTo")) {
+          Attachment attachment = new Attachment(resource, Integer.parseInt(linkElement.getAttributeValue("ID")));
+          if (!attachment.resolve()) {
+            pendingAttachments.add(attachment);
+          }
+        }
+        event = reader.getEventType();
+      } else {
+        skipElement(reader);
+        event = reader.next();
+      }
+    }
+
+    for (Attachment attachment : pendingAttachments) {
+      if (!attachment.resolve()) {
+        throw new IllegalStateException("Cannot find communication resource " + attachment.commResId);
+      }
+    }
+    pendingAttachments.clear();
+    platformLoaded = true;
+
+    // create resource model
+    systemModel.setResModel(new ResourceGraph(systemModel));
+    // mappings read before the platform
+    resolveMappings(true);
+  }
+
+  // -----------APPLICATIONS----------
+  private void readApplications(XMLStreamReader reader) throws XMLStreamException, JDOMException {
+    int event = reader.next();
+    while (event != XMLStreamConstants.END_ELEMENT) {
+      if (event == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("Application")) {
+        readApplication(reader);
+      } else if (event == XMLStreamConstants.START_ELEMENT) {
+        skipElement(reader);
+      }
+      event = reader.next();
+    }
+  }
+
+  private void readApplication(XMLStreamReader reader) throws XMLStreamException, JDOMException {
+    String appIDString = reader.getAttributeValue(null, "appID");
+    String appVString = reader.getAttributeValue(null, "appV");
+
+    int appID;
+    int appV;
+
+    if (appIDString != null) {
+      appID = Integer.parseInt(appIDString);
+    } else {
+      throw new IllegalStateException("appID must be given for all applications");
+    }
+
+    if (appVString != null) {
+      appV = Integer.parseInt(appVString);
+    } else {
+      throw new IllegalStateException("Every Application must have an appV");
+    }
+
+    // instantiate global application model
+    ApplicationModel app = new ApplicationModel(systemModel, appID, appV);
+    // first insert into system, then start to add tasks and task links
+    systemModel.addApplication(app);
+
+    // fixup table of this application: task links and constraints referring to later tasks
+    LinkedList<TaskLink> pendingTaskLinks = new LinkedList<TaskLink>();
+    LinkedList<Constraint> pendingConstraints = new LinkedList<Constraint>();
+    boolean hasMapping = false;
+
+    int event = reader.next();
+    while (event != XMLStreamConstants.END_ELEMENT) {
+      if (event != XMLStreamConstants.START_ELEMENT) {
+        event = reader.next();
+        continue;
+      }
+      String name = reader.getLocalName();
+      if (name.equals("DataExtensions")) {
+        parser.insertExtensionSection(fragment(reader), app);
+        event = reader.getEventType();
+      } else if (name.equals("Task")) {
+        Element e = fragment(reader);
+        Task task = parser.createTask(e, app);
+        app.addTask(task);
+        addSchedParam(e, task);
+        event = reader.getEventType();
+      } else if (name.equals("TaskLink")) {
+        Element e = fragment(reader);
+        TaskLink taskLink = parser.createTaskLink(e, app);
+        if (!connectTaskLink(app, taskLink)) {
+          pendingTaskLinks.add(taskLink);
+        }
+        addSchedParam(e, taskLink);
+        event = reader.getEventType();
+      } else if (name.equals("Mapping")) {
+        readMapping(reader, app);
+        hasMapping = true;
+        event = reader.next();
+      } else if (name.equals("Constraints")) {
+        readConstraints(reader, app, pendingConstraints);
+        event = reader.next();
+      } else {
+        skipElement(reader);
+        event = reader.next();
+      }
+    }
+
+    if (!hasMapping) {
+      throw new IllegalStateException("No mapping defined!");
+    }
+    for (TaskLink taskLink : pendingTaskLinks) {
+      if (!connectTaskLink(app, taskLink)) {
+        throw new IllegalStateException("Cannot find tasks at the end of task link");
+      }
+    }
+    resolveMappings(false);
+    for (Constraint constraint : pendingConstraints) {
+      if (!constraint.resolve()) {
+        throw new IllegalStateException("Cannot find tasks of the constraint");
+      }
+    }
+  }
+
+  private boolean connectTaskLink(ApplicationModel app, TaskLink taskLink) {
+    // try to get the tasks that the link will be connected to
+    Task sourceTask = app.getTask(taskLink.getSrcTaskId());
+    Task targetTask = app.getTask(taskLink.getTrgTaskId());
+    if (sourceTask == null || targetTask == null) {
+      return false;
+    }
+
+    // add to source Task
+    sourceTask.addTaskLink(taskLink);
+    // add to target Task
+    targetTask.addTaskLink(taskLink);
+    // add to application
+    app.addTaskLink(taskLink);
+    return true;
+  }
+
+  /**
+   * Keeps the scheduling parameter of the element until it is mapped.
+   */
+  private void addSchedParam(Element schedElemXML, SchedulableElement schedElem) {
+    Element schedParamXML = schedElemXML.getChild("SchedulingParameter");
+    if (schedParamXML != null) {
+      pendingSchedParams.put(schedElem, parser.createSchedParam(schedParamXML));
+    }
+  }
+
+  private void readMapping(XMLStreamReader reader, ApplicationModel app) throws XMLStreamException {
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      String name = reader.getLocalName();
+      Mapping mapping = null;
+      if (name.equals("mapTask")) {
+        String tid = reader.getAttributeValue(null, "tid");
+        String rid = reader.getAttributeValue(null, "rid");
+
+        if (tid == null || rid == null) {
+          throw new IllegalStateException("Mapping must provide task and resource id (tid and rid)");
+        }
+        mapping = new Mapping(app, false, Integer.parseInt(tid), Integer.parseInt(rid), false);
+      } else if (name.equals("mapLink")) {
+        String lid = reader.getAttributeValue(null, "lid");
+        String rid = reader.getAttributeValue(null, "rid");
+        String crid = reader.getAttributeValue(null, "crid");
+
+        if (lid == null) {
+          throw new IllegalStateException("Mapping must provide task link");
+        } else if ((rid == null && crid == null) || (rid != null && crid != null)) {
+          throw new IllegalStateException("Mapping must provide either a resource ID or comm resource ID (rid XOR crid)");
+        }
+        int resID = Integer.parseInt(rid != null ? rid : crid);
+        mapping = new Mapping(app, true, Integer.parseInt(lid), resID, crid != null);
+      }
+      skipElement(reader);
+
+      if (mapping != null && !mapping.resolve()) {
+        pendingMappings.add(mapping);
+      }
+    }
+  }
+
+  private void readConstraints(XMLStreamReader reader, ApplicationModel app, LinkedList<Constraint> pendingConstraints)
+      throws XMLStreamException {
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      if (reader.getLocalName().equals("Constraint")) {
+        String startTaskStr = reader.getAttributeValue(null, "StartTaskId");
+        String endTaskStr = reader.getAttributeValue(null, "EndTaskId");
+        String latencyConstrStr = reader.getAttributeValue(null, "Constraint");
+
+        if (startTaskStr == null) {
+          throw new IllegalStateException("Constraint must have start task");
+        }
+        if (endTaskStr == null) {
+          throw new IllegalStateException("Constraint must have end task");
+        }
+        if (latencyConstrStr == null) {
+          throw new IllegalStateException("Constraint must have constraint value");
+        }
+
+        Constraint constraint = new Constraint(app, Integer.parseInt(startTaskStr), Integer.parseInt(endTaskStr),
+            Double.parseDouble(latencyConstrStr));
+        if (!constraint.resolve()) {
+          pendingConstraints.add(constraint);
+        }
+      }
+      skipElement(reader);
+    }
+  }
+
+  /**
+   * Retries the pending mappings.
+   *
+   * @param complete
+   *          true if no more tasks or task links can be added to the applications of the pending mappings
+   * @throws IllegalStateException
+   *           if a mapping cannot be resolved anymore
+   */
+  private void resolveMappings(boolean complete) {
+    for (Iterator<Mapping> iterator = pendingMappings.iterator(); iterator.hasNext();) {
+      Mapping mapping = iterator.next();
+      if (mapping.resolve()) {
+        iterator.remove();
+      } else if (complete || platformLoaded || mapping.getResource() != null) {
+        throw new IllegalStateException("Did not find task or resource to map");
+      }
+    }
+  }
+
+  // -----------HELPERS----------
+  /**
+   * Builds the element at the current position of the reader. Afterwards the reader is positioned at the event
+   * following the end of the element.
+   */
+  private Element fragment(XMLStreamReader reader) throws JDOMException {
+    return (Element) fragmentBuilder.fragment(reader);
+  }
+
+  /**
+   * Skips the element at the current position of the reader. Afterwards the reader is positioned at its end.
+   */
+  private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+  /**
+   * Connection of a resource to a communication resource.
+   */
+  private class Attachment {
+    private final Resource resource;
+    private final int commResId;
+
+    Attachment(Resource resource, int commResId) {
+      this.resource = resource;
+      this.commResId = commResId;
+    }
+
+    boolean resolve() {
+      // retrieve the resource from the system
+      CommResource cRes = systemModel.getCommResource(commResId);
+      if (cRes == null) {
+        return false;
+      }
+      // generate link between the two
+      cRes.addLink(resource);
+      return true;
+    }
+  }
+
+  /**
+   * Mapping of a task or task link to a resource.
+   */
+  private class Mapping {
+    private final ApplicationModel app;
+    private final boolean link;
+    private final int elemId;
+    private final int resId;
+    private final boolean commResource;
+
+    Mapping(ApplicationModel app, boolean link, int elemId, int resId, boolean commResource) {
+      this.app = app;
+      this.link = link;
+      this.elemId = elemId;
+      this.resId = resId;
+      this.commResource = commResource;
+    }
+
+    AbstractResource getResource() {
+      if (commResource) {
+        return systemModel.getCommResource(resId);
+      }
+      return systemModel.getResource(resId);
+    }
+
+    boolean resolve() {
+      AbstractResource resource = getResource();
+      SchedulableElement schedElem = link ? app.getTaskLink(elemId) : app.getTask(elemId);
+      if (resource == null || schedElem == null) {
+        return false;
+      }
+
+      if (link) {
+        app.mapTaskLink((TaskLink) schedElem, resource);
+      } else {
+        if (logger.isDebugEnabled()) logger.debug("Mapping Task " + elemId + " to " + resId);
+        app.mapTask((Task) schedElem, (Resource) resource);
+      }
+
+      // the scheduling parameter can only be set for mapped elements
+      if (pendingSchedParams.containsKey(schedElem)) {
+        schedElem.setSchedulingParameter(pendingSchedParams.remove(schedElem));
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Latency constraint between two tasks of an application.
+   */
+  private static class Constraint {
+    private final ApplicationModel app;
+    private final int startTaskId;
+    private final int endTaskId;
+    private final double latencyConstr;
+
+    Constraint(ApplicationModel app, int startTaskId, int endTaskId, double latencyConstr) {
+      this.app = app;
+      this.startTaskId = startTaskId;
+      this.endTaskId = endTaskId;
+      this.latencyConstr = latencyConstr;
+    }
+
+    boolean resolve() {
+      // try to get the tasks of the constraint
+      Task startTask = app.getTask(startTaskId);
+      Task endTask = app.getTask(endTaskId);
+      if (startTask == null || endTask == null) {
+        return false;
+      }
+
+      // generate system latency constraint and add to application
+      app.addSysLatConstr(startTask, endTask, latencyConstr);
+      return true;
+    }
+  }
+}
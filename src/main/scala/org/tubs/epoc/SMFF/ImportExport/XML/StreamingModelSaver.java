@@ -0,0 +1,369 @@
+package org.tubs.epoc.SMFF.ImportExport.XML;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+import org.tubs.epoc.SMFF.ModelElements.AbstractDataExtension;
+import org.tubs.epoc.SMFF.ModelElements.ExtendibleModelElement;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.Profile;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+import org.tubs.epoc.SMFF.ModelElements.Application.SysLatencyConstraint;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractSchedulingParameter;
+
+/**
+ * Generates an XML file from the given system model description without building a document tree.
+ * <p>
+ * The file has the same structure as the one written by {@link ModelSaver ModelSaver} and can be read with
+ * {@link ModelLoader ModelLoader}. In contrast to the ModelSaver, elements are written one after another through a
+ * StAX writer on a buffered file channel, so memory consumption does not grow with the size of the system. Only the
+ * small XML descriptions of schedulers, scheduling parameters, activation patterns, resource types/groups and data
+ * extensions are created as JDOM elements while they are written.
+ * <p>
+ * The configuration section has to be written before the platform and applications, therefore the model is walked
+ * twice: once to collect the default class names (see {@link ModelConfiguration}) and once to write the elements.
+ *
+ * @see ModelSaver
+ * @see SystemModel
+ *
+ */
+public class StreamingModelSaver {
+  private static Log logger = LogFactory.getLog(StreamingModelSaver.class);
+
+  // size of the write buffer in front of the file channel
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private File file;
+
+  // default class map, collected before the model is written
+  private ModelConfiguration configuration;
+
+  public StreamingModelSaver(String filename) {
+    this.file = new File(filename);
+  }
+
+  public StreamingModelSaver(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Saves the passed system model description to the file through which an instance of this saver is created.
+   *
+   * @param systemModel
+   *          model to be saved.
+   * @throws IOException
+   *           if the file cannot be written.
+   */
+  public void saveModel(SystemModel systemModel) throws IOException {
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+    try {
+      saveModel(systemModel, out);
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Writes the passed system model description to the given stream. The stream is flushed but not closed.
+   *
+   * @param systemModel
+   *          model to be saved.
+   * @param out
+   *          stream to write the XML description to.
+   * @throws IOException
+   *           if writing to the stream fails.
+   */
+  public void saveModel(SystemModel systemModel, OutputStream out) throws IOException {
+    // collect the default class map first, it precedes all other sections
+    configuration = new ModelConfiguration(systemModel);
+
+    try {
+      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+      writer.writeStartDocument("UTF-8", "1.0");
+      writer.writeCharacters("\r\n");
+      writer.writeStartElement("SystemModel");
+
+      writeConfiguration(writer);
+      writeExtensions(writer, systemModel);
+      writePlatform(writer, systemModel);
+      writeApplications(writer, systemModel);
+
+      writer.writeEndElement();
+      writer.writeCharacters("\r\n");
+      writer.writeEndDocument();
+      writer.flush();
+      writer.close();
+    } catch (XMLStreamException e) {
+      logger.error("Error during serializing the xml output", e);
+      throw new IOException(e.getMessage(), e);
+    }
+    out.flush();
+  }
+
+  // -----------CONFIGURATION----------
+  private void writeConfiguration(XMLStreamWriter writer) throws XMLStreamException {
+    writer.writeStartElement("Configuration");
+    for (Map.Entry<String, Map<String, String>> group : configuration.getGroups().entrySet()) {
+      writer.writeStartElement(group.getKey());
+      for (Map.Entry<String, String> defaultClass : group.getValue().entrySet()) {
+        writer.writeEmptyElement(defaultClass.getKey());
+        writer.writeAttribute("classname", defaultClass.getValue());
+      }
+      writer.writeEndElement();
+    }
+    writer.writeEndElement();
+  }
+
+  // -----------PLATFORM----------
+  private void writePlatform(XMLStreamWriter writer, SystemModel systemModel) throws XMLStreamException {
+    writer.writeStartElement("Platform");
+
+    for (AbstractResource resource : systemModel.getAllRes()) {
+      if (resource instanceof Resource) {
+        writer.writeStartElement("Resource");
+      } else if (resource instanceof CommResource) {
+        writer.writeStartElement("CommResource");
+      } else {
+        throw new IllegalStateException();
+      }
+      writer.writeAttribute("resID", String.valueOf(resource.getResId()));
+      if (!resource.getShortName().isEmpty()) {
+        writer.writeAttribute("shortName", resource.getShortName());
+      }
+
+      // for resources get all neighbors (comm resources) and create attachedTo elements
+      if (resource instanceof Resource) {
+        for (AbstractResource attachedTo : resource.getNeighbors()) {
+          writer.writeEmptyElement("attachedTo");
+          writer.writeAttribute("ID", String.valueOf(attachedTo.getResId()));
+        }
+      }
+
+      writeConfigurable(writer, "ResourceType", resource.getResType().toXML());
+      writeConfigurable(writer, "ResourceGroup", resource.getResGroup().toXML());
+      writeConfigurable(writer, "Scheduler", resource.getScheduler().toXML());
+
+      writeExtensions(writer, resource);
+
+      writer.writeEndElement();
+    }
+
+    writer.writeEndElement();
+  }
+
+  // -----------APPLICATIONS----------
+  private void writeApplications(XMLStreamWriter writer, SystemModel systemModel) throws XMLStreamException {
+    writer.writeStartElement("Applications");
+
+    for (ApplicationModel app : systemModel.getApplications()) {
+      writer.writeStartElement("Application");
+      writer.writeAttribute("appID", String.valueOf(app.getAppId()));
+      writer.writeAttribute("appV", String.valueOf(app.getAppV()));
+
+      writeExtensions(writer, app);
+      writeTasks(writer, app);
+      writeTaskLinks(writer, app);
+      writeMapping(writer, app);
+      writeConstraints(writer, app);
+
+      writer.writeEndElement();
+    }
+
+    writer.writeEndElement();
+  }
+
+  private void writeTasks(XMLStreamWriter writer, ApplicationModel app) throws XMLStreamException {
+    for (Task task : app.getTaskList().values()) {
+      writer.writeStartElement("Task");
+      writer.writeAttribute("ID", String.valueOf(task.getElemId()));
+      if (!task.getShortName().isEmpty()) {
+        writer.writeAttribute("shortName", task.getShortName());
+      }
+
+      AbstractSchedulingParameter schedParam = task.getSchedulingParameter();
+      if (schedParam != null) {
+        writeConfigurable(writer, "SchedulingParameter", schedParam.toXML());
+      }
+      writeProfiles(writer, task);
+      writeExtensions(writer, task);
+
+      writer.writeEndElement();
+    }
+  }
+
+  private void writeTaskLinks(XMLStreamWriter writer, ApplicationModel app) throws XMLStreamException {
+    for (TaskLink taskLink : app.getTaskLinkList().values()) {
+      writer.writeStartElement("TaskLink");
+      writer.writeAttribute("ID", String.valueOf(taskLink.getElemId()));
+      writer.writeAttribute("src", String.valueOf(taskLink.getSrcTaskId()));
+      writer.writeAttribute("trgt", String.valueOf(taskLink.getTrgTaskId()));
+      if (!taskLink.getShortName().isEmpty()) {
+        writer.writeAttribute("shortName", taskLink.getShortName());
+      }
+
+      writeProfiles(writer, taskLink);
+      AbstractSchedulingParameter schedParam = taskLink.getSchedulingParameter();
+      if (schedParam != null) {
+        writeConfigurable(writer, "SchedulingParameter", schedParam.toXML());
+      }
+      writeExtensions(writer, taskLink);
+
+      writer.writeEndElement();
+    }
+  }
+
+  private void writeProfiles(XMLStreamWriter writer, SchedulableElement schedElem) throws XMLStreamException {
+    for (Profile profile : schedElem.getProfileList()) {
+      writer.writeStartElement("Profile");
+      writer.writeAttribute("bcet", String.valueOf(profile.getBCET()));
+      writer.writeAttribute("wcet", String.valueOf(profile.getWCET()));
+      if (schedElem.getActiveProfile() == profile) {
+        writer.writeAttribute("active", String.valueOf(true));
+      } else {
+        writer.writeAttribute("inactive", String.valueOf(false));
+      }
+
+      writeConfigurable(writer, "ActivationPattern", profile.getActivationPattern().toXML());
+      writer.writeStartElement("ResourceType");
+      writeConfigurable(writer, "ResourceType", profile.getResType().toXML());
+      writer.writeEndElement();
+      writer.writeStartElement("ResourceGroup");
+      writeConfigurable(writer, "ResourceGroup", profile.getResGroup().toXML());
+      writer.writeEndElement();
+
+      writer.writeEndElement();
+    }
+  }
+
+  private void writeMapping(XMLStreamWriter writer, ApplicationModel app) throws XMLStreamException {
+    writer.writeStartElement("Mapping");
+
+    // create mappings for all tasks
+    for (Task task : app.getTaskList().values()) {
+      writer.writeEmptyElement("mapTask");
+      writer.writeAttribute("tid", String.valueOf(task.getElemId()));
+      writer.writeAttribute("rid", String.valueOf(task.getMappedTo().getResId()));
+    }
+
+    // create mapping for all task links
+    for (TaskLink taskLink : app.getTaskLinkList().values()) {
+      writer.writeEmptyElement("mapLink");
+      writer.writeAttribute("lid", String.valueOf(taskLink.getElemId()));
+      if (taskLink.getMappedTo() instanceof Resource) {
+        writer.writeAttribute("rid", String.valueOf(taskLink.getMappedTo().getResId()));
+      } else if (taskLink.getMappedTo() instanceof CommResource) {
+        writer.writeAttribute("crid", String.valueOf(taskLink.getMappedTo().getResId()));
+      } else {
+        throw new IllegalStateException("Task link mapped to neither Resource nor CommResource");
+      }
+    }
+
+    writer.writeEndElement();
+  }
+
+  private void writeConstraints(XMLStreamWriter writer, ApplicationModel app) throws XMLStreamException {
+    writer.writeStartElement("Constraints");
+
+    for (SysLatencyConstraint sysLatConstr : app.getConstraints().values()) {
+      writer.writeEmptyElement("Constraint");
+      writer.writeAttribute("StartTaskId", String.valueOf(sysLatConstr.getStartTask().getElemId()));
+      writer.writeAttribute("EndTaskId", String.valueOf(sysLatConstr.getEndTask().getElemId()));
+      writer.writeAttribute("Constraint", String.valueOf(sysLatConstr.getLatencyConstr()));
+    }
+
+    writer.writeEndElement();
+  }
+
+  // -----------HELPERS----------
+  /**
+   * Writes all data extensions that implement XMLSaveable.
+   *
+   * @param writer
+   *          stream writer positioned inside the element of <tt>rootModel</tt>
+   * @param rootModel
+   *          model element to write the extensions of
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private void writeExtensions(XMLStreamWriter writer, ExtendibleModelElement rootModel) throws XMLStreamException {
+    Collection<AbstractDataExtension> dataExtensions = rootModel.getExtDataByParentClass(AbstractDataExtension.class);
+
+    boolean sectionOpen = false;
+    for (AbstractDataExtension dataExt : dataExtensions) {
+      if (XMLSaveable.class.isInstance(dataExt)) {
+        // the section is only written if this element has any savable extensions
+        if (!sectionOpen) {
+          writer.writeStartElement("DataExtensions");
+          sectionOpen = true;
+        }
+        XMLSaveable saveable = (XMLSaveable) dataExt;
+        Element xmlDataExt = saveable.toXML();
+        xmlDataExt.setAttribute("isCloneable", String.valueOf(saveable.isCloneable()));
+        xmlDataExt.setAttribute("isIgnoreExisting", String.valueOf(saveable.isIgnoreExisiting()));
+        xmlDataExt.setAttribute("isOverwrite", String.valueOf(saveable.isOverwrite()));
+        writeElement(writer, xmlDataExt, false);
+      }
+    }
+    if (sectionOpen) {
+      writer.writeEndElement();
+    }
+  }
+
+  /**
+   * Writes an xml description whose classname may be covered by the configuration section.
+   */
+  private void writeConfigurable(XMLStreamWriter writer, String group, Element xmlElement) throws XMLStreamException {
+    writeElement(writer, xmlElement, configuration.isConfigured(group, xmlElement));
+  }
+
+  /**
+   * Copies a (small) JDOM element with its attributes, text and children to the stream writer.
+   *
+   * @param writer
+   *          stream writer
+   * @param element
+   *          element to copy
+   * @param omitClassname
+   *          if true the "classname" attribute of the top level element is not written
+   */
+  private void writeElement(XMLStreamWriter writer, Element element, boolean omitClassname)
+      throws XMLStreamException {
+    writer.writeStartElement(element.getName());
+    for (Attribute attribute : element.getAttributes()) {
+      if (omitClassname && attribute.getName().equals("classname")) {
+        continue;
+      }
+      writer.writeAttribute(attribute.getName(), attribute.getValue());
+    }
+    String text = element.getText();
+    if (text != null && !text.isEmpty()) {
+      writer.writeCharacters(text);
+    }
+    for (Element child : element.getChildren()) {
+      writeElement(writer, child, false);
+    }
+    writer.writeEndElement();
+  }
+}
@@ -1,7 +1,10 @@
 package org.tubs.epoc.SMFF.ImportExport.XML;
 
-import java.lang.reflect.Constructor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jdom2.Element;
 
@@ -10,12 +13,21 @@ import org.jdom2.Element;
  * have an attribute "classname" specifiying the qualified name of the class of the object to be created. Furthermore
  * that class needs to implement XMLSaveable and requires a constructor accepting a jdom Element as single parameter. If
  * any of these prerequisites are not met an exception is thrown.
+ * <p>
+ * Classes and constructors are resolved once per class name and cached for all threads, so loading large systems does
+ * not repeat the reflective lookups for every element.
  * 
  * @author moritzn
  * @see XMLSaveable
  * 
  */
 public class XMLFactory {
+	// type of the cached constructor handles
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(XMLSaveable.class, Element.class);
+
+	// classes and XMLSaveable constructors by qualified class name
+	private static final ConcurrentHashMap<String, Class<?>> classCache = new ConcurrentHashMap<String, Class<?>>();
+	private static final ConcurrentHashMap<String, MethodHandle> constructorCache = new ConcurrentHashMap<String, MethodHandle>();
 
 	/**
 	 * Instantiates an implementation of {@link XMLSaveable XMLSaveable} and returns it.
@@ -33,7 +45,6 @@ public class XMLFactory {
 	 *           is not an instance of {@link XMLSaveable XMLSaveable}.
 	 * @see XMLSaveable
 	 */
-	@SuppressWarnings("unchecked")
 	public static XMLSaveable fromXML(Element element, HashMap<String, HashMap<String, Class<?>>> defaultClassMap) throws Exception {
 	  Class<?> clazz;
 		// get the class name
@@ -54,18 +65,62 @@ public class XMLFactory {
 		}
 		else{
 		  // get the class
-		  clazz = Class.forName(classname);
+		  clazz = forName(classname);
 		}
-		if (!(XMLSaveable.class.isAssignableFrom(clazz))) {
-			throw new Exception("Specified classname is no instance of \"XMLSaveable\".");
+
+		// create the new XML savable from the constructor of the found class
+		MethodHandle con = getConstructor(clazz);
+		try {
+		  return (XMLSaveable) con.invokeExact(element);
+		} catch (Exception e) {
+		  throw e;
+		} catch (Error e) {
+		  throw e;
+		} catch (Throwable t) {
+		  throw new Exception(t);
 		}
+	}
 
-		// get the construcotr for the found class
-		Constructor<? extends XMLSaveable> con;
-		con = ((Class<? extends XMLSaveable>) clazz).getConstructor(new Class[] { Element.class });
+	/**
+	 * Returns the class with the given qualified name. Classes are looked up once and then taken from a cache shared by
+	 * all threads.
+	 * 
+	 * @param classname
+	 *          qualified name of the class
+	 * @return the class
+	 * @throws ClassNotFoundException
+	 *           if the class cannot be found
+	 */
+	public static Class<?> forName(String classname) throws ClassNotFoundException {
+	  Class<?> clazz = classCache.get(classname);
+	  if (clazz == null) {
+	    clazz = Class.forName(classname);
+	    classCache.putIfAbsent(classname, clazz);
+	  }
+	  return clazz;
+	}
 
-		// create the new XML savable from the found constructor
-		return (XMLSaveable) con.newInstance(element);
+	/**
+	 * Returns a handle to the public constructor of the class accepting a jdom Element. Handles are created once per class
+	 * name and then taken from a cache shared by all threads.
+	 * 
+	 * @param clazz
+	 *          implementation of {@link XMLSaveable XMLSaveable}
+	 * @return constructor handle of type (Element)XMLSaveable
+	 * @throws Exception
+	 *           if the class is no implementation of {@link XMLSaveable XMLSaveable} or has no such constructor
+	 */
+	private static MethodHandle getConstructor(Class<?> clazz) throws Exception {
+	  MethodHandle con = constructorCache.get(clazz.getName());
+	  if (con == null) {
+	    if (!(XMLSaveable.class.isAssignableFrom(clazz))) {
+	      throw new Exception("Specified classname is no instance of \"XMLSaveable\".");
+	    }
+	    con = MethodHandles.publicLookup().findConstructor(clazz, MethodType.methodType(void.class, Element.class))
+	        .asType(CONSTRUCTOR_TYPE);
+	    constructorCache.putIfAbsent(clazz.getName(), con);
+	  }
+	  return con;
 	}
 	
 	public static XMLSaveable fromXML(Element element) throws Exception {
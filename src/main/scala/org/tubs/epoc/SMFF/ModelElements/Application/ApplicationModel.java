@@ -10,6 +10,7 @@ import org.tubs.epoc.SMFF.ModelElements.SystemModel;
 import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
 import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
 import org.tubs.epoc.SMFF.Utility.Hashing;
+import org.tubs.epoc.SMFF.Utility.LongHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -32,6 +33,14 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
   private Hashtable<String,Task> taskList = new Hashtable<String,Task>();
   private Hashtable<String,TaskLink> taskLinkList = new Hashtable<String,TaskLink>();
   
+  // primitive keyed indexes of the tables above for lookups within this application
+  // (task id -> task, packed source/target task ids -> task link, link id -> task link), maintained by addTask/addTaskLink
+  private LongHashMap<Task> taskIndex = new LongHashMap<Task>();
+  private LongHashMap<TaskLink> taskLinkIndex = new LongHashMap<TaskLink>();
+  private LongHashMap<TaskLink> taskLinkIdIndex = new LongHashMap<TaskLink>();
+  // hop distances between tasks, created on demand by getDist and dropped when tasks or task links are added
+  private TaskHopDistances hopDistances;
+  
   Hashtable<String,SysLatencyConstraint> constraints = new Hashtable<String, SysLatencyConstraint>();
   ResourceMap appResourceMap = new ResourceMap();
 
@@ -60,6 +69,10 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
     // recreate lists of schedulable elements, constraints and the appResourceMap
     clone.taskList = (Hashtable<String,Task>) this.taskList.clone();
     clone.taskLinkList = (Hashtable<String,TaskLink>) this.taskLinkList.clone();
+    clone.taskIndex = this.taskIndex.clone();
+    clone.taskLinkIndex = this.taskLinkIndex.clone();
+    clone.taskLinkIdIndex = this.taskLinkIdIndex.clone();
+    clone.hopDistances = null;
     clone.appResourceMap = (ResourceMap) this.appResourceMap.clone();
     clone.constraints = (Hashtable<String,SysLatencyConstraint>) this.constraints.clone();    
     
@@ -72,6 +85,10 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
   public void resetApplication(){
     this.taskList.clear();
     this.taskLinkList.clear();
+    this.taskIndex.clear();
+    this.taskLinkIndex.clear();
+    this.taskLinkIdIndex.clear();
+    this.hopDistances = null;
     this.constraints.clear();
     this.appResourceMap.clear();
   }
@@ -99,31 +116,7 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
    * @throws IllegalArgumentException if an object with the same identifier is already attached to this task
    */
   public void addAppData(AbstractAppData data, boolean clone, boolean overwrite, boolean ignoreExisting) throws IllegalArgumentException {
-    // if no list for this type exists, create it and get the list
-    if(!dataObjects.containsKey(data.getClass())){
-      dataObjects.put(data.getClass(), new LinkedList<AbstractAppData>());
-    }
-    LinkedList<AbstractAppData> list = dataObjects.get(data.getClass());
-
-    // if call is ignored if an object of this type exists, return here
-    if(ignoreExisting && list.size()>0){
-      return;
-    }
-    // if existing object of this types should be overwritten, clear the list
-    if(overwrite){
-      list.clear();
-    }
-    
-    // associate with the data object
-    data.setParent(this);
-    // add to internal storage
-    list.add(data);
-    
-    // if this element should be cloned
-    if(clone){
-      cloneDataObjects.add(data);
-    }
-    return;
+    addExtData(data, clone, overwrite, ignoreExisting);
   }
     
   /**
@@ -132,15 +125,7 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
    * @return list of removed objects, null if key was not found
    */
   public LinkedList<AbstractAppData> clearAppDataByClass(Class<? extends AbstractAppData> clazz){
-    // remove all elements of the class clazz from the cloneDataObjects list
-    for(AbstractAppData cloneable : cloneDataObjects){
-      if(cloneable.getClass() == clazz){
-        cloneDataObjects.remove(cloneable);
-      }
-    }
-
-    // remove the collection of this type from the data objects list
-    return dataObjects.remove(clazz);
+    return clearExtDataByClass(clazz);
   }
   
   /**
@@ -149,30 +134,7 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
    * @return list of removed objects, null if key was not found
    */
   public LinkedList<AbstractAppData> clearAppDataByParentClass(Class<? extends AbstractAppData> clazz){
-    // remove all elements of the class clazz from the cloneDataObjects list
-    for(AbstractAppData cloneable : cloneDataObjects){
-      if(cloneable instanceof AbstractAppData){
-        ;
-      }
-      if(cloneable.getClass().isInstance(clazz)){
-        cloneDataObjects.remove(cloneable);
-      }
-    }
-
-    // create new list for the return value
-    LinkedList<AbstractAppData> returnList = new LinkedList<AbstractAppData>(); 
-    
-    // go through all keys
-    for(Class<? extends AbstractAppData> dataClass : dataObjects.keySet()){
-      // if the key is inheriting from clazz remove it from the data objects
-      if(dataClass.isInstance(clazz)){
-        // remove the collection and add it to the return list
-        returnList.addAll(dataObjects.remove(dataClass));
-      }
-    }
-    
-    // return the list of removed objects
-    return returnList;
+    return clearExtDataByParentClass(clazz);
   }
 
   
@@ -185,8 +147,7 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
    * @return list of data objects of the specified class clazz
    */
   public LinkedList<AbstractAppData> getAppDataByClass(Class<? extends AbstractAppData> clazz) {
-    // simply retrieve from dataObjects
-    return dataObjects.get(clazz);
+    return getExtDataByClass(clazz);
   }
   
   /**
@@ -198,19 +159,7 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
    * @return list of data objects of the specified class clazz
    */
   public LinkedList<AbstractAppData> getAppDataByParentClass(Class<? extends AbstractAppData> clazz) {
-    // return list
-    LinkedList<AbstractAppData> returnList = new LinkedList<AbstractAppData>();
-    
-    // go through all extensions and check whether they inherit from clazz
-    for(Class<? extends AbstractAppData> dataClass : dataObjects.keySet()){
-      if(dataClass.isInstance(clazz)){
-        // get the collection and add it to the return list
-        returnList.addAll(dataObjects.get(dataClass));
-      }      
-    }
-    
-    // return the list
-    return returnList;
+    return getExtDataByParentClass(clazz);
   }
 
   /**
@@ -284,6 +233,11 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
     try{
       if(task==null) throw new NullPointerException("Task does not exist");
       taskList.put(task.getUniqueName(),task);
+      hopDistances = null;
+      // tasks of other applications are only reachable through their hash
+      if(task.getIdent().getAppId() == appId){
+        taskIndex.put(task.getElemId(), task);
+      }
     }
     catch(NullPointerException e){
       logger.error("Error during adding a task", e);
@@ -299,7 +253,15 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
       if(taskLink==null) throw new NullPointerException("TaskLink does not exist");
       if(taskLink.getSrcTask()==null) throw new NullPointerException("SrcTask does not exist");
       if(taskLink.getTrgTask()==null) throw new NullPointerException("TrgTask does not exist");
-      taskLinkList.put(Hashing.getTaskLinkHash(taskLink.getAppId(), taskLink.getSrcTaskId(), taskLink.getTrgTaskId()),taskLink);
+      TaskLink replaced = taskLinkList.put(Hashing.getTaskLinkHash(taskLink.getAppId(), taskLink.getSrcTaskId(), taskLink.getTrgTaskId()),taskLink);
+      if(replaced != null && taskLinkIdIndex.get(replaced.getElemId()) == replaced){
+        taskLinkIdIndex.remove(replaced.getElemId());
+      }
+      taskLinkIdIndex.put(taskLink.getElemId(), taskLink);
+      hopDistances = null;
+      if(taskLink.getAppId() == appId){
+        taskLinkIndex.put(Hashing.getTaskLinkKey(taskLink.getSrcTaskId(), taskLink.getTrgTaskId()), taskLink);
+      }
       Task srcTask = systemModel.getTask(taskLink.getSrcTask());
       Task trgTask = systemModel.getTask(taskLink.getTrgTask());
       // check whether the tasks were found in the system model
@@ -457,13 +419,13 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
    * Getter method for task from application via task id.
    * <p>
    * Tasks are populated to an application model via task hash which has a relation with application id and task id.
-   * The passed parameter <tt>taskId</tt> is used to find out this hash value. 
+   * The passed parameter <tt>taskId</tt> is used to find out this hash value. The lookup itself goes through a
+   * primitive keyed index and does not create the hash String.
    * @param taskId identifier of the task to be returned.
    * @return the task which has the id <tt>taskId</tt>.
    */
   public Task getTask(int taskId){
-    String taskHash = Hashing.getTaskHash(appId, taskId);
-    return taskList.get(taskHash);
+    return taskIndex.get(taskId);
   }
   
   /**
@@ -477,15 +439,14 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
   
   /**
    * Task link lookup by ID.
+   * <p>
+   * Task links are indexed by their id when they are added, so this is a fixed time lookup.
    * 
    * @param id identifier of the task link to get
    * @return the task link with the given ID or null
    */
   public TaskLink getTaskLink(int id) {
-	  for (TaskLink gtl: taskLinkList.values()) {
-		  if (gtl.getElemId() == id) return gtl;
-	  }
-	  return null;
+    return taskLinkIdIndex.get(id);
   }
   
   /**
@@ -496,7 +457,7 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
    * @return the task link from <tt>srcTaskId</tt> to <tt>trgTaskId</tt>
    */
   public TaskLink getTaskLink(int srcTaskId, int trgTaskId){
-    return taskLinkList.get(Hashing.getTaskLinkHash(appId, srcTaskId, trgTaskId));
+    return taskLinkIndex.get(Hashing.getTaskLinkKey(srcTaskId, trgTaskId));
   } 
   
   /**
@@ -506,7 +467,11 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
    * @return the task link identified by the parameter <tt>taskLinkIdentifier</tt>
    */
   public TaskLink getTaskLink(TaskLinkIdentifier taskLinkIdentifier){
-    return taskLinkList.get(Hashing.getTaskLinkHash(taskLinkIdentifier.getAppId(),taskLinkIdentifier.getSrcTaskId(), taskLinkIdentifier.getTrgTaskId()));
+    if(taskLinkIdentifier.getAppId() != appId){
+      // links of other applications are only reachable through their hash
+      return taskLinkList.get(Hashing.getTaskLinkHash(taskLinkIdentifier.getAppId(),taskLinkIdentifier.getSrcTaskId(), taskLinkIdentifier.getTrgTaskId()));
+    }
+    return taskLinkIndex.get(Hashing.getTaskLinkKey(taskLinkIdentifier.getSrcTaskId(), taskLinkIdentifier.getTrgTaskId()));
   }
   
   /**
@@ -528,7 +493,7 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
     try{
       if(srcTask==null) throw new NullPointerException("SrcTask does not exist");
       if(trgTask==null) throw new NullPointerException("TrgTask does not exist");
-      return taskLinkList.get(Hashing.getTaskLinkHash(appId, srcTask.getElemId(), trgTask.getElemId()));
+      return taskLinkIndex.get(Hashing.getTaskLinkKey(srcTask.getElemId(), trgTask.getElemId()));
     }
     catch(Exception e){
       logger.error("Error during getting the task link", e);
@@ -538,12 +503,25 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
   
 
   /**
-   * Uses depth-first search to find the shortest path from task1 to task 2 and returns the length of the path.
+   * Finds the shortest path from task1 to task 2 (following task links in both directions) and returns the length of
+   * the path.
+   * <p>
+   * Distances are computed with one breadth-first search per <tt>task1</tt> and cached until the next task or task link
+   * is added. Tasks of other applications fall back to a depth-first search.
    * @param task1 first task
    * @param task2 second task
-   * @return the shortest distance from <tt>task1</tt> to <tt>task2</tt>
+   * @return the shortest distance from <tt>task1</tt> to <tt>task2</tt>, <tt>Integer.MAX_VALUE</tt> if there is no path
    */
   public int getDist(Task task1, Task task2){
+    if(task1 == task2){
+      return 0;
+    }
+    if(hopDistances == null){
+      hopDistances = new TaskHopDistances(this);
+    }
+    if(hopDistances.contains(task1) && hopDistances.contains(task2)){
+      return hopDistances.getDist(task1, task2);
+    }
     return getDist(task1, task2, new HashSet<Task>());
   }
   
@@ -623,6 +601,8 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
 
   /**
    * Getter method for the tasks.
+   * <p>
+   * Tasks have to be added through {@link #addTask(Task)}, otherwise they cannot be found by id.
    * @return the Hashtable of all the tasks belonging to this application.
    */
   public Hashtable<String, Task> getTaskList() {
@@ -631,6 +611,8 @@ public class ApplicationModel extends ExtendibleModelElement<AbstractAppData> im
 
   /**
    * Getter method for task links.
+   * <p>
+   * Task links have to be added through {@link #addTaskLink(TaskLink)}, otherwise they cannot be found by their tasks.
    * @return the Hashtable of all the task links belonging to this application.
    */
   public Hashtable<String, TaskLink> getTaskLinkList() {
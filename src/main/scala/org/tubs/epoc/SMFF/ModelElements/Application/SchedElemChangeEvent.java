@@ -2,7 +2,7 @@ package org.tubs.epoc.SMFF.ModelElements.Application;
 
 /**
  * Class description for a task event change. A change event is triggered by a changed object on a task. Possible event 
- * types are output behavior and priority.
+ * types are output behavior, priority, scheduling parameter and mapping.
  *
  */
 public class SchedElemChangeEvent {
@@ -20,7 +20,15 @@ public class SchedElemChangeEvent {
 		/**
 		 * object is type Integer
 		 */
-		PRIORITY		
+		PRIORITY,
+		/**
+		 * object is type AbstractSchedulingParameter
+		 */
+		SCHEDULING_PARAMETER,
+		/**
+		 * object is type AbstractResource (null if the element was unmapped)
+		 */
+		MAPPING
 	}
 	
 	// the object that caused the event to occur
@@ -158,6 +158,7 @@ public abstract class SchedulableElement extends ExtendibleModelElement<Abstract
 	  
 	  if(this.getMappedTo().getScheduler().getRequiredSchedParamClass().isInstance(schedParam)){
 	    this.schedParam = schedParam;
+	    notifyListeners(new SchedElemChangeEvent(this, EventType.SCHEDULING_PARAMETER, schedParam));
 	  } else{
 	    logger.error("Trying to associate scheduling parameter that is not suitable for corresponding resource");
 	  }
@@ -462,7 +463,9 @@ public abstract class SchedulableElement extends ExtendibleModelElement<Abstract
 	 *          the resource this element is mapped to.
 	 */
 	public final void setMappedTo(AbstractResource mappedTo) {
+		if (this.mappedTo == mappedTo) return;
 		this.mappedTo = mappedTo;
+		notifyListeners(new SchedElemChangeEvent(this, EventType.MAPPING, mappedTo));
 	}
 
 	/**
@@ -0,0 +1,120 @@
+package org.tubs.epoc.SMFF.ModelElements.Application;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+
+/**
+ * Hop distances between the tasks of an application, used by {@link ApplicationModel#getDist(Task, Task)}.
+ * <p>
+ * Task links are treated as undirected edges. The distances from a task to all other tasks are computed with one
+ * breadth-first search the first time the task is queried and kept afterwards. An instance reflects the task graph at
+ * the time it was created, the application model drops it whenever tasks or task links are added.
+ *
+ */
+class TaskHopDistances {
+  // dense task numbering
+  private Task[] tasks;
+  private IdentityHashMap<Task, Integer> taskIndex;
+  // neighbors of each task (predecessors and successors)
+  private int[][] neighbors;
+  // distance rows, computed on demand
+  private int[][] distances;
+
+  /**
+   * Creates the undirected task graph of the application. The distances are not computed yet.
+   *
+   * @param app application to compute distances for
+   */
+  TaskHopDistances(ApplicationModel app) {
+    Collection<Task> taskList = app.getTaskList().values();
+    int numTasks = taskList.size();
+    tasks = new Task[numTasks];
+    taskIndex = new IdentityHashMap<Task, Integer>(numTasks);
+    neighbors = new int[numTasks][];
+    distances = new int[numTasks][];
+
+    int i = 0;
+    for (Task task : taskList) {
+      tasks[i] = task;
+      taskIndex.put(task, i);
+      i++;
+    }
+
+    // same neighbors as the depth-first search of the application model visits
+    int[] buffer = new int[8];
+    for (i = 0; i < numTasks; i++) {
+      int degree = 0;
+      for (TaskLinkIdentifier taskLinkId : tasks[i].getSrcLinkList().values()) {
+        int successor = indexOf(app.getTask(app.getTaskLink(taskLinkId).getTrgTaskId()));
+        if (successor >= 0) {
+          if (degree == buffer.length) buffer = Arrays.copyOf(buffer, 2 * degree);
+          buffer[degree++] = successor;
+        }
+      }
+      for (TaskLinkIdentifier taskLinkId : tasks[i].getTrgLinkList().values()) {
+        int predecessor = indexOf(app.getTask(app.getTaskLink(taskLinkId).getSrcTaskId()));
+        if (predecessor >= 0) {
+          if (degree == buffer.length) buffer = Arrays.copyOf(buffer, 2 * degree);
+          buffer[degree++] = predecessor;
+        }
+      }
+      neighbors[i] = Arrays.copyOf(buffer, degree);
+    }
+  }
+
+  /**
+   * @return the dense index of the task, -1 if the task is not part of this graph
+   */
+  private int indexOf(Task task) {
+    Integer index = task == null ? null : taskIndex.get(task);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Checks whether the task is part of the task graph of this instance.
+   *
+   * @param task task to check
+   * @return true if distances from and to this task are known
+   */
+  boolean contains(Task task) {
+    return taskIndex.containsKey(task);
+  }
+
+  /**
+   * Returns the number of hops between the two tasks.
+   *
+   * @param task1 first task (must be part of the task graph)
+   * @param task2 second task (must be part of the task graph)
+   * @return the shortest distance from <tt>task1</tt> to <tt>task2</tt>, <tt>Integer.MAX_VALUE</tt> if there is no path
+   */
+  int getDist(Task task1, Task task2) {
+    int src = taskIndex.get(task1);
+    int[] row = distances[src];
+    if (row == null) {
+      row = breadthFirstSearch(src);
+      distances[src] = row;
+    }
+    return row[taskIndex.get(task2)];
+  }
+
+  private int[] breadthFirstSearch(int src) {
+    int[] dist = new int[tasks.length];
+    Arrays.fill(dist, Integer.MAX_VALUE);
+    int[] queue = new int[tasks.length];
+    int head = 0;
+    int tail = 0;
+    dist[src] = 0;
+    queue[tail++] = src;
+    while (head < tail) {
+      int task = queue[head++];
+      for (int neighbor : neighbors[task]) {
+        if (dist[neighbor] == Integer.MAX_VALUE) {
+          dist[neighbor] = dist[task] + 1;
+          queue[tail++] = neighbor;
+        }
+      }
+    }
+    return dist;
+  }
+}
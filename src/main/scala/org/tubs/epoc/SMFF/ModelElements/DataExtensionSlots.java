@@ -0,0 +1,107 @@
+package org.tubs.epoc.SMFF.ModelElements;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Global registry which numbers the classes of data extensions, so that an {@link ExtendibleModelElement} can keep the
+ * extensions of each class in one slot of an array instead of a map.
+ * <p>
+ * A class is assigned the next free slot on its first use and keeps it. The slots of the registered classes which
+ * inherit from a parent class are cached per parent class and only resolved again once further classes have been
+ * registered. All methods may be called from several threads.
+ * <p>
+ * The registry only keeps weak references to the classes, so it does not prevent classes of data extensions from being
+ * unloaded. The slot of an unloaded class is not reused.
+ *
+ * @see ExtendibleModelElement
+ */
+final class DataExtensionSlots {
+	// registered classes by slot, replaced by a longer copy when a class is registered
+	private static volatile WeakReference<Class<?>>[] classes = newClasses(0);
+
+	private static final ClassValue<Integer> SLOTS = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			// if two threads register a class at once, the slot of the one whose value is discarded stays unused
+			return register(type);
+		}
+	};
+
+	private static final ClassValue<AtomicReference<SubclassSlots>> SUBCLASS_SLOTS = new ClassValue<AtomicReference<SubclassSlots>>() {
+		@Override
+		protected AtomicReference<SubclassSlots> computeValue(Class<?> type) {
+			return new AtomicReference<SubclassSlots>(new SubclassSlots(0, new int[0]));
+		}
+	};
+
+	/**
+	 * Slots of the classes inheriting from a parent class among the first <tt>numClasses</tt> registered classes.
+	 */
+	private static final class SubclassSlots {
+		final int numClasses;
+		final int[] slots;
+
+		SubclassSlots(int numClasses, int[] slots) {
+			this.numClasses = numClasses;
+			this.slots = slots;
+		}
+	}
+
+	private DataExtensionSlots() {
+	}
+
+	/**
+	 * Returns the slot of a class, registering the class if it has none yet.
+	 *
+	 * @param clazz
+	 *          class of data extensions
+	 * @return the slot of the class
+	 */
+	static int slot(Class<?> clazz) {
+		return SLOTS.get(clazz);
+	}
+
+	/**
+	 * Returns the slots of all registered classes which are the class <tt>parent</tt> or inherit from it, in increasing
+	 * order. The returned array must not be changed.
+	 *
+	 * @param parent
+	 *          parent class of data extensions
+	 * @return the slots of the registered subclasses of <tt>parent</tt>
+	 */
+	static int[] subclassSlots(Class<?> parent) {
+		AtomicReference<SubclassSlots> cache = SUBCLASS_SLOTS.get(parent);
+		SubclassSlots cached = cache.get();
+		WeakReference<Class<?>>[] registered = classes;
+		if (cached.numClasses == registered.length) {
+			return cached.slots;
+		}
+		// only the classes registered since the last resolution need to be checked
+		int[] slots = Arrays.copyOf(cached.slots, cached.slots.length + registered.length - cached.numClasses);
+		int numSlots = cached.slots.length;
+		for (int i = cached.numClasses; i < registered.length; i++) {
+			Class<?> clazz = registered[i].get();
+			if (clazz != null && parent.isAssignableFrom(clazz)) {
+				slots[numSlots++] = i;
+			}
+		}
+		SubclassSlots resolved = new SubclassSlots(registered.length, Arrays.copyOf(slots, numSlots));
+		// keep the cache of another thread which resolved the slots in the meantime
+		cache.compareAndSet(cached, resolved);
+		return resolved.slots;
+	}
+
+	private static synchronized int register(Class<?> clazz) {
+		WeakReference<Class<?>>[] registered = Arrays.copyOf(classes, classes.length + 1);
+		registered[classes.length] = new WeakReference<Class<?>>(clazz);
+		classes = registered;
+		return registered.length - 1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static WeakReference<Class<?>>[] newClasses(int length) {
+		return (WeakReference<Class<?>>[]) new WeakReference<?>[length];
+	}
+}
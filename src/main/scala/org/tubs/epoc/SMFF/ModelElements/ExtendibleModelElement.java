@@ -6,12 +6,11 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -20,14 +19,23 @@ import org.apache.commons.logging.LogFactory;
  * Abstract class to be extended by the model elements which want to add additional data to its data objects.
  * 
  * This class also includes utility methods to extract type related information of the class.
+ * 
+ * The data extensions are stored in an array indexed by the slot of their class, which {@link DataExtensionSlots}
+ * assigns globally, so looking up the extensions of a class is an array access. A single extension of a class is stored
+ * as is, a list is only created once there are several extensions of the class or the list is requested. Extensions
+ * inheriting from a class are found through the cached slots of the subclasses. Elements without extensions hold no
+ * arrays at all.
  *
  */
 public abstract class ExtendibleModelElement<DataExtensionType extends AbstractDataExtension> implements Cloneable {
 	private static Log logger = LogFactory.getLog(ExtendibleModelElement.class);
 
-	// additional data to be attached by other classes using this data structure
-	protected HashMap<Class<? extends DataExtensionType>, LinkedList<DataExtensionType>> dataObjects = new HashMap<Class<? extends DataExtensionType>, LinkedList<DataExtensionType>>();
-	protected Set<DataExtensionType> cloneDataObjects = new HashSet<DataExtensionType>();
+	// additional data to be attached by other classes using this data structure, by slot of the class: null, a single
+	// data extension or a LinkedList of the data extensions of the class
+	private Object[] dataObjects;
+	// data extensions to be cloned, in order of addition
+	private Object[] cloneDataObjects;
+	private int numCloneDataObjects;
 
 	/**
 	 * @return the type parameter of this extendible model element
@@ -121,18 +129,19 @@ public abstract class ExtendibleModelElement<DataExtensionType extends AbstractD
 	 * @return the object that is cloned.
 	 */
 	@Override
+	@SuppressWarnings("unchecked")
 	public Object clone() {
 		ExtendibleModelElement<DataExtensionType> clone = null;
 		try {
 			// get new instance of the calling class
 			clone = (ExtendibleModelElement<DataExtensionType>) super.clone();
-			// create new Hashmap for data extensions
-			clone.dataObjects = new HashMap<Class<? extends DataExtensionType>, LinkedList<DataExtensionType>>();
+			// create new storage for data extensions
+			clone.dataObjects = null;
+			clone.cloneDataObjects = null;
+			clone.numCloneDataObjects = 0;
 
 			// copy all data extension to be cloned
-			for (DataExtensionType cloneDataExt : cloneDataObjects) {
-				clone.addExtData((DataExtensionType) cloneDataExt.clone(), true);
-			}
+			copyDataExtTo(clone);
 		} catch (CloneNotSupportedException e) {
 			logger.error("Error during cloning the object.", e);
 		}
@@ -147,8 +156,10 @@ public abstract class ExtendibleModelElement<DataExtensionType extends AbstractD
 	 */
 	@SuppressWarnings("unchecked")
 	public void copyDataExtTo(ExtendibleModelElement<DataExtensionType> modelElem) {
-		// copy all data extension to be cloned
-		for (DataExtensionType cloneDataExt : this.cloneDataObjects) {
+		// copy all data extension to be cloned (the count is fixed first, as modelElem may be this element)
+		int numCloneables = numCloneDataObjects;
+		for (int i = 0; i < numCloneables; i++) {
+			DataExtensionType cloneDataExt = (DataExtensionType) cloneDataObjects[i];
 			modelElem.addExtData((DataExtensionType) cloneDataExt.clone(), true);
 		}
 	}
@@ -183,31 +194,48 @@ public abstract class ExtendibleModelElement<DataExtensionType extends AbstractD
 	 * @throws IllegalArgumentException
 	 *           if an object with the same identifier is already attached to this task
 	 */
+	@SuppressWarnings("unchecked")
 	public void addExtData(DataExtensionType data, boolean clone, boolean overwrite, boolean ignoreExisting)
 	    throws IllegalArgumentException {
-		// if no list for this type exists, create it and get the list
-		if (!dataObjects.containsKey(data.getClass())) {
-			dataObjects.put((Class<? extends DataExtensionType>) data.getClass(), new LinkedList<DataExtensionType>());
-		}
-		LinkedList<DataExtensionType> list = dataObjects.get(data.getClass());
+		int slot = DataExtensionSlots.slot(data.getClass());
+		Object existing = get(slot);
 
 		// if call is ignored if an object of this type exists, return here
-		if (ignoreExisting && list.size() > 0) {
+		if (ignoreExisting && existing != null && !(existing instanceof LinkedList && ((LinkedList<?>) existing).isEmpty())) {
 			return;
 		}
-		// if existing object of this types should be overwritten, clear the list
-		if (overwrite) {
-			list.clear();
-		}
 
 		// associate with the data object
 		data.setParent(this);
 		// add to internal storage
-		list.add(data);
+		if (existing instanceof LinkedList) {
+			// the list may have been handed out, so it is kept
+			LinkedList<DataExtensionType> list = (LinkedList<DataExtensionType>) existing;
+			// if existing object of this types should be overwritten, clear the list
+			if (overwrite) {
+				list.clear();
+			}
+			list.add(data);
+		} else if (existing == null || overwrite) {
+			if (dataObjects == null || slot >= dataObjects.length) {
+				dataObjects = Arrays.copyOf(dataObjects == null ? new Object[0] : dataObjects, slot + 1);
+			}
+			dataObjects[slot] = data;
+		} else {
+			LinkedList<DataExtensionType> list = new LinkedList<DataExtensionType>();
+			list.add((DataExtensionType) existing);
+			list.add(data);
+			dataObjects[slot] = list;
+		}
 
 		// if this element should be cloned
-		if (clone) {
-			cloneDataObjects.add(data);
+		if (clone && !isCloneDataObject(data)) {
+			if (cloneDataObjects == null) {
+				cloneDataObjects = new Object[2];
+			} else if (numCloneDataObjects == cloneDataObjects.length) {
+				cloneDataObjects = Arrays.copyOf(cloneDataObjects, 2 * numCloneDataObjects);
+			}
+			cloneDataObjects[numCloneDataObjects++] = data;
 		}
 		return;
 	}
@@ -219,16 +247,24 @@ public abstract class ExtendibleModelElement<DataExtensionType extends AbstractD
 	 *          class of objects to remove
 	 * @return list of removed objects, null if key was not found
 	 */
+	@SuppressWarnings("unchecked")
 	public LinkedList<DataExtensionType> clearExtDataByClass(Class<? extends DataExtensionType> clazz) {
 		// remove all elements of the class clazz from the cloneDataObjects list
-		for (DataExtensionType cloneable : cloneDataObjects) {
-			if (cloneable.getClass() == clazz) {
-				cloneDataObjects.remove(cloneable);
-			}
-		}
+		removeCloneDataObjects(clazz, false);
 
 		// remove the collection of this type from the data objects list
-		return dataObjects.remove(clazz);
+		int slot = DataExtensionSlots.slot(clazz);
+		Object removed = get(slot);
+		if (removed == null) {
+			return null;
+		}
+		dataObjects[slot] = null;
+		if (removed instanceof LinkedList) {
+			return (LinkedList<DataExtensionType>) removed;
+		}
+		LinkedList<DataExtensionType> returnList = new LinkedList<DataExtensionType>();
+		returnList.add((DataExtensionType) removed);
+		return returnList;
 	}
 
 	/**
@@ -240,21 +276,17 @@ public abstract class ExtendibleModelElement<DataExtensionType extends AbstractD
 	 */
 	public LinkedList<DataExtensionType> clearExtDataByParentClass(Class<? extends DataExtensionType> clazz) {
 		// remove all elements of the class clazz from the cloneDataObjects list
-		for (DataExtensionType cloneable : cloneDataObjects) {
-			if (clazz.isAssignableFrom(cloneable.getClass())) {
-				cloneDataObjects.remove(cloneable);
-			}
-		}
+		removeCloneDataObjects(clazz, true);
 
 		// create new list for the return value
 		LinkedList<DataExtensionType> returnList = new LinkedList<DataExtensionType>();
 
-		// go through all keys
-		for (Class<? extends AbstractDataExtension> dataClass : dataObjects.keySet()) {
-			// if the key is inheriting from clazz remove it from the data objects
-			if (clazz.isAssignableFrom(dataClass)) {
-				// remove the collection and add it to the return list
-				returnList.addAll(dataObjects.remove(dataClass));
+		// go through all classes inheriting from clazz and remove their data objects
+		for (int slot : DataExtensionSlots.subclassSlots(clazz)) {
+			Object removed = get(slot);
+			if (removed != null) {
+				dataObjects[slot] = null;
+				addTo(returnList, removed);
 			}
 		}
 
@@ -270,9 +302,18 @@ public abstract class ExtendibleModelElement<DataExtensionType extends AbstractD
 	 *          class of data extension elements
 	 * @return list of data objects of the specified class clazz, null if there is no data objects associated with clazz.
 	 */
+	@SuppressWarnings("unchecked")
 	public LinkedList<DataExtensionType> getExtDataByClass(Class<? extends DataExtensionType> clazz) {
-		// simply retrieve from dataObjects
-		return dataObjects.get(clazz);
+		int slot = DataExtensionSlots.slot(clazz);
+		Object data = get(slot);
+		if (data == null || data instanceof LinkedList) {
+			return (LinkedList<DataExtensionType>) data;
+		}
+		// the returned list is backed by this element from now on
+		LinkedList<DataExtensionType> list = new LinkedList<DataExtensionType>();
+		list.add((DataExtensionType) data);
+		dataObjects[slot] = list;
+		return list;
 	}
 
 	/**
@@ -285,11 +326,7 @@ public abstract class ExtendibleModelElement<DataExtensionType extends AbstractD
 	 * @return data object of the specified class clazz (first one if multiple exist, null if there isn't any)
 	 */
 	public DataExtensionType getSingleExtDataByClass(Class<? extends DataExtensionType> clazz) {
-		if (dataObjects.get(clazz) != null && !dataObjects.get(clazz).isEmpty()) {
-			return dataObjects.get(clazz).getFirst();
-		} else {
-			return null;
-		}
+		return first(get(DataExtensionSlots.slot(clazz)));
 	}
 
 	/**
@@ -302,9 +339,13 @@ public abstract class ExtendibleModelElement<DataExtensionType extends AbstractD
 	 * @return data object of the specified class clazz (first one if multiple exist, null otherwise)
 	 */
 	public DataExtensionType getSingleExtDataByParentClass(Class<? extends DataExtensionType> clazz) {
-		for (Class<? extends AbstractDataExtension> dataClass : dataObjects.keySet()) {
-			if (clazz.isAssignableFrom(dataClass)) {
-				return dataObjects.get(dataClass).getFirst();
+		if (dataObjects == null) {
+			return null;
+		}
+		for (int slot : DataExtensionSlots.subclassSlots(clazz)) {
+			DataExtensionType data = first(get(slot));
+			if (data != null) {
+				return data;
 			}
 		}
 		return null;
@@ -321,13 +362,64 @@ public abstract class ExtendibleModelElement<DataExtensionType extends AbstractD
 		// return list
 		LinkedList<DataExtensionType> returnList = new LinkedList<DataExtensionType>();
 
-		// go through all extensions and check whether they inherit from clazz
-		for (Class<? extends AbstractDataExtension> dataClass : dataObjects.keySet()) {
-			if (clazz.isAssignableFrom(dataClass)) {
-				// get the collection and add it to the return list
-				returnList.addAll(dataObjects.get(dataClass));
+		// go through all classes inheriting from clazz and add their data objects
+		if (dataObjects != null) {
+			for (int slot : DataExtensionSlots.subclassSlots(clazz)) {
+				addTo(returnList, get(slot));
 			}
 		}
 		return returnList;
 	}
+
+	/**
+	 * @return the entry of the slot: null, a single data extension or a list of data extensions
+	 */
+	private Object get(int slot) {
+		return dataObjects != null && slot < dataObjects.length ? dataObjects[slot] : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private DataExtensionType first(Object data) {
+		if (data instanceof LinkedList) {
+			LinkedList<DataExtensionType> list = (LinkedList<DataExtensionType>) data;
+			return list.isEmpty() ? null : list.getFirst();
+		}
+		return (DataExtensionType) data;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void addTo(LinkedList<DataExtensionType> list, Object data) {
+		if (data instanceof LinkedList) {
+			list.addAll((LinkedList<DataExtensionType>) data);
+		} else if (data != null) {
+			list.add((DataExtensionType) data);
+		}
+	}
+
+	private boolean isCloneDataObject(DataExtensionType data) {
+		for (int i = 0; i < numCloneDataObjects; i++) {
+			if (cloneDataObjects[i].equals(data)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the cloneable data objects of the class clazz, or of the classes inheriting from it.
+	 */
+	private void removeCloneDataObjects(Class<?> clazz, boolean subclasses) {
+		if (cloneDataObjects == null) {
+			return;
+		}
+		int kept = 0;
+		for (int i = 0; i < numCloneDataObjects; i++) {
+			Class<?> dataClass = cloneDataObjects[i].getClass();
+			if (!(subclasses ? clazz.isAssignableFrom(dataClass) : dataClass == clazz)) {
+				cloneDataObjects[kept++] = cloneDataObjects[i];
+			}
+		}
+		Arrays.fill(cloneDataObjects, kept, numCloneDataObjects, null);
+		numCloneDataObjects = kept;
+	}
 }
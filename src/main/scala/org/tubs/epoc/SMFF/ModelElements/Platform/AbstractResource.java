@@ -74,11 +74,6 @@ public abstract class AbstractResource extends ExtendibleModelElement<AbstractRe
    */
   protected HashMap<ApplicationModel, LinkedList<SchedulableElement>> localAppSchedElems = new HashMap<ApplicationModel, LinkedList<SchedulableElement>>();
 
-  /**
-   * Additional data to be attached by other classes using this data structure
-   */
-  protected HashMap<Class<? extends AbstractResourceData>, LinkedList<AbstractResourceData>> dataObjects = new HashMap<Class<? extends AbstractResourceData>, LinkedList<AbstractResourceData>>();
-
   
   /**
    * Constructor
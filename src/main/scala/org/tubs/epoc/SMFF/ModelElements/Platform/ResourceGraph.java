@@ -1,5 +1,6 @@
 package org.tubs.epoc.SMFF.ModelElements.Platform;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Random;
@@ -84,16 +85,72 @@ public class ResourceGraph {
   
   /**
    * Creates a distance matrix of the attached system model.
+   * <p>
+   * Distances are computed with one breadth-first search per resource over the bipartite
+   * resource/comm resource graph given by the adjacency matrix. A hop from a resource over a
+   * comm resource to another resource counts as distance one, unreachable resources have the
+   * distance <tt>Integer.MAX_VALUE</tt> (same values as {@link SystemModel#getDist(Resource, Resource)}).
    */
   private void recreateDistanceMatrix(){
-    int numRes = systemModel.getResourceTable().size();
+    int numRes = adjMatrix.length > 0 ? adjMatrix[0].length : systemModel.getResourceTable().size();
+    int numCommRes = adjMatrix.length;
     distMatrix = new int[numRes][numRes];
     
-    for(int i=numRes-1; i>=0; i--){
-      for(int j=numRes-1; j>=i; j--){
-        int resDist = systemModel.getDist(invColMap.get(i), invColMap.get(j));
-        distMatrix[i][j]=resDist;
-        distMatrix[j][i]=resDist;
+    // build adjacency lists from the matrix (resource -> comm resources, comm resource -> resources)
+    int[][] resToComm = new int[numRes][];
+    int[][] commToRes = new int[numCommRes][];
+    int[] resDegree = new int[numRes];
+    for(int i=0; i<numCommRes; i++){
+      int commDegree = 0;
+      for(int j=0; j<numRes; j++){
+        if(adjMatrix[i][j]){
+          commDegree++;
+          resDegree[j]++;
+        }
+      }
+      commToRes[i] = new int[commDegree];
+    }
+    for(int j=0; j<numRes; j++){
+      resToComm[j] = new int[resDegree[j]];
+      resDegree[j] = 0;
+    }
+    for(int i=0; i<numCommRes; i++){
+      int commDegree = 0;
+      for(int j=0; j<numRes; j++){
+        if(adjMatrix[i][j]){
+          commToRes[i][commDegree++] = j;
+          resToComm[j][resDegree[j]++] = i;
+        }
+      }
+    }
+    
+    // one breadth-first search per source resource
+    int[] queue = new int[numRes];
+    boolean[] visitedComm = new boolean[numCommRes];
+    for(int src=0; src<numRes; src++){
+      int[] dist = distMatrix[src];
+      Arrays.fill(dist, Integer.MAX_VALUE);
+      Arrays.fill(visitedComm, false);
+      dist[src] = 0;
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = src;
+      while(head < tail){
+        int res = queue[head++];
+        int nextDist = dist[res]+1;
+        for(int cRes : resToComm[res]){
+          // every comm resource only has to be expanded once, its first visit is the shortest one
+          if(visitedComm[cRes]){
+            continue;
+          }
+          visitedComm[cRes] = true;
+          for(int neighbor : commToRes[cRes]){
+            if(dist[neighbor] == Integer.MAX_VALUE){
+              dist[neighbor] = nextDist;
+              queue[tail++] = neighbor;
+            }
+          }
+        }
       }
     }
   }
@@ -117,6 +174,26 @@ public class ResourceGraph {
     return adjMatrix;
   }
 
+  /**
+   * Getter method for the resource of a column of the adjacency matrix.
+   * 
+   * @param col column of the adjacency matrix
+   * @return the resource or <tt>null</tt> if the graph was created from a bare adjacency matrix
+   */
+  public Resource getResource(int col){
+    return invColMap.get(col);
+  }
+
+  /**
+   * Getter method for the communication resource of a row of the adjacency matrix.
+   * 
+   * @param row row of the adjacency matrix
+   * @return the communication resource or <tt>null</tt> if the graph was created from a bare adjacency matrix
+   */
+  public CommResource getCommResource(int row){
+    return invRowMap.get(row);
+  }
+
   /**
    * Prints the adjacency matrix of the resource graph.
    */
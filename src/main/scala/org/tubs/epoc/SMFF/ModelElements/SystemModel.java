@@ -14,6 +14,7 @@ import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
 import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
 import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
 import org.tubs.epoc.SMFF.ModelElements.Platform.ResourceGraph;
+import org.tubs.epoc.SMFF.Utility.LongHashMap;
 
 /**
  * This class is an extended model which stores related information regarding to a system.
@@ -43,6 +44,10 @@ public class SystemModel extends ExtendibleModelElement<AbstractSystemData> {
 	private Hashtable<String, Resource> resourceList = new Hashtable<String, Resource>();
 	private Hashtable<String, CommResource> commResourceList = new Hashtable<String, CommResource>();
 	private Hashtable<Integer, ApplicationModel> applicationList = new Hashtable<Integer, ApplicationModel>();
+	// indexes of the lists above for lookups by id without boxing the id
+	private LongHashMap<Resource> resourceIndex = new LongHashMap<Resource>();
+	private LongHashMap<CommResource> commResourceIndex = new LongHashMap<CommResource>();
+	private LongHashMap<ApplicationModel> applicationIndex = new LongHashMap<ApplicationModel>();
 
 	// adjacency matrix of the platform
 	private ResourceGraph resModel;
@@ -67,8 +72,10 @@ public class SystemModel extends ExtendibleModelElement<AbstractSystemData> {
 	public void addResource(AbstractResource resource) {
 		if (resource instanceof Resource) {
 			resourceList.put(resource.getUniqueName(), (Resource) resource);
+			resourceIndex.put(resource.getResId(), (Resource) resource);
 		} else if (resource instanceof CommResource) {
 			commResourceList.put(resource.getUniqueName(), (CommResource) resource);
+			commResourceIndex.put(resource.getResId(), (CommResource) resource);
 		}
 	}
 
@@ -86,8 +93,10 @@ public class SystemModel extends ExtendibleModelElement<AbstractSystemData> {
 	public void removeResource(AbstractResource resource) {
 		if (resource instanceof Resource) {
 			resourceList.remove(resource.getUniqueName());
+			resourceIndex.remove(resource.getResId());
 		} else if (resource instanceof CommResource) {
 			commResourceList.remove(resource.getUniqueName());
+			commResourceIndex.remove(resource.getResId());
 		}
 	}
 
@@ -97,6 +106,8 @@ public class SystemModel extends ExtendibleModelElement<AbstractSystemData> {
 	public void removeAllResources() {
 		resourceList.clear();
 		commResourceList.clear();
+		resourceIndex.clear();
+		commResourceIndex.clear();
 	}
 
 	/**
@@ -111,6 +122,7 @@ public class SystemModel extends ExtendibleModelElement<AbstractSystemData> {
 	 */
 	public void addApplication(ApplicationModel app) {
 		applicationList.put(app.getAppId(), app);
+		applicationIndex.put(app.getAppId(), app);
 	}
 
 	/**
@@ -214,23 +226,18 @@ public class SystemModel extends ExtendibleModelElement<AbstractSystemData> {
 	}
 
 	/**
-	 * Returns the Resource with the given ID using linear search.
+	 * Returns the Resource with the given ID.
 	 * 
-	 * Used for fixed time lookup.
+	 * Used for fixed time lookup, resources are indexed by their id when they are added.
 	 * 
 	 * @see SystemModel#getAbstractResource(String)
 	 * 
 	 * @param ResourceId
 	 *          resource id to be searched.
-	 * @return the first resource in the list with the given ID or null if it does not exist
+	 * @return the resource with the given ID or null if it does not exist
 	 */
 	public Resource getResource(int ResourceId) {
-		Collection<Resource> c = resourceList.values();
-		for (Resource Resource : c) {
-			if (Resource.getResId() == ResourceId)
-				return Resource;
-		}
-		return null;
+		return resourceIndex.get(ResourceId);
 	}
 
 	/**
@@ -258,24 +265,22 @@ public class SystemModel extends ExtendibleModelElement<AbstractSystemData> {
 	 * Getter method for the communication resource graph of this system model with the id which is passed as a parameter
 	 * to the method.
 	 * 
-	 * If there are more than one communication resources with this id, then the first one in the list will be returned.
-	 * If there isn't any communication resources with this id, method will return null.
+	 * Communication resources are indexed by their id when they are added, so this is a fixed time lookup. If there
+	 * isn't any communication resources with this id, method will return null.
 	 * 
 	 * @param CommId
 	 *          which identifies the communication resource to be searched.
 	 * @return the communication resource with this id, null if there is no communication resources with this id.
 	 */
 	public CommResource getCommResource(int CommId) {
-		Collection<CommResource> c = commResourceList.values();
-		for (CommResource CommResource : c) {
-			if (CommResource.getResId() == CommId)
-				return CommResource;
-		}
-		return null;
+		return commResourceIndex.get(CommId);
 	}
 
 	/**
 	 * Uses depth-first search to find the shortest path from res1 to res2.
+	 * <p>
+	 * The search enumerates all simple paths and is therefore expensive on larger platforms. For repeated queries use
+	 * {@link ResourceGraph#getDistance(Resource, Resource)} which holds the precomputed distances of all resource pairs.
 	 * 
 	 * @param res1
 	 *          - first resource
@@ -365,7 +370,7 @@ public class SystemModel extends ExtendibleModelElement<AbstractSystemData> {
 	 * @return the application model of this system model with this applicaion id.
 	 */
 	public ApplicationModel getApplication(int AppId) {
-		return applicationList.get(AppId);
+		return applicationIndex.get(AppId);
 	}
 
 	/**
@@ -413,6 +418,7 @@ public class SystemModel extends ExtendibleModelElement<AbstractSystemData> {
 	public void clearResources() {
 		resourceList = null;
 		resourceList = new Hashtable<String, Resource>();
+		resourceIndex = new LongHashMap<Resource>();
 	}
 
 	/**
@@ -421,6 +427,7 @@ public class SystemModel extends ExtendibleModelElement<AbstractSystemData> {
 	public void clearCommResources() {
 		commResourceList = null;
 		commResourceList = new Hashtable<String, CommResource>();
+		commResourceIndex = new LongHashMap<CommResource>();
 	}
 
 	/**
@@ -429,5 +436,6 @@ public class SystemModel extends ExtendibleModelElement<AbstractSystemData> {
 	public void clearApplications() {
 		applicationList = null;
 		applicationList = new Hashtable<Integer, ApplicationModel>();
+		applicationIndex = new LongHashMap<ApplicationModel>();
 	}
 }
@@ -0,0 +1,18 @@
+package org.tubs.epoc.SMFF.PyCPAInterface.Analysis;
+
+import java.io.IOException;
+
+/**
+ * Thrown if the PyCPA process did not finish within the timeout of the analysis. The process has been destroyed.
+ *
+ */
+public class AnalysisTimeoutException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * @param message description of the timed out analysis
+   */
+  public AnalysisTimeoutException(String message) {
+    super(message);
+  }
+}
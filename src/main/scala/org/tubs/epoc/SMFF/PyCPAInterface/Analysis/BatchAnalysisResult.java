@@ -0,0 +1,83 @@
+package org.tubs.epoc.SMFF.PyCPAInterface.Analysis;
+
+import java.io.File;
+
+/**
+ * Outcome of the analysis of one system file by the {@link BatchAnalyzer}.
+ *
+ */
+public class BatchAnalysisResult {
+  /**
+   * State of an analyzed system.
+   */
+  public static enum Status {
+    /**
+     * system analyzed, results are stored in the annotated system
+     */
+    OK,
+    /**
+     * pyCPA did not finish within the timeout
+     */
+    TIMEOUT,
+    /**
+     * the system could not be loaded, analyzed or saved
+     */
+    FAILED
+  }
+
+  private File systemFile;
+  private Status status;
+  private long loadTime;
+  private long analysisTime;
+  private String message;
+
+  /**
+   * @param systemFile analyzed system file
+   * @param status outcome of the analysis
+   * @param loadTime time to load the system in milliseconds
+   * @param analysisTime time of the pyCPA analysis in milliseconds
+   * @param message error message (<tt>null</tt> if the analysis succeeded)
+   */
+  public BatchAnalysisResult(File systemFile, Status status, long loadTime, long analysisTime, String message) {
+    this.systemFile = systemFile;
+    this.status = status;
+    this.loadTime = loadTime;
+    this.analysisTime = analysisTime;
+    this.message = message;
+  }
+
+  public File getSystemFile() {
+    return systemFile;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  /**
+   * @return time to load the system in milliseconds
+   */
+  public long getLoadTime() {
+    return loadTime;
+  }
+
+  /**
+   * @return time of the pyCPA analysis in milliseconds
+   */
+  public long getAnalysisTime() {
+    return analysisTime;
+  }
+
+  /**
+   * @return error message, <tt>null</tt> if the analysis succeeded
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return systemFile.getName() + " " + status + " (load " + loadTime + " ms, analysis " + analysisTime + " ms)"
+        + (message == null ? "" : ": " + message);
+  }
+}
@@ -0,0 +1,192 @@
+package org.tubs.epoc.SMFF.PyCPAInterface.Analysis;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.tubs.epoc.SMFF.ImportExport.XML.ModelLoader;
+import org.tubs.epoc.SMFF.ImportExport.XML.ModelSaver;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.PyCPAInterface.Analysis.BatchAnalysisResult.Status;
+
+/**
+ * Analyzes many SMFF system files with PyCPA in parallel. A fixed number of workers each load a system, run one PyCPA
+ * process for it and optionally save the annotated system, so at most that many PyCPA processes run at the same time.
+ * PyCPA processes exceeding the timeout are destroyed. For each system the status and the load and analysis times are
+ * returned.
+ *
+ */
+public class BatchAnalyzer {
+  private static Log logger = LogFactory.getLog(BatchAnalyzer.class);
+
+  private String pythonBinary;
+  private String pyCPAPath;
+  private int numWorkers;
+  private long timeoutMillis;
+  private File tempDir = PyCPAAnalysis.getDefaultTempDir();
+  private File outputDir = null;
+
+  /**
+   * Creates a batch analyzer with one worker per available processor and without timeout.
+   *
+   * @param pythonBinary python executable
+   * @param pyCPAPath path to the PyCPA sources
+   */
+  public BatchAnalyzer(String pythonBinary, String pyCPAPath) {
+    this(pythonBinary, pyCPAPath, Runtime.getRuntime().availableProcessors(), 0, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @param pythonBinary python executable
+   * @param pyCPAPath path to the PyCPA sources
+   * @param numWorkers number of systems analyzed in parallel
+   * @param timeout maximum duration of the analysis of one system, 0 for no timeout
+   * @param unit unit of the timeout
+   */
+  public BatchAnalyzer(String pythonBinary, String pyCPAPath, int numWorkers, long timeout, TimeUnit unit) {
+    if (numWorkers < 1) throw new IllegalArgumentException("at least one worker is required");
+    this.pythonBinary = pythonBinary;
+    this.pyCPAPath = pyCPAPath;
+    this.numWorkers = numWorkers;
+    this.timeoutMillis = unit.toMillis(timeout);
+  }
+
+  /**
+   * Sets the directory for the temporary system files exchanged with PyCPA.
+   *
+   * @param tempDir directory for temporary files, <tt>null</tt> for the default temporary directory of the JVM
+   */
+  public void setTempDir(File tempDir) {
+    this.tempDir = tempDir;
+  }
+
+  /**
+   * Sets the directory to save the annotated systems to, using the names of the system files.
+   *
+   * @param outputDir directory for the analyzed systems, <tt>null</tt> to not save them
+   */
+  public void setOutputDir(File outputDir) {
+    this.outputDir = outputDir;
+  }
+
+  /**
+   * Analyzes all XML system files of a directory in the order of their names.
+   *
+   * @param systemDir directory containing the system files
+   * @return results in the order of the system files
+   * @throws IOException if the directory cannot be read
+   * @throws InterruptedException if the thread is interrupted, running analyses are stopped
+   */
+  public List<BatchAnalysisResult> analyzeDirectory(File systemDir) throws IOException, InterruptedException {
+    File[] systemFiles = systemDir.listFiles(new FileFilter() {
+      public boolean accept(File file) {
+        return file.isFile() && file.getName().toLowerCase().endsWith(".xml");
+      }
+    });
+    if (systemFiles == null) throw new IOException("cannot read directory " + systemDir);
+    Arrays.sort(systemFiles);
+    return analyze(Arrays.asList(systemFiles));
+  }
+
+  /**
+   * Analyzes the given system files.
+   *
+   * @param systemFiles SMFF system files
+   * @return results in the order of the system files
+   * @throws InterruptedException if the thread is interrupted, running analyses are stopped
+   */
+  public List<BatchAnalysisResult> analyze(List<File> systemFiles) throws InterruptedException {
+    long start = System.nanoTime();
+    ExecutorService workers = Executors.newFixedThreadPool(Math.min(numWorkers, Math.max(1, systemFiles.size())));
+    try {
+      List<Future<BatchAnalysisResult>> futures = new ArrayList<Future<BatchAnalysisResult>>(systemFiles.size());
+      for (File systemFile : systemFiles) {
+        futures.add(workers.submit(new AnalysisJob(systemFile)));
+      }
+
+      List<BatchAnalysisResult> results = new ArrayList<BatchAnalysisResult>(systemFiles.size());
+      int[] counts = new int[Status.values().length];
+      for (int i = 0; i < futures.size(); i++) {
+        BatchAnalysisResult result;
+        try {
+          result = futures.get(i).get();
+        } catch (ExecutionException e) {
+          result = new BatchAnalysisResult(systemFiles.get(i), Status.FAILED, 0, 0, String.valueOf(e.getCause()));
+        }
+        counts[result.getStatus().ordinal()]++;
+        results.add(result);
+      }
+      logger.info("analyzed " + systemFiles.size() + " systems with " + numWorkers + " workers in "
+          + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms: " + counts[Status.OK.ordinal()] + " ok, "
+          + counts[Status.TIMEOUT.ordinal()] + " timed out, " + counts[Status.FAILED.ordinal()] + " failed");
+      return results;
+    } finally {
+      // interrupts running analyses, which destroy their PyCPA processes
+      workers.shutdownNow();
+    }
+  }
+
+  /**
+   * Loads, analyzes and saves one system.
+   */
+  private class AnalysisJob implements Callable<BatchAnalysisResult> {
+    private File systemFile;
+
+    AnalysisJob(File systemFile) {
+      this.systemFile = systemFile;
+    }
+
+    @Override
+    public BatchAnalysisResult call() {
+      long start = System.nanoTime();
+      SystemModel model;
+      try {
+        model = new ModelLoader(systemFile.getPath()).generateSystem();
+      } catch (Exception e) {
+        logger.warn("could not load " + systemFile, e);
+        return new BatchAnalysisResult(systemFile, Status.FAILED, millisSince(start), 0, "load failed: " + e);
+      }
+      long loadTime = millisSince(start);
+
+      long analysisStart = System.nanoTime();
+      PyCPAAnalysis analysis = new PyCPAAnalysis(model, pythonBinary, pyCPAPath);
+      analysis.setTempDir(tempDir);
+      analysis.setTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+      try {
+        analysis.analyze();
+      } catch (AnalysisTimeoutException e) {
+        return new BatchAnalysisResult(systemFile, Status.TIMEOUT, loadTime, millisSince(analysisStart), e.getMessage());
+      } catch (Exception e) {
+        // I/O errors and malformed results
+        logger.warn("could not analyze " + systemFile, e);
+        return new BatchAnalysisResult(systemFile, Status.FAILED, loadTime, millisSince(analysisStart), e.toString());
+      }
+      long analysisTime = millisSince(analysisStart);
+
+      if (outputDir != null) {
+        try {
+          new ModelSaver(new File(outputDir, systemFile.getName())).saveModel(model);
+        } catch (Exception e) {
+          logger.warn("could not save " + systemFile.getName() + " to " + outputDir, e);
+          return new BatchAnalysisResult(systemFile, Status.FAILED, loadTime, analysisTime, "save failed: " + e);
+        }
+      }
+      return new BatchAnalysisResult(systemFile, Status.OK, loadTime, analysisTime, null);
+    }
+  }
+
+  private static long millisSince(long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+}
@@ -0,0 +1,72 @@
+package org.tubs.epoc.SMFF.PyCPAInterface.Analysis;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.LinkedList;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Reads the output of an external process in its own thread, so that the process never blocks on a full pipe. Every
+ * line is logged on debug level and the last lines are kept for error messages.
+ *
+ */
+class OutputDrainer extends Thread {
+  private static final int TAIL_LINES = 10;
+
+  private final InputStream stream;
+  private final Log logger;
+  private final String prefix;
+  private final LinkedList<String> tail = new LinkedList<String>();
+
+  /**
+   * @param stream output stream of the process
+   * @param logger log to write the lines to
+   * @param prefix prefix of each logged line
+   */
+  OutputDrainer(InputStream stream, Log logger, String prefix) {
+    super("OutputDrainer-" + prefix);
+    setDaemon(true);
+    this.stream = stream;
+    this.logger = logger;
+    this.prefix = prefix;
+  }
+
+  @Override
+  public void run() {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (logger.isDebugEnabled()) logger.debug(prefix + ": " + line);
+        synchronized (tail) {
+          tail.add(line);
+          if (tail.size() > TAIL_LINES) tail.removeFirst();
+        }
+      }
+    } catch (IOException e) {
+      // the stream is closed when the process is destroyed
+    } finally {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        // nothing left to read
+      }
+    }
+  }
+
+  /**
+   * @return the last lines read from the stream
+   */
+  String getTail() {
+    StringBuilder builder = new StringBuilder();
+    synchronized (tail) {
+      for (String line : tail) {
+        builder.append(System.getProperty("line.separator")).append(line);
+      }
+    }
+    return builder.toString();
+  }
+}
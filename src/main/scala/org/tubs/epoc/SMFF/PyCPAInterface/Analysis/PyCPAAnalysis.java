@@ -1,20 +1,28 @@
 package org.tubs.epoc.SMFF.PyCPAInterface.Analysis;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.jdom2.JDOMException;
 import org.tubs.epoc.SMFF.ImportExport.XML.ModelSaver;
 import org.tubs.epoc.SMFF.ModelElements.SystemModel;
 
 public class PyCPAAnalysis implements Callable<Object>{
+  private static Log logger = LogFactory.getLog(PyCPAAnalysis.class);
+
+  // directory in memory on Linux, avoids disk I/O for the temporary system files
+  private static final File RAM_DIR = new File("/dev/shm");
+
   private SystemModel model;
   private String pythonBinary;
   private String pyCPAPath;
+  private File tempDir = getDefaultTempDir();
+  private long timeoutMillis = 0;
 
   public PyCPAAnalysis(SystemModel model, String pythonBinary, String pyCPAPath) {
     super();
@@ -23,6 +31,35 @@ public class PyCPAAnalysis implements Callable<Object>{
     this.pyCPAPath = pyCPAPath;
   }
 
+  /**
+   * Returns the directory for the temporary system files used if none is set: <tt>/dev/shm</tt> if it is available,
+   * otherwise the default temporary directory of the JVM (<tt>null</tt>).
+   *
+   * @return the default directory for temporary files
+   */
+  public static File getDefaultTempDir() {
+    if (RAM_DIR.isDirectory() && RAM_DIR.canWrite()) return RAM_DIR;
+    return null;
+  }
+
+  /**
+   * Sets the directory for the temporary system file exchanged with PyCPA.
+   *
+   * @param tempDir directory for temporary files, <tt>null</tt> for the default temporary directory of the JVM
+   */
+  public void setTempDir(File tempDir) {
+    this.tempDir = tempDir;
+  }
+
+  /**
+   * Sets the time after which the PyCPA process is destroyed.
+   *
+   * @param timeout maximum duration of the analysis, 0 for no timeout
+   * @param unit unit of the timeout
+   */
+  public void setTimeout(long timeout, TimeUnit unit) {
+    this.timeoutMillis = unit.toMillis(timeout);
+  }
 
   /**
    * Callable interface of the PyCPAAnalysis which allows to run the analysis in a multi-threaded manner.
@@ -35,39 +72,59 @@ public class PyCPAAnalysis implements Callable<Object>{
     return null;
   }
 
+  /**
+   * Analyzes the system with PyCPA and stores the results in the system model. The output of PyCPA is logged on debug
+   * level.
+   *
+   * @throws AnalysisTimeoutException if PyCPA does not finish within the timeout
+   * @throws InterruptedIOException if the thread is interrupted while waiting for PyCPA
+   * @throws IOException if PyCPA cannot be started, fails or its results cannot be read
+   */
   public void analyze() throws IOException{
     // create a temporary file to store the system model and receive analysis results from PyCPA
     File tempSystemFile;
     String tempSystemFileName;
-    tempSystemFile = File.createTempFile("SMFFsystem", ".xml");
+    tempSystemFile = File.createTempFile("SMFFsystem", ".xml", tempDir);
     tempSystemFileName = tempSystemFile.getAbsolutePath();
-    new ModelSaver(tempSystemFile).saveModel(model);
-
-    // call pyCPA with the given system model
-    String examplePath = pyCPAPath+"\\..\\tools\\smff_loader.py";
-    String pathArgs[] = {new String("PYTHONPATH="+pyCPAPath)};
-    String command = pythonBinary +" "+ examplePath + " -f "+tempSystemFileName + " -of "+tempSystemFileName;
-    System.out.println(command+", "+pathArgs[0]);
+    Process proc = null;
     try {
-      // execute pyCPA
-      Process proc = Runtime.getRuntime().exec(command, pathArgs);
-      InputStream output = proc.getInputStream();
-      InputStream error = proc.getErrorStream();
-      BufferedReader _output_ = new BufferedReader(new InputStreamReader(output));
-      BufferedReader _error_ = new BufferedReader(new InputStreamReader(error));
-      String line = null;
-      while((line=_output_.readLine())!=null)System.out.println(line);
-      while((line=_error_.readLine())!=null) System.out.println(line);
-      proc.waitFor();
+      new ModelSaver(tempSystemFile).saveModel(model);
+
+      // call pyCPA with the given system model
+      String examplePath = new File(new File(new File(pyCPAPath), ".."), "tools" + File.separator + "smff_loader.py").getPath();
+      ProcessBuilder builder = new ProcessBuilder(pythonBinary, examplePath, "-f", tempSystemFileName, "-of", tempSystemFileName);
+      builder.environment().put("PYTHONPATH", pyCPAPath);
+      logger.debug(builder.command() + ", PYTHONPATH=" + pyCPAPath);
+
+      // execute pyCPA, both outputs are read concurrently so that a full pipe cannot block the process
+      proc = builder.start();
+      proc.getOutputStream().close();
+      OutputDrainer output = new OutputDrainer(proc.getInputStream(), logger, "pyCPA " + tempSystemFile.getName());
+      OutputDrainer error = new OutputDrainer(proc.getErrorStream(), logger, "pyCPA " + tempSystemFile.getName() + " (err)");
+      output.start();
+      error.start();
+      if (timeoutMillis > 0) {
+        if (!proc.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+          throw new AnalysisTimeoutException("pyCPA did not finish within " + timeoutMillis + " ms");
+        }
+      } else {
+        proc.waitFor();
+      }
+      output.join();
+      error.join();
+      if (proc.exitValue() != 0) {
+        throw new IOException("pyCPA exited with code " + proc.exitValue() + error.getTail());
+      }
+
       // read results from XML and save them in the system model
       new AnalysisResultParser(model, tempSystemFile).readResults();
     } catch (JDOMException e) {
-      e.printStackTrace();
-    } catch (IOException e) {
-      e.printStackTrace();
+      throw new IOException("could not read the pyCPA results", e);
     } catch (InterruptedException e) {
-      e.printStackTrace();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while waiting for pyCPA");
     } finally{
+      if (proc != null) proc.destroyForcibly();
       // delete the temporary file afterwards
       tempSystemFile.delete();
     }
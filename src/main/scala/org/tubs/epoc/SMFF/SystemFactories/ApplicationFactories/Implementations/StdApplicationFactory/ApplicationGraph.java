@@ -1,31 +1,64 @@
 package org.tubs.epoc.SMFF.SystemFactories.ApplicationFactories.Implementations.StdApplicationFactory;
 
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.ListIterator;
 
 import org.tubs.epoc.SMFF.ModelElements.Application.AbstractAppData;
 
 /**
  * Class definition for the application graph. A model object which stores the relevant information related with
  * graph, i.e vertices and edges.
+ * <p>
+ * Besides the lists, the vertices and undirected edges are numbered in the order of insertion. The end vertices of the
+ * undirected edges are kept as vertex indices and the incident edges of each vertex in one compressed array (CSR),
+ * so that finding an edge or checking adjacency only looks at the incident edges of a vertex and building a graph
+ * stays linear in its size. The compressed array is rebuilt on the first query after edges were inserted, so a graph
+ * should be built before it is queried. Vertices and undirected edges should be added through the insert methods;
+ * the lists count all their changes, so if they have been changed otherwise, the indices are rebuilt from them on the
+ * next query.
  *
  */
 public class ApplicationGraph extends AbstractAppData{	
-	private LinkedList<Vertex> vertices;
-	private LinkedList<UndirectedEdge> undirectedEdges;
+	private ChangeCountingList<Vertex> vertices;
+	private ChangeCountingList<UndirectedEdge> undirectedEdges;
 	private LinkedList<DirectedEdge> directedEdges;
 	// this lists are used by ApplicationGraphEditor class
 	private LinkedList<Vertex> usedNodes;
 	private LinkedList<LinkedList<Vertex>> cycles;
 	
+	// vertices and undirected edges by index
+	private Vertex[] vertexTable;
+	private int numIndexedVertices;
+	private UndirectedEdge[] edgeTable;
+	private int numIndexedEdges;
+	// change counts of the lists when they were last indexed
+	private int indexedVertexChanges;
+	private int indexedEdgeChanges;
+	// vertex indices of the first and last end vertex of each edge, -1 if not in this graph
+	private int[] edgeEnds;
+	// incident edges of vertex i are adjEdges[adjStart[i]] to adjEdges[adjStart[i+1]-1] in order of insertion
+	private int[] adjStart;
+	private int[] adjEdges;
+	private boolean adjValid;
+	// some edge has an end vertex which was not in this graph when the adjacency was built
+	private boolean unresolvedEnds;
+	
 	/**
 	 * Default constructor.
 	 */
 	public ApplicationGraph(){
-		vertices = new LinkedList<Vertex>();
-		undirectedEdges = new LinkedList<UndirectedEdge>();
+		vertices = new ChangeCountingList<Vertex>();
+		undirectedEdges = new ChangeCountingList<UndirectedEdge>();
 		directedEdges = new LinkedList<DirectedEdge>();
 		usedNodes = new LinkedList<Vertex>();
 		cycles = new LinkedList<LinkedList<Vertex>>();
+		vertexTable = new Vertex[16];
+		edgeTable = new UndirectedEdge[16];
+		edgeEnds = new int[32];
+		adjStart = new int[17];
+		adjEdges = new int[0];
+		adjValid = true;
 	}
 	
 	
@@ -94,7 +127,12 @@ public class ApplicationGraph extends AbstractAppData{
 	 * @param v vertex to be added to this graph
 	 */
 	public void insertVertex(Vertex v){
+		boolean indexed = vertices.changeCount() == indexedVertexChanges;
 		vertices.add(v);
+		if(indexed){
+			indexVertex(v);
+			indexedVertexChanges = vertices.changeCount();
+		}
 	}
 	
 	/**
@@ -102,7 +140,12 @@ public class ApplicationGraph extends AbstractAppData{
 	 * @param e undirected edge to be added to this graph
 	 */
 	public void insertEdge(UndirectedEdge e){
+		boolean indexed = undirectedEdges.changeCount() == indexedEdgeChanges;
 		undirectedEdges.add(e);
+		if(indexed){
+			indexEdge(e);
+			indexedEdgeChanges = undirectedEdges.changeCount();
+		}
 	}
 	
 	/**
@@ -130,7 +173,12 @@ public class ApplicationGraph extends AbstractAppData{
 	 * @return <tt>true</tt> if <tt>v</tt> and <tt>w</tt> are adjacent, <tt>false</tt> otherwise 
 	 */
 	public boolean areAdjacent(Vertex v, Vertex w){
-		return v.getAdj().contains(w);
+		int iv = indexOf(v);
+		int iw = indexOf(w);
+		if(iv < 0 || iw < 0){
+			return v.getAdj().contains(w);
+		}
+		return findEdge(iv, iw) >= 0;
 	}
 	
 	/**
@@ -159,14 +207,19 @@ public class ApplicationGraph extends AbstractAppData{
 	 * @return the edge which connects vertices <tt>v</tt> and <tt>w</tt>
 	 */
 	public UndirectedEdge getUndirectedEdge(Vertex v, Vertex w){
-		
-		for(int i = 0; i < undirectedEdges.size(); i++){
-			if(undirectedEdges.get(i).getEndVertices().contains(v) && undirectedEdges.get(i).getEndVertices().contains(w)){
-				return undirectedEdges.get(i);
+		int iv = indexOf(v);
+		int iw = indexOf(w);
+		if(iv < 0 || iw < 0){
+			// vertices of other graphs can only be found in the edges themselves
+			for(UndirectedEdge e : undirectedEdges){
+				if(e.getEndVertices().contains(v) && e.getEndVertices().contains(w)){
+					return e;
+				}
 			}
+			return null;
 		}
-		// there is a bug...
-		return null;
+		int e = findEdge(iv, iw);
+		return e < 0 ? null : edgeTable[e];
 	}
 	
 	/**
@@ -206,10 +259,8 @@ public class ApplicationGraph extends AbstractAppData{
 	 * @param s label for the vertex
 	 */
 	public void setLabel(Vertex v, String s){
-		for(int i = 0; i < vertices.size(); i++){
-			if(vertices.get(i).equals(v)){
-				vertices.get(i).setLabel(s);
-			}
+		if(indexOf(v) >= 0){
+			v.setLabel(s);
 		}
 	}
 	
@@ -219,10 +270,199 @@ public class ApplicationGraph extends AbstractAppData{
 	 * @param s label for the edge
 	 */
 	public void setLabel(UndirectedEdge e, String s){
-		for(int i = 0; i < undirectedEdges.size(); i++){
-			if(undirectedEdges.get(i).equals(e)){
-				undirectedEdges.get(i).setLabel(s);
+		ensureIndexed();
+		int i = e.getIndex();
+		if(!(i >= 0 && i < numIndexedEdges && edgeTable[i] == e)){
+			// edge inserted more than once or also into another graph
+			for(i = numIndexedEdges-1; i >= 0 && edgeTable[i] != e; i--);
+		}
+		if(i >= 0){
+			e.setLabel(s);
+		}
+	}
+	
+	// index methods
+	
+	/**
+	 * Query method for the index of a vertex in this graph.
+	 * @param v vertex
+	 * @return the index of vertex <tt>v</tt> in order of insertion, <tt>-1</tt> if it is not in this graph
+	 */
+	int indexOf(Vertex v){
+		ensureIndexed();
+		int i = v.getIndex();
+		if(i >= 0 && i < numIndexedVertices && vertexTable[i] == v){
+			return i;
+		}
+		// vertex inserted more than once or also into another graph
+		for(i = 0; i < numIndexedVertices; i++){
+			if(vertexTable[i] == v){
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Finds the first inserted edge between two vertices by looking at the incident edges of the vertex with the
+	 * smaller degree.
+	 * @return the index of the edge, <tt>-1</tt> if the vertices are not adjacent
+	 */
+	private int findEdge(int iv, int iw){
+		if(!adjValid){
+			buildAdjacency();
+		}
+		if(adjStart[iw+1]-adjStart[iw] < adjStart[iv+1]-adjStart[iv]){
+			int t = iv;
+			iv = iw;
+			iw = t;
+		}
+		for(int k = adjStart[iv]; k < adjStart[iv+1]; k++){
+			int e = adjEdges[k];
+			int other = edgeEnds[2*e] == iv ? edgeEnds[2*e+1] : edgeEnds[2*e];
+			if(other == iw){
+				return e;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Rebuilds the indices if vertices or undirected edges have been added or removed other than by the insert methods.
+	 */
+	private void ensureIndexed(){
+		if(vertices.changeCount() == indexedVertexChanges && undirectedEdges.changeCount() == indexedEdgeChanges){
+			return;
+		}
+		numIndexedVertices = 0;
+		numIndexedEdges = 0;
+		adjValid = true;
+		for(Vertex v : vertices){
+			indexVertex(v);
+		}
+		for(UndirectedEdge e : undirectedEdges){
+			indexEdge(e);
+		}
+		indexedVertexChanges = vertices.changeCount();
+		indexedEdgeChanges = undirectedEdges.changeCount();
+	}
+	
+	private void indexVertex(Vertex v){
+		if(numIndexedVertices == vertexTable.length){
+			vertexTable = Arrays.copyOf(vertexTable, 2*numIndexedVertices);
+			adjStart = Arrays.copyOf(adjStart, 2*numIndexedVertices+1);
+		}
+		v.setIndex(numIndexedVertices);
+		vertexTable[numIndexedVertices] = v;
+		// a new vertex has no incident edges yet, unless it is the missing end of an edge
+		adjStart[numIndexedVertices+1] = adjStart[numIndexedVertices];
+		numIndexedVertices++;
+		if(unresolvedEnds){
+			adjValid = false;
+		}
+	}
+	
+	private void indexEdge(UndirectedEdge e){
+		if(numIndexedEdges == edgeTable.length){
+			edgeTable = Arrays.copyOf(edgeTable, 2*numIndexedEdges);
+			edgeEnds = Arrays.copyOf(edgeEnds, 4*numIndexedEdges);
+		}
+		e.setIndex(numIndexedEdges);
+		edgeTable[numIndexedEdges] = e;
+		numIndexedEdges++;
+		// end vertices are resolved when the adjacency is built, they may be inserted after the edge
+		adjValid = false;
+	}
+	
+	/**
+	 * Builds the compressed incident edges of all vertices by counting sort of the edges.
+	 */
+	private void buildAdjacency(){
+		int n = numIndexedVertices;
+		Arrays.fill(adjStart, 0, n+1, 0);
+		unresolvedEnds = false;
+		for(int e = 0; e < numIndexedEdges; e++){
+			LinkedList<Vertex> ends = edgeTable[e].getEndVertices();
+			edgeEnds[2*e] = indexOf(ends.getFirst());
+			edgeEnds[2*e+1] = indexOf(ends.getLast());
+			for(int k = 2*e; k < 2*e+2; k++){
+				if(edgeEnds[k] < 0){
+					unresolvedEnds = true;
+				} else if(k == 2*e || edgeEnds[k] != edgeEnds[k-1]){
+					adjStart[edgeEnds[k]+1]++;
+				}
 			}
 		}
+		for(int i = 0; i < n; i++){
+			adjStart[i+1] += adjStart[i];
+		}
+		if(adjEdges.length < adjStart[n]){
+			adjEdges = new int[Math.max(adjStart[n], 2*adjEdges.length)];
+		}
+		int[] next = Arrays.copyOf(adjStart, n);
+		for(int e = 0; e < numIndexedEdges; e++){
+			for(int k = 2*e; k < 2*e+2; k++){
+				if(edgeEnds[k] >= 0 && (k == 2*e || edgeEnds[k] != edgeEnds[k-1])){
+					adjEdges[next[edgeEnds[k]]++] = e;
+				}
+			}
+		}
+		adjValid = true;
+	}
+	
+	/**
+	 * Linked list which counts all changes, including elements replaced by <tt>set</tt>, so that the indices can tell
+	 * whether they are out of date.
+	 */
+	private static class ChangeCountingList<E> extends LinkedList<E> {
+		private static final long serialVersionUID = 1L;
+		
+		// replaced elements, which do not count as structural modification
+		private int replacements;
+		
+		int changeCount(){
+			return modCount + replacements;
+		}
+		
+		@Override
+		public E set(int index, E element){
+			replacements++;
+			return super.set(index, element);
+		}
+		
+		@Override
+		public ListIterator<E> listIterator(int index){
+			final ListIterator<E> it = super.listIterator(index);
+			return new ListIterator<E>(){
+				public boolean hasNext(){
+					return it.hasNext();
+				}
+				public E next(){
+					return it.next();
+				}
+				public boolean hasPrevious(){
+					return it.hasPrevious();
+				}
+				public E previous(){
+					return it.previous();
+				}
+				public int nextIndex(){
+					return it.nextIndex();
+				}
+				public int previousIndex(){
+					return it.previousIndex();
+				}
+				public void remove(){
+					it.remove();
+				}
+				public void set(E e){
+					replacements++;
+					it.set(e);
+				}
+				public void add(E e){
+					it.add(e);
+				}
+			};
+		}
 	}
-}
\ No newline at end of file
+}
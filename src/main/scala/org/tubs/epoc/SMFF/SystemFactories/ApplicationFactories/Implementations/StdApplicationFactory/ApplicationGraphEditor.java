@@ -1,5 +1,6 @@
 package org.tubs.epoc.SMFF.SystemFactories.ApplicationFactories.Implementations.StdApplicationFactory;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Random;
@@ -66,9 +67,7 @@ public class ApplicationGraphEditor {
 		
 		Vertex w = null;
 		
-		for(int i = 0; i < g.getIncidentEdges(v).size(); i++){
-			UndirectedEdge e = (UndirectedEdge) g.getIncidentEdges(v).get(i);
-			
+		for(UndirectedEdge e : g.getIncidentEdges(v)){
 			if(e.getLabel() == "UNEXPLORED"){
 				w = g.opposite(v, e);
 				w.setExploredFrom(e);
@@ -113,12 +112,14 @@ public class ApplicationGraphEditor {
 		}
 		
 		// delete all cycle edges from appGraph.edges list
-		for(int i = 0; i < graph.getCycles().size(); i++){
-			LinkedList<Vertex> l1 = graph.getCycles().get(i);
-			for(int j = 0; j < l1.size()-1; j++){
-				
-				UndirectedEdge ue = graph.getUndirectedEdge(l1.get(j), l1.get(j+1));
-				graph.getDirectedEdges().remove(ue);
+		for(LinkedList<Vertex> l1 : graph.getCycles()){
+			Vertex prev = null;
+			for(Vertex v : l1){
+				if(prev != null){
+					UndirectedEdge ue = graph.getUndirectedEdge(prev, v);
+					graph.getDirectedEdges().remove(ue);
+				}
+				prev = v;
 			}
 		}
 	}
@@ -132,83 +133,97 @@ public class ApplicationGraphEditor {
 		// if cyclic = 1 -> directing the cycles
 		// else, split the cycle, direct some edges in one
 		// and the rest in other direction
+		// (a new directed edge is never contained in the list, edges are compared by identity)
 		Integer k = 0;
 		if(cyclic){
-			for(int i = 0; i < graph.getCycles().size(); i++){
-				for(int j = 0; j < graph.getCycles().get(i).size()-1; j++){
-					Vertex source = graph.getCycles().get(i).get(j);
-					Vertex destination = graph.getCycles().get(i).get(j+1);
-					DirectedEdge de = new DirectedEdge(k,"e"+k.toString(),source,destination);
-					if(!graph.getDirectedEdges().contains(de)){
-						graph.getDirectedEdges().add(de);
-						k++;
-					}
-					
+			for(LinkedList<Vertex> cycle : graph.getCycles()){
+				Vertex[] c = cycle.toArray(new Vertex[cycle.size()]);
+				for(int j = 0; j < c.length-1; j++){
+					DirectedEdge de = new DirectedEdge(k,"e"+k.toString(),c[j],c[j+1]);
+					graph.getDirectedEdges().add(de);
+					k++;
 				}
 			}
 		}
 		else{
 			Random rnd = new Random(seed);
-			for(int i = 0; i < graph.getCycles().size(); i++){
+			for(LinkedList<Vertex> cycle : graph.getCycles()){
+				Vertex[] c = cycle.toArray(new Vertex[cycle.size()]);
 				
 				int split = 0;
-				while(split == 0 || split ==graph.getCycles().get(i).size()){
-					split = rnd.nextInt(graph.getCycles().get(i).size());
+				while(split == 0 || split ==c.length){
+					split = rnd.nextInt(c.length);
 				}
 				
-				for(int j = 0; j < graph.getCycles().get(i).size()-1; j++){
+				for(int j = 0; j < c.length-1; j++){
+					DirectedEdge de;
 					if(j < split){
-						Vertex source = graph.getCycles().get(i).get(j);
-						Vertex destination = graph.getCycles().get(i).get(j+1);
-						DirectedEdge de = new DirectedEdge(k,"e"+k.toString(),source,destination);
-						if(!graph.getDirectedEdges().contains(de)){
-							graph.getDirectedEdges().add(de);
-							k++;
-						}
+						de = new DirectedEdge(k,"e"+k.toString(),c[j],c[j+1]);
 					}
 					else{
-						Vertex destination = graph.getCycles().get(i).get(j);
-						Vertex source = graph.getCycles().get(i).get(j+1);
-						DirectedEdge de = new DirectedEdge(k,"e"+k.toString(),source,destination);
-						if(!graph.getDirectedEdges().contains(de)){
-							graph.getDirectedEdges().add(de);
-							k++;
-						}
+						de = new DirectedEdge(k,"e"+k.toString(),c[j+1],c[j]);
 					}
+					graph.getDirectedEdges().add(de);
+					k++;
 				}
 			}
 		}
 		
 		// direct the rest of edges
-		for(int i = 0; i < graph.getUndirectedEdges().size(); i++){
-			UndirectedEdge ue = graph.getUndirectedEdges().get(i);
+		for(UndirectedEdge ue : graph.getUndirectedEdges()){
 			DirectedEdge de = new DirectedEdge(k, "e"+k.toString(),ue.getEndVertices().getFirst(),
 					ue.getEndVertices().getLast());
 			graph.getDirectedEdges().add(de);
 			k++;
 		}
 		// delete diametrical edges
-		for(int i = 0; i < graph.getDirectedEdges().size()-1; i++){
-			DirectedEdge e1 = graph.getDirectedEdges().get(i);
-			for(int j = i+1; j < graph.getDirectedEdges().size(); j++){
-				DirectedEdge e2 = graph.getDirectedEdges().get(j);
+		deleteEdges(true);
+		// delete double edges
+		deleteEdges(false);
+	}
 	
-				if((e1.getSource().getName() == e2.getDestination().getName())&&
-						e1.getDestination().getName() == e2.getSource().getName()){
-					graph.getDirectedEdges().remove(e2);
+	/**
+	 * Deletes every directed edge which is diametrical to or the same as an edge before it that is kept. The kept edges
+	 * are collected per source vertex index, so each edge is only compared to the kept edges of one vertex.
+	 * @param diametrical <tt>true</tt> to delete diametrical edges, <tt>false</tt> to delete double edges
+	 */
+	private void deleteEdges(boolean diametrical){
+		int n = graph.numVertices();
+		int[][] keptDests = new int[n][];
+		int[] numKeptDests = new int[n];
+		Iterator<DirectedEdge> it = graph.getDirectedEdges().iterator();
+		while(it.hasNext()){
+			DirectedEdge e = it.next();
+			int src = index(e.getSource());
+			int dest = index(e.getDestination());
+			// a diametrical edge has been kept as an edge from its destination
+			int from = diametrical ? dest : src;
+			int to = diametrical ? src : dest;
+			boolean kept = false;
+			for(int i = 0; i < numKeptDests[from]; i++){
+				if(keptDests[from][i] == to){
+					kept = true;
+					break;
 				}
 			}
-		}
-		// delete double edges
-		for(int i = 0; i < graph.getDirectedEdges().size()-1; i++){
-			DirectedEdge e1 = graph.getDirectedEdges().get(i);
-			for(int j = i+1; j < graph.getDirectedEdges().size(); j++){
-				DirectedEdge e2 = graph.getDirectedEdges().get(j);
-				if((e1.getSource().getName() == e2.getSource().getName())&&
-						e1.getDestination().getName() == e2.getDestination().getName()){
-					graph.getDirectedEdges().remove(e2);
-				}
+			if(kept){
+				it.remove();
+				continue;
 			}
+			if(keptDests[src] == null){
+				keptDests[src] = new int[4];
+			} else if(numKeptDests[src] == keptDests[src].length){
+				keptDests[src] = Arrays.copyOf(keptDests[src], 2*numKeptDests[src]);
+			}
+			keptDests[src][numKeptDests[src]++] = dest;
+		}
+	}
+	
+	private int index(Vertex v){
+		int i = graph.indexOf(v);
+		if(i < 0){
+			throw new IllegalStateException("vertex " + v + " of a directed edge is not in the graph");
 		}
+		return i;
 	}
 }
@@ -0,0 +1,245 @@
+package org.tubs.epoc.SMFF.SystemFactories.ApplicationFactories.Implementations.StdApplicationFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates task graphs in-process with the parameters of TGFF (Dick, R.; Rhodes, D. & Wolf, W. TGFF: Task Graphs
+ * For Free, CODES 1998), so no tgff binary and no files are needed.
+ * <p>
+ * The number of tasks is drawn uniformly from <tt>numTasks &plusmn; diffNumTasks</tt> (task_cnt). Starting from a
+ * single task the graph grows until it has that many tasks:
+ * <ul>
+ * <li>The old algorithm alternates randomly between fan-out (a task with free out-degree gets new successors) and
+ * fan-in (several tasks without successors are joined in a new task), respecting the maximum in- and out-degrees
+ * (task_degree).</li>
+ * <li>The new algorithm (gen_series_parallel) expands an open task into <tt>parallelSeries &plusmn;
+ * diffParallelSeries</tt> parallel chains (series_wid) of <tt>seriesLen &plusmn; diffSeriesLen</tt> tasks each
+ * (series_len). The chains rejoin in a new task unless the series forks out, which happens with probability
+ * <tt>forkOut</tt> (series_subgraph_fork_out) if <tt>mustRejoin</tt> (series_must_rejoin) is false. The joining task
+ * or the chain ends become open tasks.</li>
+ * </ul>
+ * Tasks are named <tt>t0_i</tt> and arcs <tt>a0_j</tt> as in the tgff output. Every task but the first has a
+ * predecessor, so the graph is connected. All random numbers are drawn from a generator seeded with the given seed,
+ * so the graphs are reproducible, and generators share no state, so graphs can be generated on several threads at once.
+ *
+ * @see StdTgffApplicationFactoryData
+ */
+public class TgffGraphGenerator {
+	private StdTgffApplicationFactoryData data;
+	private Random rnd;
+
+	// graph under construction
+	private int numTasks;
+	private int[] outDegree;
+	private List<int[]> arcs;
+
+	/**
+	 * Creates a generator.
+	 * @param data parameters of the task graph
+	 * @param seed seed of the random number generator
+	 */
+	public TgffGraphGenerator(StdTgffApplicationFactoryData data, long seed) {
+		this.data = data;
+		this.rnd = new Random(seed);
+	}
+
+	/**
+	 * Generates a task graph with undirected edges from the source to the target task of each arc.
+	 * @return the task graph
+	 * @throws IllegalArgumentException if the degrees do not allow more than one task to be connected
+	 */
+	public ApplicationGraph generate() {
+		int targetTasks = Math.max(1, vary(data.getNumTasks(), data.getDiffNumTasks()));
+		if (targetTasks > 1 && (data.getTaskMaxDegrOut() < 1 || data.getTaskMaxDegrIn() < 1)) {
+			throw new IllegalArgumentException("maximum in- and out-degree must be at least 1");
+		}
+
+		numTasks = 0;
+		outDegree = new int[targetTasks];
+		arcs = new ArrayList<int[]>();
+		addTask();
+		if (data.isNewAlgorithm()) {
+			generateSeriesParallel(targetTasks);
+		} else {
+			generateFanInFanOut(targetTasks);
+		}
+
+		ApplicationGraph appGraph = new ApplicationGraph();
+		Vertex[] vertices = new Vertex[numTasks];
+		for (int i = 0; i < numTasks; i++) {
+			vertices[i] = new Vertex("t0_" + i, i);
+			appGraph.insertVertex(vertices[i]);
+		}
+		for (int j = 0; j < arcs.size(); j++) {
+			int[] arc = arcs.get(j);
+			appGraph.insertEdge(new UndirectedEdge("a0_" + j, vertices[arc[0]], vertices[arc[1]]));
+		}
+		return appGraph;
+	}
+
+	/**
+	 * Old TGFF algorithm: random fan-out and fan-in steps.
+	 */
+	private void generateFanInFanOut(int targetTasks) {
+		while (numTasks < targetTasks) {
+			if (rnd.nextBoolean()) {
+				if (!fanIn()) {
+					fanOut(targetTasks);
+				}
+			} else {
+				fanOut(targetTasks);
+			}
+		}
+	}
+
+	/**
+	 * Adds successors to a random task with free out-degree. The last task never has successors, so there is always
+	 * such a task.
+	 */
+	private void fanOut(int targetTasks) {
+		int[] candidates = freeOutDegree();
+		int src = candidates[rnd.nextInt(candidates.length)];
+		int maxSuccessors = Math.min(data.getTaskMaxDegrOut() - outDegree[src], targetTasks - numTasks);
+		int successors = 1 + rnd.nextInt(maxSuccessors);
+		for (int i = 0; i < successors; i++) {
+			addArc(src, addTask());
+		}
+	}
+
+	/**
+	 * Joins at least two random tasks without successors in a new task.
+	 * @return false if there are not enough such tasks or the in-degree does not allow a fan-in
+	 */
+	private boolean fanIn() {
+		int[] candidates = sinks();
+		int maxPredecessors = Math.min(data.getTaskMaxDegrIn(), candidates.length);
+		if (maxPredecessors < 2) {
+			return false;
+		}
+		int predecessors = 2 + rnd.nextInt(maxPredecessors - 1);
+		int trg = addTask();
+		// partial shuffle to pick distinct predecessors
+		for (int i = 0; i < predecessors; i++) {
+			int k = i + rnd.nextInt(candidates.length - i);
+			int src = candidates[k];
+			candidates[k] = candidates[i];
+			candidates[i] = src;
+			addArc(src, trg);
+		}
+		return true;
+	}
+
+	/**
+	 * New TGFF algorithm: parallel series which rejoin or fork out.
+	 */
+	private void generateSeriesParallel(int targetTasks) {
+		List<Integer> open = new ArrayList<Integer>();
+		open.add(0);
+		while (numTasks < targetTasks) {
+			// expand an open task, or any task if no open task has free out-degree
+			List<Integer> expandable = new ArrayList<Integer>();
+			for (int task : open) {
+				if (outDegree[task] < data.getTaskMaxDegrOut()) {
+					expandable.add(task);
+				}
+			}
+			int src;
+			if (!expandable.isEmpty()) {
+				src = expandable.get(rnd.nextInt(expandable.size()));
+			} else {
+				int[] candidates = freeOutDegree();
+				src = candidates[rnd.nextInt(candidates.length)];
+			}
+			open.remove(Integer.valueOf(src));
+
+			int remaining = targetTasks - numTasks;
+			int width = clamp(vary(data.getParallelSeries(), data.getDiffParallelSeries()), 1,
+			    data.getTaskMaxDegrOut() - outDegree[src]);
+			boolean rejoin = data.isMustRejoin() || rnd.nextFloat() >= data.getForkOut();
+			if (rejoin && width > 1) {
+				width = Math.min(width, data.getTaskMaxDegrIn());
+			}
+			// a joining task is only worth it for parallel series
+			rejoin &= width > 1 && remaining > width;
+			int budget = remaining - (rejoin ? 1 : 0);
+
+			int[] ends = new int[width];
+			int numEnds = 0;
+			for (int c = 0; c < width && budget > 0; c++) {
+				int length = clamp(vary(data.getSeriesLen(), data.getDiffSeriesLen()), 1, budget - (width - c - 1));
+				int prev = src;
+				for (int l = 0; l < length; l++) {
+					int task = addTask();
+					addArc(prev, task);
+					prev = task;
+				}
+				budget -= length;
+				ends[numEnds++] = prev;
+			}
+
+			if (rejoin && numEnds > 1) {
+				int join = addTask();
+				for (int i = 0; i < numEnds; i++) {
+					addArc(ends[i], join);
+				}
+				open.add(join);
+			} else {
+				for (int i = 0; i < numEnds; i++) {
+					open.add(ends[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the tasks with free out-degree in order of their ids
+	 */
+	private int[] freeOutDegree() {
+		int[] candidates = new int[numTasks];
+		int numCandidates = 0;
+		for (int i = 0; i < numTasks; i++) {
+			if (outDegree[i] < data.getTaskMaxDegrOut()) {
+				candidates[numCandidates++] = i;
+			}
+		}
+		return Arrays.copyOf(candidates, numCandidates);
+	}
+
+	/**
+	 * @return the tasks without successors in order of their ids
+	 */
+	private int[] sinks() {
+		int[] candidates = new int[numTasks];
+		int numCandidates = 0;
+		for (int i = 0; i < numTasks; i++) {
+			if (outDegree[i] == 0) {
+				candidates[numCandidates++] = i;
+			}
+		}
+		return Arrays.copyOf(candidates, numCandidates);
+	}
+
+	private int addTask() {
+		return numTasks++;
+	}
+
+	private void addArc(int src, int trg) {
+		arcs.add(new int[] { src, trg });
+		outDegree[src]++;
+	}
+
+	/**
+	 * @return a value drawn uniformly from <tt>avg &plusmn; diff</tt>
+	 */
+	private int vary(int avg, int diff) {
+		diff = Math.abs(diff);
+		return avg - diff + rnd.nextInt(2 * diff + 1);
+	}
+
+	private static int clamp(int value, int min, int max) {
+		return Math.max(min, Math.min(value, max));
+	}
+}
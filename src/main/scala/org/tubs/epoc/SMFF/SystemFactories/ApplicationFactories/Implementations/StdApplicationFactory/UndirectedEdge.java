@@ -19,6 +19,8 @@ public class UndirectedEdge{
 	private String name;
 	private String label;
 	private LinkedList<Vertex> endVertices;
+	// index of this edge in the application graph it was inserted into
+	private int index;
 	
 	
 	/**
@@ -32,6 +34,7 @@ public class UndirectedEdge{
 		this.name = name;
 		label = "UNEXPLORED";
 		endVertices = new LinkedList<Vertex>();
+		index = -1;
 		
 		l.getAdj().add(r);
 		l.getIncidentEdges().add(this);
@@ -63,6 +66,22 @@ public class UndirectedEdge{
 		this.label = label;
 	}
 
+	/**
+	 * Getter method for the index of this edge in the application graph it was inserted into.
+	 * @return the index of this edge, <tt>-1</tt> if it has not been inserted into a graph
+	 */
+	int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Setter method for the index of this edge in its application graph.
+	 * @param index the index of this edge
+	 */
+	void setIndex(int index) {
+		this.index = index;
+	}
+
 	/**
 	 * Getter method for the end vertices of this edge.
 	 * <p>
@@ -22,6 +22,8 @@ public class Vertex {
 	private LinkedList<UndirectedEdge> incidentEdges;
 	private UndirectedEdge exploredFrom;
 	private LinkedList<DirectedEdge> incidentDirectedEdges;
+	// index of this vertex in the application graph it was inserted into
+	private int index;
 	
 	/**
 	 * Constructs an instance of a vertex.
@@ -38,6 +40,7 @@ public class Vertex {
 		directVertexAdj = new LinkedList<Vertex>();
 		label = "UNVISITED";
 		exploredFrom = null;
+		index = -1;
 	}
 	
 	/**
@@ -77,6 +80,22 @@ public class Vertex {
 		return id;
 	}
 	
+	/**
+	 * Getter method for the index of this vertex in the application graph it was inserted into.
+	 * @return the index of this vertex, <tt>-1</tt> if it has not been inserted into a graph
+	 */
+	int getIndex(){
+		return index;
+	}
+
+	/**
+	 * Setter method for the index of this vertex in its application graph.
+	 * @param index the index of this vertex
+	 */
+	void setIndex(int index){
+		this.index = index;
+	}
+
 	/**
 	 * Queries all the adjacent vertices of this vertex and returns it as a list.
 	 * @return the adjacent vertices of this vertex as a list.
@@ -1,17 +1,22 @@
 package org.tubs.epoc.SMFF.SystemFactories.Mappers.Implementations.StdMapper;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Random;
+import java.util.Set;
 
 import org.tubs.epoc.SMFF.ModelElements.SystemModel;
 import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
 import org.tubs.epoc.SMFF.ModelElements.Application.Task;
 import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
 import org.tubs.epoc.SMFF.ModelElements.Application.TaskLinkIdentifier;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
 import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
 import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.ResourceGraph;
 import org.tubs.epoc.SMFF.SystemFactories.Mappers.AbstractMapper;
 import org.tubs.epoc.SMFF.Utility.RandomSelection;
 
@@ -60,7 +65,7 @@ public class SensActMapper extends AbstractMapper{
     
     List<Task> startTasks = new LinkedList<Task>(); // list of all tasks with in-degree=0
     List<Task> endTasks = new LinkedList<Task>(); // list of all tasks with out-degree=0
-    List<Task> unmappedTasks = new LinkedList<Task>(app.getTaskList().values());
+    Set<Task> unmappedTasks = new HashSet<Task>(app.getTaskList().values());
     List<Task> mappedTasks = new LinkedList<Task>();
     
     // get start and end tasks
@@ -77,9 +82,9 @@ public class SensActMapper extends AbstractMapper{
     Task task;
     Task firstTask;
     firstTask = startTasks.get(0);
-    List<Resource> resources = new LinkedList<Resource>(systemModel.getResourceTable().values());
-    Resource firstResource = resources.get(rnd.nextInt(resources.size()));
-    app.mapTask(firstTask, firstResource);
+    ResourceCandidates candidates = new ResourceCandidates(app);
+    int firstResource = rnd.nextInt(candidates.resources.length);
+    candidates.mapTask(firstTask, firstResource);
     startTasks.remove(firstTask);
     for(TaskLinkIdentifier taskLinkId : firstTask.getSrcLinkList().values()){
       TaskLink taskLink = app.getTaskLink(taskLinkId);
@@ -93,37 +98,28 @@ public class SensActMapper extends AbstractMapper{
       task = endTasks.get(0);    
       // construct the set of all possible resources this task may be mapped on
       {
-        LinkedList<Resource> possibleResources = new LinkedList<Resource>(resources);
-        int taskDist = app.getDist(task, firstTask);
-        Resource mappedRes = (Resource) firstTask.getMappedTo();
-        ListIterator<Resource> listIt = possibleResources.listIterator();
-        while(listIt.hasNext()){
-          Resource possibleResource = listIt.next();
-          int resDist = systemModel.getResModel().getDistance(mappedRes, possibleResource);
-          if(taskDist < resDist){
-            listIt.remove();
-          }
-        }
+        int[] possibleResources = candidates.getPossibleResources(task, mappedTasks);
 
         int index;
-        if(possibleResources.size()==1){
+        if(possibleResources.length==1){
           index = 0;
         } else{
           // construct probability distribution for controlling picking of mappedTo resource
-          int[] mass = new int[possibleResources.size()];
+          int[] mass = new int[possibleResources.length];
           for(int i=0; i< mass.length; i++){
             mass[i]=10000;
           }
 
-          for(Resource res : possibleResources){
-            int dist = systemModel.getResModel().getDistance(firstResource, res);
+          int[] resDist = candidates.getDistances(firstResource);
+          for(int i=0; i< possibleResources.length; i++){
+            int dist = resDist[possibleResources[i]];
             for(int j=1; j<=dist; j++)
-              mass[possibleResources.indexOf(res)] = Math.max(1, (int)(mass[j]*mapperData.getKResDist()));
+              mass[i] = Math.max(1, (int)(mass[j]*mapperData.getKResDist()));
           }
           RandomSelection randSelector = new RandomSelection(mass, rnd.nextLong());
           index = randSelector.nextIndex();
         }
-        app.mapTask(task, possibleResources.get(index));
+        candidates.mapTask(task, possibleResources[index]);
         startTasks.remove(task);
         endTasks.remove(task);
         for(TaskLinkIdentifier taskLinkId : task.getTrgLinkList().values()){
@@ -151,74 +147,59 @@ public class SensActMapper extends AbstractMapper{
       }
       
       // construct the set of all possible resources this task may be mapped on
-      LinkedList<Resource> possibleResources = new LinkedList<Resource>(resources);
-      for(Task mappedTask : mappedTasks){
-        int taskDist = app.getDist(task, mappedTask);
-        Resource mappedRes = (Resource) mappedTask.getMappedTo();
-        ListIterator<Resource> listIt = possibleResources.listIterator();
-        while(listIt.hasNext()){
-          Resource possibleResource = listIt.next();
-          int resDist = systemModel.getResModel().getDistance(mappedRes, possibleResource);
-          if(taskDist < resDist){
-            listIt.remove();
-          }
-        }
-      }
+      int[] possibleResources = candidates.getPossibleResources(task, mappedTasks);
 
       int index;
-      if(possibleResources.size()==1){
+      if(possibleResources.length==1){
         index = 0;
       } else{
+        // resources of the predecessors and successors (-1 if not mapped yet)
+        int[] predecessorRes = new int[task.getTrgLinkList().size()];
+        int[] successorRes = new int[task.getSrcLinkList().size()];
+        int k=0;
+        for(TaskLinkIdentifier taskLinkId : task.getTrgLinkList().values()){
+          TaskLink taskLink = app.getTaskLink(taskLinkId);
+          predecessorRes[k++] = candidates.indexOf(app.getTask(taskLink.getSrcTaskId()).getMappedTo());
+        }
+        k=0;
+        for(TaskLinkIdentifier taskLinkId : task.getSrcLinkList().values()){
+          TaskLink taskLink = app.getTaskLink(taskLinkId);
+          successorRes[k++] = candidates.indexOf(app.getTask(taskLink.getTrgTaskId()).getMappedTo());
+        }
+
         // construct probability distribution for controlling picking of mappedTo resource
-        int[] mass = new int[possibleResources.size()];
+        int[] mass = new int[possibleResources.length];
         for(int i=0; i< mass.length; i++){
+          int res = possibleResources[i];
           mass[i]=10000;
-        }
-        
-        int i=0;
-        for(Resource res : possibleResources){
-          List<Task> connectedTasks = new LinkedList<Task>();
+          boolean connectedPresent = false;
           // add mass multiplier for predecessors
-          for(TaskLinkIdentifier taskLinkId : task.getTrgLinkList().values()){
-            TaskLink taskLink = app.getTaskLink(taskLinkId);
-            Task predecessor = app.getTask(taskLink.getSrcTaskId());
-            connectedTasks.add(predecessor);
-            if(res == predecessor.getMappedTo()){
+          for(int predRes : predecessorRes){
+            if(res == predRes){
               mass[i] = Math.max(1, (int)(mass[i]*mapperData.getKPredecessor()));
+              connectedPresent = true;
             }
           }
           // add mass multiplier for successors
-          for(TaskLinkIdentifier taskLinkId : task.getSrcLinkList().values()){
-            TaskLink taskLink = app.getTaskLink(taskLinkId);
-            Task successor = app.getTask(taskLink.getTrgTaskId());
-            connectedTasks.add(successor);
-            if(res == successor.getMappedTo()){
+          for(int succRes : successorRes){
+            if(res == succRes){
               mass[i] = Math.max(1, (int)(mass[i]*mapperData.getKSuccessor()));
-            }
-          }
-          // multiply masses for same application (except predecessor or successor)
-          boolean connectedPresent = false;
-          for(Task connectedTask : connectedTasks){
-            if(connectedTask.getMappedTo() == res){
               connectedPresent = true;
             }
           }
+          // multiply masses for same application (except predecessor or successor)
           if(!connectedPresent){
-            for(Task checkTask : app.getTaskList().values()){
-              if(!connectedTasks.contains(checkTask) && 
-                  checkTask.getMappedTo() == res){
-                mass[i] = Math.max(1, (int)(mass[i]*mapperData.getKSameApp()));
-              }
+            for(int j=candidates.getNumTasks(res); j>0; j--){
+              mass[i] = Math.max(1, (int)(mass[i]*mapperData.getKSameApp()));
             }
           }
-          i++;
         }
         RandomSelection randSelector = new RandomSelection(mass, rnd.nextLong());
         index = randSelector.nextIndex();
       }
 
       // now map the task on any of the possible resources
-      app.mapTask(task, possibleResources.get(index));
+      candidates.mapTask(task, possibleResources[index]);
       mappedTasks.add(task);
       unmappedTasks.remove(task);
       // and add its predecessors/successors to the next lists (and remove itself from them
@@ -271,4 +252,124 @@ public class SensActMapper extends AbstractMapper{
   public void recreateRndGens() {
     rnd = new Random(mapperData.getSeed());
   }
+
+  /**
+   * Resource bookkeeping of one {@link #map(ApplicationModel)} call. Resources are numbered in the order of the
+   * resource table, candidate sets are kept as arrays of these numbers in the same order.
+   */
+  private class ResourceCandidates {
+    private ApplicationModel app;
+    // dense resource numbering
+    private Resource[] resources;
+    private HashMap<AbstractResource, Integer> resIndex;
+    // resource distance rows, computed on demand
+    private int[][] resDist;
+    // number of tasks of the application mapped on each resource
+    private int[] numTasks;
+    // smallest task distance to a mapped task per resource (-1 if no task is mapped on it)
+    private int[] taskDist;
+    private int[] usedRes;
+
+    ResourceCandidates(ApplicationModel app){
+      this.app = app;
+      resources = systemModel.getResourceTable().values().toArray(new Resource[0]);
+      resIndex = new HashMap<AbstractResource, Integer>(2*resources.length);
+      for(int i=0; i<resources.length; i++){
+        resIndex.put(resources[i], i);
+      }
+      resDist = new int[resources.length][];
+      numTasks = new int[resources.length];
+      taskDist = new int[resources.length];
+      Arrays.fill(taskDist, -1);
+      usedRes = new int[resources.length];
+      for(Task task : app.getTaskList().values()){
+        int res = indexOf(task.getMappedTo());
+        if(res >= 0) numTasks[res]++;
+      }
+    }
+
+    /**
+     * @return the number of the resource, -1 if the resource is null or not part of the platform
+     */
+    int indexOf(AbstractResource resource){
+      Integer index = resource == null ? null : resIndex.get(resource);
+      return index == null ? -1 : index;
+    }
+
+    /**
+     * @return the number of tasks of the application mapped on the resource
+     */
+    int getNumTasks(int res){
+      return numTasks[res];
+    }
+
+    /**
+     * @return the distances from the resource to all resources
+     */
+    int[] getDistances(int res){
+      int[] dist = resDist[res];
+      if(dist == null){
+        dist = new int[resources.length];
+        ResourceGraph resModel = systemModel.getResModel();
+        for(int i=0; i<resources.length; i++){
+          dist[i] = resModel.getDistance(resources[res], resources[i]);
+        }
+        resDist[res] = dist;
+      }
+      return dist;
+    }
+
+    /**
+     * Maps the task and keeps the task count of the resources up to date.
+     */
+    void mapTask(Task task, int res){
+      int oldRes = indexOf(task.getMappedTo());
+      if(oldRes >= 0) numTasks[oldRes]--;
+      app.mapTask(task, resources[res]);
+      numTasks[res]++;
+    }
+
+    /**
+     * Returns all resources the task may be mapped on. A resource is excluded if it is further away from the resource
+     * of a mapped task than the task is from that mapped task. Only the closest mapped task per resource has to be
+     * checked, so the candidates are narrowed once per used resource instead of once per mapped task.
+     *
+     * @param task task to be mapped
+     * @param mappedTasks tasks mapped so far
+     * @return numbers of the possible resources in resource table order
+     */
+    int[] getPossibleResources(Task task, List<Task> mappedTasks){
+      int numUsed = 0;
+      for(Task mappedTask : mappedTasks){
+        int res = indexOf(mappedTask.getMappedTo());
+        int dist = app.getDist(task, mappedTask);
+        if(taskDist[res] < 0){
+          usedRes[numUsed++] = res;
+          taskDist[res] = dist;
+        } else if(dist < taskDist[res]){
+          taskDist[res] = dist;
+        }
+      }
+
+      int[] possibleResources = new int[resources.length];
+      for(int i=0; i<possibleResources.length; i++){
+        possibleResources[i] = i;
+      }
+      int numPossible = possibleResources.length;
+      for(int i=0; i<numUsed; i++){
+        int res = usedRes[i];
+        int[] dist = getDistances(res);
+        int maxDist = taskDist[res];
+        int k = 0;
+        for(int j=0; j<numPossible; j++){
+          if(dist[possibleResources[j]] <= maxDist){
+            possibleResources[k++] = possibleResources[j];
+          }
+        }
+        numPossible = k;
+        taskDist[res] = -1;
+      }
+      return Arrays.copyOf(possibleResources, numPossible);
+    }
+  }
 }
@@ -96,8 +96,11 @@ public class StdPlatformFactory extends AbstractPlatformFactory{
       int usedRes = rnd.nextInt(numResources);
       adjMatrix[i][usedRes] = true;
       adjMatrix[i+1][usedRes] = true;
-      logger.info("iteration " + i + ":");
-      printAdjacencyMatrix(adjMatrix);
+      // dumping the whole matrix in every iteration is cubic in the platform size
+      if(logger.isTraceEnabled()){
+        logger.trace("iteration " + i + ":");
+        printAdjacencyMatrix(adjMatrix);
+      }
     }
 
 
@@ -0,0 +1,302 @@
+package org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.Implementations.OptimalPriorityAssigner;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.tubs.epoc.SMFF.Analysis.NotSchedulableException;
+import org.tubs.epoc.SMFF.Analysis.SPPAnalysis;
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.PJdTimingBehavior;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractSchedulingParameter;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.SchedulingPriority;
+
+/**
+ * This priority assigner uses Audsley's optimal priority assignment to meet the local deadlines of the tasks/task links.
+ * <p>
+ * Starting from deadline monotonic priorities, the system is analyzed with the {@link SPPAnalysis}. Then the
+ * priorities of each resource are assigned again from the lowest to the highest: each level gets the first element
+ * (in order of decreasing deadline) which meets its deadline at that level, assuming that all elements without a level
+ * yet have a higher priority. If no element qualifies the one with the largest deadline is taken. The test of a
+ * candidate computes its response time with the busy window approach on the input event models of the last analysis.
+ * The interference of all remaining elements is the same for all candidates of a level, so it is computed once per
+ * busy window size and only the candidate's own share is subtracted. As the input event models depend on the
+ * priorities, analysis and assignment are repeated until all deadlines are met, the priorities do not change anymore
+ * or the maximum number of rounds is reached.
+ * <p>
+ * Only the elements which had no valid priority before are reordered, among the priorities they were assigned. The
+ * analysis results of the last round remain in the system model.
+ *
+ * @see MonotonicPriorityAssigner
+ */
+public class AudsleyPriorityAssigner extends DeadlineMonotonicPriorityAssigner{
+  private static Log logger = LogFactory.getLog(AudsleyPriorityAssigner.class);
+
+  /**
+   * ID of this factory.
+   */
+  public static final String IDENTIFIER = "SystemData AudsleyPriorityAssigner";
+
+  // busy windows beyond this bound are considered unbounded (as in the analysis)
+  private static final long HORIZON = Integer.MAX_VALUE;
+  private static final int MAX_ACTIVATIONS = 1000;
+
+  private AudsleyPriorityAssignerData priorityAssignerData;
+  // elements which were assigned priorities in deadline monotonic order and their priorities for each resource
+  private Map<AbstractResource, SchedulableElement[]> assignedElems;
+  private Map<AbstractResource, int[]> assignedPrios;
+  private int analysisRuns;
+
+  /**
+   * Creates an instance of this class.
+   * @param systemModel system model
+   * @param priorityAssignerData priority assigner data
+   */
+  public AudsleyPriorityAssigner(SystemModel systemModel, AudsleyPriorityAssignerData priorityAssignerData){
+    super(systemModel, priorityAssignerData);
+    this.priorityAssignerData = priorityAssignerData;
+  }
+
+  /**
+   * Assigns priorities to task/task links without a valid priority such that as many local deadlines as possible are
+   * met.
+   * @throws IllegalStateException if the system cannot be analyzed, e.g. because an element is not mapped or a resource
+   * has no SPP scheduler
+   */
+  @Override
+  public void assignPriorities(){
+    assignedElems = new LinkedHashMap<AbstractResource, SchedulableElement[]>();
+    assignedPrios = new LinkedHashMap<AbstractResource, int[]>();
+    analysisRuns = 0;
+    super.assignPriorities();
+
+    for(int round=1; round<=priorityAssignerData.getMaxRounds() && !assignedElems.isEmpty(); round++){
+      boolean analyzed = analyze();
+      if(analyzed && deadlinesMet()){
+        logger.debug("all deadlines met after " + round + " rounds");
+        break;
+      }
+      boolean changed = false;
+      for(AbstractResource res : assignedElems.keySet()){
+        changed |= reassignPriorities(res, analyzed);
+      }
+      if(!changed){
+        logger.debug("priorities did not change in round " + round);
+        break;
+      }
+    }
+  }
+
+  @Override
+  protected void assignedPriorities(AbstractResource res, List<SchedulableElement> schedElems, int[] prios){
+    assignedElems.put(res, schedElems.toArray(new SchedulableElement[schedElems.size()]));
+    assignedPrios.put(res, prios);
+  }
+
+  /**
+   * @return number of analyses run by the last priority assignment
+   */
+  public int getAnalysisRuns() {
+    return analysisRuns;
+  }
+
+  /**
+   * Getter method to fetch the priority assigner data attached to this factory.
+   *
+   * @return the priority assigner data attached to this factory
+   */
+  @Override
+  public AudsleyPriorityAssignerData getPriorityAssignerData() {
+    return priorityAssignerData;
+  }
+
+  /**
+   * Analyzes the system with the current priorities.
+   * @return true if the analysis succeeded, false if the system is not schedulable
+   */
+  private boolean analyze(){
+    analysisRuns++;
+    try{
+      new SPPAnalysis(systemModel).analyze();
+      return true;
+    } catch(NotSchedulableException e){
+      logger.debug("analysis failed: " + e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * @return true if all elements on the resources with reassigned priorities meet their deadlines
+   */
+  private boolean deadlinesMet(){
+    for(AbstractResource res : assignedElems.keySet()){
+      for(SchedulableElement schedElem : getSchedElems(res)){
+        if(schedElem.getWCRT() > getDeadline(schedElem)) return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reassigns the priorities of the elements of a resource with Audsley's algorithm.
+   * @param res resource
+   * @param analyzed true if the input event models of the last analysis are available, else the elements are assumed
+   * to be activated strictly periodically
+   * @return true if a priority changed
+   */
+  private boolean reassignPriorities(AbstractResource res, boolean analyzed){
+    SchedulableElement[] movableElems = assignedElems.get(res);
+    int[] prios = assignedPrios.get(res);
+    List<SchedulableElement> schedElems = getSchedElems(res);
+
+    // event models of all elements of the resource, the movable elements first
+    int n = schedElems.size();
+    ResourceElements elems = new ResourceElements(n);
+    HashMap<SchedulableElement, Integer> movable = new HashMap<SchedulableElement, Integer>();
+    for(int i=0; i<movableElems.length; i++){
+      movable.put(movableElems[i], i);
+      elems.add(movableElems[i], -1, analyzed);
+    }
+    for(SchedulableElement schedElem : schedElems){
+      if(!movable.containsKey(schedElem)){
+        elems.add(schedElem, getPriority(schedElem), analyzed);
+      }
+    }
+
+    int[] newPrios = new int[movableElems.length];
+    boolean[] assigned = new boolean[movableElems.length];
+    int[] interferers = new int[n];
+    HashMap<Long, Long> interference = new HashMap<Long, Long>();
+    for(int level=prios.length-1; level>=0; level--){
+      // fixed elements with a higher priority and all movable elements without a level interfere
+      int numInterferers = 0;
+      for(int i=0; i<n; i++){
+        if(i<movableElems.length ? !assigned[i] : elems.prio[i]<prios[level]){
+          interferers[numInterferers++] = i;
+        }
+      }
+      interference.clear();
+
+      int chosen = -1;
+      int fallback = -1;
+      for(int i=movableElems.length-1; i>=0 && chosen<0; i--){
+        if(assigned[i]) continue;
+        if(fallback<0) fallback = i;
+        if(elems.meetsDeadline(i, interferers, numInterferers, interference)){
+          chosen = i;
+        }
+      }
+      if(chosen<0) chosen = fallback;
+      newPrios[chosen] = prios[level];
+      assigned[chosen] = true;
+    }
+
+    boolean changed = false;
+    for(int i=0; i<movableElems.length; i++){
+      if(getPriority(movableElems[i]) != newPrios[i]){
+        movableElems[i].setSchedulingParameter(new SchedulingPriority(newPrios[i]));
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * @param schedElem schedulable element
+   * @return the priority of the element or -1 if it has none
+   */
+  private static int getPriority(SchedulableElement schedElem){
+    AbstractSchedulingParameter schedParam = schedElem.getSchedulingParameter();
+    if(schedParam instanceof SchedulingPriority){
+      return ((SchedulingPriority) schedParam).getPriority();
+    }
+    return -1;
+  }
+
+  /**
+   * Event models, execution times and deadlines of the elements of one resource for the schedulability test.
+   */
+  private class ResourceElements {
+    private int n;
+    private int[] prio;
+    private long[] period;
+    private long[] jitter;
+    private long[] dmin;
+    private long[] wcet;
+    private double[] deadline;
+
+    private ResourceElements(int capacity){
+      prio = new int[capacity];
+      period = new long[capacity];
+      jitter = new long[capacity];
+      dmin = new long[capacity];
+      wcet = new long[capacity];
+      deadline = new double[capacity];
+    }
+
+    private void add(SchedulableElement schedElem, int prio, boolean analyzed){
+      this.prio[n] = prio;
+      if(analyzed && schedElem.getInputBehavior() instanceof PJdTimingBehavior){
+        PJdTimingBehavior input = (PJdTimingBehavior) schedElem.getInputBehavior();
+        period[n] = input.getPeriod();
+        jitter[n] = input.getJitter();
+        dmin[n] = input.getDmin();
+      } else{
+        period[n] = getPeriod(schedElem);
+      }
+      wcet[n] = schedElem.getWCET();
+      deadline[n] = getDeadline(schedElem);
+      n++;
+    }
+
+    /**
+     * Tests whether an element meets its deadline if the given elements (including itself) have a higher priority.
+     * The busy window of q activations is the fixed point of q*WCET plus the interference of the other elements.
+     * @param interference cache of the interference of all given elements for each window size
+     */
+    private boolean meetsDeadline(int i, int[] interferers, int numInterferers, HashMap<Long, Long> interference){
+      for(long q=1; q<=MAX_ACTIVATIONS; q++){
+        long busyWindow = q*wcet[i];
+        while(true){
+          Long sum = interference.get(busyWindow);
+          if(sum == null){
+            sum = 0L;
+            for(int k=0; k<numInterferers; k++){
+              int j = interferers[k];
+              sum += etaPlus(j, busyWindow)*wcet[j];
+              // the busy window exceeds the horizon, the incomplete sum is not cached
+              if(sum > HORIZON) return false;
+            }
+            interference.put(busyWindow, sum);
+          }
+          long next = q*wcet[i]+sum-etaPlus(i, busyWindow)*wcet[i];
+          if(next > HORIZON) return false;
+          if(next == busyWindow) break;
+          busyWindow = next;
+        }
+        if(busyWindow-deltaMin(i, q) > deadline[i]) return false;
+        if(busyWindow <= deltaMin(i, q+1)) return true;
+      }
+      return false;
+    }
+
+    private long etaPlus(int i, long delta){
+      if(delta <= 0) return 0;
+      long events = (delta+jitter[i]+period[i]-1)/period[i];
+      if(dmin[i] > 0){
+        events = Math.min(events, (delta+dmin[i]-1)/dmin[i]);
+      }
+      return events;
+    }
+
+    private long deltaMin(int i, long q){
+      if(q < 2) return 0;
+      return Math.max((q-1)*period[i]-jitter[i], (q-1)*dmin[i]);
+    }
+  }
+}
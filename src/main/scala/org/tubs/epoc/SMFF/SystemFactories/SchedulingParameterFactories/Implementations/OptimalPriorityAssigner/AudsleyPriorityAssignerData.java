@@ -0,0 +1,45 @@
+package org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.Implementations.OptimalPriorityAssigner;
+
+import org.jdom2.Element;
+
+/**
+ * Assigner data of the Audsley priority assigner.
+ *
+ *  @see AudsleyPriorityAssigner
+ */
+public class AudsleyPriorityAssignerData extends MonotonicPriorityAssignerData{
+  // Parameters
+  int maxRounds;      // maximum number of rounds of analysis and assignment
+
+  /**
+   * Constructor for the Audsley priority assigner.
+   * @param maxRounds maximum number of rounds of analysis and priority assignment
+   * @throws IllegalArgumentException if <tt>maxRounds</tt> &lt 1
+   */
+  public AudsleyPriorityAssignerData(int maxRounds) {
+    super();
+
+    if(maxRounds < 1) throw new IllegalArgumentException("maxRounds < 1");
+
+    this.maxRounds = maxRounds;
+  }
+
+  /**
+   * Getter method for the maximum number of rounds of analysis and priority assignment.
+   * @return the maximum number of rounds
+   */
+  public int getMaxRounds(){
+    return maxRounds;
+  }
+
+  /**
+   * Writes the factory data to XML.
+   * @return the data as XML element.
+   */
+  @Override
+  public Element toXML(){
+    Element root = super.toXML();
+    root.setAttribute("maxRounds", String.valueOf(this.maxRounds));
+    return root;
+  }
+}
@@ -0,0 +1,43 @@
+package org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.Implementations.OptimalPriorityAssigner;
+
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+
+/**
+ * This priority assigner assigns deadline monotonic priorities: the shorter the local deadline of a task/task link, the
+ * higher its priority.
+ *
+ * @see MonotonicPriorityAssigner
+ */
+public class DeadlineMonotonicPriorityAssigner extends MonotonicPriorityAssigner{
+  /**
+   * ID of this factory.
+   */
+  public static final String IDENTIFIER = "SystemData DeadlineMonotonicPriorityAssigner";
+
+  private MonotonicPriorityAssignerData priorityAssignerData;
+
+  /**
+   * Creates an instance of this class.
+   * @param systemModel system model
+   * @param priorityAssignerData priority assigner data
+   */
+  public DeadlineMonotonicPriorityAssigner(SystemModel systemModel, MonotonicPriorityAssignerData priorityAssignerData){
+    super(systemModel);
+    this.priorityAssignerData = priorityAssignerData;
+  }
+
+  @Override
+  protected double getPriorityKey(SchedulableElement schedElem){
+    return getDeadline(schedElem);
+  }
+
+  /**
+   * Getter method to fetch the priority assigner data attached to this factory.
+   * 
+   * @return the priority assigner data attached to this factory
+   */
+  public MonotonicPriorityAssignerData getPriorityAssignerData() {
+    return priorityAssignerData;
+  }
+}
@@ -0,0 +1,176 @@
+package org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.Implementations.OptimalPriorityAssigner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.AbstractSchedulingParameter;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.SPPScheduler;
+import org.tubs.epoc.SMFF.ModelElements.Scheduling.SchedulingPriority;
+import org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.AbstractPriorityAssigner;
+
+/**
+ * Base class of priority assigners which order the tasks/task links of each resource with an SPP scheduler by a key
+ * derived from their timing, the smallest key receiving the highest priority. Like the random priority assigners only
+ * elements without a valid priority (none or one below 1, as left by {@link #resetPriorities()}) are assigned one,
+ * using the priorities not yet taken on the resource. Equal keys are ordered by application and element id.
+ * <p>
+ * Periods and deadlines are derived from the activation patterns, worst case execution times and latency constraints
+ * of the applications, so timings and constraints must have been generated before. Each latency constraint is split
+ * among the elements on its paths in proportion to their worst case execution times, elements without a constraint have
+ * their period as deadline.
+ *
+ */
+public abstract class MonotonicPriorityAssigner extends AbstractPriorityAssigner{
+  private static final Comparator<ApplicationModel> APP_ID_ORDER = new Comparator<ApplicationModel>() {
+    public int compare(ApplicationModel a, ApplicationModel b) {
+      return a.getAppId() < b.getAppId() ? -1 : (a.getAppId() == b.getAppId() ? 0 : 1);
+    }
+  };
+  private static final Comparator<SchedulableElement> ELEM_ID_ORDER = new Comparator<SchedulableElement>() {
+    public int compare(SchedulableElement a, SchedulableElement b) {
+      return a.getElemId() < b.getElemId() ? -1 : (a.getElemId() == b.getElemId() ? 0 : 1);
+    }
+  };
+
+  private TimingRequirements timingRequirements;
+
+  /**
+   * Creates an instance of this class.
+   * @param systemModel system model
+   */
+  public MonotonicPriorityAssigner(SystemModel systemModel){
+    super(systemModel);
+  }
+
+  /**
+   * Assigns priorities to task/task links without a valid priority in the order of their keys.
+   */
+  public void assignPriorities(){
+    timingRequirements = new TimingRequirements(systemModel);
+    for(AbstractResource res : systemModel.getAllRes()){
+      if(!(res.getScheduler() instanceof SPPScheduler)){
+        continue;
+      }
+      List<SchedulableElement> schedElems = getSchedElems(res);
+
+      // collect prioless elements and used priorities
+      List<SchedulableElement> priolessElems = new ArrayList<SchedulableElement>();
+      int[] usedPrios = new int[schedElems.size()];
+      int numUsedPrios = 0;
+      for(SchedulableElement schedElem : schedElems){
+        AbstractSchedulingParameter schedParam = schedElem.getSchedulingParameter();
+        if(schedParam != null && schedParam instanceof SchedulingPriority && ((SchedulingPriority)schedParam).getPriority()>0){
+          usedPrios[numUsedPrios++] = ((SchedulingPriority)schedParam).getPriority();
+        } else{
+          priolessElems.add(schedElem);
+        }
+      }
+      if(priolessElems.isEmpty()){
+        continue;
+      }
+
+      // assemble list of free priorities
+      Arrays.sort(usedPrios, 0, numUsedPrios);
+      int[] freePrios = new int[priolessElems.size()];
+      int u = 0;
+      for(int j=1, i=0; i<freePrios.length; j++){
+        while(u<numUsedPrios && usedPrios[u]<j){
+          u++;
+        }
+        if(u==numUsedPrios || usedPrios[u]!=j){
+          freePrios[i++] = j;
+        }
+      }
+
+      // the smallest key receives the highest priority
+      Collections.sort(priolessElems, new Comparator<SchedulableElement>() {
+        public int compare(SchedulableElement a, SchedulableElement b) {
+          return Double.compare(getPriorityKey(a), getPriorityKey(b));
+        }
+      });
+      for(int i=0; i<freePrios.length; i++){
+        priolessElems.get(i).setSchedulingParameter(new SchedulingPriority(freePrios[i]));
+      }
+      assignedPriorities(res, priolessElems, freePrios);
+    }
+  }
+
+  /**
+   * Returns the key which orders the elements of a resource, the smallest key receiving the highest priority.
+   * @param schedElem task or task link
+   * @return the key of the element
+   */
+  protected abstract double getPriorityKey(SchedulableElement schedElem);
+
+  /**
+   * Called after the prioless elements of a resource were assigned priorities. Does nothing by default.
+   * @param res resource with an SPP scheduler
+   * @param schedElems the elements which were assigned priorities in order of their keys
+   * @param prios the assigned priorities in increasing order
+   */
+  protected void assignedPriorities(AbstractResource res, List<SchedulableElement> schedElems, int[] prios){
+  }
+
+  /**
+   * The assignment is deterministic, so there are no random generators to recreate.
+   */
+  public void recreateRndGens() {
+  }
+
+  /**
+   * @param schedElem task or task link
+   * @return the period of the element or <tt>Integer.MAX_VALUE</tt> if it is not activated periodically
+   */
+  protected int getPeriod(SchedulableElement schedElem){
+    return timingRequirements.getPeriod(schedElem);
+  }
+
+  /**
+   * @param schedElem task or task link
+   * @return the local deadline of the element
+   */
+  protected double getDeadline(SchedulableElement schedElem){
+    return timingRequirements.getDeadline(schedElem);
+  }
+
+  /**
+   * Returns the elements scheduled on a resource, i.e. tasks on a resource or task links on a communication resource,
+   * ordered by application and element id.
+   * @param res resource
+   * @return the scheduled elements
+   */
+  protected List<SchedulableElement> getSchedElems(AbstractResource res){
+    List<ApplicationModel> apps = new ArrayList<ApplicationModel>(res.getMappedApps());
+    Collections.sort(apps, APP_ID_ORDER);
+
+    List<SchedulableElement> schedElems = new ArrayList<SchedulableElement>();
+    for(ApplicationModel app : apps){
+      Collection<SchedulableElement> mappedElems = res.getMappedAppSchedElems(app);
+      if(mappedElems == null || systemModel.getApplication(app.getAppId()) != app){
+        continue;
+      }
+      List<SchedulableElement> appElems = new ArrayList<SchedulableElement>();
+      for(SchedulableElement schedElem : mappedElems){
+        if(schedElem.getMappedTo() == res && TimingRequirements.isScheduled(schedElem)){
+          appElems.add(schedElem);
+        }
+      }
+      Collections.sort(appElems, ELEM_ID_ORDER);
+      for(int i=0; i<appElems.size(); i++){
+        // skip elements listed more than once
+        if(i==0 || appElems.get(i) != appElems.get(i-1)){
+          schedElems.add(appElems.get(i));
+        }
+      }
+    }
+    return schedElems;
+  }
+}
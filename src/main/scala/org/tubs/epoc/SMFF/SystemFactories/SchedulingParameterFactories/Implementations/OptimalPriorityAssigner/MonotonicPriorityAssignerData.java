@@ -0,0 +1,34 @@
+package org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.Implementations.OptimalPriorityAssigner;
+
+import org.jdom2.Element;
+import org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.AbstractPriorityAssignerData;
+
+/**
+ * Assigner data of the deadline and rate monotonic priority assigners. The assignment is deterministic, so the seed is
+ * not used.
+ * 
+ *  @see DeadlineMonotonicPriorityAssigner
+ *  @see RateMonotonicPriorityAssigner
+ */
+public class MonotonicPriorityAssignerData extends AbstractPriorityAssignerData{
+
+  /**
+   * Constructor for monotonic priority assigners.
+   */
+  public MonotonicPriorityAssignerData() {
+    super(0);
+  }
+    
+  /**
+   * Writes the factory data to XML.
+   * @return the data as XML element.
+   */
+  @Override
+  public Element toXML(){
+    Element root = new Element("PriorityAssigner");
+    
+    root.setAttribute("classname", this.getClass().getName());
+    root.setAttribute("seed", String.valueOf(this.seed));
+    return root;
+  }
+}
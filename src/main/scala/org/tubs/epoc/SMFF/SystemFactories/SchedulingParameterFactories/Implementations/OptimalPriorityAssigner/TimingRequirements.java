@@ -0,0 +1,188 @@
+package org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.Implementations.OptimalPriorityAssigner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.tubs.epoc.SMFF.ModelElements.SystemModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.Profile;
+import org.tubs.epoc.SMFF.ModelElements.Application.SchedulableElement;
+import org.tubs.epoc.SMFF.ModelElements.Application.SysLatencyConstraint;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
+import org.tubs.epoc.SMFF.ModelElements.Application.TaskLinkIdentifier;
+import org.tubs.epoc.SMFF.ModelElements.Platform.AbstractResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.CommResource;
+import org.tubs.epoc.SMFF.ModelElements.Platform.Resource;
+import org.tubs.epoc.SMFF.ModelElements.Timing.PJActivation;
+
+/**
+ * Periods and local deadlines of the tasks and task links of a system as used for priority assignment.
+ * <p>
+ * The period of an element is the period of its own PJ activation or else the one of the first source task of its
+ * application (assuming AND activation and equal periods). The deadline of an element is its period unless it lies on
+ * a path of a latency constraint. Each constraint is split among the scheduled elements between its start and end
+ * task in proportion to their worst case execution times, relative to the path with the largest sum of worst case
+ * execution times. The smallest share of all constraints is the deadline, so meeting all local deadlines meets all
+ * latency constraints.
+ *
+ */
+class TimingRequirements {
+  private IdentityHashMap<SchedulableElement, Integer> periods = new IdentityHashMap<SchedulableElement, Integer>();
+  private IdentityHashMap<SchedulableElement, Double> deadlines = new IdentityHashMap<SchedulableElement, Double>();
+
+  /**
+   * Derives the periods and deadlines of all elements of the system.
+   * @param systemModel system model
+   */
+  TimingRequirements(SystemModel systemModel){
+    for(ApplicationModel app : systemModel.getApplications()){
+      addApplication(app);
+    }
+  }
+
+  /**
+   * @param schedElem task or task link
+   * @return the period of the element or <tt>Integer.MAX_VALUE</tt> if it is not activated periodically
+   */
+  int getPeriod(SchedulableElement schedElem){
+    Integer period = periods.get(schedElem);
+    return period == null ? Integer.MAX_VALUE : period;
+  }
+
+  /**
+   * @param schedElem task or task link
+   * @return the local deadline of the element
+   */
+  double getDeadline(SchedulableElement schedElem){
+    Double deadline = deadlines.get(schedElem);
+    return deadline == null ? getPeriod(schedElem) : deadline;
+  }
+
+  /**
+   * @param schedElem task or task link
+   * @return true if the element is scheduled on its resource, i.e. a task on a resource or a task link on a
+   * communication resource
+   */
+  static boolean isScheduled(SchedulableElement schedElem){
+    AbstractResource res = schedElem.getMappedTo();
+    return (schedElem instanceof Task && res instanceof Resource) ||
+        (schedElem instanceof TaskLink && res instanceof CommResource);
+  }
+
+  private void addApplication(ApplicationModel app){
+    // number the elements of the application and order them topologically
+    List<SchedulableElement> elems = new ArrayList<SchedulableElement>();
+    IdentityHashMap<SchedulableElement, Integer> indices = new IdentityHashMap<SchedulableElement, Integer>();
+    for(Task task : app.getTaskList().values()){
+      indices.put(task, elems.size());
+      elems.add(task);
+    }
+    for(TaskLink taskLink : app.getTaskLinkList().values()){
+      indices.put(taskLink, elems.size());
+      elems.add(taskLink);
+    }
+    int n = elems.size();
+    int[][] successors = new int[n][];
+    int[] numPredecessors = new int[n];
+    for(int i=0; i<n; i++){
+      SchedulableElement schedElem = elems.get(i);
+      if(schedElem instanceof Task){
+        Task task = (Task) schedElem;
+        successors[i] = new int[task.getSrcLinkList().size()];
+        int j = 0;
+        for(TaskLinkIdentifier taskLinkId : task.getSrcLinkList().values()){
+          successors[i][j++] = index(indices, app.getTaskLink(taskLinkId));
+        }
+      } else{
+        successors[i] = new int[] { index(indices, app.getTask(((TaskLink) schedElem).getTrgTaskId())) };
+      }
+      for(int successor : successors[i]){
+        numPredecessors[successor]++;
+      }
+    }
+    int[] order = new int[n];
+    int numOrdered = 0;
+    for(int i=0; i<n; i++){
+      if(numPredecessors[i]==0) order[numOrdered++] = i;
+    }
+    for(int k=0; k<numOrdered; k++){
+      for(int successor : successors[order[k]]){
+        if(--numPredecessors[successor]==0) order[numOrdered++] = successor;
+      }
+    }
+    if(numOrdered != n) throw new IllegalStateException("application " + app.getAppId() + " contains a cycle");
+
+    // periods
+    Integer appPeriod = null;
+    for(Task task : app.getTaskList().values()){
+      if(task.getTrgLinkList().size()==0 && getActivationPeriod(task) != null){
+        appPeriod = getActivationPeriod(task);
+        break;
+      }
+    }
+    long[] wcets = new long[n];
+    for(int i=0; i<n; i++){
+      SchedulableElement schedElem = elems.get(i);
+      Integer period = getActivationPeriod(schedElem);
+      if(period == null) period = appPeriod;
+      if(period != null) periods.put(schedElem, period);
+      wcets[i] = isScheduled(schedElem) && schedElem.getActiveProfile() != null ? schedElem.getWCET() : 0;
+    }
+
+    // split the latency constraints
+    long[] pathWcets = new long[n];
+    boolean[] reachesEnd = new boolean[n];
+    for(SysLatencyConstraint constraint : app.getConstraints().values()){
+      Integer start = indices.get(constraint.getStartTask());
+      Integer end = indices.get(constraint.getEndTask());
+      if(start == null || end == null) continue;
+
+      // largest sum of wcets on a path from the start task to each element (-1 if not reachable)
+      Arrays.fill(pathWcets, -1);
+      pathWcets[start] = wcets[start];
+      for(int k=0; k<n; k++){
+        int i = order[k];
+        if(pathWcets[i] < 0) continue;
+        for(int successor : successors[i]){
+          pathWcets[successor] = Math.max(pathWcets[successor], pathWcets[i]+wcets[successor]);
+        }
+      }
+      if(pathWcets[end] <= 0) continue;
+
+      Arrays.fill(reachesEnd, false);
+      reachesEnd[end] = true;
+      for(int k=n-1; k>=0; k--){
+        int i = order[k];
+        for(int successor : successors[i]){
+          reachesEnd[i] |= reachesEnd[successor];
+        }
+      }
+
+      double latencyPerWcet = constraint.getLatencyConstr()/pathWcets[end];
+      for(int i=0; i<n; i++){
+        if(pathWcets[i] >= 0 && reachesEnd[i] && wcets[i] > 0){
+          SchedulableElement schedElem = elems.get(i);
+          double deadline = Math.min(getDeadline(schedElem), latencyPerWcet*wcets[i]);
+          deadlines.put(schedElem, deadline);
+        }
+      }
+    }
+  }
+
+  private static int index(IdentityHashMap<SchedulableElement, Integer> indices, SchedulableElement schedElem){
+    Integer index = indices.get(schedElem);
+    if(index == null) throw new IllegalStateException("task link refers to a task of another application");
+    return index;
+  }
+
+  private static Integer getActivationPeriod(SchedulableElement schedElem){
+    Profile profile = schedElem.getActiveProfile();
+    if(profile != null && profile.getActivationPattern() instanceof PJActivation){
+      return ((PJActivation) profile.getActivationPattern()).getActivationPeriod();
+    }
+    return null;
+  }
+}
@@ -1,11 +1,12 @@
 package org.tubs.epoc.SMFF.SystemFactories.SchedulingParameterFactories.Implementations.TaskChainPriorityAssigner;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Random;
-import java.util.SortedMap;
-import java.util.SortedSet;
-import java.util.TreeMap;
-import java.util.TreeSet;
 
 import org.tubs.epoc.SMFF.ModelElements.SystemModel;
 import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
@@ -33,6 +34,17 @@ public class TaskChainPriorityAssigner extends AbstractPriorityAssigner{
 	 */
   public static final String IDENTIFIER = "SystemData StdPriorityAssigner";
   
+  private static final Comparator<ApplicationModel> APP_ID_ORDER = new Comparator<ApplicationModel>() {
+    public int compare(ApplicationModel a, ApplicationModel b) {
+      return a.getAppId() < b.getAppId() ? -1 : (a.getAppId() == b.getAppId() ? 0 : 1);
+    }
+  };
+  private static final Comparator<SchedulableElement> ELEM_ID_ORDER = new Comparator<SchedulableElement>() {
+    public int compare(SchedulableElement a, SchedulableElement b) {
+      return a.getElemId() < b.getElemId() ? -1 : (a.getElemId() == b.getElemId() ? 0 : 1);
+    }
+  };
+
   private TaskChainPriorityAssignerData priorityAssignerData;
   private Random rnd;
 
@@ -53,90 +65,96 @@ public class TaskChainPriorityAssigner extends AbstractPriorityAssigner{
   public void assignPriorities(){
     // first go through all resources to assign priorities for tasks
     for(AbstractResource res : systemModel.getAllRes()){
-      SortedSet<Integer> usedPrios = new TreeSet<Integer>();
-      SortedSet<Integer> freePrios = new TreeSet<Integer>();
-      int numPriolessElems = 0;
-      SortedMap<Integer, SortedMap<Integer,SchedulableElement>> appPriolessSchedElemMap = new TreeMap<Integer, SortedMap<Integer,SchedulableElement>>();
-      int numElems = 0;
+      assignPriorities(res);
+    }
+  }
 
-      // init lists
-      // go through all applications in the system
-      for(ApplicationModel app : systemModel.getApplications()){
-        SortedMap<Integer,SchedulableElement> priolessElemsInApp = new TreeMap<Integer,SchedulableElement>();
-        // go through all task in the system
-        if(res instanceof Resource){
-          for(Task task : app.getTaskList().values()){
-            // if the task is mapped to this resource
-            if(task.getMappedTo() == res){
-              AbstractSchedulingParameter schedParam = task.getSchedulingParameter();
-              if(schedParam != null && schedParam instanceof SchedulingPriority){
-                usedPrios.add(((SchedulingPriority)schedParam).getPriority());
-              } else {
-                priolessElemsInApp.put(task.getElemId(),task);
-                numPriolessElems++;
-              }
-              numElems++;
-            }
+  /**
+   * Randomly assigns priorities to the tasks (on a resource) or task links (on a communication resource) without a
+   * valid priority. The free priorities are assigned in increasing order, each time to the first prioless element
+   * of a randomly picked application.
+   * @param res resource to assign priorities on
+   */
+  private void assignPriorities(AbstractResource res){
+    // applications with elements on this resource ordered by id
+    List<ApplicationModel> apps = new ArrayList<ApplicationModel>(res.getMappedApps());
+    Collections.sort(apps, APP_ID_ORDER);
+
+    int[] usedPrios = new int[16];
+    int numUsedPrios = 0;
+    int numPriolessElems = 0;
+    // prioless elements of each application ordered by element id
+    List<SchedulableElement[]> appPriolessSchedElems = new ArrayList<SchedulableElement[]>();
+
+    // init lists from the elements mapped to this resource
+    for(ApplicationModel app : apps){
+      Collection<SchedulableElement> mappedElems = res.getMappedAppSchedElems(app);
+      if(mappedElems == null || systemModel.getApplication(app.getAppId()) != app){
+        continue;
+      }
+      List<SchedulableElement> priolessElemsInApp = new ArrayList<SchedulableElement>();
+      for(SchedulableElement schedElem : mappedElems){
+        if(schedElem.getMappedTo() != res ||
+            !((schedElem instanceof Task && res instanceof Resource) ||
+              (schedElem instanceof TaskLink && res instanceof CommResource))){
+          continue;
+        }
+        AbstractSchedulingParameter schedParam = schedElem.getSchedulingParameter();
+        if(schedParam != null && schedParam instanceof SchedulingPriority){
+          if(numUsedPrios == usedPrios.length){
+            usedPrios = Arrays.copyOf(usedPrios, 2*numUsedPrios);
           }
-        } else if(res instanceof CommResource){
-          // go through all task link in the system
-          for(TaskLink taskLink : app.getTaskLinkList().values()){
-            // if the task link is mapped to this resource
-            if(taskLink.getMappedTo() == res){
-              AbstractSchedulingParameter schedParam = taskLink.getSchedulingParameter();
-              if(schedParam != null && schedParam instanceof SchedulingPriority){
-                usedPrios.add(((SchedulingPriority)schedParam).getPriority());
-              } else {
-                priolessElemsInApp.put(taskLink.getElemId(),taskLink);
-                numPriolessElems++;
-              }
-              numElems++;
-            }
+          usedPrios[numUsedPrios++] = ((SchedulingPriority)schedParam).getPriority();
+        } else {
+          priolessElemsInApp.add(schedElem);
+        }
+      }
+      if(priolessElemsInApp.size()>0){
+        SchedulableElement[] priolessElems = priolessElemsInApp.toArray(new SchedulableElement[priolessElemsInApp.size()]);
+        Arrays.sort(priolessElems, ELEM_ID_ORDER);
+        // drop elements listed more than once
+        int numElems = 1;
+        for(int i=1; i<priolessElems.length; i++){
+          if(priolessElems[i] != priolessElems[numElems-1]){
+            priolessElems[numElems++] = priolessElems[i];
           }
         }
-        if(priolessElemsInApp.size()>0){
-          appPriolessSchedElemMap.put(app.getAppId(), priolessElemsInApp);
-        }        
+        priolessElems = Arrays.copyOf(priolessElems, numElems);
+        appPriolessSchedElems.add(priolessElems);
+        numPriolessElems += numElems;
       }
+    }
 
-      // assemble list of free priorities
-      int j=1;
-      while(freePrios.size()<numPriolessElems){
-        if(!usedPrios.contains(j)){
-          freePrios.add(j);
-        }
-        j++;
+    // assemble list of free priorities
+    Arrays.sort(usedPrios, 0, numUsedPrios);
+    int[] freePrios = new int[numPriolessElems];
+    int u = 0;
+    for(int j=1, i=0; i<numPriolessElems; j++){
+      while(u<numUsedPrios && usedPrios[u]<j){
+        u++;
       }
+      if(u==numUsedPrios || usedPrios[u]!=j){
+        freePrios[i++] = j;
+      }
+    }
 
-      // assign random priority from free priority list to prioless tasks
-      while(appPriolessSchedElemMap.size()>0){
-        // create list of apps (in order to be able to pick a random element)
-        LinkedList<Integer> appList = new LinkedList<Integer>(appPriolessSchedElemMap.keySet());
-        // create random index
-        int index = appPriolessSchedElemMap.size()==1 ? 0 : rnd.nextInt(appPriolessSchedElemMap.size());
-        // get the app id of the randomly picked app
-        int assignToApp = appList.get(index);
-        // get the highest available prio
-        Integer prio = freePrios.first();
-        
-        // get the map of prioless schedulable elements of this app on this resource
-        SortedMap<Integer, SchedulableElement> thisAppPriolessSchedElems = appPriolessSchedElemMap.get(assignToApp);
-        // get the id of the first sched elem in the chain on this resource
-        Integer lastSchedElem = thisAppPriolessSchedElems.firstKey();
-        // get the according sched elem
-        SchedulableElement schedElem = thisAppPriolessSchedElems.get(lastSchedElem);
-        // set the priority
-        schedElem.setSchedulingParameter(new SchedulingPriority(prio));
-        
-        // remove the sched elem from the list of this app's prioless sched elems
-        thisAppPriolessSchedElems.remove(lastSchedElem);
-        // if the list is empty remove it from the prioless apps
-        if(thisAppPriolessSchedElems.isEmpty()){
-          appPriolessSchedElemMap.remove(assignToApp);
-        }
-        
-        // remove the prio from the list of free prios
-        freePrios.remove(prio);
+    // assign random priority from free priority list to prioless tasks
+    int[] nextElem = new int[appPriolessSchedElems.size()];
+    List<Integer> priolessApps = new ArrayList<Integer>(appPriolessSchedElems.size());
+    for(int i=0; i<appPriolessSchedElems.size(); i++){
+      priolessApps.add(i);
+    }
+    for(int prio : freePrios){
+      // create random index
+      int index = priolessApps.size()==1 ? 0 : rnd.nextInt(priolessApps.size());
+      // get the randomly picked app
+      int assignToApp = priolessApps.get(index);
+      SchedulableElement[] thisAppPriolessSchedElems = appPriolessSchedElems.get(assignToApp);
+      // set the priority of the first prioless sched elem in the chain on this resource
+      thisAppPriolessSchedElems[nextElem[assignToApp]++].setSchedulingParameter(new SchedulingPriority(prio));
+      // if all elements have a priority remove the app from the prioless apps
+      if(nextElem[assignToApp]==thisAppPriolessSchedElems.length){
+        priolessApps.remove(index);
       }
     }
   }
@@ -1,5 +1,8 @@
 package org.tubs.epoc.SMFF.SystemFactories.TimingFactories;
 
+import java.util.HashMap;
+
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
 import org.tubs.epoc.SMFF.ModelElements.SystemModel;
 import org.tubs.epoc.SMFF.SystemFactories.AbstractFactory;
 
@@ -9,6 +12,9 @@ import org.tubs.epoc.SMFF.SystemFactories.AbstractFactory;
  */
 public abstract class AbstractTimingFactory extends AbstractFactory{
   protected SystemModel systemModel;
+
+  // timing contexts of the applications for the current run of the factory
+  private HashMap<ApplicationModel, ApplicationTimingContext> timingContexts = new HashMap<ApplicationModel, ApplicationTimingContext>();
   
   /**
    * Constructor.
@@ -31,4 +37,26 @@ public abstract class AbstractTimingFactory extends AbstractFactory{
    * @return abstract timing factory data
    */
   public abstract AbstractTimingFactoryData getTimingFactoryData();
+
+  /**
+   * Returns the timing context of an application. The context is created on first request and kept until
+   * {@link #clearTimingContexts()} is called.
+   * @param app application model
+   * @return timing context of the application
+   */
+  protected ApplicationTimingContext getTimingContext(ApplicationModel app){
+    ApplicationTimingContext context = timingContexts.get(app);
+    if(context==null){
+      context = new ApplicationTimingContext(app);
+      timingContexts.put(app, context);
+    }
+    return context;
+  }
+
+  /**
+   * Discards the timing contexts of all applications. Should be called before timings are generated anew.
+   */
+  protected void clearTimingContexts(){
+    timingContexts.clear();
+  }
 }
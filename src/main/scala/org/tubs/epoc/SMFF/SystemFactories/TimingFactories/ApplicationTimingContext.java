@@ -0,0 +1,81 @@
+package org.tubs.epoc.SMFF.SystemFactories.TimingFactories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.tubs.epoc.SMFF.ModelElements.Application.ApplicationModel;
+import org.tubs.epoc.SMFF.ModelElements.Application.Task;
+
+/**
+ * Timing information of an application, shared by the steps of a timing factory while it generates the timings.
+ * <p>
+ * The source tasks and the activation period of the application are determined once instead of for every task and
+ * task link, so timing generation stays linear in the size of the application. The context does not follow later
+ * changes of the task graph.
+ *
+ * @see AbstractTimingFactory#getTimingContext(ApplicationModel)
+ */
+public class ApplicationTimingContext {
+  private ApplicationModel app;
+  // tasks without incoming task links in the order of the task list
+  private List<Task> sourceTasks;
+
+  // activation period generated for the application, null if not yet generated
+  private Integer activationPeriod;
+  // activation period of the first source task, determined on first use
+  private Integer sourcePeriod;
+
+  /**
+   * Constructor.
+   *
+   * @param app application model
+   */
+  public ApplicationTimingContext(ApplicationModel app) {
+    this.app = app;
+    this.sourceTasks = new ArrayList<Task>();
+    for (Task task : app.getTaskList().values()) {
+      if (task.getTrgLinkList().size() == 0) {
+        sourceTasks.add(task);
+      }
+    }
+  }
+
+  /**
+   * @return the application model
+   */
+  public ApplicationModel getApplication() {
+    return app;
+  }
+
+  /**
+   * @return the activation period generated for the application or null if none was generated yet
+   */
+  public Integer getActivationPeriod() {
+    return activationPeriod;
+  }
+
+  /**
+   * @param activationPeriod activation period generated for the application
+   */
+  public void setActivationPeriod(int activationPeriod) {
+    this.activationPeriod = activationPeriod;
+  }
+
+  /**
+   * Returns the activation period of the application as given by the active profile of its first source task
+   * (assuming AND activation and equal periods). It is determined on the first call, after the activation patterns are
+   * assigned.
+   *
+   * @return the activation period or <tt>Integer.MAX_VALUE</tt> if the application has no source task
+   */
+  public int getSourcePeriod() {
+    if (sourcePeriod == null) {
+      if (sourceTasks.isEmpty()) {
+        sourcePeriod = Integer.MAX_VALUE;
+      } else {
+        sourcePeriod = sourceTasks.get(0).getActiveProfile().getActivationPeriod();
+      }
+    }
+    return sourcePeriod;
+  }
+}
@@ -1,6 +1,5 @@
 package org.tubs.epoc.SMFF.SystemFactories.TimingFactories.Implementations.StdTimingFactory;
 
-import java.util.HashMap;
 import java.util.Random;
 
 import org.tubs.epoc.SMFF.ModelElements.SystemModel;
@@ -12,6 +11,7 @@ import org.tubs.epoc.SMFF.ModelElements.Application.TaskLink;
 import org.tubs.epoc.SMFF.ModelElements.Timing.EventActivation;
 import org.tubs.epoc.SMFF.ModelElements.Timing.PJActivation;
 import org.tubs.epoc.SMFF.SystemFactories.TimingFactories.AbstractTimingFactory;
+import org.tubs.epoc.SMFF.SystemFactories.TimingFactories.ApplicationTimingContext;
 
 /**
  * This timing factory scales all worst case execution times in the system so that the corresponding resource's load
@@ -23,9 +23,6 @@ public class TaskLoadTimingFactory extends AbstractTimingFactory{
   private TaskLoadTimingFactoryData timingFactoryData;
   private Random rnd;
 
-  // map for storing periods of all applications
-  private HashMap<ApplicationModel, Integer> appPeriods = new HashMap<ApplicationModel, Integer>();
-
   public TaskLoadTimingFactory(SystemModel systemModel, TaskLoadTimingFactoryData timingFactoryData){
     super(systemModel);
     this.timingFactoryData = timingFactoryData;
@@ -51,7 +48,6 @@ public class TaskLoadTimingFactory extends AbstractTimingFactory{
   private void generateActivationPattern(ApplicationModel app){
     // generate activation period for this application
     Integer activationPeriod = timingFactoryData.minActPeriod + rnd.nextInt(timingFactoryData.maxActPeriod - timingFactoryData.minActPeriod);
-    appPeriods.put(app, activationPeriod);
 
     for(Task task : app.getTaskList().values()){
       // add a profile for every task
@@ -74,6 +70,9 @@ public class TaskLoadTimingFactory extends AbstractTimingFactory{
    * @param app application model
    */
   public void generateTimings(ApplicationModel app){
+    // the source tasks and their period are only reused within this call, since the task graph and the activation
+    // patterns may have changed since an earlier call
+    ApplicationTimingContext context = new ApplicationTimingContext(app);
     for(Task task : app.getTaskList().values()){   
       // get next load
       double loadWindow = timingFactoryData.maxTaskLoad-timingFactoryData.minTaskLoad;
@@ -81,7 +80,7 @@ public class TaskLoadTimingFactory extends AbstractTimingFactory{
 
       // assign wcet and bcet
       Profile profile = task.getActiveProfile();
-      double wcet = Math.max(1.0,(double)profile.getWCET()*targetLoad/getLoad(task));
+      double wcet = Math.max(1.0,(double)profile.getWCET()*targetLoad/getLoad(task, context));
       double bcet = Math.max(1.0,wcet*timingFactoryData.bcetPercentage);
       profile.setWCET((int)wcet);
       profile.setBCET((int)bcet);
@@ -100,7 +99,7 @@ public class TaskLoadTimingFactory extends AbstractTimingFactory{
       }
       
       // assign wcet and bcet
-      double wcet = Math.max(1.0,taskLink.getWCET()*targetLoad/getLoad(taskLink));
+      double wcet = Math.max(1.0,taskLink.getWCET()*targetLoad/getLoad(taskLink, context));
       double bcet = Math.max(1.0,wcet*timingFactoryData.bcetPercentage);
       taskLink.getActiveProfile().setWCET((int)wcet);
       taskLink.getActiveProfile().setBCET((int)bcet);
@@ -113,19 +112,12 @@ public class TaskLoadTimingFactory extends AbstractTimingFactory{
    * Load is defined as <tt>wcet/period</tt>, where  wcet: worst case execution time,
    * and bcet: best case execution time.
    * @param schedElem schedulable element
+   * @param context timing context of the application of the schedulable element
    * @return load of this schedulable element
    */
-  private double getLoad(SchedulableElement schedElem){
-    int actPeriod = Integer.MAX_VALUE;
-
-    ApplicationModel app = systemModel.getApplication(schedElem.getAppId());
+  private double getLoad(SchedulableElement schedElem, ApplicationTimingContext context){
     // get activation period for this application (assuming AND activation and equal periods)
-    for(Task task : app.getTaskList().values()){
-      if(task.getTrgLinkList().size()==0){
-        actPeriod = task.getActiveProfile().getActivationPeriod();
-        break;
-      }
-    }
+    int actPeriod = context.getSourcePeriod();
 
     // get load of this task
     if(schedElem instanceof Task){
@@ -0,0 +1,231 @@
+package org.tubs.epoc.SMFF.SystemFactories.TimingFactories.Implementations.UUniFast;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples utilization vectors, i.e. <tt>n</tt> task utilizations which sum up to a given total utilization.
+ * <p>
+ * The following algorithms are available:
+ * <ul>
+ * <li>UUniFast as presented in Bini, E. & Buttazzo, G. Measuring the Performance of Schedulability Tests Real-Time
+ * Syst., 2005, 30, 129-154. The total utilization may not exceed 1 per task.</li>
+ * <li>UUniFast-Discard as presented in Davis, R. & Burns, A. Priority Assignment for Global Fixed Priority Pre-Emptive
+ * Scheduling in Multiprocessor Real-Time Systems, RTSS 2009. Vectors in which a utilization exceeds the given maximum
+ * are discarded, which allows total utilizations above 1 (e.g. for multiple resources). It becomes slow if the total
+ * utilization approaches <tt>n</tt> times the maximum.</li>
+ * <li>Randfixedsum by Roger Stafford as applied in Emberson, P.; Stafford, R. & Davis, R. Techniques For The Synthesis
+ * Of Multiprocessor Tasksets, WATERS 2010. Samples uniformly from all vectors with utilizations in a given interval and
+ * does not discard.</li>
+ * </ul>
+ * Each algorithm samples single vectors or many vectors in one call. The latter return all vectors in one array, vector
+ * <tt>i</tt> being stored at the indices <tt>i*n</tt> to <tt>i*n+n-1</tt>.
+ * <p>
+ * All random numbers are drawn from the random number generator passed to the constructor, so results are reproducible
+ * for a given seed.
+ */
+public class UUniFast {
+  // number of vectors UUniFast-Discard draws for one result before giving up
+  private static final int MAX_DISCARDS = 100000;
+
+  private Random rnd;
+
+  /**
+   * Creates an instance of this class.
+   * @param rnd random number generator to draw from
+   */
+  public UUniFast(Random rnd){
+    this.rnd = rnd;
+  }
+
+  /**
+   * Samples a utilization vector with UUniFast.
+   * @param n number of utilizations
+   * @param u total utilization
+   * @return the utilizations
+   */
+  public double[] uunifast(int n, double u){
+    return uunifast(1, n, u);
+  }
+
+  /**
+   * Samples several utilization vectors with UUniFast.
+   * @param numSets number of vectors
+   * @param n number of utilizations per vector
+   * @param u total utilization of each vector
+   * @return the utilizations of all vectors
+   */
+  public double[] uunifast(int numSets, int n, double u){
+    checkSize(numSets, n);
+    double[] utils = new double[numSets*n];
+    for(int i=0; i<numSets; i++){
+      sampleUUniFast(utils, i*n, n, u);
+    }
+    return utils;
+  }
+
+  /**
+   * Samples a utilization vector with UUniFast-Discard.
+   * @param n number of utilizations
+   * @param u total utilization
+   * @param maxU maximum utilization of a single element
+   * @return the utilizations
+   */
+  public double[] uunifastDiscard(int n, double u, double maxU){
+    return uunifastDiscard(1, n, u, maxU);
+  }
+
+  /**
+   * Samples several utilization vectors with UUniFast-Discard.
+   * @param numSets number of vectors
+   * @param n number of utilizations per vector
+   * @param u total utilization of each vector
+   * @param maxU maximum utilization of a single element
+   * @return the utilizations of all vectors
+   * @throws IllegalStateException if no valid vector was found within a large number of samples
+   */
+  public double[] uunifastDiscard(int numSets, int n, double u, double maxU){
+    checkSize(numSets, n);
+    if(n>0 && u>n*maxU) throw new IllegalArgumentException("total utilization " + u + " exceeds " + n + " times the maximum utilization " + maxU);
+
+    double[] utils = new double[numSets*n];
+    for(int i=0; i<numSets; i++){
+      int attempts = 0;
+      do{
+        if(++attempts>MAX_DISCARDS){
+          throw new IllegalStateException("UUniFast-Discard found no utilization vector below " + maxU + " after " + MAX_DISCARDS + " attempts, use randfixedsum instead");
+        }
+        sampleUUniFast(utils, i*n, n, u);
+      } while(exceeds(utils, i*n, n, maxU));
+    }
+    return utils;
+  }
+
+  /**
+   * Samples a utilization vector with randfixedsum.
+   * @param n number of utilizations
+   * @param u total utilization
+   * @param minU minimum utilization of a single element
+   * @param maxU maximum utilization of a single element
+   * @return the utilizations
+   */
+  public double[] randFixedSum(int n, double u, double minU, double maxU){
+    return randFixedSum(1, n, u, minU, maxU);
+  }
+
+  /**
+   * Samples several utilization vectors with randfixedsum. The transition table of the algorithm is computed once for
+   * all vectors.
+   * @param numSets number of vectors
+   * @param n number of utilizations per vector
+   * @param u total utilization of each vector
+   * @param minU minimum utilization of a single element
+   * @param maxU maximum utilization of a single element
+   * @return the utilizations of all vectors
+   */
+  public double[] randFixedSum(int numSets, int n, double u, double minU, double maxU){
+    checkSize(numSets, n);
+    if(minU>maxU) throw new IllegalArgumentException("minU is greater than maxU");
+    if(n>0 && (u<n*minU || u>n*maxU)) throw new IllegalArgumentException("total utilization " + u + " is not within [" + n*minU + ", " + n*maxU + "]");
+
+    double[] utils = new double[numSets*n];
+    if(minU==maxU){
+      Arrays.fill(utils, minU);
+    } else if(n>0){
+      RandFixedSumTable table = new RandFixedSumTable(n, (u-n*minU)/(maxU-minU));
+      for(int i=0; i<numSets; i++){
+        table.sample(utils, i*n, minU, maxU);
+      }
+    }
+    return utils;
+  }
+
+  /**
+   * UUniFast for a single vector.
+   */
+  private void sampleUUniFast(double[] utils, int off, int n, double u){
+    if(n==0) return;
+    double sumU = u;
+    for(int i=1; i<=n-1; i++){
+      double nextSumU = sumU*Math.pow(rnd.nextDouble(),(1.0/(double)(n-i)));
+      utils[off+i-1] = sumU-nextSumU;
+      sumU = nextSumU;
+    }
+    utils[off+n-1] = sumU;
+  }
+
+  private static boolean exceeds(double[] utils, int off, int n, double maxU){
+    for(int i=off; i<off+n; i++){
+      if(utils[i]>maxU) return true;
+    }
+    return false;
+  }
+
+  private static void checkSize(int numSets, int n){
+    if(numSets<0) throw new IllegalArgumentException("numSets is negative");
+    if(n<0) throw new IllegalArgumentException("n is negative");
+  }
+
+  /**
+   * Transition table of randfixedsum for <tt>n</tt> values in the unit cube summing up to <tt>s</tt>. Arrays are
+   * indexed from 1 as in the original formulation.
+   */
+  private class RandFixedSumTable {
+    private int n;
+    private int k;
+    private double s;
+    private double[][] t;
+
+    private RandFixedSumTable(int n, double s){
+      this.n = n;
+      this.k = (int) Math.max(Math.min(Math.floor(s), n-1), 0);
+      this.s = Math.max(Math.min(s, k+1), k);
+
+      double[] s1 = new double[n+1];
+      double[] s2 = new double[n+1];
+      for(int i=1; i<=n; i++){
+        s1[i] = this.s-(k-i+1);
+        s2[i] = (k+n-i+1)-this.s;
+      }
+
+      // w is scaled to the full double range, t holds the probabilities of the transitions
+      double[][] w = new double[n+1][n+2];
+      w[1][2] = Double.MAX_VALUE;
+      t = new double[n][n+1];
+      for(int i=2; i<=n; i++){
+        for(int c=1; c<=i; c++){
+          double tmp1 = w[i-1][c+1]*s1[c]/i;
+          double tmp2 = w[i-1][c]*s2[n-i+c]/i;
+          w[i][c+1] = tmp1+tmp2;
+          double tmp3 = w[i][c+1]+Double.MIN_VALUE;
+          t[i-1][c] = s2[n-i+c]>s1[c] ? tmp2/tmp3 : 1-tmp1/tmp3;
+        }
+      }
+    }
+
+    private void sample(double[] utils, int off, double minU, double maxU){
+      double s = this.s;
+      int j = k+1;
+      double sm = 0;
+      double pr = 1;
+      for(int i=n-1; i>=1; i--){
+        int e = rnd.nextDouble()<=t[i][j] ? 1 : 0;
+        double sx = Math.pow(rnd.nextDouble(), 1.0/i);
+        sm += (1-sx)*pr*s/(i+1);
+        pr *= sx;
+        utils[off+n-i-1] = sm+pr*e;
+        s -= e;
+        j -= e;
+      }
+      utils[off+n-1] = sm+pr*s;
+
+      // random permutation and scaling to [minU, maxU]
+      for(int i=n-1; i>=0; i--){
+        int r = rnd.nextInt(i+1);
+        double tmp = utils[off+r];
+        utils[off+r] = utils[off+i];
+        utils[off+i] = minU+(maxU-minU)*tmp;
+      }
+    }
+  }
+}
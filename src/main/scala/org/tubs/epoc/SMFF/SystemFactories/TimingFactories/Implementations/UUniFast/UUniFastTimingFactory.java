@@ -1,7 +1,6 @@
 package org.tubs.epoc.SMFF.SystemFactories.TimingFactories.Implementations.UUniFast;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
 
@@ -31,9 +30,7 @@ import org.tubs.epoc.SMFF.SystemFactories.TimingFactories.AbstractTimingFactory;
 public class UUniFastTimingFactory extends AbstractTimingFactory{  
   UUniFastTimingFactoryData timingFactoryData;
   private Random rnd;
-
-  // map for storing periods of all applications
-  private HashMap<ApplicationModel, Integer> appPeriods = new HashMap<ApplicationModel, Integer>();
+  private UUniFast uunifast;
 
   /**
    * Creates an instance of this class.
@@ -50,6 +47,7 @@ public class UUniFastTimingFactory extends AbstractTimingFactory{
    * Creates new timings for all applications in the system.
    */
   public void generateTimings() {    
+    clearTimingContexts();
     // generate activation patterns for all applications
     for(ApplicationModel app : systemModel.getApplications()){
       this.generateActivationPattern(app);
@@ -57,8 +55,9 @@ public class UUniFastTimingFactory extends AbstractTimingFactory{
 
     // generate task utilizations
     for(AbstractResource res : systemModel.getAllRes()){
-      HashMap<SchedulableElement,Double> taskUs = generateTaskUs(res);
-      generateTaskWCETs(taskUs);
+      List<SchedulableElement> schedElemList = getSchedElems(res);
+      double[] taskUs = generateTaskUs(schedElemList.size());
+      generateTaskWCETs(schedElemList, taskUs);
     }
   }
 
@@ -69,7 +68,7 @@ public class UUniFastTimingFactory extends AbstractTimingFactory{
   private void generateActivationPattern(ApplicationModel app){
     // generate activation period for this application
     Integer activationPeriod = timingFactoryData.minActPeriod + rnd.nextInt(timingFactoryData.maxActPeriod - timingFactoryData.minActPeriod);
-    appPeriods.put(app, activationPeriod);
+    getTimingContext(app).setActivationPeriod(activationPeriod);
 
 
     for(Task task : app.getTaskList().values()){
@@ -89,17 +88,15 @@ public class UUniFastTimingFactory extends AbstractTimingFactory{
   }
 
   /**
-   * Generates task utilizations for a given resource
-   * this is essentially the UUniFast algorithm by Bini.
+   * Assembles the schedulable elements on a resource whose utilizations are generated, i.e. tasks on computational
+   * resources and task links on communication resources.
    * @param res abstract resource
-   * @return the utilization values of schedulable elements as a hash map
+   * @return the schedulable elements
    */
-  private HashMap<SchedulableElement,Double> generateTaskUs(AbstractResource res){
+  private List<SchedulableElement> getSchedElems(AbstractResource res){
     List<SchedulableElement> schedElemList = new ArrayList<SchedulableElement>();
-    HashMap<SchedulableElement,Double> utilizations = new HashMap<SchedulableElement,Double>();
-    Double overallUtil = timingFactoryData.minResU + rnd.nextDouble()*(timingFactoryData.maxResU-timingFactoryData.minResU);
 
-    // assemble list of all schedulable elements (iterating because of local task links)
+    // iterating because of local task links
     for(SchedulableElement schedElem : res.getMappedSchedElems()){
       if((schedElem instanceof Task     && res instanceof Resource) ||
           (schedElem instanceof TaskLink && res instanceof CommResource)){
@@ -109,28 +106,27 @@ public class UUniFastTimingFactory extends AbstractTimingFactory{
         schedElem.addProfile(new Profile(0, 0, new EventActivation()));
       }
     }
+    return schedElemList;
+  }
 
-    int n = schedElemList.size();
-    if(n>0){
-      // algorithm by Bini
-      Double sumU = overallUtil;
-      for(int i=1; i<=n-1; i++){
-        Double nextSumU = sumU*Math.pow(rnd.nextDouble(),(1.0/(double)(n-i)));
-        utilizations.put(schedElemList.get(i-1), sumU-nextSumU);
-        sumU = nextSumU;
-      }
-      utilizations.put(schedElemList.get(n-1), sumU);
-    }
-
-    return utilizations;
+  /**
+   * Generates task utilizations for a resource with UUniFast.
+   * @param n number of schedulable elements on the resource
+   * @return the utilization values of the schedulable elements
+   */
+  private double[] generateTaskUs(int n){
+    double overallUtil = timingFactoryData.minResU + rnd.nextDouble()*(timingFactoryData.maxResU-timingFactoryData.minResU);
+    return uunifast.uunifast(n, overallUtil);
   }
 
   /**
    * Generates worst case execution times based on periods and utilization vector.
-   * @param utilizations hashmap of utilization values of schedulable elements (mapped by schedulable elements as key)
+   * @param schedElemList schedulable elements
+   * @param utilizations utilization values of the schedulable elements in the same order
    */
-  private void generateTaskWCETs(HashMap<SchedulableElement,Double> utilizations){
-    for(SchedulableElement schedElem : utilizations.keySet()){
+  private void generateTaskWCETs(List<SchedulableElement> schedElemList, double[] utilizations){
+    for(int i=0; i<schedElemList.size(); i++){
+      SchedulableElement schedElem = schedElemList.get(i);
       // ensure that each task/tasklink has a profile
       if(schedElem.getProfileList().isEmpty()){
         Profile emptyProfile = new Profile(0, Integer.MAX_VALUE, null);
@@ -140,8 +136,8 @@ public class UUniFastTimingFactory extends AbstractTimingFactory{
       }
       
       ApplicationModel app = schedElem.getApplication();
-      Integer period = appPeriods.get(app);
-      Integer wcet = (int) Math.round((double) period*utilizations.get(schedElem));
+      Integer period = getTimingContext(app).getActivationPeriod();
+      Integer wcet = (int) Math.round((double) period*utilizations[i]);
       wcet = Math.max(wcet, 1);
       Integer bcet = (int) ((double) wcet*timingFactoryData.bcetPercentage);
       bcet = Math.max(bcet, 1);
@@ -164,5 +160,6 @@ public class UUniFastTimingFactory extends AbstractTimingFactory{
    */
   public void recreateRndGens() {
     rnd = new Random(timingFactoryData.getSeed());
+    uunifast = new UUniFast(rnd);
   }
 }
@@ -112,6 +112,22 @@ public class Hashing {
 		return APP_ID + appId + SRC_TASK_ID + srcTaskId + TRG_TASK_ID + trgTaskId;
 	}
 
+	/**
+	 * Constructs a primitive task link key from the passed source task id and target task id.
+	 *
+	 * In contrast to {@link #getTaskLinkHash(int, int, int)} the key does not contain the application id. It is meant
+	 * for indexes within one application and can be looked up in a {@link LongHashMap} without creating objects.
+	 *
+	 * @param srcTaskId
+	 *          source task id (upper 32 bits of the key).
+	 * @param trgTaskId
+	 *          target task id (lower 32 bits of the key).
+	 * @return the task link key created from the source task id and target task id.
+	 */
+	public static long getTaskLinkKey(int srcTaskId, int trgTaskId) {
+		return ((long) srcTaskId << 32) | (trgTaskId & 0xFFFFFFFFL);
+	}
+
 	/**
 	 * Constructs a task link hash id from the passed parameter <tt>taskLink</tt>.
 	 * 
@@ -0,0 +1,208 @@
+package org.tubs.epoc.SMFF.Utility;
+
+import java.util.Arrays;
+
+/**
+ * Hash map with primitive <tt>long</tt> keys. It is used as index next to the String keyed tables of the model elements,
+ * see {@link Hashing#getTaskLinkKey(int, int)}.
+ * <p>
+ * Entries are stored with open addressing (linear probing) in two parallel arrays, so neither lookups nor updates of
+ * existing keys create objects. <tt>null</tt> values are not supported. The map is not synchronized.
+ *
+ * @param <V>
+ *          type of the values
+ */
+public class LongHashMap<V> implements Cloneable {
+  private static final int MIN_CAPACITY = 8;
+
+  private long[] keys;
+  private Object[] values; // null marks a free slot
+  private int size;
+
+  /**
+   * Constructs an empty map.
+   */
+  public LongHashMap() {
+    this(MIN_CAPACITY / 2);
+  }
+
+  /**
+   * Constructs an empty map that holds <tt>expectedSize</tt> entries without growing.
+   *
+   * @param expectedSize
+   *          number of entries expected
+   */
+  public LongHashMap(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < 2 * expectedSize) {
+      capacity <<= 1;
+    }
+    keys = new long[capacity];
+    values = new Object[capacity];
+  }
+
+  /**
+   * Returns the value stored for the key.
+   *
+   * @param key
+   *          key to look up
+   * @return the value or <tt>null</tt> if the map does not contain the key
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int mask = keys.length - 1;
+    for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        return (V) values[i];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks whether the map contains the key.
+   *
+   * @param key
+   *          key to look up
+   * @return true if a value is stored for the key
+   */
+  public boolean containsKey(long key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Stores the value for the key and replaces a value stored before.
+   *
+   * @param key
+   *          key of the entry
+   * @param value
+   *          value of the entry, must not be null
+   * @return the value stored before or <tt>null</tt>
+   * @throws NullPointerException
+   *           if <tt>value</tt> is null
+   */
+  @SuppressWarnings("unchecked")
+  public V put(long key, V value) {
+    if (value == null) throw new NullPointerException("null values are not supported");
+
+    int mask = keys.length - 1;
+    int i = slot(key, mask);
+    for (; values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        V old = (V) values[i];
+        values[i] = value;
+        return old;
+      }
+    }
+    keys[i] = key;
+    values[i] = value;
+    size++;
+    // keep the load factor at or below one half
+    if (2 * size > keys.length) {
+      resize(2 * keys.length);
+    }
+    return null;
+  }
+
+  /**
+   * Removes the entry of the key.
+   *
+   * @param key
+   *          key of the entry
+   * @return the removed value or <tt>null</tt> if the map does not contain the key
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    int mask = keys.length - 1;
+    int i = slot(key, mask);
+    for (; values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        break;
+      }
+    }
+    if (values[i] == null) {
+      return null;
+    }
+    V old = (V) values[i];
+    values[i] = null;
+    size--;
+
+    // shift following entries of the probe sequence back into the free slot
+    int free = i;
+    for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+      int home = slot(keys[j], mask);
+      boolean reachable = free <= j ? (free < home && home <= j) : (free < home || home <= j);
+      if (!reachable) {
+        keys[free] = keys[j];
+        values[free] = values[j];
+        values[j] = null;
+        free = j;
+      }
+    }
+    return old;
+  }
+
+  /**
+   * @return number of entries in this map
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return true if this map has no entries
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all entries.
+   */
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  /**
+   * Creates a shallow copy of this map, the values themselves are not cloned.
+   *
+   * @return the copy
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public LongHashMap<V> clone() {
+    try {
+      LongHashMap<V> clone = (LongHashMap<V>) super.clone();
+      clone.keys = keys.clone();
+      clone.values = values.clone();
+      return clone;
+    } catch (CloneNotSupportedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new long[capacity];
+    values = new Object[capacity];
+    int mask = capacity - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldValues[j] != null) {
+        int i = slot(oldKeys[j], mask);
+        while (values[i] != null) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  private static int slot(long key, int mask) {
+    // spread the bits of small consecutive ids over the table
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+}